@@ -23,10 +23,12 @@ import java.awt.Font;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Locale;
 import java.util.ResourceBundle;
+import javax.management.JMException;
 import javax.swing.BorderFactory;
 import javax.swing.JApplet;
 import javax.swing.JComponent;
@@ -34,6 +36,7 @@ import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JTabbedPane;
 import javax.swing.UIManager;
+import net.footballpredictions.footballstats.metrics.MetricRegistry;
 import net.footballpredictions.footballstats.swing.DataSelector;
 import net.footballpredictions.footballstats.swing.LeagueTablePanel;
 import net.footballpredictions.footballstats.swing.ResultsPanel;
@@ -79,6 +82,7 @@ public final class FootballStatsApplet extends JApplet
     public void init()
     {
         System.out.println("Initialising applet...");
+        registerMetrics();
 
         try
         {
@@ -129,6 +133,27 @@ public final class FootballStatsApplet extends JApplet
     }
 
 
+    /**
+     * Makes performance metrics available to JMX tools such as JConsole, if permitted.
+     */
+    private void registerMetrics()
+    {
+        try
+        {
+            MetricRegistry.getInstance().registerMBeans(ManagementFactory.getPlatformMBeanServer(),
+                                                        "net.footballpredictions.footballstats");
+        }
+        catch (SecurityException ex)
+        {
+            // Unsigned applets are not allowed to register MBeans.
+        }
+        catch (JMException ex)
+        {
+            // Metrics may already be registered if the applet has been re-loaded.
+        }
+    }
+
+
     private JComponent createTopBar()
     {
         JPanel topBar = new JPanel(new BorderLayout());
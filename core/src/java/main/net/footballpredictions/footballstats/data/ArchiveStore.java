@@ -0,0 +1,354 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.data;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import net.footballpredictions.footballstats.model.LeagueMetaData;
+import net.footballpredictions.footballstats.model.LeagueSeason;
+import net.footballpredictions.footballstats.model.Result;
+import net.footballpredictions.footballstats.util.PositionHistory;
+
+/**
+ * Stores any number of seasons outside of the Java heap, either in a direct buffer or in
+ * a memory-mapped file, so that a long-running process can keep an entire archive of
+ * leagues and seasons resident without the garbage collector having to trace it.  Each
+ * season is accessed through a {@link StoredSeason}, a small handle that reads results,
+ * league positions and cumulative team statistics directly from the buffer.
+ *
+ * <p>The league positions and statistics for every team after every match date are
+ * calculated once, when the store is created, by loading each season as a
+ * {@link LeagueSeason}.  The fully-featured model for any stored season can be recreated
+ * at any time because {@link StoredSeason} is also a {@link LeagueDataProvider}.</p>
+ * @author Daniel Dyer
+ */
+public final class ArchiveStore
+{
+    private static final int MAGIC = 0x46534131; // "FSA1"
+    private static final int VERSION = 3;
+
+    private final ByteBuffer buffer;
+    private final Map<String, StoredSeason> seasons = new LinkedHashMap<String, StoredSeason>();
+
+
+    private ArchiveStore(ByteBuffer buffer) throws IOException
+    {
+        this.buffer = buffer;
+        if (buffer.limit() < 12 || buffer.getInt(0) != MAGIC)
+        {
+            throw new IOException("Not a season archive.");
+        }
+        if (buffer.getInt(4) != VERSION)
+        {
+            throw new IOException("Unsupported archive version: " + buffer.getInt(4));
+        }
+        int seasonCount = buffer.getInt(8);
+        int offset = 12;
+        for (int i = 0; i < seasonCount; i++)
+        {
+            StoredSeason season = new StoredSeason(buffer, offset);
+            seasons.put(season.getLabel(), season);
+            offset = season.getEndOffset();
+        }
+    }
+
+
+    /**
+     * Creates a store in a direct (off-heap) buffer.
+     * @param seasons The seasons to store, keyed on a label that identifies each one
+     * (for example "england/premier/2008-2009").
+     * @return A store containing all of the specified seasons.
+     * @throws IllegalArgumentException If a season has too many teams, or a match too
+     * many goals, to be stored.
+     */
+    public static ArchiveStore createDirect(Map<String, ? extends LeagueDataProvider> seasons)
+    {
+        byte[] data = encode(seasons);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(data.length);
+        buffer.put(data);
+        buffer.flip();
+        try
+        {
+            return new ArchiveStore(buffer);
+        }
+        catch (IOException ex)
+        {
+            // Can't happen, the data has just been encoded.
+            throw new IllegalStateException(ex);
+        }
+    }
+
+
+    /**
+     * Creates a store in a memory-mapped file.  The file can later be re-opened with
+     * {@link #open(File)} without re-reading the original data.
+     * @param seasons The seasons to store, keyed on a label that identifies each one.
+     * @param file The file to write.  Any existing file is replaced.
+     * @return A store containing all of the specified seasons.
+     * @throws IOException If the file cannot be written.
+     * @throws IllegalArgumentException If a season has too many teams, or a match too
+     * many goals, to be stored.
+     */
+    public static ArchiveStore createMapped(Map<String, ? extends LeagueDataProvider> seasons,
+                                            File file) throws IOException
+    {
+        FileOutputStream output = new FileOutputStream(file);
+        try
+        {
+            output.write(encode(seasons));
+        }
+        finally
+        {
+            output.close();
+        }
+        return open(file);
+    }
+
+
+    /**
+     * Maps a file previously written by {@link #createMapped(Map, File)}.
+     * @param file The archive file.
+     * @return A store backed by the file.
+     * @throws IOException If the file cannot be read or is not a valid archive.
+     */
+    public static ArchiveStore open(File file) throws IOException
+    {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try
+        {
+            FileChannel channel = randomAccessFile.getChannel();
+            // The mapping remains valid after the channel is closed.
+            return new ArchiveStore(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+        finally
+        {
+            randomAccessFile.close();
+        }
+    }
+
+
+    /**
+     * @return The labels of all stored seasons, in the order that they were stored.
+     */
+    public Set<String> getLabels()
+    {
+        return Collections.unmodifiableSet(seasons.keySet());
+    }
+
+
+    /**
+     * @param label The label of a stored season.
+     * @return The stored season, or null if there is no season with that label.
+     */
+    public StoredSeason getSeason(String label)
+    {
+        return seasons.get(label);
+    }
+
+
+    /**
+     * @return The number of bytes of off-heap storage used.
+     */
+    public int getSize()
+    {
+        return buffer.limit();
+    }
+
+
+    private static byte[] encode(Map<String, ? extends LeagueDataProvider> seasons)
+    {
+        try
+        {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream output = new DataOutputStream(bytes);
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(seasons.size());
+            for (Map.Entry<String, ? extends LeagueDataProvider> entry : seasons.entrySet())
+            {
+                encodeSeason(output, entry.getKey(), entry.getValue());
+            }
+            output.flush();
+            return bytes.toByteArray();
+        }
+        catch (IOException ex)
+        {
+            // Can't happen when writing to memory.
+            throw new IllegalStateException(ex);
+        }
+    }
+
+
+    /**
+     * Writes a season in the layout described in {@link StoredSeason}.
+     */
+    private static void encodeSeason(DataOutputStream output,
+                                     String label,
+                                     LeagueDataProvider provider) throws IOException
+    {
+        LeagueSeason season = new LeagueSeason(provider);
+        LeagueMetaData metaData = provider.getLeagueMetaData();
+        List<String> teams = new ArrayList<String>(season.getTeamNames());
+        Map<String, Integer> teamIndices = new HashMap<String, Integer>();
+        for (String team : teams)
+        {
+            teamIndices.put(team, teamIndices.size());
+        }
+
+        writeString(output, label);
+        output.writeInt(metaData.getPointsForWin());
+        output.writeInt(metaData.getPointsForDraw());
+        output.writeInt(metaData.getSplit());
+        output.writeInt(teams.size());
+        for (String team : teams)
+        {
+            writeString(output, team);
+        }
+        for (String team : teams)
+        {
+            Integer adjustment = provider.getPointsAdjustments().get(team);
+            output.writeInt(adjustment == null ? 0 : adjustment);
+        }
+        for (int position = 1; position <= teams.size(); position++)
+        {
+            output.writeInt(metaData.getZoneForPosition(position));
+        }
+        writeStrings(output, metaData.getPrizeZoneNames());
+        writeStrings(output, metaData.getRelegationZoneNames());
+        output.writeInt(metaData.isHeadToHead() ? 1 : 0);
+        output.writeInt(metaData.getMiniLeagues().size());
+        for (Map.Entry<String, List<String>> miniLeague : metaData.getMiniLeagues().entrySet())
+        {
+            writeString(output, miniLeague.getKey());
+            writeStrings(output, miniLeague.getValue().toArray(new String[miniLeague.getValue().size()]));
+        }
+
+        output.writeInt(season.getResults().size());
+        output.writeInt(season.getDateCount());
+        for (Result result : season.getResults())
+        {
+            output.writeInt(result.getDate());
+            writeUnsignedShort(output, teamIndices.get(result.getHomeTeam()), "Team index");
+            writeUnsignedShort(output, teamIndices.get(result.getAwayTeam()), "Team index");
+            writeUnsignedShort(output, result.getHomeGoals(), "Goals");
+            writeUnsignedShort(output, result.getAwayGoals(), "Goals");
+            output.writeInt(result.getAttendance());
+        }
+        for (int i = 0; i < season.getDateCount(); i++)
+        {
+            output.writeInt(season.getDate(i));
+        }
+        int offset = 0;
+        for (int i = 0; i < season.getDateCount(); i++)
+        {
+            output.writeInt(offset);
+            offset += season.getResults(i).size();
+        }
+        output.writeInt(offset);
+
+        // Standings after each date: position, won, drawn, lost, scored, conceded.
+        int[][] totals = new int[teams.size()][5];
+        PositionHistory[] positions = new PositionHistory[teams.size()];
+        for (int team = 0; team < teams.size(); team++)
+        {
+            positions[team] = season.getTeam(teams.get(team)).getLeaguePositions();
+        }
+        for (int i = 0; i < season.getDateCount(); i++)
+        {
+            for (Result result : season.getResults(i))
+            {
+                addResult(totals[teamIndices.get(result.getHomeTeam())], result.getHomeGoals(), result.getAwayGoals());
+                addResult(totals[teamIndices.get(result.getAwayTeam())], result.getAwayGoals(), result.getHomeGoals());
+            }
+            for (int team = 0; team < teams.size(); team++)
+            {
+                output.writeInt(positions[team].get(i));
+                for (int value : totals[team])
+                {
+                    output.writeInt(value);
+                }
+            }
+        }
+    }
+
+
+    private static void addResult(int[] totals, int goalsFor, int goalsAgainst)
+    {
+        if (goalsFor > goalsAgainst)
+        {
+            ++totals[0];
+        }
+        else if (goalsFor == goalsAgainst)
+        {
+            ++totals[1];
+        }
+        else
+        {
+            ++totals[2];
+        }
+        totals[3] += goalsFor;
+        totals[4] += goalsAgainst;
+    }
+
+
+    private static void writeStrings(DataOutputStream output, String[] values) throws IOException
+    {
+        output.writeInt(values.length);
+        for (String value : values)
+        {
+            writeString(output, value);
+        }
+    }
+
+
+    private static void writeString(DataOutputStream output, String value) throws IOException
+    {
+        writeUnsignedShort(output, value.length(), "String length");
+        output.writeChars(value);
+    }
+
+
+    /**
+     * Writes a value that is read back as an unsigned 16-bit number.
+     * @param description What the value is, for the error message.
+     * @throws IllegalArgumentException If the value does not fit in 16 bits.
+     */
+    private static void writeUnsignedShort(DataOutputStream output,
+                                           int value,
+                                           String description) throws IOException
+    {
+        if (value < 0 || value > 0xFFFF)
+        {
+            throw new IllegalArgumentException(description + " is too big to store: " + value);
+        }
+        output.writeShort(value);
+    }
+}
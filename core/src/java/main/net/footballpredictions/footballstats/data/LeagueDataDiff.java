@@ -0,0 +1,339 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import net.footballpredictions.footballstats.model.LeagueMetaData;
+import net.footballpredictions.footballstats.model.Result;
+
+/**
+ * The differences between two versions of the data for a season, for example before and
+ * after a data file has been corrected.  Results are matched on their date and teams, so
+ * a corrected score or attendance is reported as a modification, but a match that has
+ * been moved to a different date is reported as the removal of the old result and the
+ * addition of the new one.  Changes to the league rules, zones or the set of teams are
+ * not itemised, they are structural changes that require the season to be re-built.
+ * Mini-league definitions are not compared since they don't affect the season itself.
+ * @author Daniel Dyer
+ */
+public final class LeagueDataDiff
+{
+    private final LeagueDataProvider newData;
+    private final boolean structuralChange;
+    private final List<ResultChange> resultChanges = new ArrayList<ResultChange>();
+    private final List<AdjustmentChange> adjustmentChanges = new ArrayList<AdjustmentChange>();
+
+
+    /**
+     * @param oldData The data that a season was built from.
+     * @param newData The updated data.
+     */
+    public LeagueDataDiff(LeagueDataProvider oldData, LeagueDataProvider newData)
+    {
+        this.newData = newData;
+        this.structuralChange = !oldData.getTeams().equals(newData.getTeams())
+                                || !sameMetaData(oldData.getLeagueMetaData(),
+                                                 newData.getLeagueMetaData(),
+                                                 newData.getTeams().size());
+        diffResults(oldData.getResults(), newData.getResults());
+        diffAdjustments(oldData.getPointsAdjustments(), newData.getPointsAdjustments());
+    }
+
+
+    private static boolean sameMetaData(LeagueMetaData oldMetaData, LeagueMetaData newMetaData, int teamCount)
+    {
+        if (oldMetaData.getPointsForWin() != newMetaData.getPointsForWin()
+            || oldMetaData.getPointsForDraw() != newMetaData.getPointsForDraw()
+            || oldMetaData.getSplit() != newMetaData.getSplit()
+            || oldMetaData.isHeadToHead() != newMetaData.isHeadToHead()
+            || !Arrays.equals(oldMetaData.getPrizeZoneNames(), newMetaData.getPrizeZoneNames())
+            || !Arrays.equals(oldMetaData.getRelegationZoneNames(), newMetaData.getRelegationZoneNames()))
+        {
+            return false;
+        }
+        for (int position = 1; position <= teamCount; position++)
+        {
+            if (oldMetaData.getZoneForPosition(position) != newMetaData.getZoneForPosition(position))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    private void diffResults(List<Result> oldResults, List<Result> newResults)
+    {
+        Map<FixtureKey, List<Result>> unmatched = new HashMap<FixtureKey, List<Result>>();
+        for (Result result : oldResults)
+        {
+            FixtureKey key = new FixtureKey(result);
+            List<Result> fixtureResults = unmatched.get(key);
+            if (fixtureResults == null)
+            {
+                fixtureResults = new LinkedList<Result>();
+                unmatched.put(key, fixtureResults);
+            }
+            fixtureResults.add(result);
+        }
+
+        for (Result result : newResults)
+        {
+            List<Result> fixtureResults = unmatched.get(new FixtureKey(result));
+            if (fixtureResults == null || fixtureResults.isEmpty())
+            {
+                resultChanges.add(new ResultChange(ChangeType.ADDED, null, result));
+            }
+            else
+            {
+                Result oldResult = fixtureResults.remove(0);
+                if (oldResult.getHomeGoals() != result.getHomeGoals()
+                    || oldResult.getAwayGoals() != result.getAwayGoals()
+                    || oldResult.getAttendance() != result.getAttendance())
+                {
+                    resultChanges.add(new ResultChange(ChangeType.MODIFIED, oldResult, result));
+                }
+            }
+        }
+
+        // Anything left over has been removed.  Report removals in the original order.
+        for (Result result : oldResults)
+        {
+            List<Result> fixtureResults = unmatched.get(new FixtureKey(result));
+            if (fixtureResults.remove(result))
+            {
+                resultChanges.add(new ResultChange(ChangeType.REMOVED, result, null));
+            }
+        }
+    }
+
+
+    private void diffAdjustments(Map<String, Integer> oldAdjustments, Map<String, Integer> newAdjustments)
+    {
+        Set<String> teams = new HashSet<String>(oldAdjustments.keySet());
+        teams.addAll(newAdjustments.keySet());
+        for (String team : teams)
+        {
+            Integer oldAdjustment = oldAdjustments.get(team);
+            Integer newAdjustment = newAdjustments.get(team);
+            if (oldAdjustment == null)
+            {
+                adjustmentChanges.add(new AdjustmentChange(ChangeType.ADDED, team, 0, newAdjustment));
+            }
+            else if (newAdjustment == null)
+            {
+                adjustmentChanges.add(new AdjustmentChange(ChangeType.REMOVED, team, oldAdjustment, 0));
+            }
+            else if (!oldAdjustment.equals(newAdjustment))
+            {
+                adjustmentChanges.add(new AdjustmentChange(ChangeType.MODIFIED, team, oldAdjustment, newAdjustment));
+            }
+        }
+    }
+
+
+    /**
+     * @return The updated data.
+     */
+    public LeagueDataProvider getNewData()
+    {
+        return newData;
+    }
+
+
+    /**
+     * @return True if the teams, league rules or zones have changed, in which case the
+     * season must be re-built from the new data rather than updated.
+     */
+    public boolean isStructuralChange()
+    {
+        return structuralChange;
+    }
+
+
+    /**
+     * @return True if there are no differences at all.
+     */
+    public boolean isEmpty()
+    {
+        return !structuralChange && resultChanges.isEmpty() && adjustmentChanges.isEmpty();
+    }
+
+
+    /**
+     * @return Results that have been added, removed or modified.
+     */
+    public List<ResultChange> getResultChanges()
+    {
+        return Collections.unmodifiableList(resultChanges);
+    }
+
+
+    /**
+     * @return Points adjustments that have been added, removed or modified.
+     */
+    public List<AdjustmentChange> getAdjustmentChanges()
+    {
+        return Collections.unmodifiableList(adjustmentChanges);
+    }
+
+
+    public static enum ChangeType
+    {
+        ADDED,
+        REMOVED,
+        MODIFIED
+    }
+
+
+    /**
+     * A single added, removed or modified result.
+     */
+    public static final class ResultChange
+    {
+        private final ChangeType type;
+        private final Result oldResult;
+        private final Result newResult;
+
+        ResultChange(ChangeType type, Result oldResult, Result newResult)
+        {
+            this.type = type;
+            this.oldResult = oldResult;
+            this.newResult = newResult;
+        }
+
+
+        public ChangeType getType()
+        {
+            return type;
+        }
+
+
+        /**
+         * @return The result as it was, or null if the result has been added.
+         */
+        public Result getOldResult()
+        {
+            return oldResult;
+        }
+
+
+        /**
+         * @return The result as it is now, or null if the result has been removed.
+         */
+        public Result getNewResult()
+        {
+            return newResult;
+        }
+    }
+
+
+    /**
+     * A change to the total points adjustment for a single team.
+     */
+    public static final class AdjustmentChange
+    {
+        private final ChangeType type;
+        private final String teamName;
+        private final int oldAdjustment;
+        private final int newAdjustment;
+
+        AdjustmentChange(ChangeType type, String teamName, int oldAdjustment, int newAdjustment)
+        {
+            this.type = type;
+            this.teamName = teamName;
+            this.oldAdjustment = oldAdjustment;
+            this.newAdjustment = newAdjustment;
+        }
+
+
+        public ChangeType getType()
+        {
+            return type;
+        }
+
+
+        public String getTeamName()
+        {
+            return teamName;
+        }
+
+
+        /**
+         * @return The previous adjustment (zero if there wasn't one).
+         */
+        public int getOldAdjustment()
+        {
+            return oldAdjustment;
+        }
+
+
+        /**
+         * @return The new adjustment (zero if it has been removed).
+         */
+        public int getNewAdjustment()
+        {
+            return newAdjustment;
+        }
+    }
+
+
+    /**
+     * Identifies a match by its date and the teams involved.
+     */
+    private static final class FixtureKey
+    {
+        private final int date;
+        private final String homeTeam;
+        private final String awayTeam;
+
+        FixtureKey(Result result)
+        {
+            this.date = result.getDate();
+            this.homeTeam = result.getHomeTeam();
+            this.awayTeam = result.getAwayTeam();
+        }
+
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof FixtureKey))
+            {
+                return false;
+            }
+            FixtureKey other = (FixtureKey) obj;
+            return date == other.date && homeTeam.equals(other.homeTeam) && awayTeam.equals(other.awayTeam);
+        }
+
+
+        @Override
+        public int hashCode()
+        {
+            return (date * 31 + homeTeam.hashCode()) * 31 + awayTeam.hashCode();
+        }
+    }
+}
@@ -18,21 +18,26 @@
 package net.footballpredictions.footballstats.data;
 
 import java.io.BufferedReader;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedSet;
 import java.util.StringTokenizer;
 import java.util.TreeSet;
+import net.footballpredictions.footballstats.metrics.Counter;
+import net.footballpredictions.footballstats.metrics.EventRecorder;
+import net.footballpredictions.footballstats.metrics.MetricRegistry;
+import net.footballpredictions.footballstats.metrics.Timer;
 import net.footballpredictions.footballstats.model.LeagueMetaData;
 import net.footballpredictions.footballstats.model.Result;
+import net.footballpredictions.footballstats.util.EpochDays;
 
 /**
  * {@link LeagueDataProvider} implementation that reads the RLT file format used by
@@ -53,8 +58,11 @@ public class RLTDataProvider implements LeagueDataProvider
     private static final String AWARDED_TAG = "AWARDED";
     private static final String DEDUCTED_TAG = "DEDUCTED";
     private static final String MINILEAGUE_TAG = "MINILEAGUE";
+    private static final String TIEBREAK_TAG = "TIEBREAK";
+    private static final String HEAD_TO_HEAD = "HEADTOHEAD";
 
-    private final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("ddMMyyyy");
+    private static final Timer PARSE_TIMER = MetricRegistry.getInstance().getTimer("rlt.parse");
+    private static final Counter RESULTS_COUNTER = MetricRegistry.getInstance().getCounter("rlt.results");
 
     private final LeagueMetaData metaData;
 
@@ -63,16 +71,32 @@ public class RLTDataProvider implements LeagueDataProvider
     private final Map<String, Integer> pointsAdjustments = new HashMap<String, Integer>();
     private final List<LeagueMetaData.LeagueZone> prizeZones = new LinkedList<LeagueMetaData.LeagueZone>();
     private final List<LeagueMetaData.LeagueZone> relegationZones = new LinkedList<LeagueMetaData.LeagueZone>();
+    private final Map<String, List<String>> miniLeagues = new LinkedHashMap<String, List<String>>();
 
 
     public RLTDataProvider(InputStream data) throws IOException
     {
-        BufferedReader resultsReader = new BufferedReader(new InputStreamReader(data, "UTF-8"));
+        this(data, null);
+    }
+
+
+    /**
+     * @param data The RLT data, which is read completely and then closed.
+     * @param source Where the data comes from (such as a URL), for use in diagnostics.
+     * May be null.
+     */
+    public RLTDataProvider(InputStream data, String source) throws IOException
+    {
+        long startTime = PARSE_TIMER.start();
+        EventRecorder.ParseSpan span = EventRecorder.getInstance().startParse(source);
+        CountingInputStream countingStream = new CountingInputStream(data);
+        BufferedReader resultsReader = new BufferedReader(new InputStreamReader(countingStream, "UTF-8"));
         try
         {
             int pointsForWin = 3;
             int pointsForDraw = 1;
             int split = 0;
+            boolean headToHead = false;
 
             String nextLine = resultsReader.readLine();
             while (nextLine != null)
@@ -115,38 +139,88 @@ public class RLTDataProvider implements LeagueDataProvider
                         processPointsAdjustment(tokens.nextToken(),
                                                 Integer.parseInt(tokens.nextToken()));
                     }
-                    else if (!tag.equals(MINILEAGUE_TAG)) // Mini-leagues currently implemented by Anorak but not FSA.
+                    else if (tag.equals(TIEBREAK_TAG))
+                    {
+                        headToHead = tokens.nextToken().trim().equals(HEAD_TO_HEAD);
+                    }
+                    else if (tag.equals(MINILEAGUE_TAG))
+                    {
+                        String name = tokens.nextToken().trim();
+                        List<String> miniLeagueTeams = new ArrayList<String>();
+                        while (tokens.hasMoreTokens())
+                        {
+                            miniLeagueTeams.add(tokens.nextToken().trim().intern());
+                        }
+                        miniLeagues.put(name, miniLeagueTeams);
+                    }
+                    else
                     {
                         // Process as a result (first char should be a number).
-                        Date date = DATE_FORMAT.parse(tag);
-                        String homeTeamName = tokens.nextToken().trim().intern();
-                        int homeScore = Integer.parseInt(tokens.nextToken().trim());
-                        String awayTeamName = tokens.nextToken().trim().intern();
-                        int awayScore = Integer.parseInt(tokens.nextToken().trim());
-
-                        int attendance = tokens.hasMoreTokens() ? Integer.parseInt(tokens.nextToken().trim()) : -1;
-
-                        Result result = new Result(homeTeamName, awayTeamName, homeScore, awayScore, attendance, date);
-                        teams.add(homeTeamName);
-                        teams.add(awayTeamName);
+                        Result result = parseResult(tag, tokens);
+                        teams.add(result.getHomeTeam());
+                        teams.add(result.getAwayTeam());
                         results.add(result);
                     }
                 }
                 nextLine = resultsReader.readLine();
             }
-            System.out.println("Read " + results.size() + " results.");
+            RESULTS_COUNTER.add(results.size());
 
             this.metaData = new LeagueMetaData(pointsForWin,
                                                pointsForDraw,
                                                split,
                                                teams.size(),
                                                prizeZones,
-                                               relegationZones);
+                                               relegationZones,
+                                               headToHead,
+                                               miniLeagues);
         }
-        catch(ParseException ex)
+        finally
         {
-            ex.printStackTrace();
-            throw new IOException("Invalid date format in results file.");
+            resultsReader.close();
+            PARSE_TIMER.stop(startTime);
+            span.finish(countingStream.getCount(), results.size());
+        }
+    }
+
+
+    /**
+     * Reads only results from RLT data, such as the lines appended to a data file when
+     * the latest matches are added.
+     * @param data A stream of RLT data that contains only results, comments and blank lines.
+     * @return The results, in the order that they were read.
+     * @throws IOException If the data cannot be read, contains an invalid date or contains
+     * anything other than results (rules, zones, mini-leagues and points adjustments can
+     * only be processed by reading the whole file).
+     */
+    public static List<Result> parseResults(InputStream data) throws IOException
+    {
+        List<Result> results = new ArrayList<Result>();
+        BufferedReader resultsReader = new BufferedReader(new InputStreamReader(data, "UTF-8"));
+        try
+        {
+            String nextLine = resultsReader.readLine();
+            while (nextLine != null)
+            {
+                nextLine = nextLine.trim();
+                if (nextLine.length() > 0 && nextLine.charAt(0) != '#')
+                {
+                    StringTokenizer tokens = new StringTokenizer(nextLine, "|");
+                    String tag = tokens.nextToken();
+                    if (tag.equals(RULES_TAG) || tag.equals(POINTS_TAG) || tag.equals(PRIZE_TAG)
+                        || tag.equals(RELEGATION_TAG) || tag.equals(DEDUCTED_TAG) || tag.equals(AWARDED_TAG)
+                        || tag.equals(TIEBREAK_TAG) || tag.equals(MINILEAGUE_TAG))
+                    {
+                        throw new IOException("Unexpected " + tag + " line, only results can be read separately.");
+                    }
+                    else
+                    {
+                        results.add(parseResult(tag, tokens));
+                    }
+                }
+                nextLine = resultsReader.readLine();
+            }
+            return results;
         }
         finally
         {
@@ -155,6 +229,29 @@ public class RLTDataProvider implements LeagueDataProvider
     }
 
 
+    private static Result parseResult(String tag, StringTokenizer tokens) throws IOException
+    {
+        int date;
+        try
+        {
+            date = EpochDays.parse(tag);
+        }
+        catch (IllegalArgumentException ex)
+        {
+            ex.printStackTrace();
+            throw new IOException("Invalid date format in results file.");
+        }
+        String homeTeamName = tokens.nextToken().trim().intern();
+        int homeScore = Integer.parseInt(tokens.nextToken().trim());
+        String awayTeamName = tokens.nextToken().trim().intern();
+        int awayScore = Integer.parseInt(tokens.nextToken().trim());
+
+        int attendance = tokens.hasMoreTokens() ? Integer.parseInt(tokens.nextToken().trim()) : -1;
+
+        return new Result(homeTeamName, awayTeamName, homeScore, awayScore, attendance, date);
+    }
+
+
     private void processPointsAdjustment(String team, int amount)
     {
         Integer value = pointsAdjustments.get(team);
@@ -196,4 +293,57 @@ public class RLTDataProvider implements LeagueDataProvider
     {
         return metaData;
     }
+
+
+    /**
+     * Keeps track of the number of bytes read from a stream.
+     */
+    private static final class CountingInputStream extends FilterInputStream
+    {
+        private long count = 0;
+
+        CountingInputStream(InputStream stream)
+        {
+            super(stream);
+        }
+
+
+        @Override
+        public int read() throws IOException
+        {
+            int value = super.read();
+            if (value >= 0)
+            {
+                ++count;
+            }
+            return value;
+        }
+
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException
+        {
+            int bytesRead = super.read(buffer, offset, length);
+            if (bytesRead > 0)
+            {
+                count += bytesRead;
+            }
+            return bytesRead;
+        }
+
+
+        @Override
+        public long skip(long n) throws IOException
+        {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+
+        public long getCount()
+        {
+            return count;
+        }
+    }
 }
@@ -0,0 +1,253 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.data;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Random-access reader for a single file containing many seasons of RLT data, as
+ * written by {@link SeasonArchiveBuilder}.  The index of all seasons is read when the
+ * archive is opened, without touching any of the season data.  Each season is
+ * individually compressed and can then be loaded with a single seek and read.
+ *
+ * <p>The file starts with a fixed-size header (magic number, version, entry count and
+ * index length), followed by the index and then the compressed season data.  Each index
+ * entry consists of the league, division and season names, the offset of the season's
+ * data (relative to the end of the index), its compressed length and its CRC-32 checksum.</p>
+ * @author Daniel Dyer
+ */
+public final class SeasonArchive implements Closeable
+{
+    static final int MAGIC = 0x46534141; // "FSAA"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+
+    private final RandomAccessFile file;
+    private final List<Entry> entries;
+    private final long dataStart;
+
+
+    /**
+     * Opens an archive and reads its index.
+     * @param file The archive file.
+     * @throws IOException If the file cannot be read or is not a valid archive.
+     */
+    public SeasonArchive(File file) throws IOException
+    {
+        this.file = new RandomAccessFile(file, "r");
+        try
+        {
+            byte[] header = new byte[HEADER_SIZE];
+            this.file.readFully(header);
+            DataInputStream headerInput = new DataInputStream(new ByteArrayInputStream(header));
+            if (headerInput.readInt() != MAGIC)
+            {
+                throw new IOException("Not a season archive.");
+            }
+            int version = headerInput.readInt();
+            if (version != VERSION)
+            {
+                throw new IOException("Unsupported archive version: " + version);
+            }
+            int entryCount = headerInput.readInt();
+            int indexLength = headerInput.readInt();
+
+            byte[] index = new byte[indexLength];
+            this.file.readFully(index);
+            DataInputStream indexInput = new DataInputStream(new ByteArrayInputStream(index));
+            List<Entry> entries = new ArrayList<Entry>(entryCount);
+            for (int i = 0; i < entryCount; i++)
+            {
+                entries.add(new Entry(indexInput.readUTF(),
+                                      indexInput.readUTF(),
+                                      indexInput.readUTF(),
+                                      indexInput.readLong(),
+                                      indexInput.readInt(),
+                                      indexInput.readLong()));
+            }
+            this.entries = Collections.unmodifiableList(entries);
+            this.dataStart = HEADER_SIZE + indexLength;
+        }
+        catch (IOException ex)
+        {
+            this.file.close();
+            throw ex;
+        }
+    }
+
+
+    /**
+     * @return All of the seasons in the archive, in the order that they were added.
+     */
+    public List<Entry> getEntries()
+    {
+        return entries;
+    }
+
+
+    /**
+     * @return The index entry for the specified season, or null if the archive does
+     * not contain that season.
+     */
+    public Entry getEntry(String league, String division, String season)
+    {
+        for (Entry entry : entries)
+        {
+            if (entry.getLeague().equals(league)
+                && entry.getDivision().equals(division)
+                && entry.getSeason().equals(season))
+            {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+
+    /**
+     * Reads the data for a single season and checks it against the index checksum.
+     * @return A stream of the uncompressed RLT data for the season.
+     * @throws IOException If the data cannot be read or is corrupt.
+     */
+    public InputStream openSeason(Entry entry) throws IOException
+    {
+        byte[] data = new byte[entry.getLength()];
+        synchronized (file)
+        {
+            file.seek(dataStart + entry.getOffset());
+            file.readFully(data);
+        }
+        CRC32 checksum = new CRC32();
+        checksum.update(data);
+        if (checksum.getValue() != entry.getChecksum())
+        {
+            throw new IOException("Checksum mismatch for season " + entry);
+        }
+        return new GZIPInputStream(new ByteArrayInputStream(data));
+    }
+
+
+    /**
+     * Reads and parses the data for a single season.
+     */
+    public LeagueDataProvider loadSeason(Entry entry) throws IOException
+    {
+        return new RLTDataProvider(openSeason(entry), entry.toString());
+    }
+
+
+    public void close() throws IOException
+    {
+        synchronized (file)
+        {
+            file.close();
+        }
+    }
+
+
+    /**
+     * Index entry describing the location of a single season in the archive.
+     */
+    public static final class Entry
+    {
+        private final String league;
+        private final String division;
+        private final String season;
+        private final long offset;
+        private final int length;
+        private final long checksum;
+
+        Entry(String league,
+              String division,
+              String season,
+              long offset,
+              int length,
+              long checksum)
+        {
+            this.league = league;
+            this.division = division;
+            this.season = season;
+            this.offset = offset;
+            this.length = length;
+            this.checksum = checksum;
+        }
+
+
+        public String getLeague()
+        {
+            return league;
+        }
+
+
+        public String getDivision()
+        {
+            return division;
+        }
+
+
+        public String getSeason()
+        {
+            return season;
+        }
+
+
+        /**
+         * @return The offset of the season's data, relative to the end of the index.
+         */
+        public long getOffset()
+        {
+            return offset;
+        }
+
+
+        /**
+         * @return The compressed length of the season's data, in bytes.
+         */
+        public int getLength()
+        {
+            return length;
+        }
+
+
+        /**
+         * @return The CRC-32 checksum of the compressed data.
+         */
+        public long getChecksum()
+        {
+            return checksum;
+        }
+
+
+        @Override
+        public String toString()
+        {
+            return league + "/" + division + "/" + season;
+        }
+    }
+}
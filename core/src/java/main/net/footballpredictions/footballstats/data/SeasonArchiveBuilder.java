@@ -0,0 +1,125 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.data;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Builds a {@link SeasonArchive} file from any number of RLT data files, so that many
+ * seasons can be shipped and loaded as a single file rather than one file (or HTTP
+ * request) per season.
+ * @author Daniel Dyer
+ */
+public class SeasonArchiveBuilder
+{
+    private final List<SeasonArchive.Entry> entries = new ArrayList<SeasonArchive.Entry>();
+    private final ByteArrayOutputStream data = new ByteArrayOutputStream();
+
+
+    /**
+     * Adds a season to the archive.  The data is compressed immediately.
+     * @param rltData A stream of uncompressed RLT data.  The stream is closed once it
+     * has been read.
+     * @throws IOException If the data cannot be read.
+     */
+    public void addSeason(String league,
+                          String division,
+                          String season,
+                          InputStream rltData) throws IOException
+    {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        GZIPOutputStream output = new GZIPOutputStream(compressed);
+        try
+        {
+            byte[] buffer = new byte[8192];
+            int count = rltData.read(buffer);
+            while (count >= 0)
+            {
+                output.write(buffer, 0, count);
+                count = rltData.read(buffer);
+            }
+        }
+        finally
+        {
+            rltData.close();
+        }
+        output.close();
+
+        byte[] bytes = compressed.toByteArray();
+        CRC32 checksum = new CRC32();
+        checksum.update(bytes);
+        entries.add(new SeasonArchive.Entry(league, division, season, data.size(), bytes.length, checksum.getValue()));
+        data.write(bytes);
+    }
+
+
+    /**
+     * Writes the archive to the specified file, replacing any existing file.
+     */
+    public void write(File file) throws IOException
+    {
+        OutputStream output = new FileOutputStream(file);
+        try
+        {
+            write(output);
+        }
+        finally
+        {
+            output.close();
+        }
+    }
+
+
+    /**
+     * Writes the archive to the specified stream.  The stream is not closed.
+     */
+    public void write(OutputStream output) throws IOException
+    {
+        ByteArrayOutputStream index = new ByteArrayOutputStream();
+        DataOutputStream indexOutput = new DataOutputStream(index);
+        for (SeasonArchive.Entry entry : entries)
+        {
+            indexOutput.writeUTF(entry.getLeague());
+            indexOutput.writeUTF(entry.getDivision());
+            indexOutput.writeUTF(entry.getSeason());
+            indexOutput.writeLong(entry.getOffset());
+            indexOutput.writeInt(entry.getLength());
+            indexOutput.writeLong(entry.getChecksum());
+        }
+        indexOutput.flush();
+
+        DataOutputStream dataOutput = new DataOutputStream(output);
+        dataOutput.writeInt(SeasonArchive.MAGIC);
+        dataOutput.writeInt(SeasonArchive.VERSION);
+        dataOutput.writeInt(entries.size());
+        dataOutput.writeInt(index.size());
+        index.writeTo(dataOutput);
+        data.writeTo(dataOutput);
+        dataOutput.flush();
+    }
+}
@@ -0,0 +1,551 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.data;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import net.footballpredictions.footballstats.model.LeagueMetaData;
+import net.footballpredictions.footballstats.model.Result;
+
+/**
+ * A flyweight handle for a season held in an {@link ArchiveStore}.  Only the team and
+ * zone names are held on the heap, everything else is read from the store's buffer on
+ * demand using absolute reads, so a single instance can safely be shared between threads.
+ * Teams are identified by their index in the alphabetical list of team names and match
+ * dates by their index in the chronological list of dates on which matches were played.
+ *
+ * <p>The stored layout is: label, points for a win, points for a draw, split, team count,
+ * team names, points adjustments, zone for each position, prize zone names, relegation
+ * zone names, head-to-head flag, mini-leagues, result count, date count, results (16 bytes
+ * each, with team indices and goals as unsigned 16-bit values), dates, the index of the
+ * first result on each date, and finally the standings after each date (position, won,
+ * drawn, lost, scored and conceded for each team, 24 bytes per team).  The standings are
+ * cumulative, so they are stored as ints to allow for data that covers many seasons.</p>
+ * @author Daniel Dyer
+ */
+public final class StoredSeason implements LeagueDataProvider
+{
+    private static final int RESULT_SIZE = 16;
+    private static final int STANDING_SIZE = 24;
+
+    private static final int POSITION = 0;
+    private static final int WON = 4;
+    private static final int DRAWN = 8;
+    private static final int LOST = 12;
+    private static final int SCORED = 16;
+    private static final int CONCEDED = 20;
+
+    private final ByteBuffer buffer;
+    private final String label;
+    private final int pointsForWin;
+    private final int pointsForDraw;
+    private final int split;
+    private final String[] teamNames;
+    private final String[] prizeZoneNames;
+    private final String[] relegationZoneNames;
+    private final boolean headToHead;
+    private final Map<String, List<String>> miniLeagues = new LinkedHashMap<String, List<String>>();
+    private final int resultCount;
+    private final int dateCount;
+
+    private final int adjustmentsOffset;
+    private final int zonesOffset;
+    private final int resultsOffset;
+    private final int datesOffset;
+    private final int dateIndexOffset;
+    private final int standingsOffset;
+    private final int endOffset;
+
+
+    /**
+     * @param buffer The store's buffer.
+     * @param offset The position in the buffer at which this season starts.
+     */
+    StoredSeason(ByteBuffer buffer, int offset)
+    {
+        this.buffer = buffer;
+        int position = offset;
+        label = readString(position);
+        position += 2 + label.length() * 2;
+        pointsForWin = buffer.getInt(position);
+        pointsForDraw = buffer.getInt(position + 4);
+        split = buffer.getInt(position + 8);
+        teamNames = new String[buffer.getInt(position + 12)];
+        position += 16;
+        for (int i = 0; i < teamNames.length; i++)
+        {
+            teamNames[i] = readString(position);
+            position += 2 + teamNames[i].length() * 2;
+        }
+        adjustmentsOffset = position;
+        zonesOffset = adjustmentsOffset + teamNames.length * 4;
+        position = zonesOffset + teamNames.length * 4;
+        prizeZoneNames = new String[buffer.getInt(position)];
+        position += 4;
+        for (int i = 0; i < prizeZoneNames.length; i++)
+        {
+            prizeZoneNames[i] = readString(position);
+            position += 2 + prizeZoneNames[i].length() * 2;
+        }
+        relegationZoneNames = new String[buffer.getInt(position)];
+        position += 4;
+        for (int i = 0; i < relegationZoneNames.length; i++)
+        {
+            relegationZoneNames[i] = readString(position);
+            position += 2 + relegationZoneNames[i].length() * 2;
+        }
+        headToHead = buffer.getInt(position) != 0;
+        int miniLeagueCount = buffer.getInt(position + 4);
+        position += 8;
+        for (int i = 0; i < miniLeagueCount; i++)
+        {
+            String name = readString(position);
+            position += 2 + name.length() * 2;
+            int teamCount = buffer.getInt(position);
+            position += 4;
+            List<String> miniLeagueTeams = new ArrayList<String>(teamCount);
+            for (int j = 0; j < teamCount; j++)
+            {
+                String team = readString(position);
+                position += 2 + team.length() * 2;
+                miniLeagueTeams.add(team);
+            }
+            miniLeagues.put(name, miniLeagueTeams);
+        }
+        resultCount = buffer.getInt(position);
+        dateCount = buffer.getInt(position + 4);
+        resultsOffset = position + 8;
+        datesOffset = resultsOffset + resultCount * RESULT_SIZE;
+        dateIndexOffset = datesOffset + dateCount * 4;
+        standingsOffset = dateIndexOffset + (dateCount + 1) * 4;
+        endOffset = standingsOffset + dateCount * teamNames.length * STANDING_SIZE;
+    }
+
+
+    private String readString(int position)
+    {
+        char[] chars = new char[getUnsignedShort(position)];
+        for (int i = 0; i < chars.length; i++)
+        {
+            chars[i] = buffer.getChar(position + 2 + i * 2);
+        }
+        return new String(chars);
+    }
+
+
+    /**
+     * @return The position in the buffer immediately after this season.
+     */
+    int getEndOffset()
+    {
+        return endOffset;
+    }
+
+
+    /**
+     * @return The label that this season was stored under.
+     */
+    public String getLabel()
+    {
+        return label;
+    }
+
+
+    public int getTeamCount()
+    {
+        return teamNames.length;
+    }
+
+
+    /**
+     * @param teamIndex A team index, between zero and {@link #getTeamCount()} - 1.
+     * @return The name of the team.
+     */
+    public String getTeamName(int teamIndex)
+    {
+        return teamNames[teamIndex];
+    }
+
+
+    /**
+     * @return The index of the named team, or -1 if there is no such team.
+     */
+    public int getTeamIndex(String teamName)
+    {
+        int index = Arrays.binarySearch(teamNames, teamName);
+        return index < 0 ? -1 : index;
+    }
+
+
+    public int getResultCount()
+    {
+        return resultCount;
+    }
+
+
+    private int getUnsignedShort(int position)
+    {
+        return buffer.getShort(position) & 0xFFFF;
+    }
+
+
+    /**
+     * @return The epoch day on which the specified result occurred.
+     */
+    public int getResultDate(int resultIndex)
+    {
+        return buffer.getInt(resultOffset(resultIndex));
+    }
+
+
+    public int getHomeTeamIndex(int resultIndex)
+    {
+        return getUnsignedShort(resultOffset(resultIndex) + 4);
+    }
+
+
+    public int getAwayTeamIndex(int resultIndex)
+    {
+        return getUnsignedShort(resultOffset(resultIndex) + 6);
+    }
+
+
+    public int getHomeGoals(int resultIndex)
+    {
+        return getUnsignedShort(resultOffset(resultIndex) + 8);
+    }
+
+
+    public int getAwayGoals(int resultIndex)
+    {
+        return getUnsignedShort(resultOffset(resultIndex) + 10);
+    }
+
+
+    /**
+     * @return The attendance for the specified match, or -1 if it is not known.
+     */
+    public int getAttendance(int resultIndex)
+    {
+        return buffer.getInt(resultOffset(resultIndex) + 12);
+    }
+
+
+    /**
+     * Creates a new {@link Result} object for one of the stored results.  Results are
+     * stored in chronological order.
+     */
+    public Result getResult(int resultIndex)
+    {
+        return new Result(teamNames[getHomeTeamIndex(resultIndex)],
+                          teamNames[getAwayTeamIndex(resultIndex)],
+                          getHomeGoals(resultIndex),
+                          getAwayGoals(resultIndex),
+                          getAttendance(resultIndex),
+                          getResultDate(resultIndex));
+    }
+
+
+    private int resultOffset(int resultIndex)
+    {
+        if (resultIndex < 0 || resultIndex >= resultCount)
+        {
+            throw new IndexOutOfBoundsException("Invalid result index: " + resultIndex);
+        }
+        return resultsOffset + resultIndex * RESULT_SIZE;
+    }
+
+
+    /**
+     * @return The number of distinct dates on which matches were played.
+     */
+    public int getDateCount()
+    {
+        return dateCount;
+    }
+
+
+    /**
+     * @return The epoch day for the specified date index.
+     */
+    public int getDate(int dateIndex)
+    {
+        checkDateIndex(dateIndex);
+        return buffer.getInt(datesOffset + dateIndex * 4);
+    }
+
+
+    /**
+     * @return The index of the last date that is on or before the specified epoch day,
+     * or -1 if no matches had been played by then.
+     */
+    public int getDateIndex(int date)
+    {
+        int low = 0;
+        int high = dateCount - 1;
+        while (low <= high)
+        {
+            int middle = (low + high) >>> 1;
+            int value = buffer.getInt(datesOffset + middle * 4);
+            if (value <= date)
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle - 1;
+            }
+        }
+        return high;
+    }
+
+
+    /**
+     * @return The index of the first result played on the specified date.
+     */
+    public int getFirstResultIndex(int dateIndex)
+    {
+        checkDateIndex(dateIndex);
+        return buffer.getInt(dateIndexOffset + dateIndex * 4);
+    }
+
+
+    /**
+     * @return The number of results played on the specified date.
+     */
+    public int getResultCount(int dateIndex)
+    {
+        checkDateIndex(dateIndex);
+        return buffer.getInt(dateIndexOffset + dateIndex * 4 + 4) - buffer.getInt(dateIndexOffset + dateIndex * 4);
+    }
+
+
+    private void checkDateIndex(int dateIndex)
+    {
+        if (dateIndex < 0 || dateIndex >= dateCount)
+        {
+            throw new IndexOutOfBoundsException("Invalid date index: " + dateIndex);
+        }
+    }
+
+
+    /**
+     * @return The team's league position after all matches on the specified date.
+     */
+    public int getPosition(int teamIndex, int dateIndex)
+    {
+        return buffer.getInt(standingOffset(teamIndex, dateIndex) + POSITION);
+    }
+
+
+    public int getPlayed(int teamIndex, int dateIndex)
+    {
+        int offset = standingOffset(teamIndex, dateIndex);
+        return buffer.getInt(offset + WON) + buffer.getInt(offset + DRAWN) + buffer.getInt(offset + LOST);
+    }
+
+
+    public int getWon(int teamIndex, int dateIndex)
+    {
+        return buffer.getInt(standingOffset(teamIndex, dateIndex) + WON);
+    }
+
+
+    public int getDrawn(int teamIndex, int dateIndex)
+    {
+        return buffer.getInt(standingOffset(teamIndex, dateIndex) + DRAWN);
+    }
+
+
+    public int getLost(int teamIndex, int dateIndex)
+    {
+        return buffer.getInt(standingOffset(teamIndex, dateIndex) + LOST);
+    }
+
+
+    public int getScored(int teamIndex, int dateIndex)
+    {
+        return buffer.getInt(standingOffset(teamIndex, dateIndex) + SCORED);
+    }
+
+
+    public int getConceded(int teamIndex, int dateIndex)
+    {
+        return buffer.getInt(standingOffset(teamIndex, dateIndex) + CONCEDED);
+    }
+
+
+    /**
+     * @return The team's points total after all matches on the specified date, including
+     * any points adjustment.
+     */
+    public int getPoints(int teamIndex, int dateIndex)
+    {
+        return getWon(teamIndex, dateIndex) * pointsForWin
+               + getDrawn(teamIndex, dateIndex) * pointsForDraw
+               + getPointsAdjustment(teamIndex);
+    }
+
+
+    /**
+     * @return The number of points awarded to (positive) or deducted from (negative)
+     * the specified team.
+     */
+    public int getPointsAdjustment(int teamIndex)
+    {
+        checkTeamIndex(teamIndex);
+        return buffer.getInt(adjustmentsOffset + teamIndex * 4);
+    }
+
+
+    /**
+     * @return The indices of all teams, ordered by their league positions after all
+     * matches on the specified date.
+     */
+    public int[] getLeagueTable(int dateIndex)
+    {
+        int[] table = new int[teamNames.length];
+        for (int team = 0; team < teamNames.length; team++)
+        {
+            table[getPosition(team, dateIndex) - 1] = team;
+        }
+        return table;
+    }
+
+
+    private int standingOffset(int teamIndex, int dateIndex)
+    {
+        checkTeamIndex(teamIndex);
+        checkDateIndex(dateIndex);
+        return standingsOffset + (dateIndex * teamNames.length + teamIndex) * STANDING_SIZE;
+    }
+
+
+    private void checkTeamIndex(int teamIndex)
+    {
+        if (teamIndex < 0 || teamIndex >= teamNames.length)
+        {
+            throw new IndexOutOfBoundsException("Invalid team index: " + teamIndex);
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public SortedSet<String> getTeams()
+    {
+        return Collections.unmodifiableSortedSet(new TreeSet<String>(Arrays.asList(teamNames)));
+    }
+
+
+    /**
+     * {@inheritDoc}
+     * The returned list is a read-only view, {@link Result} objects are created as
+     * they are requested.
+     */
+    public List<Result> getResults()
+    {
+        return new AbstractList<Result>()
+        {
+            @Override
+            public Result get(int index)
+            {
+                return getResult(index);
+            }
+
+
+            @Override
+            public int size()
+            {
+                return resultCount;
+            }
+        };
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public Map<String, Integer> getPointsAdjustments()
+    {
+        Map<String, Integer> adjustments = new HashMap<String, Integer>();
+        for (int team = 0; team < teamNames.length; team++)
+        {
+            int adjustment = getPointsAdjustment(team);
+            if (adjustment != 0)
+            {
+                adjustments.put(teamNames[team], adjustment);
+            }
+        }
+        return adjustments;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public LeagueMetaData getLeagueMetaData()
+    {
+        return new LeagueMetaData(pointsForWin,
+                                  pointsForDraw,
+                                  split,
+                                  teamNames.length,
+                                  getZones(prizeZoneNames, 1),
+                                  getZones(relegationZoneNames, -1),
+                                  headToHead,
+                                  miniLeagues);
+    }
+
+
+    /**
+     * Re-constructs the zones from the stored zone ID for each position.
+     * @param sign 1 for prize zones, -1 for relegation zones.
+     */
+    private List<LeagueMetaData.LeagueZone> getZones(String[] names, int sign)
+    {
+        List<LeagueMetaData.LeagueZone> zones = new ArrayList<LeagueMetaData.LeagueZone>(names.length);
+        for (int i = 0; i < names.length; i++)
+        {
+            int start = 0;
+            int end = -1;
+            for (int position = 1; position <= teamNames.length; position++)
+            {
+                if (buffer.getInt(zonesOffset + (position - 1) * 4) == sign * (i + 1))
+                {
+                    if (start == 0)
+                    {
+                        start = position;
+                    }
+                    end = position;
+                }
+            }
+            zones.add(new LeagueMetaData.LeagueZone(start, end, names[i]));
+        }
+        return zones;
+    }
+}
@@ -0,0 +1,298 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.data;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Random;
+import net.footballpredictions.footballstats.util.EpochDays;
+
+/**
+ * Writes RLT data for imaginary leagues of any size, for scale and stress testing.  Every
+ * team plays every other team home and away in each season (so a season of n teams has
+ * n(n - 1) results) and the same teams take part in every season, so multi-season files
+ * are like the "all-time" tables.  Scores are drawn from Poisson distributions, with a home
+ * advantage and a fixed attacking and defensive strength for each team, and attendances
+ * vary around a fixed capacity for each team's ground.  The output is determined entirely
+ * by the parameters and the random seed.
+ * @author Daniel Dyer
+ */
+public class SyntheticDataGenerator
+{
+    // Average goals per game for the home and away teams, roughly as in the Premier League.
+    private static final double HOME_GOALS = 1.5;
+    private static final double AWAY_GOALS = 1.1;
+
+    private static final int MEDIAN_CAPACITY = 20000;
+    private static final int SEASON_LENGTH_DAYS = 280;
+    private static final int FIRST_SEASON = 2000;
+
+    private final int teamCount;
+    private final int seasonCount;
+    private final int matchesPerDate;
+    private final long seed;
+
+    /**
+     * @param teamCount The number of teams in the league (at least 2).
+     * @param seasonCount The number of seasons of results to generate (at least 1).
+     * @param matchesPerDate The number of matches played on each date, or zero for each team
+     * to play once per date (half the number of teams).  Fewer matches per date means more
+     * dates, and therefore more league positions to calculate, for the same results.
+     * @param seed Seed for the random number generator.
+     */
+    public SyntheticDataGenerator(int teamCount, int seasonCount, int matchesPerDate, long seed)
+    {
+        if (teamCount < 2)
+        {
+            throw new IllegalArgumentException("There must be at least 2 teams.");
+        }
+        if (seasonCount < 1)
+        {
+            throw new IllegalArgumentException("There must be at least 1 season.");
+        }
+        if (matchesPerDate < 0)
+        {
+            throw new IllegalArgumentException("Matches per date must not be negative.");
+        }
+        this.teamCount = teamCount;
+        this.seasonCount = seasonCount;
+        this.matchesPerDate = matchesPerDate == 0 ? teamCount / 2 : matchesPerDate;
+        this.seed = seed;
+    }
+
+
+    /**
+     * @return The number of results that will be generated.
+     */
+    public long getResultCount()
+    {
+        return (long) teamCount * (teamCount - 1) * seasonCount;
+    }
+
+
+    public void write(File file) throws IOException
+    {
+        write(new FileOutputStream(file));
+    }
+
+
+    /**
+     * Writes the generated data as RLT.
+     * @param output The stream to write to.  It is closed once all of the data has been
+     * written.
+     * @throws IOException If the data cannot be written.
+     */
+    public void write(OutputStream output) throws IOException
+    {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, "UTF-8"), 65536);
+        try
+        {
+            Random random = new Random(seed);
+            String[] teams = new String[teamCount];
+            double[] attack = new double[teamCount];
+            double[] defence = new double[teamCount];
+            int[] capacity = new int[teamCount];
+            String format = "Team %0" + String.valueOf(teamCount).length() + "d";
+            for (int i = 0; i < teamCount; i++)
+            {
+                teams[i] = String.format(format, i + 1);
+                attack[i] = 0.6 + 0.8 * random.nextDouble();
+                defence[i] = 0.6 + 0.8 * random.nextDouble();
+                // Ground sizes are skewed, a few big clubs and many small ones.
+                capacity[i] = (int) Math.max(1000, MEDIAN_CAPACITY * Math.exp(0.6 * random.nextGaussian()));
+            }
+
+            writer.write("# Synthetic league: " + teamCount + " teams, " + seasonCount + " season(s), "
+                         + matchesPerDate + " matches per date, seed " + seed + "\n");
+            writer.write("RULES|3|1\n");
+            int prizePlaces = Math.max(1, teamCount / 5);
+            writer.write("PRIZE|1|1|Champions\n");
+            if (prizePlaces > 1)
+            {
+                writer.write("PRIZE|2|" + prizePlaces + "|Qualification\n");
+            }
+            int relegationPlaces = Math.min(Math.max(1, teamCount / 7), teamCount - prizePlaces);
+            if (relegationPlaces > 0)
+            {
+                writer.write("RELEGATION|" + (teamCount - relegationPlaces + 1) + "|" + teamCount + "|Relegation\n");
+            }
+            // Roughly one team in fifty has points deducted and one in a hundred is awarded points.
+            for (int i = 0; i < teamCount; i++)
+            {
+                double adjustment = random.nextDouble();
+                if (adjustment < 0.02)
+                {
+                    writer.write("DEDUCTED|" + teams[i] + "|" + (1 + random.nextInt(10)) + "\n");
+                }
+                else if (adjustment < 0.03)
+                {
+                    writer.write("AWARDED|" + teams[i] + "|3\n");
+                }
+            }
+
+            int[][] rounds = createRounds(teamCount);
+            // Each round is played twice, with home and away reversed the second time.
+            int fixturesPerSeason = rounds.length * 2 * (teamCount / 2);
+            int datesPerSeason = (fixturesPerSeason + matchesPerDate - 1) / matchesPerDate;
+            int daysBetweenDates = Math.max(1, SEASON_LENGTH_DAYS / datesPerSeason);
+            int seasonStart = EpochDays.of(FIRST_SEASON, 8, 1);
+            for (int season = 0; season < seasonCount; season++)
+            {
+                int date = seasonStart;
+                int matchesOnDate = 0;
+                for (int half = 0; half < 2; half++)
+                {
+                    for (int[] round : rounds)
+                    {
+                        for (int i = 0; i < round.length; i += 2)
+                        {
+                            // Odd numbers of teams have a dummy team, whose opponent has a bye.
+                            if (round[i] < teamCount && round[i + 1] < teamCount)
+                            {
+                                int home = half == 0 ? round[i] : round[i + 1];
+                                int away = half == 0 ? round[i + 1] : round[i];
+                                if (matchesOnDate == matchesPerDate)
+                                {
+                                    date += daysBetweenDates;
+                                    matchesOnDate = 0;
+                                }
+                                writeResult(writer,
+                                            date,
+                                            teams[home],
+                                            poisson(HOME_GOALS * attack[home] / defence[away], random),
+                                            teams[away],
+                                            poisson(AWAY_GOALS * attack[away] / defence[home], random),
+                                            (int) (capacity[home] * (0.7 + 0.3 * random.nextDouble())));
+                                ++matchesOnDate;
+                            }
+                        }
+                    }
+                }
+                // Next season starts on the 1st of August after this one ends.
+                int[] lastDate = EpochDays.toFields(date);
+                seasonStart = EpochDays.of(lastDate[1] < 8 ? lastDate[0] : lastDate[0] + 1, 8, 1);
+            }
+        }
+        finally
+        {
+            writer.close();
+        }
+    }
+
+
+    /**
+     * Schedules a single round-robin using the circle method, so that each team plays once
+     * per round.
+     * @return For each round, the pairs of teams (as consecutive indices) that play each
+     * other.  If there is an odd number of teams, there is an extra index (equal to the
+     * number of teams) for the team that does not play.
+     */
+    static int[][] createRounds(int teamCount)
+    {
+        int n = teamCount % 2 == 0 ? teamCount : teamCount + 1;
+        int[][] rounds = new int[n - 1][n];
+        int[] circle = new int[n];
+        for (int i = 0; i < n; i++)
+        {
+            circle[i] = i;
+        }
+        for (int round = 0; round < n - 1; round++)
+        {
+            for (int i = 0; i < n / 2; i++)
+            {
+                // Alternate venues for the fixed team so that it doesn't always play at home.
+                boolean swap = i == 0 && round % 2 == 1;
+                rounds[round][2 * i] = swap ? circle[n - 1 - i] : circle[i];
+                rounds[round][2 * i + 1] = swap ? circle[i] : circle[n - 1 - i];
+            }
+            // Rotate every team except the first.
+            int last = circle[n - 1];
+            System.arraycopy(circle, 1, circle, 2, n - 2);
+            circle[1] = last;
+        }
+        return rounds;
+    }
+
+
+    private static void writeResult(Writer writer,
+                                    int date,
+                                    String homeTeam,
+                                    int homeGoals,
+                                    String awayTeam,
+                                    int awayGoals,
+                                    int attendance) throws IOException
+    {
+        writer.write(EpochDays.format(date));
+        writer.write('|');
+        writer.write(homeTeam);
+        writer.write('|');
+        writer.write(String.valueOf(homeGoals));
+        writer.write('|');
+        writer.write(awayTeam);
+        writer.write('|');
+        writer.write(String.valueOf(awayGoals));
+        writer.write('|');
+        writer.write(String.valueOf(attendance));
+        writer.write('\n');
+    }
+
+
+    /**
+     * Knuth's algorithm, which is fine for the small means of football scores.
+     */
+    private static int poisson(double mean, Random random)
+    {
+        double limit = Math.exp(-mean);
+        double product = random.nextDouble();
+        int count = 0;
+        while (product > limit)
+        {
+            product *= random.nextDouble();
+            ++count;
+        }
+        return count;
+    }
+
+
+    /**
+     * Entry point for the generator.
+     * @param args The number of teams, the number of seasons, the number of matches per
+     * date (zero for each team to play once per date), the output file and, optionally,
+     * the random seed.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length < 4 || args.length > 5)
+        {
+            System.err.println("Usage: java " + SyntheticDataGenerator.class.getName()
+                               + " <teams> <seasons> <matches per date> <output file> [seed]");
+            System.exit(1);
+        }
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(Integer.parseInt(args[0]),
+                                                                      Integer.parseInt(args[1]),
+                                                                      Integer.parseInt(args[2]),
+                                                                      args.length > 4 ? Long.parseLong(args[4]) : 0);
+        generator.write(new File(args[3]));
+        System.out.println("Wrote " + generator.getResultCount() + " results to " + args[3]);
+    }
+}
@@ -0,0 +1,933 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.elimination;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import net.footballpredictions.footballstats.model.LeagueMetaData;
+import net.footballpredictions.footballstats.model.LeagueSeason;
+import net.footballpredictions.footballstats.model.Result;
+import net.footballpredictions.footballstats.model.VenueType;
+
+/**
+ * Determines which final league positions are still mathematically possible for each
+ * team, given the current points totals and the fixtures that remain to be played.
+ * Positions are decided on points alone.  Teams that finish level on points could end
+ * up in either order (goal difference is not predictable), so a team is considered able
+ * to finish above any team that it can draw level with, and vice versa.
+ *
+ * <p>When a win is worth exactly two draws, this is the classic sports-elimination
+ * problem and is answered by a single max-flow computation.  Under three-points-for-a-win
+ * the number of points distributed by a match depends on its result and the problem is
+ * NP-complete in general, so a search over match outcomes is pruned, at every step, by
+ * max-flow relaxations that give necessary conditions and by flow constructions that give
+ * sufficient conditions.  The flow networks are built once and the flow is reused from
+ * one check to the next, so only the changes in capacity need to be re-augmented.</p>
+ *
+ * <p>The answers are always exact.  The search for each candidate set of teams is limited
+ * as a safeguard against pathological inputs, and if the limit is reached a
+ * {@link SearchLimitException} is thrown rather than guessing at the answer.  None of the
+ * bundled league data comes close to the limit.</p>
+ * @author Daniel Dyer
+ */
+public final class EliminationCalculator
+{
+    private static final int DRAW = 0;
+    private static final int HOME_WIN = 1;
+    private static final int AWAY_WIN = 2;
+
+    private static final int MAX_REMEMBERED_STATES = 1 << 18;
+    private static final int MAX_SEARCH_NODES = 20000; // For each candidate set of teams.
+
+    private final LeagueMetaData metaData;
+    private final int pointsForWin;
+    private final int pointsForDraw;
+
+    private final Map<String, Integer> teamIndices = new HashMap<String, Integer>();
+    private final int[] points;
+    private final int[] remaining;
+    private final int[] homeTeams;
+    private final int[] awayTeams;
+
+    // The relaxations count each match as two shares: a draw gives one share to each team
+    // and a win gives both shares to the winner.  Whatever the results, every share goes to
+    // one of the teams and, from its remaining matches, a team can collect no more shares
+    // than its limit allows and no fewer than its target requires.
+
+    // Keeping teams within points limits.  Every share is taken by a team that has room
+    // for it (necessary condition).  Deciding every match so that no team wins more often
+    // than its limit allows is one valid combination of results (sufficient).
+    private final FixtureNetwork cappedSharesNetwork;
+    private final FixtureNetwork winLimitNetwork;
+
+    // Getting teams to points targets.  Each team can collect the shares that it needs, and
+    // a team must win a certain number of its matches to reach its target even if it draws
+    // all of the rest (necessary conditions).  Deciding every match so that each team wins
+    // often enough on wins alone is one valid combination of results (sufficient).
+    private final FixtureNetwork targetSharesNetwork;
+    private final FixtureNetwork minimumWinsNetwork;
+    private final FixtureNetwork winTargetNetwork;
+
+    // Starting from every match being drawn, the teams that need to drop points (or gain
+    // points) do so against teams that can afford it.  Another sufficient condition.
+    private final FixtureNetwork drawnBaselineNetwork;
+    private final int[] baselineDemand;
+    private final int[] baselineFixtures;
+
+    // Working state for the current query.
+    private final boolean[] inSet;
+    private final boolean[] fixtureActive;
+    private final int[] budget;
+    private final int[] activeCounts;
+    private final int[] teamOrder;
+    private final Set<String> failedStates = new HashSet<String>();
+    private int searchNodes;
+
+
+    /**
+     * Creates a calculator for a season in which every team plays every other team
+     * once at home and once away.
+     * @param season The current state of the league.
+     */
+    public EliminationCalculator(LeagueSeason season)
+    {
+        this(season, getRemainingFixtures(season));
+    }
+
+
+    /**
+     * @param season The current state of the league.
+     * @param fixtures The matches that remain to be played.
+     */
+    public EliminationCalculator(LeagueSeason season, Collection<Fixture> fixtures)
+    {
+        this.metaData = season.getMetaData();
+        this.pointsForWin = metaData.getPointsForWin();
+        this.pointsForDraw = metaData.getPointsForDraw();
+
+        int teamCount = season.getTeamNames().size();
+        points = new int[teamCount];
+        remaining = new int[teamCount];
+        for (String teamName : season.getTeamNames())
+        {
+            int index = teamIndices.size();
+            teamIndices.put(teamName, index);
+            points[index] = season.getTeam(teamName).getRecord(VenueType.BOTH).getPoints();
+        }
+
+        homeTeams = new int[fixtures.size()];
+        awayTeams = new int[fixtures.size()];
+        int fixtureCount = 0;
+        for (Fixture fixture : fixtures)
+        {
+            homeTeams[fixtureCount] = getIndex(fixture.getHomeTeam());
+            awayTeams[fixtureCount] = getIndex(fixture.getAwayTeam());
+            ++remaining[homeTeams[fixtureCount]];
+            ++remaining[awayTeams[fixtureCount]];
+            ++fixtureCount;
+        }
+
+        cappedSharesNetwork = new FixtureNetwork(homeTeams, awayTeams, teamCount, 2);
+        winLimitNetwork = new FixtureNetwork(homeTeams, awayTeams, teamCount, 1);
+        targetSharesNetwork = new FixtureNetwork(homeTeams, awayTeams, teamCount, 2);
+        minimumWinsNetwork = new FixtureNetwork(homeTeams, awayTeams, teamCount, 1);
+        winTargetNetwork = new FixtureNetwork(homeTeams, awayTeams, teamCount, 1);
+        drawnBaselineNetwork = new FixtureNetwork(homeTeams, awayTeams, teamCount, 1);
+        baselineDemand = new int[teamCount];
+        baselineFixtures = new int[teamCount];
+
+        inSet = new boolean[teamCount];
+        fixtureActive = new boolean[fixtureCount];
+        budget = new int[teamCount];
+        activeCounts = new int[teamCount];
+        teamOrder = new int[teamCount];
+    }
+
+
+    /**
+     * Works out which matches remain in a league where each team plays every other team
+     * once at home and once away.
+     * @param season The current state of the league.
+     * @return All home/away pairings that do not yet have a result.
+     */
+    public static List<Fixture> getRemainingFixtures(LeagueSeason season)
+    {
+        if (season.getMetaData().getSplit() > 0)
+        {
+            throw new IllegalArgumentException("Remaining fixtures cannot be derived for a league that splits.");
+        }
+        List<String> teams = new ArrayList<String>(season.getTeamNames());
+        Map<String, Integer> indices = new HashMap<String, Integer>();
+        for (String team : teams)
+        {
+            indices.put(team, indices.size());
+        }
+        boolean[][] played = new boolean[teams.size()][teams.size()];
+        for (Result result : season.getResults())
+        {
+            played[indices.get(result.getHomeTeam())][indices.get(result.getAwayTeam())] = true;
+        }
+        List<Fixture> fixtures = new ArrayList<Fixture>();
+        for (int i = 0; i < teams.size(); i++)
+        {
+            for (int j = 0; j < teams.size(); j++)
+            {
+                if (i != j && !played[i][j])
+                {
+                    fixtures.add(new Fixture(teams.get(i), teams.get(j)));
+                }
+            }
+        }
+        return fixtures;
+    }
+
+
+    private int getIndex(String team)
+    {
+        Integer index = teamIndices.get(team);
+        if (index == null)
+        {
+            throw new IllegalArgumentException("Unknown team: " + team);
+        }
+        return index;
+    }
+
+
+    /**
+     * @param team The name of a team.
+     * @return True if the team can still finish top of the league.
+     * @throws SearchLimitException If the answer could not be determined within the search
+     * limit.
+     */
+    public boolean canWinTitle(String team)
+    {
+        return canFinishAtOrAbove(team, 1);
+    }
+
+
+    /**
+     * @param team The name of a team.
+     * @return True if the team can still finish in a relegation position.  Always false
+     * if the league has no relegation zones.
+     * @throws SearchLimitException If the answer could not be determined within the search
+     * limit.
+     */
+    public boolean canBeRelegated(String team)
+    {
+        for (int position = 1; position <= points.length; position++)
+        {
+            if (metaData.getZoneForPosition(position) < 0)
+            {
+                return canFinishAtOrBelow(team, position);
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * @param team The name of a team.
+     * @return The highest league position that the team can still reach.
+     * @throws SearchLimitException If the answer could not be determined within the search
+     * limit.
+     */
+    public int getHighestPossiblePosition(String team)
+    {
+        // Finishing in the top n implies finishing in the top n + 1, so binary search.
+        int low = 1;
+        int high = points.length;
+        while (low < high)
+        {
+            int middle = (low + high) >>> 1;
+            if (canFinishAtOrAbove(team, middle))
+            {
+                high = middle;
+            }
+            else
+            {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+
+    /**
+     * @param team The name of a team.
+     * @return The lowest league position that the team can still drop to.
+     * @throws SearchLimitException If the answer could not be determined within the search
+     * limit.
+     */
+    public int getLowestPossiblePosition(String team)
+    {
+        int low = 1;
+        int high = points.length;
+        while (low < high)
+        {
+            int middle = (low + high + 1) >>> 1;
+            if (canFinishAtOrBelow(team, middle))
+            {
+                low = middle;
+            }
+            else
+            {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+
+    /**
+     * The team finishes at or above the specified position if no more than position - 1
+     * other teams finish with more points.  The team's best chance is to win all of its
+     * remaining matches, so the question is whether there is a set of (team count - position)
+     * other teams that can all be held to no more than that total.  Holding a set of teams
+     * down is easiest if they lose all of their matches against teams outside the set, so
+     * only matches within the set need to be considered.
+     * @param team The name of a team.
+     * @param position A league position (1 is top).
+     * @return True if the team can still finish in that position or higher.
+     * @throws SearchLimitException If the answer could not be determined within the search
+     * limit.
+     */
+    public boolean canFinishAtOrAbove(String team, int position)
+    {
+        checkPosition(position);
+        int index = getIndex(team);
+        int limit = points[index] + pointsForWin * remaining[index];
+        List<Integer> candidates = new ArrayList<Integer>();
+        for (int i = 0; i < points.length; i++)
+        {
+            inSet[i] = false;
+            if (i != index && points[i] <= limit)
+            {
+                candidates.add(i);
+            }
+        }
+        // Try the teams with the most room below the limit first.
+        sortCandidates(candidates, limit, false);
+        return select(toArray(candidates), 0, 0, points.length - position, limit, true);
+    }
+
+
+    /**
+     * The team finishes at or below the specified position if at least position - 1 other
+     * teams finish with at least as many points.  The team's worst case is to lose all of its
+     * remaining matches, so the question is whether there is a set of (position - 1) other
+     * teams that can all reach its current total.  This is easiest if they win all of their
+     * matches against teams outside the set, so only matches within the set need to be
+     * decided.
+     * @param team The name of a team.
+     * @param position A league position (1 is top).
+     * @return True if the team can still finish in that position or lower.
+     * @throws SearchLimitException If the answer could not be determined within the search
+     * limit.
+     */
+    public boolean canFinishAtOrBelow(String team, int position)
+    {
+        checkPosition(position);
+        int index = getIndex(team);
+        int target = points[index];
+        List<Integer> candidates = new ArrayList<Integer>();
+        for (int i = 0; i < points.length; i++)
+        {
+            inSet[i] = false;
+            if (i != index && points[i] + pointsForWin * remaining[i] >= target)
+            {
+                candidates.add(i);
+            }
+        }
+        // Try the teams that are already closest to the target first.
+        sortCandidates(candidates, target, true);
+        return select(toArray(candidates), 0, 0, position - 1, target, false);
+    }
+
+
+    private void checkPosition(int position)
+    {
+        if (position < 1 || position > points.length)
+        {
+            throw new IllegalArgumentException("Invalid position: " + position);
+        }
+    }
+
+
+    private void sortCandidates(List<Integer> candidates, final int threshold, final boolean ascending)
+    {
+        Collections.sort(candidates, new Comparator<Integer>()
+        {
+            public int compare(Integer team1, Integer team2)
+            {
+                int room1 = threshold - points[team1];
+                int room2 = threshold - points[team2];
+                return ascending ? room1 - room2 : room2 - room1;
+            }
+        });
+    }
+
+
+    private static int[] toArray(List<Integer> list)
+    {
+        int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++)
+        {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+
+
+    /**
+     * Searches for a set of the required size among the candidates for which the points
+     * condition can be satisfied.  If a set is feasible then so is every subset of it, so
+     * a candidate that cannot be added to the current set is never tried with it again.
+     */
+    private boolean select(int[] candidates, int next, int chosen, int required, int threshold, boolean capped)
+    {
+        if (chosen >= required)
+        {
+            return true;
+        }
+        if (candidates.length - next < required - chosen)
+        {
+            return false;
+        }
+        int candidate = candidates[next];
+        inSet[candidate] = true;
+        boolean feasible = capped ? isCappedSetFeasible(threshold) : isTargetSetFeasible(threshold);
+        if (feasible && select(candidates, next + 1, chosen + 1, required, threshold, capped))
+        {
+            return true;
+        }
+        inSet[candidate] = false;
+        return select(candidates, next + 1, chosen, required, threshold, capped);
+    }
+
+
+    /**
+     * @return True if the matches between teams in the set can be decided so that none of
+     * them exceeds the limit.
+     */
+    private boolean isCappedSetFeasible(int limit)
+    {
+        for (int i = 0; i < points.length; i++)
+        {
+            budget[i] = inSet[i] ? limit - points[i] : 0;
+        }
+        return search(activateFixtures(true), true);
+    }
+
+
+    /**
+     * @return True if the matches between teams in the set can be decided so that all of
+     * them reach the target (assuming they win every match against teams outside the set).
+     */
+    private boolean isTargetSetFeasible(int target)
+    {
+        for (int i = 0; i < points.length; i++)
+        {
+            budget[i] = inSet[i] ? target - points[i] : 0;
+        }
+        for (int i = 0; i < homeTeams.length; i++)
+        {
+            if (inSet[homeTeams[i]] && !inSet[awayTeams[i]])
+            {
+                budget[homeTeams[i]] -= pointsForWin;
+            }
+            else if (inSet[awayTeams[i]] && !inSet[homeTeams[i]])
+            {
+                budget[awayTeams[i]] -= pointsForWin;
+            }
+        }
+        return search(activateFixtures(false), false);
+    }
+
+
+    /**
+     * Marks the fixtures between members of the current set as active and counts each
+     * team's active fixtures.
+     * @param capped Whether the teams are being kept within limits or taken to targets.
+     * @return The indices of the active fixtures, ordered so that all of one team's
+     * fixtures are decided before moving on to the next team, starting with the team that
+     * has least room (when capped) or most points to find (otherwise) compared with
+     * drawing all of its matches.
+     */
+    private int[] activateFixtures(boolean capped)
+    {
+        int count = 0;
+        for (int i = 0; i < activeCounts.length; i++)
+        {
+            activeCounts[i] = 0;
+        }
+        for (int i = 0; i < homeTeams.length; i++)
+        {
+            fixtureActive[i] = inSet[homeTeams[i]] && inSet[awayTeams[i]];
+            if (fixtureActive[i])
+            {
+                ++activeCounts[homeTeams[i]];
+                ++activeCounts[awayTeams[i]];
+                ++count;
+            }
+        }
+        orderTeams(capped);
+        long[] keys = new long[count];
+        count = 0;
+        for (int i = 0; i < homeTeams.length; i++)
+        {
+            if (fixtureActive[i])
+            {
+                long first = Math.min(teamOrder[homeTeams[i]], teamOrder[awayTeams[i]]);
+                long second = Math.max(teamOrder[homeTeams[i]], teamOrder[awayTeams[i]]);
+                keys[count++] = (((first * points.length) + second) << 32) | i;
+            }
+        }
+        Arrays.sort(keys);
+        int[] active = new int[count];
+        for (int i = 0; i < count; i++)
+        {
+            active[i] = (int) keys[i];
+        }
+        return active;
+    }
+
+
+    /**
+     * Sets the rank of each team in the order in which its fixtures should be decided.
+     */
+    private void orderTeams(final boolean capped)
+    {
+        List<Integer> teams = new ArrayList<Integer>(points.length);
+        for (int i = 0; i < points.length; i++)
+        {
+            teams.add(i);
+        }
+        Collections.sort(teams, new Comparator<Integer>()
+        {
+            public int compare(Integer team1, Integer team2)
+            {
+                int room1 = budget[team1] - activeCounts[team1] * pointsForDraw;
+                int room2 = budget[team2] - activeCounts[team2] * pointsForDraw;
+                return capped ? room1 - room2 : room2 - room1;
+            }
+        });
+        for (int i = 0; i < teams.size(); i++)
+        {
+            teamOrder[teams.get(i)] = i;
+        }
+    }
+
+
+    private boolean search(int[] fixtures, boolean capped)
+    {
+        searchNodes = 0;
+        failedStates.clear();
+        return search(fixtures, 0, capped);
+    }
+
+
+    /**
+     * Depth-first search over the outcomes of the active fixtures, either keeping every
+     * team in the set within its limit (capped) or getting every team in the set to its
+     * target.  States that have already been shown to fail are remembered, ignoring any
+     * room beyond what a team could still use, so that equivalent combinations of earlier
+     * results are not searched again.
+     */
+    private boolean search(int[] fixtures, int index, boolean capped)
+    {
+        if (index == fixtures.length)
+        {
+            return true;
+        }
+        if (++searchNodes > MAX_SEARCH_NODES)
+        {
+            throw new SearchLimitException("No answer after searching " + MAX_SEARCH_NODES + " combinations of results.");
+        }
+        if (capped ? !isCapRelaxationFeasible() : !isTargetRelaxationFeasible())
+        {
+            return false;
+        }
+        if (capped ? isCapAssignmentFeasible() : isTargetAssignmentFeasible())
+        {
+            return true;
+        }
+        String state = encodeState(index, capped);
+        if (failedStates.contains(state))
+        {
+            return false;
+        }
+
+        int fixture = fixtures[index];
+        int home = homeTeams[fixture];
+        int away = awayTeams[fixture];
+        fixtureActive[fixture] = false;
+        --activeCounts[home];
+        --activeCounts[away];
+        int[] outcomes;
+        if (capped)
+        {
+            // Prefer the outcome that distributes fewest points, then the win for the team
+            // with most room.
+            outcomes = 2 * pointsForDraw <= pointsForWin
+                       ? (budget[home] >= budget[away] ? new int[]{DRAW, HOME_WIN, AWAY_WIN} : new int[]{DRAW, AWAY_WIN, HOME_WIN})
+                       : (budget[home] >= budget[away] ? new int[]{HOME_WIN, AWAY_WIN, DRAW} : new int[]{AWAY_WIN, HOME_WIN, DRAW});
+        }
+        else
+        {
+            // Prefer the win for the team that needs the most points.
+            outcomes = budget[home] >= budget[away]
+                       ? new int[]{HOME_WIN, AWAY_WIN, DRAW}
+                       : new int[]{AWAY_WIN, HOME_WIN, DRAW};
+        }
+        boolean feasible = false;
+        for (int i = 0; i < outcomes.length && !feasible; i++)
+        {
+            int homePoints = getHomePoints(outcomes[i]);
+            int awayPoints = getAwayPoints(outcomes[i]);
+            budget[home] -= homePoints;
+            budget[away] -= awayPoints;
+            if (isAchievable(home, capped) && isAchievable(away, capped))
+            {
+                feasible = search(fixtures, index + 1, capped);
+            }
+            budget[home] += homePoints;
+            budget[away] += awayPoints;
+        }
+        ++activeCounts[home];
+        ++activeCounts[away];
+        fixtureActive[fixture] = true;
+        if (!feasible)
+        {
+            if (failedStates.size() < MAX_REMEMBERED_STATES)
+            {
+                failedStates.add(state);
+            }
+        }
+        return feasible;
+    }
+
+
+    private int getHomePoints(int outcome)
+    {
+        return outcome == DRAW ? pointsForDraw : (outcome == HOME_WIN ? pointsForWin : 0);
+    }
+
+
+    private int getAwayPoints(int outcome)
+    {
+        return outcome == DRAW ? pointsForDraw : (outcome == AWAY_WIN ? pointsForWin : 0);
+    }
+
+
+    /**
+     * @param limit The most points that the team may collect.
+     * @param matches The number of matches that the team has left.
+     * @return The most shares (see {@link #cappedSharesNetwork}) that the team can collect
+     * without exceeding the limit.
+     */
+    private int getMostShares(int limit, int matches)
+    {
+        int most = 0;
+        for (int wins = 0; wins <= matches && wins * pointsForWin <= limit; wins++)
+        {
+            int draws = matches - wins;
+            if (pointsForDraw > 0)
+            {
+                draws = Math.min(draws, (limit - wins * pointsForWin) / pointsForDraw);
+            }
+            most = Math.max(most, 2 * wins + draws);
+        }
+        return most;
+    }
+
+
+    /**
+     * @param target The number of points that the team must collect.
+     * @param matches The number of matches that the team has left.
+     * @return The fewest shares (see {@link #targetSharesNetwork}) with which the team
+     * can reach its target, or -1 if the target is out of reach.
+     */
+    private int getFewestShares(int target, int matches)
+    {
+        int fewest = target > 0 ? -1 : 0;
+        for (int wins = 0; wins <= matches && fewest != 0; wins++)
+        {
+            int shortfall = Math.max(target - wins * pointsForWin, 0);
+            int draws = shortfall == 0 ? 0 : (pointsForDraw > 0 ? (shortfall + pointsForDraw - 1) / pointsForDraw : matches + 1);
+            if (draws <= matches - wins && (fewest < 0 || 2 * wins + draws < fewest))
+            {
+                fewest = 2 * wins + draws;
+            }
+        }
+        return fewest;
+    }
+
+
+    /**
+     * @return The most points that a team can get from a single match.
+     */
+    private int getMaximumTeamPoints()
+    {
+        return Math.max(pointsForWin, pointsForDraw);
+    }
+
+
+    /**
+     * @return True if the team's remaining budget can still be satisfied by its remaining
+     * active fixtures.
+     */
+    private boolean isAchievable(int team, boolean capped)
+    {
+        return capped ? budget[team] >= 0 : budget[team] <= getMaximumTeamPoints() * activeCounts[team];
+    }
+
+
+    /**
+     * Encodes the position in the search and the part of each team's budget that can
+     * still make a difference.
+     */
+    private String encodeState(int index, boolean capped)
+    {
+        char[] state = new char[budget.length + 1];
+        state[0] = (char) index;
+        for (int i = 0; i < budget.length; i++)
+        {
+            int value = 0;
+            if (inSet[i] && activeCounts[i] > 0)
+            {
+                value = capped
+                        ? Math.min(budget[i], getMaximumTeamPoints() * activeCounts[i])
+                        : Math.max(budget[i], 0);
+            }
+            state[i + 1] = (char) value;
+        }
+        return new String(state);
+    }
+
+
+    /**
+     * Brings the fixtures in a network up to date with the current search state.  This
+     * includes fixtures outside the current set, which may still be active in the network
+     * from an earlier check.
+     * @return The number of fixtures that are still active.
+     */
+    private int updateFixtures(FixtureNetwork network)
+    {
+        int active = 0;
+        for (int fixture = 0; fixture < fixtureActive.length; fixture++)
+        {
+            network.setActive(fixture, fixtureActive[fixture]);
+            if (fixtureActive[fixture])
+            {
+                ++active;
+            }
+        }
+        return active;
+    }
+
+
+    /**
+     * Necessary condition for keeping every team within its limit.
+     */
+    private boolean isCapRelaxationFeasible()
+    {
+        int active = updateFixtures(cappedSharesNetwork);
+        for (int i = 0; i < budget.length; i++)
+        {
+            cappedSharesNetwork.setTeamCapacity(i, inSet[i] ? getMostShares(budget[i], activeCounts[i]) : 0);
+        }
+        return cappedSharesNetwork.maximise() == active * 2;
+    }
+
+
+    /**
+     * Sufficient condition for keeping every team within its limit: either every team can
+     * draw all of its remaining matches, or the teams that can't can lose enough of them
+     * to teams with room for the extra points, or every match can be won by a team that
+     * has room for the points.
+     */
+    private boolean isCapAssignmentFeasible()
+    {
+        boolean allDraws = true;
+        for (int i = 0; i < budget.length && allDraws; i++)
+        {
+            allDraws = !inSet[i] || activeCounts[i] * pointsForDraw <= budget[i];
+        }
+        if (allDraws || isDrawnBaselineFeasible(true))
+        {
+            return true;
+        }
+        int active = updateFixtures(winLimitNetwork);
+        for (int i = 0; i < budget.length; i++)
+        {
+            winLimitNetwork.setTeamCapacity(i, inSet[i] ? budget[i] / pointsForWin : 0);
+        }
+        return winLimitNetwork.maximise() == active;
+    }
+
+
+    /**
+     * Necessary conditions for getting every team to its target.  Each team must be able
+     * to collect the fewest shares with which it could reach its target.  This is weak
+     * when teams need more than a draw's worth of points per match, so in addition, a team
+     * with n matches left that needs p points must win at least (p - n * draw) / (win - draw)
+     * of them, and each match can only be won by one team.
+     */
+    private boolean isTargetRelaxationFeasible()
+    {
+        updateFixtures(targetSharesNetwork);
+        int required = 0;
+        for (int i = 0; i < budget.length; i++)
+        {
+            int demand = inSet[i] ? getFewestShares(budget[i], activeCounts[i]) : 0;
+            if (demand < 0)
+            {
+                return false;
+            }
+            required += demand;
+            targetSharesNetwork.setTeamCapacity(i, demand);
+        }
+        if (targetSharesNetwork.maximise() != required)
+        {
+            return false;
+        }
+        if (pointsForWin <= pointsForDraw)
+        {
+            return true;
+        }
+
+        updateFixtures(minimumWinsNetwork);
+        required = 0;
+        int margin = pointsForWin - pointsForDraw;
+        for (int i = 0; i < budget.length; i++)
+        {
+            int wins = 0;
+            if (inSet[i])
+            {
+                int shortfall = budget[i] - activeCounts[i] * pointsForDraw;
+                wins = shortfall > 0 ? (shortfall + margin - 1) / margin : 0;
+            }
+            required += wins;
+            minimumWinsNetwork.setTeamCapacity(i, wins);
+        }
+        return minimumWinsNetwork.maximise() == required;
+    }
+
+
+    /**
+     * Sufficient condition for getting every team to its target: either the teams that
+     * would fall short by drawing all of their remaining matches can win enough of them
+     * against teams with points to spare, or every team can reach its target through wins
+     * alone, with each match won by one team.
+     */
+    private boolean isTargetAssignmentFeasible()
+    {
+        if (pointsForWin <= 0)
+        {
+            return false;
+        }
+        if (isDrawnBaselineFeasible(false))
+        {
+            return true;
+        }
+        updateFixtures(winTargetNetwork);
+        int required = 0;
+        for (int i = 0; i < budget.length; i++)
+        {
+            int wins = inSet[i] && budget[i] > 0 ? (budget[i] + pointsForWin - 1) / pointsForWin : 0;
+            required += wins;
+            winTargetNetwork.setTeamCapacity(i, wins);
+        }
+        return winTargetNetwork.maximise() == required;
+    }
+
+
+    /**
+     * Starting from every remaining match being drawn, checks whether the teams that would
+     * exceed their limits (capped) or miss their targets (otherwise) can make up the
+     * difference by losing (or winning) matches against teams that can afford the extra
+     * points (or the lost points).  Matches between any other teams stay drawn.
+     */
+    private boolean isDrawnBaselineFeasible(boolean capped)
+    {
+        int margin = pointsForWin - pointsForDraw;
+        if (margin <= 0 || pointsForDraw <= 0)
+        {
+            return false;
+        }
+        // A positive demand is the number of decisive results that the team needs (losses
+        // if capped, wins otherwise).  A negative demand is the number that it can afford
+        // to give away (wins if capped, losses otherwise).
+        for (int i = 0; i < budget.length; i++)
+        {
+            baselineDemand[i] = 0;
+            baselineFixtures[i] = 0;
+            if (inSet[i])
+            {
+                int room = budget[i] - activeCounts[i] * pointsForDraw;
+                if (capped)
+                {
+                    baselineDemand[i] = room < 0 ? (pointsForDraw - 1 - room) / pointsForDraw : -(room / margin);
+                }
+                else
+                {
+                    baselineDemand[i] = room > 0 ? (room + margin - 1) / margin : -(-room / pointsForDraw);
+                }
+            }
+        }
+        int decided = 0;
+        for (int fixture = 0; fixture < fixtureActive.length; fixture++)
+        {
+            int home = homeTeams[fixture];
+            int away = awayTeams[fixture];
+            boolean used = fixtureActive[fixture]
+                           && ((baselineDemand[home] > 0 && baselineDemand[away] < 0)
+                               || (baselineDemand[away] > 0 && baselineDemand[home] < 0));
+            drawnBaselineNetwork.setActive(fixture, used);
+            if (used)
+            {
+                ++baselineFixtures[baselineDemand[home] > 0 ? home : away];
+                ++decided;
+            }
+        }
+        // Each match between the two kinds of team is either drawn (flow to the team that
+        // needs decisive results) or decisive (flow to the team that can afford it).
+        for (int i = 0; i < budget.length; i++)
+        {
+            int capacity = Math.abs(baselineDemand[i]);
+            if (baselineDemand[i] > 0)
+            {
+                capacity = baselineFixtures[i] - baselineDemand[i];
+                if (capacity < 0)
+                {
+                    return false;
+                }
+            }
+            drawnBaselineNetwork.setTeamCapacity(i, capacity);
+        }
+        return drawnBaselineNetwork.maximise() == decided;
+    }
+}
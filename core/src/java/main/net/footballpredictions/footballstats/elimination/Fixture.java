@@ -0,0 +1,53 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.elimination;
+
+/**
+ * A match that has yet to be played.
+ * @author Daniel Dyer
+ */
+public final class Fixture
+{
+    private final String homeTeam;
+    private final String awayTeam;
+
+    public Fixture(String homeTeam, String awayTeam)
+    {
+        this.homeTeam = homeTeam;
+        this.awayTeam = awayTeam;
+    }
+
+
+    public String getHomeTeam()
+    {
+        return homeTeam;
+    }
+
+
+    public String getAwayTeam()
+    {
+        return awayTeam;
+    }
+
+
+    @Override
+    public String toString()
+    {
+        return homeTeam + " v " + awayTeam;
+    }
+}
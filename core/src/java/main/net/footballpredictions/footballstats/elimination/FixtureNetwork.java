@@ -0,0 +1,95 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.elimination;
+
+import net.footballpredictions.footballstats.util.MaxFlow;
+
+/**
+ * A flow network with a node for each fixture and a node for each team.  Each fixture
+ * receives a fixed supply from the source when it is active, and can pass it on to either
+ * of the two teams involved.  Each team can pass a variable amount on to the sink.  The
+ * network is retained between checks so that the flow is updated incrementally.
+ * @author Daniel Dyer
+ */
+final class FixtureNetwork
+{
+    private static final int SOURCE = 0;
+    private static final int SINK = 1;
+
+    private final MaxFlow network;
+    private final int[] fixtureEdges;
+    private final int[] teamEdges;
+    private final int fixtureSupply;
+
+
+    /**
+     * @param homeTeams The index of the home team for each fixture.
+     * @param awayTeams The index of the away team for each fixture.
+     * @param teamCount The number of teams.
+     * @param fixtureSupply The amount supplied to each active fixture.
+     */
+    FixtureNetwork(int[] homeTeams, int[] awayTeams, int teamCount, int fixtureSupply)
+    {
+        int fixtureCount = homeTeams.length;
+        this.fixtureSupply = fixtureSupply;
+        this.network = new MaxFlow(2 + fixtureCount + teamCount, SOURCE, SINK);
+        this.fixtureEdges = new int[fixtureCount];
+        this.teamEdges = new int[teamCount];
+        int firstTeamNode = 2 + fixtureCount;
+        for (int i = 0; i < fixtureCount; i++)
+        {
+            fixtureEdges[i] = network.addEdge(SOURCE, 2 + i, 0);
+            network.addEdge(2 + i, firstTeamNode + homeTeams[i], fixtureSupply);
+            network.addEdge(2 + i, firstTeamNode + awayTeams[i], fixtureSupply);
+        }
+        for (int i = 0; i < teamCount; i++)
+        {
+            teamEdges[i] = network.addEdge(firstTeamNode + i, SINK, 0);
+        }
+    }
+
+
+    void setActive(int fixture, boolean active)
+    {
+        setCapacity(fixtureEdges[fixture], active ? fixtureSupply : 0);
+    }
+
+
+    void setTeamCapacity(int team, int capacity)
+    {
+        setCapacity(teamEdges[team], Math.max(capacity, 0));
+    }
+
+
+    private void setCapacity(int edge, int capacity)
+    {
+        if (network.getCapacity(edge) != capacity)
+        {
+            network.setCapacity(edge, capacity);
+        }
+    }
+
+
+    /**
+     * @return The maximum flow for the current capacities.
+     */
+    int maximise()
+    {
+        return network.maximise();
+    }
+}
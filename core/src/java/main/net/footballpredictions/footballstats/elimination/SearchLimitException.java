@@ -0,0 +1,33 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.elimination;
+
+/**
+ * Exception thrown when the {@link EliminationCalculator} cannot settle a question within
+ * its search limit.  The outcome is then unknown, rather than possible or impossible.
+ * @author Daniel Dyer
+ */
+public class SearchLimitException extends RuntimeException
+{
+    private static final long serialVersionUID = -1237284772301915868L;
+
+    public SearchLimitException(String message)
+    {
+        super(message);
+    }
+}
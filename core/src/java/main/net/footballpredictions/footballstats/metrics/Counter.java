@@ -0,0 +1,49 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread-safe count of events, such as cache hits.
+ * @author Daniel Dyer
+ */
+public final class Counter implements CounterMBean
+{
+    private final AtomicLong count = new AtomicLong();
+
+    public void increment()
+    {
+        count.incrementAndGet();
+    }
+
+
+    public void add(long amount)
+    {
+        count.addAndGet(amount);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public long getCount()
+    {
+        return count.get();
+    }
+}
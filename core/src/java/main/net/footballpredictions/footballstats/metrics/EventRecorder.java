@@ -0,0 +1,180 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.metrics;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Receives notification of significant activities (parsing data, building seasons,
+ * querying tables and refreshing the user interface) so that they can be recorded by an
+ * external profiling tool, such as JDK Flight Recorder.  The core classes must run on
+ * Java 5, so the recorder implementation is loaded by name at runtime.  If it is not
+ * available (because it is not on the classpath or the JVM does not support it), a
+ * recorder that does nothing is used instead.
+ * @author Daniel Dyer
+ */
+public abstract class EventRecorder
+{
+    /**
+     * The system property that can be used to specify a different recorder class.  Set it
+     * to an empty string to disable recording.
+     */
+    public static final String RECORDER_PROPERTY = "fsa.eventRecorder";
+
+    private static final String DEFAULT_RECORDER = "net.footballpredictions.footballstats.jfr.FlightRecorderEvents";
+
+    private static final Span NO_SPAN = new Span()
+    {
+        public void finish()
+        {
+            // Nothing to record.
+        }
+    };
+
+    private static final ParseSpan NO_PARSE_SPAN = new ParseSpan()
+    {
+        public void finish(long bytes, int results)
+        {
+            // Nothing to record.
+        }
+    };
+
+    private static final EventRecorder NONE = new EventRecorder()
+    {
+        public ParseSpan startParse(String source)
+        {
+            return NO_PARSE_SPAN;
+        }
+
+        public Span startBuildPhase(String phase, int results)
+        {
+            return NO_SPAN;
+        }
+
+        public Span startTableQuery(String table, String venue)
+        {
+            return NO_SPAN;
+        }
+
+        public Span startPanelRefresh(String panel)
+        {
+            return NO_SPAN;
+        }
+    };
+
+    private static final EventRecorder INSTANCE = loadRecorder();
+
+
+    /**
+     * @return The recorder used for all of the events recorded by this application.
+     */
+    public static EventRecorder getInstance()
+    {
+        return INSTANCE;
+    }
+
+
+    private static EventRecorder loadRecorder()
+    {
+        try
+        {
+            String className = System.getProperty(RECORDER_PROPERTY, DEFAULT_RECORDER);
+            if (className.length() > 0)
+            {
+                return (EventRecorder) Class.forName(className).getConstructor().newInstance();
+            }
+        }
+        // Recording is optional, so in each of these cases fall through and do without.
+        catch (InvocationTargetException ex)
+        {
+            // The recorder's constructor failed.
+        }
+        catch (Exception ex)
+        {
+            // Missing class or constructor, a class that is not a recorder, or an applet
+            // that is not allowed to read system properties.
+        }
+        catch (LinkageError error)
+        {
+            // Compiled for a later JVM, or a JVM without Flight Recorder.
+        }
+        return NONE;
+    }
+
+
+    /**
+     * Called before reading a data file.
+     * @param source A description of where the data is read from (such as a URL), or null
+     * if it is not known.
+     * @return The span to finish once the data has been read.
+     */
+    public abstract ParseSpan startParse(String source);
+
+
+    /**
+     * Called at the start of each phase of building a {@link
+     * net.footballpredictions.footballstats.model.LeagueSeason}.
+     * @param phase The name of the phase (e.g. "sorting").
+     * @param results The number of results in the season.
+     * @return The span to finish once the phase has completed.
+     */
+    public abstract Span startBuildPhase(String phase, int results);
+
+
+    /**
+     * Called before calculating a table.
+     * @param table The type of table (e.g. "standard").
+     * @param venue The venue that the table is for, or null if not applicable.
+     * @return The span to finish once the table has been calculated.
+     */
+    public abstract Span startTableQuery(String table, String venue);
+
+
+    /**
+     * Called before a user interface component is refreshed with new data.
+     * @param panel The name of the component.
+     * @return The span to finish once the component has been refreshed.
+     */
+    public abstract Span startPanelRefresh(String panel);
+
+
+    /**
+     * An activity that is in progress.
+     */
+    public static interface Span
+    {
+        /**
+         * Records the activity.  Must be called at most once.
+         */
+        void finish();
+    }
+
+
+    /**
+     * Reading of a data file that is in progress.
+     */
+    public static interface ParseSpan
+    {
+        /**
+         * Records the parsing of the file.  Must be called at most once.
+         * @param bytes The number of bytes read.
+         * @param results The number of results read.
+         */
+        void finish(long bytes, int results);
+    }
+}
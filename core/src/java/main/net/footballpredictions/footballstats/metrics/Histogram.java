@@ -0,0 +1,167 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records the distribution of a set of non-negative values.  Values are counted in
+ * power-of-two buckets, so recording a value is just a few atomic updates and never
+ * allocates or blocks, but percentiles are only accurate to within a factor of two
+ * (they are reported as the upper bound of the bucket, capped at the maximum value).
+ * The minimum, maximum and mean are exact.
+ * @author Daniel Dyer
+ */
+public final class Histogram implements HistogramMBean
+{
+    // Bucket 0 holds zero, bucket n holds values from 2^(n-1) to 2^n - 1.
+    private static final int BUCKET_COUNT = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * @param value A non-negative value.  Negative values are recorded as zero.
+     */
+    public void update(long value)
+    {
+        long boundedValue = Math.max(value, 0);
+        buckets.incrementAndGet(Math.min(64 - Long.numberOfLeadingZeros(boundedValue), BUCKET_COUNT - 1));
+        count.incrementAndGet();
+        sum.addAndGet(boundedValue);
+        long currentMin = min.get();
+        while (boundedValue < currentMin && !min.compareAndSet(currentMin, boundedValue))
+        {
+            currentMin = min.get();
+        }
+        long currentMax = max.get();
+        while (boundedValue > currentMax && !max.compareAndSet(currentMax, boundedValue))
+        {
+            currentMax = max.get();
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public long getCount()
+    {
+        return count.get();
+    }
+
+
+    /**
+     * @return The total of all recorded values.
+     */
+    public long getSum()
+    {
+        return sum.get();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public long getMin()
+    {
+        return getCount() == 0 ? 0 : min.get();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public long getMax()
+    {
+        return getCount() == 0 ? 0 : max.get();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public double getMean()
+    {
+        long n = getCount();
+        return n == 0 ? 0 : (double) getSum() / n;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public long getMedian()
+    {
+        return getPercentile(0.5);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public long get95thPercentile()
+    {
+        return getPercentile(0.95);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public long get99thPercentile()
+    {
+        return getPercentile(0.99);
+    }
+
+
+    /**
+     * @param quantile A value between zero and one (e.g. 0.95 for the 95th percentile).
+     * @return An upper bound for the specified percentile of the recorded values, or zero
+     * if no values have been recorded.
+     */
+    public long getPercentile(double quantile)
+    {
+        if (quantile < 0 || quantile > 1)
+        {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1.");
+        }
+        long n = getCount();
+        if (n == 0)
+        {
+            return 0;
+        }
+        long rank = Math.max((long) Math.ceil(quantile * n), 1);
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++)
+        {
+            total += buckets.get(i);
+            if (total >= rank)
+            {
+                long upperBound = i == BUCKET_COUNT - 1 ? Long.MAX_VALUE : (1L << i) - 1;
+                return Math.min(Math.max(upperBound, getMin()), getMax());
+            }
+        }
+        // Values recorded concurrently may not all be reflected in the buckets yet.
+        return getMax();
+    }
+}
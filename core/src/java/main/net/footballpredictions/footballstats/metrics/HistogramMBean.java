@@ -0,0 +1,52 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.metrics;
+
+/**
+ * Management interface for {@link Histogram}.
+ * @author Daniel Dyer
+ */
+public interface HistogramMBean
+{
+    /**
+     * @return The number of values recorded.
+     */
+    long getCount();
+
+    /**
+     * @return The smallest value recorded, or zero if no values have been recorded.
+     */
+    long getMin();
+
+    /**
+     * @return The largest value recorded, or zero if no values have been recorded.
+     */
+    long getMax();
+
+    /**
+     * @return The arithmetic mean of the recorded values, or zero if no values have been
+     * recorded.
+     */
+    double getMean();
+
+    long getMedian();
+
+    long get95thPercentile();
+
+    long get99thPercentile();
+}
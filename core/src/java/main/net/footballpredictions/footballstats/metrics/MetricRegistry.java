@@ -0,0 +1,160 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.metrics;
+
+import java.util.SortedMap;
+import java.util.TreeMap;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * A set of named metrics.  Metrics are created the first time they are requested and
+ * the same instance is returned for every subsequent request with the same name, so
+ * frequently-updated metrics should be looked up once and kept in a field.  Looking up
+ * a metric is synchronized, but updating it is not.
+ * @author Daniel Dyer
+ */
+public final class MetricRegistry
+{
+    private static final MetricRegistry INSTANCE = new MetricRegistry();
+
+    private final SortedMap<String, Counter> counters = new TreeMap<String, Counter>();
+    private final SortedMap<String, Histogram> histograms = new TreeMap<String, Histogram>();
+    private final SortedMap<String, Timer> timers = new TreeMap<String, Timer>();
+
+    private MBeanServer mBeanServer = null;
+    private String domain = null;
+
+    /**
+     * @return The registry that is used for all of the metrics recorded by this application.
+     */
+    public static MetricRegistry getInstance()
+    {
+        return INSTANCE;
+    }
+
+
+    public synchronized Counter getCounter(String name)
+    {
+        Counter counter = counters.get(name);
+        if (counter == null)
+        {
+            counter = new Counter();
+            counters.put(name, counter);
+            register("Counter", name, counter);
+        }
+        return counter;
+    }
+
+
+    public synchronized Histogram getHistogram(String name)
+    {
+        Histogram histogram = histograms.get(name);
+        if (histogram == null)
+        {
+            histogram = new Histogram();
+            histograms.put(name, histogram);
+            register("Histogram", name, histogram);
+        }
+        return histogram;
+    }
+
+
+    public synchronized Timer getTimer(String name)
+    {
+        Timer timer = timers.get(name);
+        if (timer == null)
+        {
+            timer = new Timer();
+            timers.put(name, timer);
+            register("Timer", name, timer);
+        }
+        return timer;
+    }
+
+
+    /**
+     * Passes a snapshot of the current set of metrics to a reporter.  The values of the
+     * metrics may continue to change while the report is being generated.
+     * @param reporter The reporter to publish the metrics.
+     */
+    public void report(MetricReporter reporter)
+    {
+        SortedMap<String, Counter> counterSnapshot;
+        SortedMap<String, Histogram> histogramSnapshot;
+        SortedMap<String, Timer> timerSnapshot;
+        synchronized (this)
+        {
+            counterSnapshot = new TreeMap<String, Counter>(counters);
+            histogramSnapshot = new TreeMap<String, Histogram>(histograms);
+            timerSnapshot = new TreeMap<String, Timer>(timers);
+        }
+        reporter.report(counterSnapshot, histogramSnapshot, timerSnapshot);
+    }
+
+
+    /**
+     * Registers every metric as an MBean so that it can be monitored with JMX tools such
+     * as JConsole.  Metrics that are created after this method is invoked are registered
+     * when they are created.  Each MBean is named
+     * <code>&lt;domain&gt;:type=&lt;Counter|Histogram|Timer&gt;,name=&lt;metric name&gt;</code>.
+     * @param server The server with which to register the MBeans.
+     * @param domain The domain part of the MBean names.
+     * @throws JMException If any of the existing metrics cannot be registered.
+     */
+    public synchronized void registerMBeans(MBeanServer server, String domain) throws JMException
+    {
+        for (String name : counters.keySet())
+        {
+            server.registerMBean(counters.get(name), getObjectName(domain, "Counter", name));
+        }
+        for (String name : histograms.keySet())
+        {
+            server.registerMBean(histograms.get(name), getObjectName(domain, "Histogram", name));
+        }
+        for (String name : timers.keySet())
+        {
+            server.registerMBean(timers.get(name), getObjectName(domain, "Timer", name));
+        }
+        this.mBeanServer = server;
+        this.domain = domain;
+    }
+
+
+    private void register(String type, String name, Object metric)
+    {
+        if (mBeanServer != null)
+        {
+            try
+            {
+                mBeanServer.registerMBean(metric, getObjectName(domain, type, name));
+            }
+            catch (JMException ex)
+            {
+                // Monitoring is optional, the metric can still be used and reported.
+            }
+        }
+    }
+
+
+    private static ObjectName getObjectName(String domain, String type, String name) throws JMException
+    {
+        return new ObjectName(domain + ":type=" + type + ",name=" + ObjectName.quote(name));
+    }
+}
@@ -0,0 +1,36 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.metrics;
+
+import java.util.SortedMap;
+
+/**
+ * Strategy for publishing the current values of the metrics in a {@link MetricRegistry}.
+ * @author Daniel Dyer
+ */
+public interface MetricReporter
+{
+    /**
+     * @param counters All counters, keyed by name.
+     * @param histograms All histograms, keyed by name.
+     * @param timers All timers, keyed by name.
+     */
+    void report(SortedMap<String, Counter> counters,
+                SortedMap<String, Histogram> histograms,
+                SortedMap<String, Timer> timers);
+}
@@ -0,0 +1,77 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.metrics;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Writes a plain text summary of each metric, one per line, to a stream.
+ * @author Daniel Dyer
+ */
+public class PrintStreamReporter implements MetricReporter
+{
+    private final PrintStream stream;
+
+    public PrintStreamReporter(PrintStream stream)
+    {
+        this.stream = stream;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public void report(SortedMap<String, Counter> counters,
+                       SortedMap<String, Histogram> histograms,
+                       SortedMap<String, Timer> timers)
+    {
+        for (Map.Entry<String, Counter> entry : counters.entrySet())
+        {
+            stream.println(entry.getKey() + ": " + entry.getValue().getCount());
+        }
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet())
+        {
+            Histogram histogram = entry.getValue();
+            stream.println(String.format("%s: count=%d min=%d mean=%.1f median=%d p95=%d p99=%d max=%d",
+                                         entry.getKey(),
+                                         histogram.getCount(),
+                                         histogram.getMin(),
+                                         histogram.getMean(),
+                                         histogram.getMedian(),
+                                         histogram.get95thPercentile(),
+                                         histogram.get99thPercentile(),
+                                         histogram.getMax()));
+        }
+        for (Map.Entry<String, Timer> entry : timers.entrySet())
+        {
+            Timer timer = entry.getValue();
+            stream.println(String.format("%s: count=%d total=%.3fms mean=%.3fms median=%.3fms p95=%.3fms p99=%.3fms max=%.3fms",
+                                         entry.getKey(),
+                                         timer.getCount(),
+                                         timer.getTotalMillis(),
+                                         timer.getMeanMillis(),
+                                         timer.getMedianMillis(),
+                                         timer.get95thPercentileMillis(),
+                                         timer.get99thPercentileMillis(),
+                                         timer.getMaxMillis()));
+        }
+        stream.flush();
+    }
+}
@@ -0,0 +1,139 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.metrics;
+
+/**
+ * Records the distribution of the durations of an operation.  Timing an operation does
+ * not allocate any objects:
+ * <pre>
+ * long start = timer.start();
+ * // Timed operation...
+ * timer.stop(start);
+ * </pre>
+ * @author Daniel Dyer
+ */
+public final class Timer implements TimerMBean
+{
+    private static final double NANOS_PER_MILLI = 1000000d;
+
+    private final Histogram durations = new Histogram();
+
+    /**
+     * @return The start time, to be passed to {@link #stop(long)} when the timed
+     * operation has completed.
+     */
+    public long start()
+    {
+        return System.nanoTime();
+    }
+
+
+    /**
+     * Records the time elapsed since the specified start time.
+     * @param startTime A value returned by {@link #start()}.
+     * @return The elapsed time in nanoseconds.
+     */
+    public long stop(long startTime)
+    {
+        long elapsed = System.nanoTime() - startTime;
+        durations.update(elapsed);
+        return elapsed;
+    }
+
+
+    /**
+     * Records a duration that was measured elsewhere.
+     * @param nanoseconds The duration in nanoseconds.
+     */
+    public void update(long nanoseconds)
+    {
+        durations.update(nanoseconds);
+    }
+
+
+    /**
+     * @return The distribution of recorded durations, in nanoseconds.
+     */
+    public Histogram getDurations()
+    {
+        return durations;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public long getCount()
+    {
+        return durations.getCount();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public double getTotalMillis()
+    {
+        return durations.getSum() / NANOS_PER_MILLI;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public double getMeanMillis()
+    {
+        return durations.getMean() / NANOS_PER_MILLI;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public double getMaxMillis()
+    {
+        return durations.getMax() / NANOS_PER_MILLI;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public double getMedianMillis()
+    {
+        return durations.getMedian() / NANOS_PER_MILLI;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public double get95thPercentileMillis()
+    {
+        return durations.get95thPercentile() / NANOS_PER_MILLI;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public double get99thPercentileMillis()
+    {
+        return durations.get99thPercentile() / NANOS_PER_MILLI;
+    }
+}
@@ -17,20 +17,24 @@
 // ============================================================================
 package net.footballpredictions.footballstats.model;
 
-import java.util.Collections;
-import java.util.SortedSet;
-import net.footballpredictions.footballstats.util.FixedSizeSortedSet;
-
 /**
- * {@link TeamRecord} that contains only data about the most recent matches.
+ * {@link TeamRecord} that contains only data about a run of consecutive matches (usually
+ * the most recent matches).  The figures are calculated from a team's cumulative totals
+ * (see {@link ResultTotals}), so each one is a simple subtraction regardless of the number
+ * of matches in the record.
  * @author Daniel Dyer
  */
 public class FormRecord extends AbstractTeamRecord
 {
     private final int length;
-    private final SortedSet<Result> formResults;
+    private final ResultTotals totals;
+    private final boolean fixed;
+    private final boolean shared; // True if the totals belong to another record.
+    private final int from;
+    private final int to;
 
     /**
+     * Creates a record of the most recent matches.  Results must be added in date order.
      * @param team The team that the form data relates to.                                       
      * @param length The number of matches that make up the form record (typically six for
      * an overall form record and 4 for home/away form).
@@ -44,16 +48,84 @@ public class FormRecord extends AbstractTeamRecord
     {
         super(team, pointsForWin, pointsForDraw);
         this.length = length;
-        this.formResults = new FixedSizeSortedSet<Result>(length, Collections.reverseOrder(new ResultDateComparator()));
+        this.totals = new ResultTotals(team.getName(), length);
+        this.fixed = false;
+        this.shared = false;
+        this.from = 0;
+        this.to = 0;
+    }
+
+
+    /**
+     * Creates a fixed record of a run of matches from a team's existing totals.
+     * @param from The index of the first match in the run.
+     * @param to The index after the last match in the run.
+     * @param length The nominal number of matches in the record.  If the run is shorter
+     * than this (because not enough matches have been played) the form string is padded.
+     */
+    FormRecord(Team team,
+               int pointsForWin,
+               int pointsForDraw,
+               ResultTotals totals,
+               int from,
+               int to,
+               int length)
+    {
+        super(team, pointsForWin, pointsForDraw);
+        this.length = length;
+        this.totals = totals;
+        this.fixed = true;
+        this.shared = true;
+        this.from = from;
+        this.to = to;
+    }
+
+
+    /**
+     * Creates a record of the most recent matches in a team's existing totals.  Unlike a
+     * fixed record, this changes as results are added to the totals.
+     * @param length The number of matches that make up the form record.
+     */
+    FormRecord(Team team,
+               int pointsForWin,
+               int pointsForDraw,
+               ResultTotals totals,
+               int length)
+    {
+        super(team, pointsForWin, pointsForDraw);
+        this.length = length;
+        this.totals = totals;
+        this.fixed = false;
+        this.shared = true;
+        this.from = 0;
+        this.to = 0;
     }
 
 
     /**
      * {@inheritDoc}
+     * @throws UnsupportedOperationException If this record is based on another record's
+     * totals.
      */
     public void addResult(Result result)
     {
-        formResults.add(result);
+        if (shared)
+        {
+            throw new UnsupportedOperationException("Cannot add results to a form record that shares another record's totals.");
+        }
+        totals.addResult(result);
+    }
+
+
+    private int getFrom()
+    {
+        return fixed ? from : Math.max(0, totals.getCount() - length);
+    }
+
+
+    private int getTo()
+    {
+        return fixed ? to : totals.getCount();
     }
 
 
@@ -62,31 +134,31 @@ public class FormRecord extends AbstractTeamRecord
      */
     public String getForm()
     {
+        int start = getFrom();
+        int end = getTo();
         StringBuilder formString = new StringBuilder();
-
-        for (Result result : formResults)
+        // If we don't have a full set of results (because not enough games have been played
+        // yet), uses dashes in place of the missing results.
+        for (int i = end - start; i < length; i++)
+        {
+            formString.append('-');
+        }
+        for (int i = start; i < end; i++)
         {
-            if (result.isDraw())
+            if (totals.getWon(i, i + 1) > 0)
             {
-                formString.append('D');
+                formString.append('W');
             }
-            else if (result.isWin(getTeam().getName()))
+            else if (totals.getDrawn(i, i + 1) > 0)
             {
-                formString.append('W');
+                formString.append('D');
             }
             else
             {
                 formString.append('L');
             }
         }
-        // If we don't have a full set of results (because not enough games have been played
-        // yet), uses dashes in place of the missing results.
-        for (int i = formResults.size(); i < length; i++)
-        {
-            formString.append('-');
-        }
-        
-        return formString.reverse().toString();
+        return formString.toString();
     }
 
 
@@ -106,7 +178,7 @@ public class FormRecord extends AbstractTeamRecord
      */
     public int getPlayed()
     {
-        return formResults.size();
+        return getTo() - getFrom();
     }
 
 
@@ -115,15 +187,7 @@ public class FormRecord extends AbstractTeamRecord
      */
     public int getWon()
     {
-        int won = 0;
-        for (Result result : formResults)
-        {
-            if (result.isWin(getTeam().getName()))
-            {
-                won++;
-            }
-        }
-        return won;
+        return totals.getWon(getFrom(), getTo());
     }
 
 
@@ -132,15 +196,7 @@ public class FormRecord extends AbstractTeamRecord
      */
     public int getDrawn()
     {
-        int drawn = 0;
-        for (Result result : formResults)
-        {
-            if (result.isDraw())
-            {
-                drawn++;
-            }
-        }
-        return drawn;
+        return totals.getDrawn(getFrom(), getTo());
     }
 
 
@@ -149,15 +205,7 @@ public class FormRecord extends AbstractTeamRecord
      */
     public int getLost()
     {
-        int lost = 0;
-        for (Result result : formResults)
-        {
-            if (result.isDefeat(getTeam().getName()))
-            {
-                lost++;
-            }
-        }
-        return lost;
+        return totals.getLost(getFrom(), getTo());
     }
 
     
@@ -166,12 +214,7 @@ public class FormRecord extends AbstractTeamRecord
      */
     public int getScored()
     {
-        int scored = 0;
-        for (Result result : formResults)
-        {
-            scored += result.getGoalsFor(getTeam().getName());
-        }
-        return scored;
+        return totals.getScored(getFrom(), getTo());
     }
 
 
@@ -180,12 +223,7 @@ public class FormRecord extends AbstractTeamRecord
      */
     public int getConceded()
     {
-        int conceded = 0;
-        for (Result result : formResults)
-        {
-            conceded += result.getGoalsAgainst(getTeam().getName());
-        }
-        return conceded;
+        return totals.getConceded(getFrom(), getTo());
     }
     
 }
@@ -0,0 +1,59 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.model;
+
+import java.util.Comparator;
+import java.util.Map;
+
+/**
+ * {@link Comparator} used to order teams that are level on points by the matches between
+ * them (points, then goal difference, then goals scored).  Teams with identical
+ * head-to-head records are considered equal, so a stable sort leaves them in their
+ * original order.
+ * @author Daniel Dyer
+ */
+class HeadToHeadComparator implements Comparator<TeamRecord>
+{
+    private final Map<String, ? extends TeamRecord> headToHead;
+
+    /**
+     * @param headToHead Each team's record against the others in its group, keyed on
+     * the team's name.
+     */
+    public HeadToHeadComparator(Map<String, ? extends TeamRecord> headToHead)
+    {
+        this.headToHead = headToHead;
+    }
+
+
+    public final int compare(TeamRecord team1, TeamRecord team2)
+    {
+        TeamRecord headToHead1 = headToHead.get(team1.getName());
+        TeamRecord headToHead2 = headToHead.get(team2.getName());
+        int compare = headToHead2.getPoints() - headToHead1.getPoints(); // Swap teams for descending order.
+        if (compare == 0)
+        {
+            compare = headToHead2.getGoalDifference() - headToHead1.getGoalDifference(); // Swap teams for descending order.
+            if (compare == 0)
+            {
+                compare = headToHead2.getScored() - headToHead1.getScored(); // Swap teams for descending order.
+            }
+        }
+        return compare;
+    }
+}
@@ -17,7 +17,10 @@
 // ============================================================================
 package net.footballpredictions.footballstats.model;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Information about a particular league.  Includes details of any deviations from
@@ -34,6 +37,9 @@ public class LeagueMetaData
     private final String[] prizeZoneNames;
     private final String[] relegationZoneNames;
 
+    private final boolean headToHead;
+    private final Map<String, List<String>> miniLeagues;
+
 
     public LeagueMetaData(int pointsForWin,
                           int pointsForDraw,
@@ -41,10 +47,38 @@ public class LeagueMetaData
                           int numberOfTeams,
                           List<LeagueZone> prizeZones,
                           List<LeagueZone> relegationZones)
+    {
+        this(pointsForWin,
+             pointsForDraw,
+             split,
+             numberOfTeams,
+             prizeZones,
+             relegationZones,
+             false,
+             Collections.<String, List<String>>emptyMap());
+    }
+
+
+    /**
+     * @param headToHead Whether teams that are level on points are separated by the
+     * results of the matches between them (before goal difference is considered).
+     * @param miniLeagues Named groups of teams (e.g. local rivals) for which separate
+     * tables can be generated.
+     */
+    public LeagueMetaData(int pointsForWin,
+                          int pointsForDraw,
+                          int split,
+                          int numberOfTeams,
+                          List<LeagueZone> prizeZones,
+                          List<LeagueZone> relegationZones,
+                          boolean headToHead,
+                          Map<String, List<String>> miniLeagues)
     {
         this.pointsForWin = pointsForWin;
         this.pointsForDraw = pointsForDraw;
         this.split = split;
+        this.headToHead = headToHead;
+        this.miniLeagues = Collections.unmodifiableMap(new LinkedHashMap<String, List<String>>(miniLeagues));
 
         // Workout positions info.
         zones = new int[numberOfTeams];
@@ -133,6 +167,28 @@ public class LeagueMetaData
     {
         return relegationZoneNames;
     }
+
+
+    /**
+     * Some leagues (e.g. Spain's La Liga and Italy's Serie A) separate teams that are level
+     * on points by considering only the matches between those teams, before overall goal
+     * difference is taken into account.
+     * @return True if the head-to-head record is the first tie-breaker, false if goal
+     * difference is.
+     */
+    public boolean isHeadToHead()
+    {
+        return headToHead;
+    }
+
+
+    /**
+     * @return A map of mini-league names to the names of the teams in each mini-league.
+     */
+    public Map<String, List<String>> getMiniLeagues()
+    {
+        return miniLeagues;
+    }
        
 
 
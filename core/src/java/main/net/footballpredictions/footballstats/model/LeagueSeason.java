@@ -18,20 +18,25 @@
 package net.footballpredictions.footballstats.model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import net.footballpredictions.footballstats.data.LeagueDataDiff;
 import net.footballpredictions.footballstats.data.LeagueDataProvider;
+import net.footballpredictions.footballstats.metrics.Counter;
+import net.footballpredictions.footballstats.metrics.EventRecorder;
+import net.footballpredictions.footballstats.metrics.MetricRegistry;
+import net.footballpredictions.footballstats.metrics.Timer;
 import net.footballpredictions.footballstats.util.FixedSizeSortedSet;
 
 /**
@@ -41,13 +46,33 @@ import net.footballpredictions.footballstats.util.FixedSizeSortedSet;
  */
 public final class LeagueSeason
 {
+    private static final Timer CONSTRUCTION_TIMER = MetricRegistry.getInstance().getTimer("season.construct");
+    private static final Timer STANDARD_TABLE_TIMER = MetricRegistry.getInstance().getTimer("table.standard");
+    private static final Timer AVERAGE_TABLE_TIMER = MetricRegistry.getInstance().getTimer("table.average");
+    private static final Timer INVERTED_TABLE_TIMER = MetricRegistry.getInstance().getTimer("table.inverted");
+    private static final Timer FORM_TABLE_TIMER = MetricRegistry.getInstance().getTimer("table.form");
+    private static final Timer SEQUENCE_TABLE_TIMER = MetricRegistry.getInstance().getTimer("table.sequence");
+    private static final Timer MINI_LEAGUE_TABLE_TIMER = MetricRegistry.getInstance().getTimer("table.miniLeague");
+    private static final Timer ATTENDANCE_TABLE_TIMER = MetricRegistry.getInstance().getTimer("table.attendance");
+    private static final Counter SUMMARY_HITS = MetricRegistry.getInstance().getCounter("cache.summary.hits");
+    private static final Counter SUMMARY_MISSES = MetricRegistry.getInstance().getCounter("cache.summary.misses");
+    private static final EventRecorder EVENTS = EventRecorder.getInstance();
+
     private final LeagueMetaData metaData;
+    private final Map<String, Integer> pointsAdjustments;
     private final Map<String, Team> teamMappings = new TreeMap<String, Team>();
     private final SortedSet<String> teamNames;
     
-    // Store a list of results for each date on which matches were played.  The map is sorted
-    // with the earliest date first.
-    private final SortedMap<Date, List<Result>> resultsByDate = new TreeMap<Date, List<Result>>();
+    // All results in date order.  The results for each date on which matches were played
+    // are a contiguous block.  Dates are stored as epoch days, earliest first, along with
+    // the index of the first result for that date (with an extra entry marking the end of
+    // the last block), so per-date lookups are just array indexing.
+    private final List<Result> results;
+    private final int[] dates;
+    private final int[] dateOffsets;
+    private final ResultIndex resultIndex;
+    private final ResultMatrix resultMatrix;
+    private SeasonSummary summary;
 
     private final Comparator<Result> resultAttendanceComparator = new ResultAttendanceComparator();
     private final SortedSet<Result> topAttendances = new FixedSizeSortedSet<Result>(20, resultAttendanceComparator);
@@ -66,6 +91,12 @@ public final class LeagueSeason
     private int aggregateAwayGoals = 0;
     private int aggregateCleansheets = 0;
     private int aggregateAttendance = 0;
+
+    // For split leagues, the number of teams that have played enough games for their split
+    // records to be complete.  Once all teams have reached that point, the two sections of
+    // the league are fixed for the rest of the season.
+    private int teamsAtSplit = 0;
+    private List<Collection<Team>> splitSections = null;
     
 
     public LeagueSeason(LeagueDataProvider dataProvider)
@@ -82,8 +113,27 @@ public final class LeagueSeason
                         Map<String, Integer> pointsAdjustments,
                         LeagueMetaData metaData)
     {
+        this(teamNames, results, pointsAdjustments, metaData, null, 0);
+    }
+
+
+    /**
+     * @param previous A previous version of this season from which league positions can be
+     * re-used.  May be null if there is no previous version.
+     * @param unchangedDates The number of dates, from the start of the season, for which the
+     * results and points adjustments are the same as in the previous version.
+     */
+    private LeagueSeason(SortedSet<String> teamNames,
+                         List<Result> results,
+                         Map<String, Integer> pointsAdjustments,
+                         LeagueMetaData metaData,
+                         LeagueSeason previous,
+                         int unchangedDates)
+    {
+        long startTime = CONSTRUCTION_TIMER.start();
         this.metaData = metaData;
         this.teamNames = teamNames;
+        this.pointsAdjustments = Collections.unmodifiableMap(new HashMap<String, Integer>(pointsAdjustments));
         for (String teamName : teamNames)
         {
             teamMappings.put(teamName, new Team(teamName,
@@ -92,58 +142,160 @@ public final class LeagueSeason
                                                 metaData.getSplit()));
         }
 
-        Collections.sort(results, new ResultDateComparator());
+        EventRecorder.Span span = EVENTS.startBuildPhase("sorting", results.size());
+        Result[] sortedResults = results.toArray(new Result[results.size()]);
+        Arrays.sort(sortedResults, new ResultDateComparator());
+        this.results = Collections.unmodifiableList(Arrays.asList(sortedResults));
+        resultIndex = new ResultIndex(this.results);
+        span.finish();
 
-        for (Result result : results)
+        span = EVENTS.startBuildPhase("globalTotals", sortedResults.length);
+        int[] dates = new int[sortedResults.length];
+        int[] dateOffsets = new int[sortedResults.length + 1];
+        int dateCount = 0;
+        for (Result result : sortedResults)
         {
             // Update global records.
             updateGlobalTotals(result);
 
-            // Add result to list for that day.
-            List<Result> resultsForDate = resultsByDate.get(result.getDate());
-            if (resultsForDate == null)
+            // Start a new block of results if this is the first match on a new date.
+            if (dateCount == 0 || dates[dateCount - 1] != result.getDate())
             {
-                resultsForDate = new LinkedList<Result>();
-                resultsByDate.put(result.getDate(), resultsForDate);
+                dates[dateCount] = result.getDate();
+                dateOffsets[dateCount] = matchCount;
+                ++dateCount;
             }
-            resultsForDate.add(result);
 
             matchCount++;
         }
+        dateOffsets[dateCount] = matchCount;
+        this.dates = new int[dateCount];
+        System.arraycopy(dates, 0, this.dates, 0, dateCount);
+        this.dateOffsets = new int[dateCount + 1];
+        System.arraycopy(dateOffsets, 0, this.dateOffsets, 0, dateCount + 1);
+        span.finish();
 
+        span = EVENTS.startBuildPhase("teamRecords", sortedResults.length);
         for (Map.Entry<String, Integer> adjustment : pointsAdjustments.entrySet())
         {
             teamMappings.get(adjustment.getKey()).adjustPoints(adjustment.getValue());
         }
 
-        processTeamRecords();
+        resultMatrix = new ResultMatrix(teamNames);
+        processTeamRecords(previous, unchangedDates);
+        span.finish();
+        CONSTRUCTION_TIMER.stop(startTime);
     }
 
 
-    private void processTeamRecords()
+    /**
+     * @param previous A previous version of this season, or null.
+     * @param unchangedDates The number of dates for which league positions can be copied
+     * from the previous version rather than re-calculated.  Positions are recorded for the
+     * overall, home, away and form tables.
+     */
+    private void processTeamRecords(LeagueSeason previous, int unchangedDates)
     {
+        // Home, away and form tables are never split, so they are ranked by re-sorting the
+        // same arrays (of records that are updated in place) after each date.
+        Comparator<TeamRecord> comparator = new LeagueTableComparator();
+        StandardRecord[] homeTable = new StandardRecord[teamMappings.size()];
+        StandardRecord[] awayTable = new StandardRecord[teamMappings.size()];
+        FormRecord[] formTable = new FormRecord[teamMappings.size()];
+        int teamIndex = 0;
+        for (Team team : teamMappings.values())
+        {
+            homeTable[teamIndex] = team.getRecord(VenueType.HOME);
+            awayTable[teamIndex] = team.getRecord(VenueType.AWAY);
+            formTable[teamIndex] = team.getRecord(VenueType.BOTH).getLiveFormRecord();
+            ++teamIndex;
+        }
+
         // Add result to the record of each team.
-        for (Date date : resultsByDate.keySet())
+        for (int dateIndex = 0; dateIndex < dates.length; dateIndex++)
         {
-            List<Result> results = resultsByDate.get(date);
             // Add current date's results to individual team records.
-            for (Result result : results)
+            for (Result result : getResults(dateIndex))
+            {
+                addTeamResult(teamMappings.get(result.getHomeTeam()), result);
+                addTeamResult(teamMappings.get(result.getAwayTeam()), result);
+                resultMatrix.addResult(result);
+            }
+            if (dateIndex < unchangedDates)
             {
-                teamMappings.get(result.getHomeTeam()).addResult(result);
-                teamMappings.get(result.getAwayTeam()).addResult(result);
+                // Nothing up to this date has changed, so neither have the positions.
+                for (Team team : teamMappings.values())
+                {
+                    Team previousTeam = previous.getTeam(team.getName());
+                    for (VenueType where : VenueType.values())
+                    {
+                        int position = previousTeam.getLeaguePositions(where).get(dateIndex);
+                        team.addLeaguePosition(where, dateIndex, position);
+                    }
+                    team.addFormPosition(dateIndex, previousTeam.getFormPositions().get(dateIndex));
+                }
             }
-            // Calculate table for current date.
-            Set<StandardRecord> table = getStandardLeagueTable(VenueType.BOTH);
-            int index = 1;
-            for (StandardRecord team : table)
+            else
             {
-                team.getTeam().addLeaguePosition(date, index);
-                ++index;
+                // Calculate table for current date.
+                Set<StandardRecord> table = calculateStandardLeagueTable(VenueType.BOTH);
+                int index = 1;
+                for (StandardRecord team : table)
+                {
+                    team.getTeam().addLeaguePosition(dateIndex, index);
+                    ++index;
+                }
+                resort(homeTable, comparator);
+                resort(awayTable, comparator);
+                resort(formTable, comparator);
+                for (int i = 0; i < teamIndex; i++)
+                {
+                    homeTable[i].getTeam().addLeaguePosition(VenueType.HOME, dateIndex, i + 1);
+                    awayTable[i].getTeam().addLeaguePosition(VenueType.AWAY, dateIndex, i + 1);
+                    formTable[i].getTeam().addFormPosition(dateIndex, i + 1);
+                }
             }
         }
+        for (Team team : teamMappings.values())
+        {
+            team.trimToSize();
+        }
     }
-    
-    
+
+
+    /**
+     * Insertion sort.  The tables that are re-sorted after each date are already almost in
+     * order, so this is close to linear and, unlike {@link Arrays#sort(Object[], Comparator)},
+     * allocates nothing.
+     */
+    private static <T> void resort(T[] table, Comparator<? super T> comparator)
+    {
+        for (int i = 1; i < table.length; i++)
+        {
+            T record = table[i];
+            int j = i - 1;
+            while (j >= 0 && comparator.compare(table[j], record) > 0)
+            {
+                table[j + 1] = table[j];
+                --j;
+            }
+            table[j + 1] = record;
+        }
+    }
+
+
+    private void addTeamResult(Team team, Result result)
+    {
+        SplitRecord splitRecord = team.getSplitRecord();
+        int splitPlayed = splitRecord == null ? 0 : splitRecord.getPlayed();
+        team.addResult(result);
+        if (splitRecord != null && splitRecord.getPlayed() > splitPlayed && splitRecord.getPlayed() == metaData.getSplit())
+        {
+            ++teamsAtSplit;
+        }
+    }
+
+
     private void updateGlobalTotals(Result result)
     {
         if (result.isDraw())
@@ -228,35 +380,233 @@ public final class LeagueSeason
     
     
     /**
-     * @return An ordered collection of dates on which matches took place, most recent first.
+     * @return The number of dates on which matches took place.
      */
-    public SortedSet<Date> getDates()
+    public int getDateCount()
     {
-        SortedSet<Date> dates = new TreeSet<Date>(Collections.reverseOrder());
-        dates.addAll(resultsByDate.keySet());
-        return dates;
+        return dates.length;
+    }
+
+
+    /**
+     * @param dateIndex The index of a match date, where zero is the earliest date on which
+     * matches were played and {@link #getDateCount()} - 1 is the most recent.
+     * @return The date, as an epoch day.
+     */
+    public int getDate(int dateIndex)
+    {
+        return dates[dateIndex];
+    }
+
+
+    /**
+     * @param date A date, as an epoch day.
+     * @return The index of that date if matches were played on it, otherwise a negative
+     * value (as for {@link Arrays#binarySearch(int[], int)}).
+     */
+    public int getDateIndex(int date)
+    {
+        return Arrays.binarySearch(dates, date);
     }
     
     
-    public Date getMostRecentDate()
+    /**
+     * @return The date on which the most recent matches were played, as an epoch day.
+     */
+    public int getMostRecentDate()
     {
-        return resultsByDate.lastKey();
+        return dates[dates.length - 1];
     }
     
     
     /**
-     * @param date The date of the matches to return.
-     * @return An array of results for a particular date.
+     * @param dateIndex The index of the date of the matches to return.
+     * @return A list of results for a particular date.
+     */
+    public List<Result> getResults(int dateIndex)
+    {
+        return results.subList(dateOffsets[dateIndex], dateOffsets[dateIndex + 1]);
+    }
+
+
+    /**
+     * @return All results for the season, in date order.
+     */
+    public List<Result> getResults()
+    {
+        return results;
+    }
+
+
+    /**
+     * Creates a query for finding results that match some combination of criteria.  The query
+     * is answered from bitmap indexes built when the season is loaded, so no iteration over
+     * individual results is required.
+     * @return A new query that initially matches all of this season's results.
+     */
+    public ResultQuery queryResults()
+    {
+        return resultIndex.query();
+    }
+
+
+    /**
+     * @return An immutable summary of every team's home, away and overall records that
+     * can be merged with the summaries of adjacent seasons.
+     */
+    public synchronized SeasonSummary getSummary()
+    {
+        // The season doesn't change once it has been loaded, so the summary only needs to
+        // be calculated once.
+        if (summary == null)
+        {
+            SUMMARY_MISSES.increment();
+            summary = SeasonSummary.forSeason(this);
+        }
+        else
+        {
+            SUMMARY_HITS.increment();
+        }
+        return summary;
+    }
+
+
+    /**
+     * @return Any points awarded to (positive) or deducted from (negative) teams.
+     */
+    public Map<String, Integer> getPointsAdjustments()
+    {
+        return pointsAdjustments;
+    }
+
+
+    /**
+     * Creates a new version of this season that also includes the specified results.  This
+     * season is not modified.  League positions for dates before the earliest of the new
+     * results are copied from this season rather than re-calculated, so adding the latest
+     * round of matches to a season is much cheaper than loading the season again.
+     * @param newResults The results to add.  All of the teams must already be part of
+     * this season.
+     * @return A new season containing both this season's results and the new results.
      */
-    public List<Result> getResults(Date date)
+    public LeagueSeason addResults(Collection<Result> newResults)
     {
-        return resultsByDate.get(date);
+        List<Result> allResults = new ArrayList<Result>(results.size() + newResults.size());
+        allResults.addAll(results);
+        allResults.addAll(newResults);
+
+        int earliestDate = Integer.MAX_VALUE;
+        for (Result result : newResults)
+        {
+            if (!teamNames.contains(result.getHomeTeam()) || !teamNames.contains(result.getAwayTeam()))
+            {
+                throw new IllegalArgumentException("Result for unknown team: " + result.getHomeTeam()
+                                                   + " v " + result.getAwayTeam());
+            }
+            earliestDate = Math.min(earliestDate, result.getDate());
+        }
+        return new LeagueSeason(teamNames,
+                                allResults,
+                                pointsAdjustments,
+                                metaData,
+                                this,
+                                getDatesBefore(earliestDate));
+    }
+
+
+    /**
+     * Creates a new version of this season with changes applied to its data.  This season
+     * is not modified.  League positions for dates before the earliest changed result are
+     * copied from this season rather than re-calculated (unless points adjustments have
+     * changed, since they apply to every date).  Structural changes (to the teams, rules
+     * or zones) require the whole season to be re-built from the new data.
+     * @param diff The differences between the data that this season was built from and
+     * the updated data.
+     * @return A season that reflects the updated data.
+     */
+    public LeagueSeason applyChanges(LeagueDataDiff diff)
+    {
+        if (diff.isStructuralChange())
+        {
+            return new LeagueSeason(diff.getNewData());
+        }
+        if (diff.isEmpty())
+        {
+            return this;
+        }
+
+        // Results are matched on identity since they are the same objects that this
+        // season was built from.
+        Map<Result, Result> removedResults = new IdentityHashMap<Result, Result>();
+        List<Result> addedResults = new ArrayList<Result>();
+        int earliestDate = Integer.MAX_VALUE;
+        for (LeagueDataDiff.ResultChange change : diff.getResultChanges())
+        {
+            if (change.getOldResult() != null)
+            {
+                removedResults.put(change.getOldResult(), change.getOldResult());
+                earliestDate = Math.min(earliestDate, change.getOldResult().getDate());
+            }
+            if (change.getNewResult() != null)
+            {
+                addedResults.add(change.getNewResult());
+                earliestDate = Math.min(earliestDate, change.getNewResult().getDate());
+            }
+        }
+
+        List<Result> allResults = new ArrayList<Result>(results.size() - removedResults.size() + addedResults.size());
+        for (Result result : results)
+        {
+            if (!removedResults.containsKey(result))
+            {
+                allResults.add(result);
+            }
+        }
+        if (allResults.size() != results.size() - removedResults.size())
+        {
+            throw new IllegalArgumentException("Changes are not for the data that this season was built from.");
+        }
+        allResults.addAll(addedResults);
+
+        int unchangedDates = diff.getAdjustmentChanges().isEmpty() ? getDatesBefore(earliestDate) : 0;
+        return new LeagueSeason(teamNames,
+                                allResults,
+                                diff.getNewData().getPointsAdjustments(),
+                                metaData,
+                                this,
+                                unchangedDates);
+    }
+
+
+    /**
+     * @param date A date, as an epoch day.
+     * @return The number of match dates that are earlier than the specified date.
+     */
+    private int getDatesBefore(int date)
+    {
+        int index = Arrays.binarySearch(dates, date);
+        return index >= 0 ? index : -(index + 1);
+    }
+
+
+    /**
+     * Creates a scenario for exploring the effects of hypothetical results on the
+     * league table.  The season itself is not modified.
+     * @return A new scenario that initially contains only this season's actual results.
+     */
+    public Scenario createScenario()
+    {
+        return new Scenario(this);
     }
 
 
     /**
      * Divide the league into two sections if an SPL-style split has been configured.
-     * Otherwise all teams are in one section as in any sane league.
+     * Otherwise all teams are in one section as in any sane league.  Once every team has
+     * reached the split point the sections are fixed, so they are only calculated once.
+     * Before any team has reached it (and with no points adjustments, which do not count
+     * towards the split) the split records are identical to the overall records, so a
+     * single section gives the same order.
      * @param where The type of table that is being generated.
      * @return A list of league sections (will be either one or two).
      */
@@ -264,7 +614,13 @@ public final class LeagueSeason
     {
         List<Collection<Team>> result = new ArrayList<Collection<Team>>(2);
         // Only split the teams if a split has been configured.  Don't split home/away tables.
-        if (metaData.getSplit() > 0 && where == VenueType.BOTH)
+        if (splitSections != null && where == VenueType.BOTH)
+        {
+            return splitSections;
+        }
+        else if (metaData.getSplit() > 0
+                 && where == VenueType.BOTH
+                 && (teamsAtSplit > 0 || !pointsAdjustments.isEmpty()))
         {
             SortedSet<SplitRecord> splitTable = new TreeSet<SplitRecord>(new LeagueTableComparator());
             for (Team team : teamMappings.values())
@@ -278,6 +634,10 @@ public final class LeagueSeason
             }
             result.add(teams.subList(0, teams.size() / 2));
             result.add(teams.subList(teams.size() / 2, teams.size()));
+            if (teamsAtSplit == teamMappings.size())
+            {
+                splitSections = Collections.unmodifiableList(result);
+            }
         }
         else // All teams are in one league section.
         {
@@ -293,6 +653,21 @@ public final class LeagueSeason
      * @return A collection of team records ordered by league position.
      */
     public Set<StandardRecord> getStandardLeagueTable(VenueType where)
+    {
+        long startTime = STANDARD_TABLE_TIMER.start();
+        EventRecorder.Span span = EVENTS.startTableQuery("standard", where.name());
+        Set<StandardRecord> leagueTable = calculateStandardLeagueTable(where);
+        span.finish();
+        STANDARD_TABLE_TIMER.stop(startTime);
+        return leagueTable;
+    }
+
+
+    /**
+     * Calculates the standard league table without recording the time taken, so that the
+     * tables calculated while loading the season are not reported as table queries.
+     */
+    private Set<StandardRecord> calculateStandardLeagueTable(VenueType where)
     {
         List<Collection<Team>> splits = splitTeams(where);
 
@@ -304,12 +679,141 @@ public final class LeagueSeason
             {
                 subTable.add(team.getRecord(where));
             }
-            leagueTable.addAll(subTable);
+            if (metaData.isHeadToHead() && where == VenueType.BOTH)
+            {
+                leagueTable.addAll(breakTiesHeadToHead(subTable));
+            }
+            else
+            {
+                leagueTable.addAll(subTable);
+            }
         }
         return leagueTable;
     }
     
     
+    /**
+     * Re-orders each group of teams that are level on points according to the matches
+     * between the teams in that group (points, then goal difference, then goals scored).
+     * Teams that are still level stay in their original order, which is determined by
+     * their overall records.
+     * @param table Records in standard league table order.
+     * @return The same records with any ties broken on head-to-head record.
+     */
+    private List<StandardRecord> breakTiesHeadToHead(Collection<StandardRecord> table)
+    {
+        List<StandardRecord> records = new ArrayList<StandardRecord>(table);
+        int start = 0;
+        while (start < records.size())
+        {
+            int end = start + 1;
+            while (end < records.size() && records.get(end).getPoints() == records.get(start).getPoints())
+            {
+                ++end;
+            }
+            if (end - start > 1)
+            {
+                List<StandardRecord> group = records.subList(start, end);
+                List<Team> teams = new ArrayList<Team>(group.size());
+                for (StandardRecord record : group)
+                {
+                    teams.add(record.getTeam());
+                }
+                Map<String, MiniLeagueRecord> headToHead = new HashMap<String, MiniLeagueRecord>();
+                for (MiniLeagueRecord record : getMiniLeagueRecords(teams))
+                {
+                    headToHead.put(record.getName(), record);
+                }
+                // Sort is stable, so teams with identical head-to-head records stay in order.
+                Collections.sort(group, new HeadToHeadComparator(headToHead));
+            }
+            start = end;
+        }
+        return records;
+    }
+
+
+    /**
+     * @return A matrix of the aggregate results between each pair of teams.
+     */
+    public ResultMatrix getResultMatrix()
+    {
+        return resultMatrix;
+    }
+
+
+    /**
+     * Calculates a table that includes only the matches between the specified teams.  The
+     * table is calculated from the {@link ResultMatrix}, so the cost depends only on the
+     * number of teams in the mini-league, not on the number of results.
+     * @param teamNames The teams in the mini-league.  Any teams that did not play in this
+     * season are ignored.
+     * @return The mini-league table, in league table order.
+     */
+    public SortedSet<MiniLeagueRecord> getMiniLeagueTable(Collection<String> teamNames)
+    {
+        long startTime = MINI_LEAGUE_TABLE_TIMER.start();
+        EventRecorder.Span span = EVENTS.startTableQuery("miniLeague", null);
+        List<Team> teams = new ArrayList<Team>(teamNames.size());
+        for (String teamName : teamNames)
+        {
+            Team team = teamMappings.get(teamName);
+            if (team != null)
+            {
+                teams.add(team);
+            }
+        }
+        SortedSet<MiniLeagueRecord> table = new TreeSet<MiniLeagueRecord>(new LeagueTableComparator());
+        table.addAll(getMiniLeagueRecords(teams));
+        span.finish();
+        MINI_LEAGUE_TABLE_TIMER.stop(startTime);
+        return table;
+    }
+
+
+    /**
+     * @param miniLeagueName The name of one of the mini-leagues defined in this season's
+     * {@link LeagueMetaData}.
+     * @return The mini-league table, in league table order.
+     */
+    public SortedSet<MiniLeagueRecord> getMiniLeagueTable(String miniLeagueName)
+    {
+        List<String> teamNames = metaData.getMiniLeagues().get(miniLeagueName);
+        if (teamNames == null)
+        {
+            throw new IllegalArgumentException("Unknown mini-league: " + miniLeagueName);
+        }
+        return getMiniLeagueTable(teamNames);
+    }
+
+
+    private List<MiniLeagueRecord> getMiniLeagueRecords(List<Team> teams)
+    {
+        int[] indices = new int[teams.size()];
+        for (int i = 0; i < indices.length; i++)
+        {
+            indices[i] = resultMatrix.getTeamIndex(teams.get(i).getName());
+        }
+        List<MiniLeagueRecord> records = new ArrayList<MiniLeagueRecord>(teams.size());
+        for (int i = 0; i < indices.length; i++)
+        {
+            int[] totals = new int[5];
+            for (int j = 0; j < indices.length; j++)
+            {
+                if (i != j)
+                {
+                    resultMatrix.addHeadToHead(indices[i], indices[j], totals);
+                }
+            }
+            records.add(new MiniLeagueRecord(teams.get(i),
+                                             metaData.getPointsForWin(),
+                                             metaData.getPointsForDraw(),
+                                             totals));
+        }
+        return records;
+    }
+
+
     /**
      * Sorts the teams in order of average points won per game.
      * @param where Whether the table is for home games, away games or both.
@@ -317,11 +821,15 @@ public final class LeagueSeason
      */
     public Set<StandardRecord> getAverageLeagueTable(VenueType where)
     {
+        long startTime = AVERAGE_TABLE_TIMER.start();
+        EventRecorder.Span span = EVENTS.startTableQuery("average", where.name());
         SortedSet<StandardRecord> leagueTable = new TreeSet<StandardRecord>(new PointsPerGameComparator());
         for (Team team : teamMappings.values())
         {
             leagueTable.add(team.getRecord(where));
         }
+        span.finish();
+        AVERAGE_TABLE_TIMER.stop(startTime);
         return leagueTable;
     }
     
@@ -333,22 +841,64 @@ public final class LeagueSeason
      */
     public Set<StandardRecord> getInvertedLeagueTable(VenueType where)
     {
+        long startTime = INVERTED_TABLE_TIMER.start();
+        EventRecorder.Span span = EVENTS.startTableQuery("inverted", where.name());
         SortedSet<StandardRecord> leagueTable = new TreeSet<StandardRecord>(new DroppedPointsComparator());
         for (Team team : teamMappings.values())
         {
             leagueTable.add(team.getRecord(where));
         }
+        span.finish();
+        INVERTED_TABLE_TIMER.stop(startTime);
         return leagueTable;
     }
     
     
     public Set<FormRecord> getFormTable(VenueType where)
     {
+        long startTime = FORM_TABLE_TIMER.start();
+        EventRecorder.Span span = EVENTS.startTableQuery("form", where.name());
         SortedSet<FormRecord> formTeams = new TreeSet<FormRecord>(new LeagueTableComparator());
         for (Team team : teamMappings.values())
         {
             formTeams.add(team.getRecord(where).getFormRecord());
         }
+        span.finish();
+        FORM_TABLE_TIMER.stop(startTime);
+        return formTeams;
+    }
+
+
+    /**
+     * @param where Whether the table is for home games, away games or both.
+     * @param matches The number of matches that make up each team's form (e.g. the last 10).
+     * @return A table of each team's recent matches, in league table order.
+     */
+    public Set<FormRecord> getFormTable(VenueType where, int matches)
+    {
+        return getFormTable(where, matches, Integer.MAX_VALUE);
+    }
+
+
+    /**
+     * @param where Whether the table is for home games, away games or both.
+     * @param matches The number of matches that make up each team's form (e.g. the last 10).
+     * @param date The date (as an epoch day) for which to calculate the table.  Only matches
+     * played on or before this date are included.
+     * @return A table of each team's form as it was on the specified date, in league table
+     * order.
+     */
+    public Set<FormRecord> getFormTable(VenueType where, int matches, int date)
+    {
+        long startTime = FORM_TABLE_TIMER.start();
+        EventRecorder.Span span = EVENTS.startTableQuery("form", where.name());
+        SortedSet<FormRecord> formTeams = new TreeSet<FormRecord>(new LeagueTableComparator());
+        for (Team team : teamMappings.values())
+        {
+            formTeams.add(team.getRecord(where).getFormRecord(matches, date));
+        }
+        span.finish();
+        FORM_TABLE_TIMER.stop(startTime);
         return formTeams;
     }
 
@@ -363,6 +913,8 @@ public final class LeagueSeason
                                                 VenueType where,
                                                 boolean current)
     {
+        long startTime = SEQUENCE_TABLE_TIMER.start();
+        EventRecorder.Span span = EVENTS.startTableQuery("sequence", where.name());
         SortedSet<StandardRecord> sequenceTable = new TreeSet<StandardRecord>(new SequenceComparator(type, current));
         for (Team team : teamMappings.values())
         {
@@ -373,14 +925,20 @@ public final class LeagueSeason
                 sequenceTable.add(record);
             }
         }
+        span.finish();
+        SEQUENCE_TABLE_TIMER.stop(startTime);
         return sequenceTable;
     }
     
     
     public Set<Team> getAttendanceTable(int type)
     {
+        long startTime = ATTENDANCE_TABLE_TIMER.start();
+        EventRecorder.Span span = EVENTS.startTableQuery("attendance", null);
         SortedSet<Team> sortedTeams = new TreeSet<Team>(new TeamAttendanceComparator(type));
         sortedTeams.addAll(teamMappings.values());
+        span.finish();
+        ATTENDANCE_TABLE_TIMER.stop(startTime);
         return sortedTeams;
     }
     
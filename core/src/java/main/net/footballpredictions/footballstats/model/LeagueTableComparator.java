@@ -41,7 +41,7 @@ class LeagueTableComparator implements Comparator<TeamRecord>, Serializable
                     if (compare == 0)
                     {
                         // If records are the same, sort on alphabetical order.
-                        compare = team1.getName().toLowerCase().compareTo(team2.getName().toLowerCase());
+                        compare = team1.getName().compareToIgnoreCase(team2.getName());
                     }
                 }
             }
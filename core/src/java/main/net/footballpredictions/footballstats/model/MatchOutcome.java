@@ -0,0 +1,52 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.model;
+
+/**
+ * The possible outcomes of a match, from the point of view of a neutral.  Used to
+ * filter results.
+ * @author Daniel Dyer
+ */
+public enum MatchOutcome
+{
+    HOME_WIN,
+    AWAY_WIN,
+    SCORE_DRAW,
+    NO_SCORE_DRAW;
+
+
+    /**
+     * @param result A match result.
+     * @return The outcome of the specified match.
+     */
+    public static MatchOutcome forResult(Result result)
+    {
+        if (result.getHomeGoals() > result.getAwayGoals())
+        {
+            return HOME_WIN;
+        }
+        else if (result.getHomeGoals() < result.getAwayGoals())
+        {
+            return AWAY_WIN;
+        }
+        else
+        {
+            return result.getHomeGoals() == 0 ? NO_SCORE_DRAW : SCORE_DRAW;
+        }
+    }
+}
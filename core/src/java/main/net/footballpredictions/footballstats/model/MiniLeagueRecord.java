@@ -0,0 +1,120 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.model;
+
+/**
+ * A team's record in the matches against the other members of a group of teams, such
+ * as a mini-league or a set of teams that are level on points.  Mini-league records
+ * are calculated from a {@link ResultMatrix} rather than from individual results, so
+ * they do not support adding results or reporting form.
+ * @author Daniel Dyer
+ */
+public final class MiniLeagueRecord extends AbstractTeamRecord
+{
+    private final int won;
+    private final int drawn;
+    private final int lost;
+    private final int scored;
+    private final int conceded;
+
+    /**
+     * @param totals Won, drawn, lost, scored and conceded, in that order.
+     */
+    MiniLeagueRecord(Team team, int pointsForWin, int pointsForDraw, int[] totals)
+    {
+        super(team, pointsForWin, pointsForDraw);
+        this.won = totals[0];
+        this.drawn = totals[1];
+        this.lost = totals[2];
+        this.scored = totals[3];
+        this.conceded = totals[4];
+    }
+
+
+    /**
+     * @throws UnsupportedOperationException Mini-league records are calculated from the
+     * full season's results.
+     */
+    public void addResult(Result result)
+    {
+        throw new UnsupportedOperationException("Mini-league record is calculated from the season.");
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public int getPlayed()
+    {
+        return won + drawn + lost;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public int getWon()
+    {
+        return won;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public int getDrawn()
+    {
+        return drawn;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public int getLost()
+    {
+        return lost;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public int getScored()
+    {
+        return scored;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public int getConceded()
+    {
+        return conceded;
+    }
+
+
+    /**
+     * @throws UnsupportedOperationException Not supported for this record type.
+     */
+    public String getForm()
+    {
+        throw new UnsupportedOperationException("Form is not calculated for mini-league record.");
+    }
+}
@@ -27,7 +27,7 @@ public class ResultDateComparator implements Comparator<Result>
 {
     public int compare(Result result1, Result result2)
     {
-        int compare = result1.getDate().compareTo(result2.getDate());
+        int compare = result1.getDate() - result2.getDate();
         if (compare == 0) // If the date is the same, order alphabetically by home team.
         {
             compare = result1.getHomeTeam().toLowerCase().compareTo(result2.getHomeTeam().toLowerCase());
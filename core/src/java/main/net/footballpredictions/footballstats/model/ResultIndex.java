@@ -0,0 +1,229 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.model;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import net.footballpredictions.footballstats.util.WordAlignedBitmap;
+
+/**
+ * An index over a set of results that allows them to be filtered efficiently.  For each
+ * attribute (home team, away team, outcome, scoreline and total goals) a compressed
+ * bitmap is built for each distinct value, with one bit per result.  Queries are then
+ * answered by combining the relevant bitmaps rather than by examining every result.
+ * Results are indexed in date order so that date ranges map onto contiguous runs of bits.
+ * @author Daniel Dyer
+ * @see ResultQuery
+ */
+public final class ResultIndex
+{
+    private final Result[] results;
+    private final int[] dates;
+
+    private final Map<String, WordAlignedBitmap> homeTeams = new HashMap<String, WordAlignedBitmap>();
+    private final Map<String, WordAlignedBitmap> awayTeams = new HashMap<String, WordAlignedBitmap>();
+    private final Map<MatchOutcome, WordAlignedBitmap> outcomes = new EnumMap<MatchOutcome, WordAlignedBitmap>(MatchOutcome.class);
+    private final Map<Integer, WordAlignedBitmap> scorelines = new HashMap<Integer, WordAlignedBitmap>();
+    private final WordAlignedBitmap[] goalTotals;
+
+
+    /**
+     * @param results The results to index.  These can be from a single season or
+     * from several seasons.
+     */
+    public ResultIndex(Collection<Result> results)
+    {
+        this.results = results.toArray(new Result[results.size()]);
+        Arrays.sort(this.results, new ResultDateComparator());
+        this.dates = new int[this.results.length];
+
+        Map<String, WordAlignedBitmap.Builder> homeBuilders = new HashMap<String, WordAlignedBitmap.Builder>();
+        Map<String, WordAlignedBitmap.Builder> awayBuilders = new HashMap<String, WordAlignedBitmap.Builder>();
+        Map<MatchOutcome, WordAlignedBitmap.Builder> outcomeBuilders = new EnumMap<MatchOutcome, WordAlignedBitmap.Builder>(MatchOutcome.class);
+        Map<Integer, WordAlignedBitmap.Builder> scorelineBuilders = new HashMap<Integer, WordAlignedBitmap.Builder>();
+        Map<Integer, WordAlignedBitmap.Builder> totalBuilders = new HashMap<Integer, WordAlignedBitmap.Builder>();
+        int maxTotal = -1;
+        for (int i = 0; i < this.results.length; i++)
+        {
+            Result result = this.results[i];
+            dates[i] = result.getDate();
+            getBuilder(homeBuilders, result.getHomeTeam()).set(i);
+            getBuilder(awayBuilders, result.getAwayTeam()).set(i);
+            getBuilder(outcomeBuilders, MatchOutcome.forResult(result)).set(i);
+            getBuilder(scorelineBuilders, scorelineKey(result.getHomeGoals(), result.getAwayGoals())).set(i);
+            getBuilder(totalBuilders, result.getMatchAggregate()).set(i);
+            maxTotal = Math.max(maxTotal, result.getMatchAggregate());
+        }
+
+        buildAll(homeBuilders, homeTeams);
+        buildAll(awayBuilders, awayTeams);
+        buildAll(outcomeBuilders, outcomes);
+        buildAll(scorelineBuilders, scorelines);
+        goalTotals = new WordAlignedBitmap[maxTotal + 1];
+        for (Map.Entry<Integer, WordAlignedBitmap.Builder> entry : totalBuilders.entrySet())
+        {
+            goalTotals[entry.getKey()] = entry.getValue().build(this.results.length);
+        }
+    }
+
+
+    private static <K> WordAlignedBitmap.Builder getBuilder(Map<K, WordAlignedBitmap.Builder> builders, K key)
+    {
+        WordAlignedBitmap.Builder builder = builders.get(key);
+        if (builder == null)
+        {
+            builder = new WordAlignedBitmap.Builder();
+            builders.put(key, builder);
+        }
+        return builder;
+    }
+
+
+    private <K> void buildAll(Map<K, WordAlignedBitmap.Builder> builders, Map<K, WordAlignedBitmap> bitmaps)
+    {
+        for (Map.Entry<K, WordAlignedBitmap.Builder> entry : builders.entrySet())
+        {
+            bitmaps.put(entry.getKey(), entry.getValue().build(results.length));
+        }
+    }
+
+
+    private static Integer scorelineKey(int homeGoals, int awayGoals)
+    {
+        return (homeGoals << 16) | awayGoals;
+    }
+
+
+    /**
+     * @return A new query that initially matches every indexed result.
+     */
+    public ResultQuery query()
+    {
+        return new ResultQuery(this);
+    }
+
+
+    /**
+     * @return The number of results in the index.
+     */
+    public int size()
+    {
+        return results.length;
+    }
+
+
+    Result getResult(int index)
+    {
+        return results[index];
+    }
+
+
+    WordAlignedBitmap getAll()
+    {
+        return WordAlignedBitmap.range(0, results.length);
+    }
+
+
+    WordAlignedBitmap getTeam(String team, VenueType where)
+    {
+        switch (where)
+        {
+            case HOME: return lookup(homeTeams, team);
+            case AWAY: return lookup(awayTeams, team);
+            case BOTH: return lookup(homeTeams, team).or(lookup(awayTeams, team));
+            default: throw new IllegalArgumentException("Invalid venue type: " + where);
+        }
+    }
+
+
+    WordAlignedBitmap getOutcome(MatchOutcome outcome)
+    {
+        return lookup(outcomes, outcome);
+    }
+
+
+    WordAlignedBitmap getScoreline(int homeGoals, int awayGoals)
+    {
+        return lookup(scorelines, scorelineKey(homeGoals, awayGoals));
+    }
+
+
+    /**
+     * @return The highest number of goals scored in any one match (or -1 if there are no
+     * results).
+     */
+    int getMaxGoalTotal()
+    {
+        return goalTotals.length - 1;
+    }
+
+
+    WordAlignedBitmap getGoalTotal(int total)
+    {
+        return total >= 0 && total < goalTotals.length && goalTotals[total] != null
+               ? goalTotals[total]
+               : WordAlignedBitmap.empty();
+    }
+
+
+    /**
+     * @param from The earliest date to include (as an epoch day).
+     * @param to The latest date to include (as an epoch day).
+     * @return A bitmap of all of the results played between the two dates (inclusive).
+     */
+    WordAlignedBitmap getDateRange(int from, int to)
+    {
+        int first = search(from);
+        // Adding one to the latest possible date would overflow.
+        int last = to == Integer.MAX_VALUE ? dates.length : search(to + 1);
+        return WordAlignedBitmap.range(first, Math.max(first, last));
+    }
+
+
+    /**
+     * @return The index of the first result on or after the specified date.
+     */
+    private int search(int date)
+    {
+        int low = 0;
+        int high = dates.length;
+        while (low < high)
+        {
+            int middle = (low + high) >>> 1;
+            if (dates[middle] < date)
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+
+    private static <K> WordAlignedBitmap lookup(Map<K, WordAlignedBitmap> bitmaps, K key)
+    {
+        WordAlignedBitmap bitmap = bitmaps.get(key);
+        return bitmap == null ? WordAlignedBitmap.empty() : bitmap;
+    }
+}
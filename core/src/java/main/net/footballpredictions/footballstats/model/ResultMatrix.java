@@ -0,0 +1,264 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.model;
+
+import java.util.Arrays;
+import java.util.SortedSet;
+
+/**
+ * The aggregate of the matches between every pair of teams in a season, held in an n×n
+ * matrix indexed by the home team and the away team.  This makes it possible to
+ * calculate a table for any group of teams (a mini-league or a set of teams that are
+ * level on points) from the k×k sub-matrix for that group, without looking at any
+ * individual results.
+ *
+ * <p>Each cell packs the home wins, draws, away wins, home goals and away goals for one
+ * fixture into a single int (6 bits for each count and 7 bits for each goals figure),
+ * which is enough for a few decades of seasons.  If any figure outgrows its bits the
+ * whole matrix is widened to a long per cell (12 and 14 bits), and if a figure outgrows
+ * those, to five ints per cell, so there is no limit on the number of results.</p>
+ * @author Daniel Dyer
+ */
+public final class ResultMatrix
+{
+    private static final int HOME_WINS = 0;
+    private static final int DRAWS = 1;
+    private static final int AWAY_WINS = 2;
+    private static final int HOME_GOALS = 3;
+    private static final int AWAY_GOALS = 4;
+
+    private static final int[] NARROW_SHIFTS = {0, 6, 12, 18, 25};
+    private static final int[] NARROW_MASKS = {0x3F, 0x3F, 0x3F, 0x7F, 0x7F};
+    private static final int[] WIDE_SHIFTS = {0, 12, 24, 36, 50};
+    private static final int[] WIDE_MASKS = {0xFFF, 0xFFF, 0xFFF, 0x3FFF, 0x3FFF};
+    private static final int FIELDS = 5;
+
+    private final String[] teamNames;
+    private int[] narrowCells;
+    private long[] wideCells = null; // Only used once a figure is too big for an int.
+    private int[] fullCells = null; // Only used once a figure is too big for a long.
+
+
+    /**
+     * Creates an empty matrix.
+     * @param teamNames The teams in the season.
+     */
+    public ResultMatrix(SortedSet<String> teamNames)
+    {
+        this.teamNames = teamNames.toArray(new String[teamNames.size()]);
+        this.narrowCells = new int[this.teamNames.length * this.teamNames.length];
+    }
+
+
+    /**
+     * Adds a result to the matrix.
+     */
+    void addResult(Result result)
+    {
+        int cell = getTeamIndex(result.getHomeTeam()) * teamNames.length + getTeamIndex(result.getAwayTeam());
+        int outcome = AWAY_WINS;
+        if (result.getHomeGoals() > result.getAwayGoals())
+        {
+            outcome = HOME_WINS;
+        }
+        else if (result.isDraw())
+        {
+            outcome = DRAWS;
+        }
+        // Make sure that the new totals fit before changing anything.
+        int outcomes = get(cell, outcome) + 1;
+        int homeGoals = get(cell, HOME_GOALS) + result.getHomeGoals();
+        int awayGoals = get(cell, AWAY_GOALS) + result.getAwayGoals();
+        while (!fits(outcome, outcomes) || !fits(HOME_GOALS, homeGoals) || !fits(AWAY_GOALS, awayGoals))
+        {
+            widen();
+        }
+        add(cell, outcome, 1);
+        add(cell, HOME_GOALS, result.getHomeGoals());
+        add(cell, AWAY_GOALS, result.getAwayGoals());
+    }
+
+
+    /**
+     * Adds to one of the figures in a cell.  The caller must already have checked that
+     * the new total fits in the figure's bits, so the addition cannot carry into the next
+     * figure.
+     */
+    private void add(int cell, int field, int amount)
+    {
+        if (fullCells != null)
+        {
+            fullCells[cell * FIELDS + field] += amount;
+        }
+        else if (wideCells == null)
+        {
+            narrowCells[cell] += amount << NARROW_SHIFTS[field];
+        }
+        else
+        {
+            wideCells[cell] += (long) amount << WIDE_SHIFTS[field];
+        }
+    }
+
+
+    /**
+     * @return Whether the specified total can be stored in the current form.
+     */
+    private boolean fits(int field, int total)
+    {
+        if (fullCells != null)
+        {
+            return true;
+        }
+        return total <= (wideCells == null ? NARROW_MASKS[field] : WIDE_MASKS[field]);
+    }
+
+
+    /**
+     * Moves every cell to the next bigger form (from int to long, or from long to five
+     * ints per cell).
+     */
+    private void widen()
+    {
+        // Copy every cell before switching over, get() reads from whichever array is in use.
+        int cellCount = teamNames.length * teamNames.length;
+        if (wideCells == null)
+        {
+            long[] cells = new long[cellCount];
+            for (int cell = 0; cell < cellCount; cell++)
+            {
+                for (int i = 0; i < FIELDS; i++)
+                {
+                    cells[cell] |= (long) get(cell, i) << WIDE_SHIFTS[i];
+                }
+            }
+            wideCells = cells;
+            narrowCells = null;
+        }
+        else
+        {
+            int[] cells = new int[cellCount * FIELDS];
+            for (int cell = 0; cell < cellCount; cell++)
+            {
+                for (int i = 0; i < FIELDS; i++)
+                {
+                    cells[cell * FIELDS + i] = get(cell, i);
+                }
+            }
+            fullCells = cells;
+            wideCells = null;
+        }
+    }
+
+
+    private int get(int cell, int field)
+    {
+        if (fullCells != null)
+        {
+            return fullCells[cell * FIELDS + field];
+        }
+        else if (wideCells == null)
+        {
+            return (narrowCells[cell] >>> NARROW_SHIFTS[field]) & NARROW_MASKS[field];
+        }
+        else
+        {
+            return (int) (wideCells[cell] >>> WIDE_SHIFTS[field]) & WIDE_MASKS[field];
+        }
+    }
+
+
+    public int getTeamCount()
+    {
+        return teamNames.length;
+    }
+
+
+    /**
+     * @return The index of the named team (teams are indexed in alphabetical order), or
+     * a negative value if the team is not in the matrix.
+     */
+    public int getTeamIndex(String teamName)
+    {
+        return Arrays.binarySearch(teamNames, teamName);
+    }
+
+
+    public String getTeamName(int teamIndex)
+    {
+        return teamNames[teamIndex];
+    }
+
+
+    /**
+     * @return The number of times that the home team has played the away team at home.
+     */
+    public int getPlayed(int homeTeam, int awayTeam)
+    {
+        int cell = homeTeam * teamNames.length + awayTeam;
+        return get(cell, HOME_WINS) + get(cell, DRAWS) + get(cell, AWAY_WINS);
+    }
+
+
+    public int getHomeWins(int homeTeam, int awayTeam)
+    {
+        return get(homeTeam * teamNames.length + awayTeam, HOME_WINS);
+    }
+
+
+    public int getDraws(int homeTeam, int awayTeam)
+    {
+        return get(homeTeam * teamNames.length + awayTeam, DRAWS);
+    }
+
+
+    public int getAwayWins(int homeTeam, int awayTeam)
+    {
+        return get(homeTeam * teamNames.length + awayTeam, AWAY_WINS);
+    }
+
+
+    public int getHomeGoals(int homeTeam, int awayTeam)
+    {
+        return get(homeTeam * teamNames.length + awayTeam, HOME_GOALS);
+    }
+
+
+    public int getAwayGoals(int homeTeam, int awayTeam)
+    {
+        return get(homeTeam * teamNames.length + awayTeam, AWAY_GOALS);
+    }
+
+
+    /**
+     * Adds one team's record against another (home and away) to a set of running totals.
+     * @param team The index of the team whose record it is.
+     * @param opponent The index of the opposing team.
+     * @param totals Won, drawn, lost, scored and conceded, in that order.
+     */
+    void addHeadToHead(int team, int opponent, int[] totals)
+    {
+        int home = team * teamNames.length + opponent;
+        int away = opponent * teamNames.length + team;
+        totals[0] += get(home, HOME_WINS) + get(away, AWAY_WINS);
+        totals[1] += get(home, DRAWS) + get(away, DRAWS);
+        totals[2] += get(home, AWAY_WINS) + get(away, HOME_WINS);
+        totals[3] += get(home, HOME_GOALS) + get(away, AWAY_GOALS);
+        totals[4] += get(home, AWAY_GOALS) + get(away, HOME_GOALS);
+    }
+}
@@ -0,0 +1,193 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import net.footballpredictions.footballstats.util.WordAlignedBitmap;
+
+/**
+ * Fluent builder for filtering the results held in a {@link ResultIndex}.  Each
+ * restriction narrows the set of matching results (restrictions are combined with
+ * a logical AND).  Where a single restriction accepts several values, results that
+ * match any one of those values are included.  For example, all away wins and draws
+ * for Arsenal during January 2010:
+ * <pre>
+ * season.queryResults().team("Arsenal", VenueType.AWAY)
+ *                      .outcome(MatchOutcome.AWAY_WIN, MatchOutcome.SCORE_DRAW, MatchOutcome.NO_SCORE_DRAW)
+ *                      .between(start, end)
+ *                      .list();
+ * </pre>
+ * @author Daniel Dyer
+ */
+public final class ResultQuery
+{
+    private final ResultIndex index;
+    private WordAlignedBitmap matches = null; // Null means no restrictions (all results match).
+
+    ResultQuery(ResultIndex index)
+    {
+        this.index = index;
+    }
+
+
+    /**
+     * Restrict the query to matches involving a particular team.
+     * @param team The name of the team.
+     * @return This query.
+     */
+    public ResultQuery team(String team)
+    {
+        return team(team, VenueType.BOTH);
+    }
+
+
+    /**
+     * Restrict the query to matches involving a particular team.
+     * @param team The name of the team.
+     * @param where Whether to include just the team's home matches, just its away matches,
+     * or both.
+     * @return This query.
+     */
+    public ResultQuery team(String team, VenueType where)
+    {
+        return restrict(index.getTeam(team, where));
+    }
+
+
+    /**
+     * Restrict the query to matches with particular outcomes.
+     * @param outcomes The outcomes to include.
+     * @return This query.
+     */
+    public ResultQuery outcome(MatchOutcome... outcomes)
+    {
+        WordAlignedBitmap union = WordAlignedBitmap.empty();
+        for (MatchOutcome outcome : outcomes)
+        {
+            union = union.or(index.getOutcome(outcome));
+        }
+        return restrict(union);
+    }
+
+
+    /**
+     * Restrict the query to matches that finished with a particular score.
+     * @param homeGoals The number of goals scored by the home team.
+     * @param awayGoals The number of goals scored by the away team.
+     * @return This query.
+     */
+    public ResultQuery scoreline(int homeGoals, int awayGoals)
+    {
+        return restrict(index.getScoreline(homeGoals, awayGoals));
+    }
+
+
+    /**
+     * Restrict the query to matches in which a particular number of goals were scored.
+     * @param total The total number of goals scored by both teams.
+     * @return This query.
+     */
+    public ResultQuery goals(int total)
+    {
+        return restrict(index.getGoalTotal(total));
+    }
+
+
+    /**
+     * Restrict the query to matches in which the total number of goals scored falls
+     * within a particular range.
+     * @param minimum The fewest goals (inclusive).
+     * @param maximum The most goals (inclusive).
+     * @return This query.
+     */
+    public ResultQuery goals(int minimum, int maximum)
+    {
+        WordAlignedBitmap union = WordAlignedBitmap.empty();
+        // No match has more goals than the index holds, which also allows for an open-ended
+        // maximum (Integer.MAX_VALUE) without overflowing.
+        int highest = Math.min(maximum, index.getMaxGoalTotal());
+        for (int total = Math.max(minimum, 0); total <= highest; total++)
+        {
+            union = union.or(index.getGoalTotal(total));
+        }
+        return restrict(union);
+    }
+
+
+    /**
+     * Restrict the query to matches played within a particular period.
+     * @param from The earliest date to include (as an epoch day).
+     * @param to The latest date to include (as an epoch day).
+     * @return This query.
+     */
+    public ResultQuery between(int from, int to)
+    {
+        return restrict(index.getDateRange(from, to));
+    }
+
+
+    /**
+     * Widens this query to also include any results matched by another query.
+     * @param other Another query over the same index.
+     * @return This query.
+     */
+    public ResultQuery or(ResultQuery other)
+    {
+        if (other.index != index)
+        {
+            throw new IllegalArgumentException("Queries must be for the same index.");
+        }
+        if (matches != null)
+        {
+            matches = other.matches == null ? null : matches.or(other.matches);
+        }
+        return this;
+    }
+
+
+    private ResultQuery restrict(WordAlignedBitmap bitmap)
+    {
+        matches = matches == null ? bitmap : matches.and(bitmap);
+        return this;
+    }
+
+
+    /**
+     * @return The number of results that match this query.
+     */
+    public int count()
+    {
+        return matches == null ? index.size() : matches.cardinality();
+    }
+
+
+    /**
+     * @return The results that match this query, in date order.
+     */
+    public List<Result> list()
+    {
+        int[] indices = (matches == null ? index.getAll() : matches).toArray();
+        List<Result> results = new ArrayList<Result>(indices.length);
+        for (int i : indices)
+        {
+            results.add(index.getResult(i));
+        }
+        return results;
+    }
+}
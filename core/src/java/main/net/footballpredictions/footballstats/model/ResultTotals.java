@@ -0,0 +1,342 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.model;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A single team's results, in the order that they were added (which must be date order),
+ * along with cumulative totals.  Entry i of the totals is the total for the first i
+ * matches, so the totals for any consecutive run of matches are found by subtracting one
+ * entry from another, without revisiting the individual results.
+ *
+ * <p>Many of these are kept for every loaded season, so the storage is kept compact.  The
+ * four cumulative figures (won, drawn, scored, conceded) are packed into a single int per
+ * match, which is enough for any one season.  If the totals outgrow an int the storage is
+ * widened to a long per match (16 bits per figure), and if they outgrow that (in data that
+ * covers many seasons) to four ints per match, so there is no limit on the number of
+ * results.  The arrays can be trimmed once all results have been added.</p>
+ * @author Daniel Dyer
+ */
+final class ResultTotals
+{
+    private static final int WON = 0;
+    private static final int DRAWN = 1;
+    private static final int SCORED = 2;
+    private static final int CONCEDED = 3;
+
+    // Bit layout of the narrow (int) totals: 7 bits each for won and drawn, 9 bits each
+    // for scored and conceded.
+    private static final int[] NARROW_SHIFTS = {0, 7, 14, 23};
+    private static final int[] NARROW_MASKS = {0x7F, 0x7F, 0x1FF, 0x1FF};
+    // The wide (long) totals use 16 bits for each figure.
+    private static final int WIDE_BITS = 16;
+    private static final int WIDE_MASK = 0xFFFF;
+    private static final int FIELDS = 4;
+
+    private final String teamName;
+
+    private int count = 0;
+    private Result[] results;
+    private int[] narrowTotals;
+    private long[] wideTotals = null; // Only used once the totals are too big for an int.
+    private int[] fullTotals = null; // Only used once the totals are too big for a long.
+
+
+    /**
+     * @param teamName The name of the team whose results are totalled.
+     * @param capacity The expected number of results (the arrays grow if necessary).
+     */
+    ResultTotals(String teamName, int capacity)
+    {
+        this.teamName = teamName;
+        this.results = new Result[capacity];
+        this.narrowTotals = new int[capacity + 1];
+    }
+
+
+    void addResult(Result result)
+    {
+        if (count == results.length)
+        {
+            resize(Math.max(count * 2, 8));
+        }
+        int goalsFor = result.getGoalsFor(teamName);
+        int goalsAgainst = result.getGoalsAgainst(teamName);
+        int[] values = new int[FIELDS];
+        values[WON] = getTotal(count, WON) + (goalsFor > goalsAgainst ? 1 : 0);
+        values[DRAWN] = getTotal(count, DRAWN) + (goalsFor == goalsAgainst ? 1 : 0);
+        values[SCORED] = getTotal(count, SCORED) + goalsFor;
+        values[CONCEDED] = getTotal(count, CONCEDED) + goalsAgainst;
+        while (!fits(values))
+        {
+            widen();
+        }
+
+        results[count] = result;
+        if (fullTotals != null)
+        {
+            System.arraycopy(values, 0, fullTotals, (count + 1) * FIELDS, FIELDS);
+        }
+        else if (wideTotals == null)
+        {
+            int packed = 0;
+            for (int i = 0; i < values.length; i++)
+            {
+                packed |= values[i] << NARROW_SHIFTS[i];
+            }
+            narrowTotals[count + 1] = packed;
+        }
+        else
+        {
+            long packed = 0;
+            for (int i = 0; i < values.length; i++)
+            {
+                packed |= (long) values[i] << (i * WIDE_BITS);
+            }
+            wideTotals[count + 1] = packed;
+        }
+        ++count;
+    }
+
+
+    /**
+     * Releases any unused capacity.  Results can still be added afterwards.
+     */
+    void trimToSize()
+    {
+        if (results.length > count)
+        {
+            resize(count);
+        }
+    }
+
+
+    private void resize(int capacity)
+    {
+        Result[] newResults = new Result[capacity];
+        System.arraycopy(results, 0, newResults, 0, count);
+        results = newResults;
+        if (fullTotals != null)
+        {
+            int[] newTotals = new int[(capacity + 1) * FIELDS];
+            System.arraycopy(fullTotals, 0, newTotals, 0, (count + 1) * FIELDS);
+            fullTotals = newTotals;
+        }
+        else if (wideTotals != null)
+        {
+            long[] newTotals = new long[capacity + 1];
+            System.arraycopy(wideTotals, 0, newTotals, 0, count + 1);
+            wideTotals = newTotals;
+        }
+        else
+        {
+            int[] newTotals = new int[capacity + 1];
+            System.arraycopy(narrowTotals, 0, newTotals, 0, count + 1);
+            narrowTotals = newTotals;
+        }
+    }
+
+
+    /**
+     * @return Whether the specified totals can be stored in the current form.
+     */
+    private boolean fits(int[] values)
+    {
+        for (int i = 0; i < values.length && fullTotals == null; i++)
+        {
+            if (values[i] > (wideTotals == null ? NARROW_MASKS[i] : WIDE_MASK))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Moves the totals to the next bigger form (from int to long, or from long to four
+     * ints per match).
+     */
+    private void widen()
+    {
+        if (wideTotals == null)
+        {
+            long[] newTotals = new long[narrowTotals.length];
+            for (int i = 0; i <= count; i++)
+            {
+                for (int field = WON; field <= CONCEDED; field++)
+                {
+                    newTotals[i] |= (long) getTotal(i, field) << (field * WIDE_BITS);
+                }
+            }
+            wideTotals = newTotals;
+            narrowTotals = null;
+        }
+        else
+        {
+            int[] newTotals = new int[wideTotals.length * FIELDS];
+            for (int i = 0; i <= count; i++)
+            {
+                for (int field = WON; field <= CONCEDED; field++)
+                {
+                    newTotals[i * FIELDS + field] = getTotal(i, field);
+                }
+            }
+            fullTotals = newTotals;
+            wideTotals = null;
+        }
+    }
+
+
+    private int getTotal(int index, int field)
+    {
+        if (fullTotals != null)
+        {
+            return fullTotals[index * FIELDS + field];
+        }
+        if (wideTotals != null)
+        {
+            return (int) (wideTotals[index] >>> (field * WIDE_BITS)) & WIDE_MASK;
+        }
+        return (narrowTotals[index] >>> NARROW_SHIFTS[field]) & NARROW_MASKS[field];
+    }
+
+
+    /**
+     * @return The number of results added so far.
+     */
+    int getCount()
+    {
+        return count;
+    }
+
+
+    /**
+     * @param date A date, as an epoch day.
+     * @return The number of matches played on or before that date.
+     */
+    int getCount(int date)
+    {
+        int low = 0;
+        int high = count;
+        while (low < high)
+        {
+            int middle = (low + high) >>> 1;
+            if (results[middle].getDate() <= date)
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+
+    /**
+     * @param index The index of a match (zero for the first).
+     * @return The result of that match.
+     */
+    Result getResult(int index)
+    {
+        return results[index];
+    }
+
+
+    /**
+     * @param from The index of the first result (inclusive).
+     * @param to The index after the last result (exclusive).
+     * @return A read-only view of the specified results.
+     */
+    List<Result> getResults(int from, int to)
+    {
+        return new ResultList(from, to);
+    }
+
+
+    // In each of the following, from is inclusive and to is exclusive (match indices).
+
+    int getWon(int from, int to)
+    {
+        return getTotal(to, WON) - getTotal(from, WON);
+    }
+
+
+    int getDrawn(int from, int to)
+    {
+        return getTotal(to, DRAWN) - getTotal(from, DRAWN);
+    }
+
+
+    int getLost(int from, int to)
+    {
+        return (to - from) - getWon(from, to) - getDrawn(from, to);
+    }
+
+
+    int getScored(int from, int to)
+    {
+        return getTotal(to, SCORED) - getTotal(from, SCORED);
+    }
+
+
+    int getConceded(int from, int to)
+    {
+        return getTotal(to, CONCEDED) - getTotal(from, CONCEDED);
+    }
+
+
+    /**
+     * Read-only view of a range of the results.  The range is fixed when the view is
+     * created, so results added later are not included.
+     */
+    private final class ResultList extends AbstractList<Result> implements RandomAccess
+    {
+        private final int from;
+        private final int to;
+
+        ResultList(int from, int to)
+        {
+            this.from = from;
+            this.to = to;
+        }
+
+
+        @Override
+        public Result get(int index)
+        {
+            if (index < 0 || index >= to - from)
+            {
+                throw new IndexOutOfBoundsException("Invalid index: " + index);
+            }
+            return results[from + index];
+        }
+
+
+        @Override
+        public int size()
+        {
+            return to - from;
+        }
+    }
+}
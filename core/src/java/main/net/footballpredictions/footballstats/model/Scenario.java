@@ -0,0 +1,462 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A hypothetical version of a {@link LeagueSeason} in which results can be added, changed
+ * or removed to see how the league table would look ("what if these results happened?").
+ * The hypothetical results are held as an overlay on the actual season, which is never
+ * modified or copied, so any number of scenarios can be explored against the same season.
+ *
+ * <p>Only the teams that are involved in hypothetical results are recalculated.  When a
+ * team's hypothetical results all come after its actual results (the usual case when
+ * predicting the remaining fixtures), its record is just the season's summary merged with
+ * a summary of the new results.  Other teams keep their actual records, so the table is
+ * re-ordered by taking the actual table and re-inserting only the changed teams.</p>
+ *
+ * <p>Records are returned as {@link TeamSummary} objects, so the table, goals and
+ * sequences for each team are all available.  Tables are in points order, with the
+ * season's head-to-head tie-breaker (if any) applied to the overall table, but the
+ * SPL-style split is not applied.  Scenarios are not thread-safe.</p>
+ * @author Daniel Dyer
+ */
+public final class Scenario
+{
+    private final Comparator<TeamRecord> comparator = new LeagueTableComparator();
+
+    private final LeagueSeason season;
+    private final SeasonSummary summary;
+    private final Map<VenueType, List<TeamSummary>> actualTables = new EnumMap<VenueType, List<TeamSummary>>(VenueType.class);
+
+    private final List<Result> additions = new ArrayList<Result>();
+    // Actual results that have been changed, mapped to their replacements (null if the
+    // result has been removed).
+    private final Map<Result, Result> replacements = new HashMap<Result, Result>();
+    private final Set<String> changedTeams = new HashSet<String>();
+    private final Set<String> editedTeams = new HashSet<String>();
+
+    private final Map<VenueType, Map<String, TeamSummary>> teamSummaries = new EnumMap<VenueType, Map<String, TeamSummary>>(VenueType.class);
+    private final Map<VenueType, List<TeamSummary>> tables = new EnumMap<VenueType, List<TeamSummary>>(VenueType.class);
+
+
+    /**
+     * @param season The actual season on which the scenario is based.
+     */
+    public Scenario(LeagueSeason season)
+    {
+        this.season = season;
+        this.summary = season.getSummary();
+        for (VenueType where : VenueType.values())
+        {
+            actualTables.put(where, new ArrayList<TeamSummary>(summary.getLeagueTable(where)));
+            teamSummaries.put(where, new HashMap<String, TeamSummary>());
+        }
+    }
+
+
+    /**
+     * @return The actual season on which this scenario is based.
+     */
+    public LeagueSeason getSeason()
+    {
+        return season;
+    }
+
+
+    /**
+     * Adds a hypothetical result for a match that has not been played.
+     * @param result The hypothetical result.
+     */
+    public void addResult(Result result)
+    {
+        checkTeams(result);
+        additions.add(result);
+        markChanged(result, false);
+    }
+
+
+    /**
+     * Changes the score of a match (or replaces it with a different match).
+     * @param original One of the season's actual results, or a hypothetical result that
+     * has previously been added to this scenario or used as a replacement.
+     * @param replacement The hypothetical result to use instead.
+     */
+    public void replaceResult(Result original, Result replacement)
+    {
+        checkTeams(replacement);
+        int index = indexOfAddition(original);
+        if (index >= 0)
+        {
+            additions.set(index, replacement);
+            markChanged(original, false);
+            markChanged(replacement, false);
+        }
+        else
+        {
+            Result actual = getReplacedResult(original);
+            checkActual(actual);
+            replacements.put(actual, replacement);
+            markChanged(original, true);
+            markChanged(replacement, true);
+        }
+    }
+
+
+    /**
+     * Removes a result, as if the match had not been played.
+     * @param result One of the season's actual results, or a hypothetical result that has
+     * previously been added to this scenario or used as a replacement.
+     */
+    public void removeResult(Result result)
+    {
+        int index = indexOfAddition(result);
+        if (index >= 0)
+        {
+            additions.remove(index);
+            markChanged(result, false);
+        }
+        else
+        {
+            Result actual = getReplacedResult(result);
+            checkActual(actual);
+            replacements.put(actual, null);
+            markChanged(result, true);
+        }
+    }
+
+
+    /**
+     * Discards all hypothetical changes so that the scenario can be re-used.
+     */
+    public void reset()
+    {
+        additions.clear();
+        replacements.clear();
+        changedTeams.clear();
+        editedTeams.clear();
+        for (Map<String, TeamSummary> summaries : teamSummaries.values())
+        {
+            summaries.clear();
+        }
+        tables.clear();
+    }
+
+
+    private void checkTeams(Result result)
+    {
+        if (season.getTeam(result.getHomeTeam()) == null || season.getTeam(result.getAwayTeam()) == null)
+        {
+            throw new IllegalArgumentException("Unknown team in result: " + result.getHomeTeam()
+                                               + " v " + result.getAwayTeam());
+        }
+    }
+
+
+    private void checkActual(Result result)
+    {
+        if (season.getTeam(result.getHomeTeam()) == null
+            || !containsResult(season.getTeam(result.getHomeTeam()).getRecord(VenueType.HOME).getResults(), result))
+        {
+            throw new IllegalArgumentException("Result is not part of this season or scenario.");
+        }
+    }
+
+
+    /**
+     * @return The actual result that the specified result has replaced, or the specified
+     * result itself if it is not a replacement.
+     */
+    private Result getReplacedResult(Result result)
+    {
+        for (Map.Entry<Result, Result> entry : replacements.entrySet())
+        {
+            if (entry.getValue() == result)
+            {
+                return entry.getKey();
+            }
+        }
+        return result;
+    }
+
+
+    private int indexOfAddition(Result result)
+    {
+        for (int i = 0; i < additions.size(); i++)
+        {
+            if (additions.get(i) == result)
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+
+    private static boolean containsResult(List<Result> results, Result result)
+    {
+        for (Result candidate : results)
+        {
+            if (candidate == result)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * Discards any calculated records that are affected by a change to the specified result.
+     * @param edited Whether the change affects the team's actual results, in which case its
+     * records have to be recalculated in full rather than by merging.
+     */
+    private void markChanged(Result result, boolean edited)
+    {
+        for (String team : new String[]{result.getHomeTeam(), result.getAwayTeam()})
+        {
+            changedTeams.add(team);
+            if (edited)
+            {
+                editedTeams.add(team);
+            }
+            for (Map<String, TeamSummary> summaries : teamSummaries.values())
+            {
+                summaries.remove(team);
+            }
+        }
+        tables.clear();
+    }
+
+
+    /**
+     * @param teamName The name of a team.
+     * @param where Which of the team's records to return.
+     * @return The team's record in this scenario.
+     */
+    public TeamSummary getTeamSummary(String teamName, VenueType where)
+    {
+        if (!changedTeams.contains(teamName))
+        {
+            return summary.getTeamSummary(teamName, where);
+        }
+        Map<String, TeamSummary> summaries = teamSummaries.get(where);
+        TeamSummary teamSummary = summaries.get(teamName);
+        if (teamSummary == null)
+        {
+            teamSummary = calculateTeamSummary(teamName, where);
+            summaries.put(teamName, teamSummary);
+        }
+        return teamSummary;
+    }
+
+
+    private TeamSummary calculateTeamSummary(String teamName, VenueType where)
+    {
+        LeagueMetaData metaData = season.getMetaData();
+        StandardRecord record = season.getTeam(teamName).getRecord(where);
+        List<Result> actual = record.getResults();
+
+        List<Result> added = new ArrayList<Result>();
+        boolean afterActual = true;
+        for (Result result : additions)
+        {
+            if (involves(result, teamName, where))
+            {
+                added.add(result);
+                afterActual &= actual.isEmpty() || result.getDate() >= actual.get(actual.size() - 1).getDate();
+            }
+        }
+        Collections.sort(added, new ResultDateComparator());
+
+        if (afterActual && !editedTeams.contains(teamName))
+        {
+            // The hypothetical results just extend the team's actual record.
+            TeamSummary extension = TeamSummary.forResults(teamName,
+                                                           added,
+                                                           metaData.getPointsForWin(),
+                                                           metaData.getPointsForDraw(),
+                                                           0);
+            return summary.getTeamSummary(teamName, where).merge(extension);
+        }
+        else
+        {
+            return TeamSummary.forResults(teamName,
+                                          getResults(teamName, where),
+                                          metaData.getPointsForWin(),
+                                          metaData.getPointsForDraw(),
+                                          record.getPointsAdjustment());
+        }
+    }
+
+
+    /**
+     * @return The team's results in this scenario, in date order.
+     */
+    private List<Result> getResults(String teamName, VenueType where)
+    {
+        List<Result> actual = season.getTeam(teamName).getRecord(where).getResults();
+        List<Result> results = new ArrayList<Result>(actual.size() + additions.size());
+        for (Result result : actual)
+        {
+            if (!replacements.containsKey(result))
+            {
+                results.add(result);
+            }
+        }
+        for (Result replacement : replacements.values())
+        {
+            if (replacement != null && involves(replacement, teamName, where))
+            {
+                results.add(replacement);
+            }
+        }
+        for (Result result : additions)
+        {
+            if (involves(result, teamName, where))
+            {
+                results.add(result);
+            }
+        }
+        Collections.sort(results, new ResultDateComparator());
+        return results;
+    }
+
+
+    private static boolean involves(Result result, String teamName, VenueType where)
+    {
+        switch (where)
+        {
+            case HOME: return result.getHomeTeam().equals(teamName);
+            case AWAY: return result.getAwayTeam().equals(teamName);
+            default: return result.getHomeTeam().equals(teamName) || result.getAwayTeam().equals(teamName);
+        }
+    }
+
+
+    /**
+     * @param where Which matches to include (home, away or both).
+     * @return The records of all teams, in league table order.
+     */
+    public List<TeamSummary> getLeagueTable(VenueType where)
+    {
+        List<TeamSummary> table = tables.get(where);
+        if (table == null)
+        {
+            // Teams that are unaffected by the scenario are still in the right order
+            // relative to each other, so just the changed teams need to be placed.
+            table = new ArrayList<TeamSummary>(actualTables.get(where).size());
+            for (TeamSummary teamSummary : actualTables.get(where))
+            {
+                if (!changedTeams.contains(teamSummary.getName()))
+                {
+                    table.add(teamSummary);
+                }
+            }
+            for (String teamName : changedTeams)
+            {
+                TeamSummary teamSummary = getTeamSummary(teamName, where);
+                int index = Collections.binarySearch(table, teamSummary, comparator);
+                table.add(index < 0 ? -(index + 1) : index, teamSummary);
+            }
+            if (season.getMetaData().isHeadToHead() && where == VenueType.BOTH)
+            {
+                breakTiesHeadToHead(table);
+            }
+            table = Collections.unmodifiableList(table);
+            tables.put(where, table);
+        }
+        return table;
+    }
+
+
+    /**
+     * Re-orders each group of teams that are level on points according to the matches
+     * between them in this scenario, in the same way as the season's own table.
+     * @param table Records in standard league table order.
+     */
+    private void breakTiesHeadToHead(List<TeamSummary> table)
+    {
+        LeagueMetaData metaData = season.getMetaData();
+        int start = 0;
+        while (start < table.size())
+        {
+            int end = start + 1;
+            while (end < table.size() && table.get(end).getPoints() == table.get(start).getPoints())
+            {
+                ++end;
+            }
+            if (end - start > 1)
+            {
+                List<TeamSummary> group = table.subList(start, end);
+                Set<String> teamNames = new HashSet<String>();
+                for (TeamSummary teamSummary : group)
+                {
+                    teamNames.add(teamSummary.getName());
+                }
+                Map<String, TeamSummary> headToHead = new HashMap<String, TeamSummary>();
+                for (String teamName : teamNames)
+                {
+                    List<Result> results = new ArrayList<Result>();
+                    for (Result result : getResults(teamName, VenueType.BOTH))
+                    {
+                        if (teamNames.contains(result.getHomeTeam()) && teamNames.contains(result.getAwayTeam()))
+                        {
+                            results.add(result);
+                        }
+                    }
+                    headToHead.put(teamName, TeamSummary.forResults(teamName,
+                                                                    results,
+                                                                    metaData.getPointsForWin(),
+                                                                    metaData.getPointsForDraw(),
+                                                                    0));
+                }
+                // Sort is stable, so teams with identical head-to-head records stay in order.
+                Collections.sort(group, new HeadToHeadComparator(headToHead));
+            }
+            start = end;
+        }
+    }
+
+
+    /**
+     * @param teamName The name of a team.
+     * @return The team's position in the overall league table (1 is top).
+     */
+    public int getPosition(String teamName)
+    {
+        List<TeamSummary> table = getLeagueTable(VenueType.BOTH);
+        for (int i = 0; i < table.size(); i++)
+        {
+            if (table.get(i).getName().equals(teamName))
+            {
+                return i + 1;
+            }
+        }
+        throw new IllegalArgumentException("Unknown team: " + teamName);
+    }
+}
@@ -0,0 +1,185 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.model;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Home, away and overall {@link TeamSummary} objects for every team in one or more
+ * consecutive seasons.  Per-season summaries can be computed once (and serialised) and
+ * then merged to produce all-time or multi-season tables without re-reading the results.
+ * @author Daniel Dyer
+ */
+public final class SeasonSummary implements Serializable
+{
+    // Fixed so that summaries written by one build can be read by another.
+    private static final long serialVersionUID = -118323073186165786L;
+
+    private final Map<VenueType, SortedMap<String, TeamSummary>> summaries;
+
+
+    private SeasonSummary(Map<VenueType, SortedMap<String, TeamSummary>> summaries)
+    {
+        this.summaries = summaries;
+    }
+
+
+    /**
+     * Summarises each team's home, away and overall records.
+     * @param season The season to summarise.
+     * @return An immutable summary of the season.
+     */
+    public static SeasonSummary forSeason(LeagueSeason season)
+    {
+        Map<VenueType, SortedMap<String, TeamSummary>> summaries = createMaps();
+        for (String teamName : season.getTeamNames())
+        {
+            Team team = season.getTeam(teamName);
+            for (VenueType where : VenueType.values())
+            {
+                summaries.get(where).put(teamName, TeamSummary.forRecord(team.getRecord(where)));
+            }
+        }
+        return new SeasonSummary(summaries);
+    }
+
+
+    private static Map<VenueType, SortedMap<String, TeamSummary>> createMaps()
+    {
+        Map<VenueType, SortedMap<String, TeamSummary>> maps = new EnumMap<VenueType, SortedMap<String, TeamSummary>>(VenueType.class);
+        for (VenueType where : VenueType.values())
+        {
+            maps.put(where, new TreeMap<String, TeamSummary>());
+        }
+        return maps;
+    }
+
+
+    /**
+     * Combines this summary with the summary for the following season (or seasons).  Teams
+     * that appear in only one of the two summaries are carried over unchanged.
+     * @param next The summary for the later period.
+     * @return A summary that covers both periods.
+     */
+    public SeasonSummary merge(SeasonSummary next)
+    {
+        Map<VenueType, SortedMap<String, TeamSummary>> merged = createMaps();
+        for (VenueType where : VenueType.values())
+        {
+            SortedMap<String, TeamSummary> teams = merged.get(where);
+            teams.putAll(summaries.get(where));
+            for (TeamSummary summary : next.summaries.get(where).values())
+            {
+                TeamSummary previous = teams.get(summary.getName());
+                teams.put(summary.getName(), previous == null ? summary : previous.merge(summary));
+            }
+        }
+        return new SeasonSummary(merged);
+    }
+
+
+    /**
+     * Merges an ordered sequence of summaries.  Because merging is associative, the work
+     * is split pairwise rather than folded from the left, so each team's summary is merged
+     * O(log n) times and independent halves could be combined on different threads or
+     * machines.
+     * @param seasons Summaries in chronological order.  Must not be empty.
+     * @return The combined summary.
+     */
+    public static SeasonSummary mergeAll(Collection<SeasonSummary> seasons)
+    {
+        if (seasons.isEmpty())
+        {
+            throw new IllegalArgumentException("Must be at least one season to merge.");
+        }
+        SeasonSummary[] array = seasons.toArray(new SeasonSummary[seasons.size()]);
+        return mergeRange(array, 0, array.length);
+    }
+
+
+    private static SeasonSummary mergeRange(SeasonSummary[] seasons, int from, int to)
+    {
+        if (to - from == 1)
+        {
+            return seasons[from];
+        }
+        int middle = (from + to) >>> 1;
+        return mergeRange(seasons, from, middle).merge(mergeRange(seasons, middle, to));
+    }
+
+
+    /**
+     * @return The names of all teams included in this summary.
+     */
+    public SortedSet<String> getTeamNames()
+    {
+        return Collections.unmodifiableSortedSet(new TreeSet<String>(summaries.get(VenueType.BOTH).keySet()));
+    }
+
+
+    /**
+     * @param teamName The name of a team.
+     * @param where Which of the team's records to return.
+     * @return The summary for the team, or null if the team does not appear in this summary.
+     */
+    public TeamSummary getTeamSummary(String teamName, VenueType where)
+    {
+        return summaries.get(where).get(teamName);
+    }
+
+
+    /**
+     * @param where Which matches to include (home, away or both).
+     * @return All summarised teams in league table order.
+     */
+    public SortedSet<TeamSummary> getLeagueTable(VenueType where)
+    {
+        SortedSet<TeamSummary> table = new TreeSet<TeamSummary>(new LeagueTableComparator());
+        table.addAll(summaries.get(where).values());
+        return table;
+    }
+
+
+    /**
+     * Summaries are equal if they contain equal summaries for the same teams.
+     */
+    @Override
+    public boolean equals(Object obj)
+    {
+        return obj instanceof SeasonSummary && summaries.equals(((SeasonSummary) obj).summaries);
+    }
+
+
+    /**
+     * Over-ride hashCode because equals has also been over-ridden, to satisfy general contract
+     * of equals.
+     */
+    @Override
+    public int hashCode()
+    {
+        return summaries.hashCode();
+    }
+}
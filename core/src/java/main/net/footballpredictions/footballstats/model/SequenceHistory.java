@@ -0,0 +1,298 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import net.footballpredictions.footballstats.util.WordAlignedBitmap;
+
+/**
+ * Sequences of results (see {@link SequenceType}) for each team over any number of
+ * seasons, so that runs that cross season boundaries can be found and questions such as
+ * "longest unbeaten run ever" answered.  Each team's matches are numbered in date order
+ * and its outcomes are recorded as run-length compressed bitmaps (won, drawn, lost,
+ * scored, conceded).  Every sequence type is a combination of these, and the longest and
+ * current runs for any range of dates are found a word at a time.
+ * @author Daniel Dyer
+ */
+public final class SequenceHistory
+{
+    private final Map<String, TeamOutcomes> teams = new TreeMap<String, TeamOutcomes>();
+
+
+    /**
+     * @param results The results of all matches to include, in any order.  Typically this
+     * is the combined results of several consecutive seasons.
+     */
+    public SequenceHistory(List<Result> results)
+    {
+        Result[] sortedResults = results.toArray(new Result[results.size()]);
+        Arrays.sort(sortedResults, new ResultDateComparator());
+
+        Map<String, TeamBuilder> builders = new HashMap<String, TeamBuilder>();
+        for (Result result : sortedResults)
+        {
+            for (String teamName : new String[]{result.getHomeTeam(), result.getAwayTeam()})
+            {
+                TeamBuilder builder = builders.get(teamName);
+                if (builder == null)
+                {
+                    builder = new TeamBuilder(teamName);
+                    builders.put(teamName, builder);
+                }
+                builder.addResult(result);
+            }
+        }
+        for (TeamBuilder builder : builders.values())
+        {
+            teams.put(builder.teamName, builder.build());
+        }
+    }
+
+
+    /**
+     * @return The names of all teams that played in any of the matches.
+     */
+    public SortedSet<String> getTeamNames()
+    {
+        return Collections.unmodifiableSortedSet(new TreeSet<String>(teams.keySet()));
+    }
+
+
+    /**
+     * @param teamName The name of a team.
+     * @return The number of matches played by the team.
+     */
+    public int getMatchCount(String teamName)
+    {
+        return getOutcomes(teamName).dates.length;
+    }
+
+
+    /**
+     * @param teamName The name of a team.
+     * @param sequence The type of sequence.
+     * @return The length of the team's longest sequence of the specified type.
+     */
+    public int getLongestSequence(String teamName, SequenceType sequence)
+    {
+        return getLongestSequence(teamName, sequence, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+
+    /**
+     * @param teamName The name of a team.
+     * @param sequence The type of sequence.
+     * @param fromDate The first date to consider (inclusive), as an epoch day.
+     * @param toDate The last date to consider (inclusive), as an epoch day.
+     * @return The length of the longest sequence of the specified type made up only of
+     * matches between the two dates.
+     */
+    public int getLongestSequence(String teamName, SequenceType sequence, int fromDate, int toDate)
+    {
+        TeamOutcomes outcomes = getOutcomes(teamName);
+        int from = outcomes.countBefore(fromDate);
+        int to = outcomes.countBefore(toDate + 1L);
+        return from < to ? outcomes.getSequence(sequence, from, to).longestRun() : 0;
+    }
+
+
+    /**
+     * @param teamName The name of a team.
+     * @param sequence The type of sequence.
+     * @return The length of the sequence of the specified type that ends with the team's
+     * most recent match.
+     */
+    public int getCurrentSequence(String teamName, SequenceType sequence)
+    {
+        return getCurrentSequence(teamName, sequence, Integer.MAX_VALUE);
+    }
+
+
+    /**
+     * @param teamName The name of a team.
+     * @param sequence The type of sequence.
+     * @param date A date, as an epoch day.
+     * @return The length of the sequence of the specified type that was current on that
+     * date (i.e. the run that ends with the team's last match on or before the date).
+     */
+    public int getCurrentSequence(String teamName, SequenceType sequence, int date)
+    {
+        TeamOutcomes outcomes = getOutcomes(teamName);
+        int to = outcomes.countBefore(date + 1L);
+        return to > 0 ? outcomes.getSequence(sequence, 0, to).runEndingAt(to) : 0;
+    }
+
+
+    private TeamOutcomes getOutcomes(String teamName)
+    {
+        TeamOutcomes outcomes = teams.get(teamName);
+        if (outcomes == null)
+        {
+            throw new IllegalArgumentException("Unknown team: " + teamName);
+        }
+        return outcomes;
+    }
+
+
+    /**
+     * The outcomes of one team's matches.  Bit i of each bitmap relates to the team's
+     * match i (in date order).
+     */
+    private static final class TeamOutcomes
+    {
+        private final int[] dates;
+        private final WordAlignedBitmap won;
+        private final WordAlignedBitmap drawn;
+        private final WordAlignedBitmap lost;
+        private final WordAlignedBitmap scored;
+        private final WordAlignedBitmap conceded;
+
+        TeamOutcomes(int[] dates,
+                     WordAlignedBitmap won,
+                     WordAlignedBitmap drawn,
+                     WordAlignedBitmap lost,
+                     WordAlignedBitmap scored,
+                     WordAlignedBitmap conceded)
+        {
+            this.dates = dates;
+            this.won = won;
+            this.drawn = drawn;
+            this.lost = lost;
+            this.scored = scored;
+            this.conceded = conceded;
+        }
+
+
+        /**
+         * @return The number of matches played before the specified date.
+         */
+        int countBefore(long date)
+        {
+            int low = 0;
+            int high = dates.length;
+            while (low < high)
+            {
+                int middle = (low + high) >>> 1;
+                if (dates[middle] < date)
+                {
+                    low = middle + 1;
+                }
+                else
+                {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+
+        /**
+         * @return A bitmap with a bit set for each match in the range that continues
+         * the specified type of sequence.
+         */
+        WordAlignedBitmap getSequence(SequenceType sequence, int from, int to)
+        {
+            WordAlignedBitmap range = WordAlignedBitmap.range(from, to);
+            switch (sequence)
+            {
+                case WINS: return won.and(range);
+                case DRAWS: return drawn.and(range);
+                case DEFEATS: return lost.and(range);
+                case UNBEATEN: return range.andNot(lost);
+                case NO_WIN: return range.andNot(won);
+                case CLEANSHEETS: return range.andNot(conceded);
+                case GAMES_SCORED_IN: return scored.and(range);
+                case GAMES_NOT_SCORED_IN: return range.andNot(scored);
+                case GAMES_CONCEDED_IN: return conceded.and(range);
+                default: throw new IllegalArgumentException("Invalid sequence type: " + sequence);
+            }
+        }
+    }
+
+
+    private static final class TeamBuilder
+    {
+        private final String teamName;
+        private final WordAlignedBitmap.Builder won = new WordAlignedBitmap.Builder();
+        private final WordAlignedBitmap.Builder drawn = new WordAlignedBitmap.Builder();
+        private final WordAlignedBitmap.Builder lost = new WordAlignedBitmap.Builder();
+        private final WordAlignedBitmap.Builder scored = new WordAlignedBitmap.Builder();
+        private final WordAlignedBitmap.Builder conceded = new WordAlignedBitmap.Builder();
+        private int[] dates = new int[64];
+        private int count = 0;
+
+        TeamBuilder(String teamName)
+        {
+            this.teamName = teamName;
+        }
+
+
+        void addResult(Result result)
+        {
+            int goalsFor = result.getGoalsFor(teamName);
+            int goalsAgainst = result.getGoalsAgainst(teamName);
+            if (goalsFor > goalsAgainst)
+            {
+                won.set(count);
+            }
+            else if (goalsFor == goalsAgainst)
+            {
+                drawn.set(count);
+            }
+            else
+            {
+                lost.set(count);
+            }
+            if (goalsFor > 0)
+            {
+                scored.set(count);
+            }
+            if (goalsAgainst > 0)
+            {
+                conceded.set(count);
+            }
+            if (count == dates.length)
+            {
+                int[] newDates = new int[dates.length * 2];
+                System.arraycopy(dates, 0, newDates, 0, count);
+                dates = newDates;
+            }
+            dates[count++] = result.getDate();
+        }
+
+
+        TeamOutcomes build()
+        {
+            int[] matchDates = new int[count];
+            System.arraycopy(dates, 0, matchDates, 0, count);
+            return new TeamOutcomes(matchDates,
+                                    won.build(count),
+                                    drawn.build(count),
+                                    lost.build(count),
+                                    scored.build(count),
+                                    conceded.build(count));
+        }
+    }
+}
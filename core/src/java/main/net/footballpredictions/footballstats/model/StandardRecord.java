@@ -17,11 +17,8 @@
 // ============================================================================
 package net.footballpredictions.footballstats.model;
 
-import java.util.ArrayList;
-import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
-import java.util.LinkedList;
 import java.util.LinkedHashMap;
 
 /**
@@ -33,18 +30,18 @@ import java.util.LinkedHashMap;
  */
 public final class StandardRecord extends AbstractTeamRecord
 {
-    private final List<Result> results = new ArrayList<Result>(46); // Most leagues have no more than 46 games per team.
+    private static final int SEQUENCE_TYPES = SequenceType.values().length;
 
-    private final FormRecord form;
+    // The results and running totals.  Played, won, drawn, etc. are all derived from these.
+    private final ResultTotals totals;
+    private final int formLength;
 
-    private int won = 0;
-    private int drawn = 0;
-    private int lost = 0 ;
-    private int scored = 0;
-    private int conceded = 0;
-
-    private final Map<SequenceType, List<Result>> currentSequences = new EnumMap<SequenceType, List<Result>>(SequenceType.class);
-    private final Map<SequenceType, List<Result>> bestSequences = new EnumMap<SequenceType, List<Result>>(SequenceType.class);
+    // Sequences are always runs of consecutive results, so they are stored as lengths and
+    // the lists of results are views of the relevant range.  The first third of the array
+    // holds the length of each current sequence (indexed by SequenceType ordinal), the
+    // second third the length of each best sequence and the last third the index after
+    // the last match of each best sequence.
+    private final int[] sequences = new int[SEQUENCE_TYPES * 3];
 
     private Result biggestWin = null;
     private Result biggestDefeat = null;
@@ -64,22 +61,14 @@ public final class StandardRecord extends AbstractTeamRecord
     {
         super(team, pointsForWin, pointsForDraw);
         
-        this.form = new FormRecord(team,
-                                   pointsForWin,
-                                   pointsForDraw,
-                                   where == VenueType.BOTH ? 6 : 4);
-        // Intialise sequences to zero.
-        for (SequenceType sequence : SequenceType.values())
-        {
-            currentSequences.put(sequence, new LinkedList<Result>());
-            bestSequences.put(sequence, new LinkedList<Result>());
-        }
+        this.totals = new ResultTotals(team.getName(), where == VenueType.BOTH ? 16 : 8);
+        this.formLength = where == VenueType.BOTH ? 6 : 4;
     }
 
 
     public List<Result> getResults()
     {
-        return results;
+        return totals.getResults(0, totals.getCount());
     }
 
 
@@ -88,18 +77,26 @@ public final class StandardRecord extends AbstractTeamRecord
      */
     public void addResult(Result result)
     {
-        results.add(result);
-        form.addResult(result);
+        totals.addResult(result);
         updateAggregatesAndSequences(result);
     }
 
 
+    /**
+     * Releases any spare capacity once all results have been added.
+     */
+    void trimToSize()
+    {
+        totals.trimToSize();
+    }
+
+
     /**
      * {@inheritDoc}
      */
     public int getPlayed()
     {
-        return results.size();
+        return totals.getCount();
     }
 
 
@@ -108,7 +105,7 @@ public final class StandardRecord extends AbstractTeamRecord
      */
     public int getWon()
     {
-        return won;
+        return totals.getWon(0, totals.getCount());
     }
 
 
@@ -117,7 +114,7 @@ public final class StandardRecord extends AbstractTeamRecord
      */
     public int getDrawn()
     {
-        return drawn;
+        return totals.getDrawn(0, totals.getCount());
     }
 
 
@@ -126,7 +123,7 @@ public final class StandardRecord extends AbstractTeamRecord
      */
     public int getLost()
     {
-        return lost;
+        return totals.getLost(0, totals.getCount());
     }
 
 
@@ -135,7 +132,7 @@ public final class StandardRecord extends AbstractTeamRecord
      */
     public int getScored()
     {
-        return scored;
+        return totals.getScored(0, totals.getCount());
     }
 
 
@@ -144,7 +141,7 @@ public final class StandardRecord extends AbstractTeamRecord
      */
     public int getConceded()
     {
-        return conceded;
+        return totals.getConceded(0, totals.getCount());
     }
 
     
@@ -157,7 +154,8 @@ public final class StandardRecord extends AbstractTeamRecord
      */
     public List<Result> getCurrentSequence(SequenceType sequence)
     {
-        return currentSequences.get(sequence);
+        int length = sequences[sequence.ordinal()];
+        return totals.getResults(totals.getCount() - length, totals.getCount());
     }
 
 
@@ -171,7 +169,9 @@ public final class StandardRecord extends AbstractTeamRecord
      */
     public List<Result> getBestSequence(SequenceType sequence)
     {
-        return bestSequences.get(sequence);
+        int length = sequences[SEQUENCE_TYPES + sequence.ordinal()];
+        int end = sequences[2 * SEQUENCE_TYPES + sequence.ordinal()];
+        return totals.getResults(end - length, end);
     }
 
 
@@ -190,7 +190,62 @@ public final class StandardRecord extends AbstractTeamRecord
      */
     public FormRecord getFormRecord()
     {
-        return form;
+        return getFormRecord(formLength);
+    }
+
+
+    /**
+     * @return A form record that always reflects the team's most recent matches, even as
+     * more results are added to this record.
+     */
+    FormRecord getLiveFormRecord()
+    {
+        return new FormRecord(getTeam(), getPointsForWin(), getPointsForDraw(), totals, formLength);
+    }
+
+
+    /**
+     * @param matches The number of matches to include.
+     * @return A {@link TeamRecord} for the team's most recent matches.
+     */
+    public FormRecord getFormRecord(int matches)
+    {
+        int count = totals.getCount();
+        return getRangeRecord(Math.max(0, count - matches), count, matches);
+    }
+
+
+    /**
+     * @param matches The number of matches to include.
+     * @param date A date, as an epoch day.
+     * @return A {@link TeamRecord} for the team's most recent matches as of the specified
+     * date (so only matches played on or before that date are included).
+     */
+    public FormRecord getFormRecord(int matches, int date)
+    {
+        int count = totals.getCount(date);
+        return getRangeRecord(Math.max(0, count - matches), count, matches);
+    }
+
+
+    /**
+     * @param from The index of the first match to include (zero is the team's first match).
+     * @param to The index after the last match to include.
+     * @return A {@link TeamRecord} for the specified run of matches.
+     */
+    public FormRecord getRangeRecord(int from, int to)
+    {
+        return getRangeRecord(from, to, to - from);
+    }
+
+
+    private FormRecord getRangeRecord(int from, int to, int length)
+    {
+        if (from < 0 || to > totals.getCount() || from > to)
+        {
+            throw new IllegalArgumentException("Invalid match range: " + from + " - " + to);
+        }
+        return new FormRecord(getTeam(), getPointsForWin(), getPointsForDraw(), totals, from, to, length);
     }
 
 
@@ -199,7 +254,7 @@ public final class StandardRecord extends AbstractTeamRecord
      */
     public Result getLatestResult()
     {
-        return results.isEmpty() ? null : results.get(results.size() - 1);
+        return totals.getCount() == 0 ? null : totals.getResult(totals.getCount() - 1);
     }
 
 
@@ -228,12 +283,12 @@ public final class StandardRecord extends AbstractTeamRecord
     public Map<SequenceType, Integer> getInterestingSequences()
     {
         Map<SequenceType, Integer> sequences = new LinkedHashMap<SequenceType, Integer>();
-        for (Map.Entry<SequenceType, List<Result>> entry : currentSequences.entrySet())
+        for (SequenceType sequence : SequenceType.values())
         {
-            int sequenceLength = entry.getValue().size();
-            if (sequenceLength >= entry.getKey().getInterestLevel())
+            int sequenceLength = this.sequences[sequence.ordinal()];
+            if (sequenceLength >= sequence.getInterestLevel())
             {
-                sequences.put(entry.getKey(), sequenceLength);
+                sequences.put(sequence, sequenceLength);
             }
         }
 
@@ -261,10 +316,8 @@ public final class StandardRecord extends AbstractTeamRecord
         // Update result aggregates/sequences.
         if (result.isDefeat(getTeam().getName()))
         {
-            lost++;
-
-            addToSequence(SequenceType.NO_WIN, result);
-            addToSequence(SequenceType.DEFEATS, result);
+            addToSequence(SequenceType.NO_WIN);
+            addToSequence(SequenceType.DEFEATS);
             resetSequence(SequenceType.UNBEATEN);
             resetSequence(SequenceType.WINS);
             resetSequence(SequenceType.DRAWS);
@@ -276,22 +329,18 @@ public final class StandardRecord extends AbstractTeamRecord
         }
         else
         {
-            addToSequence(SequenceType.UNBEATEN, result);
+            addToSequence(SequenceType.UNBEATEN);
             resetSequence(SequenceType.DEFEATS);
 
             if (result.isDraw())
             {
-                drawn++;
-
-                addToSequence(SequenceType.DRAWS, result);
-                addToSequence(SequenceType.NO_WIN, result);
+                addToSequence(SequenceType.DRAWS);
+                addToSequence(SequenceType.NO_WIN);
                 resetSequence(SequenceType.WINS);
             }
             else // Must be a win
             {
-                won++;
-
-                addToSequence(SequenceType.WINS, result);
+                addToSequence(SequenceType.WINS);
                 resetSequence(SequenceType.NO_WIN);
                 resetSequence(SequenceType.DRAWS);
 
@@ -303,48 +352,47 @@ public final class StandardRecord extends AbstractTeamRecord
         }
 
         // Update score aggregates/sequences.
-        scored += goalsFor;
-        conceded += goalsAgainst;
         if (goalsFor == 0)
         {
-            addToSequence(SequenceType.GAMES_NOT_SCORED_IN, result);
+            addToSequence(SequenceType.GAMES_NOT_SCORED_IN);
             resetSequence(SequenceType.GAMES_SCORED_IN);
         }
         else
         {
             resetSequence(SequenceType.GAMES_NOT_SCORED_IN);
-            addToSequence(SequenceType.GAMES_SCORED_IN, result);
+            addToSequence(SequenceType.GAMES_SCORED_IN);
         }
 
         if (goalsAgainst == 0)
         {
-            addToSequence(SequenceType.CLEANSHEETS, result);
+            addToSequence(SequenceType.CLEANSHEETS);
             resetSequence(SequenceType.GAMES_CONCEDED_IN);
         }
         else
         {
             resetSequence(SequenceType.CLEANSHEETS);
-            addToSequence(SequenceType.GAMES_CONCEDED_IN, result);
+            addToSequence(SequenceType.GAMES_CONCEDED_IN);
         }
     }
 
 
-    private void addToSequence(SequenceType sequence, Result result)
+    private void addToSequence(SequenceType sequence)
     {
-        List<Result> list = currentSequences.get(sequence);
-        list.add(result);
+        int length = ++sequences[sequence.ordinal()];
         // If the current sequence is better than the best this season, then
-        // update the best this season.
-        if (list.size() > bestSequences.get(sequence).size())
+        // update the best this season.  The result has already been added so the
+        // sequence ends at the current count.
+        if (length > sequences[SEQUENCE_TYPES + sequence.ordinal()])
         {
-            bestSequences.put(sequence, new LinkedList<Result>(list));
+            sequences[SEQUENCE_TYPES + sequence.ordinal()] = length;
+            sequences[2 * SEQUENCE_TYPES + sequence.ordinal()] = totals.getCount();
         }
     }
 
 
     private void resetSequence(SequenceType sequence)
     {
-        currentSequences.get(sequence).clear();
+        sequences[sequence.ordinal()] = 0;
     }
 
 
@@ -0,0 +1,555 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.model;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An immutable summary of a team's record over some contiguous run of matches (typically
+ * a season).  Summaries for consecutive periods can be combined with {@link #merge(TeamSummary)}
+ * to give the summary for the combined period without replaying the individual results.
+ * Merging is associative, so a multi-season record can be assembled from per-season
+ * summaries in any grouping, but it is not commutative: the earlier summary must always
+ * be on the left so that sequences which span the boundary are joined correctly.
+ * @author Daniel Dyer
+ */
+public final class TeamSummary implements TeamRecord, Serializable
+{
+    // Summaries are serialised and merged on separate machines, so the serialised form
+    // must not change between builds.
+    private static final long serialVersionUID = 3520980337823321203L;
+
+    private static final int SEQUENCE_TYPES = SequenceType.values().length;
+
+    private final String name;
+    private final int pointsForWin;
+    private final int pointsForDraw;
+
+    private final int won;
+    private final int drawn;
+    private final int lost;
+    private final int scored;
+    private final int conceded;
+    private final int pointsAdjustment;
+
+    private final int aggregateCrowd;
+    private final int crowdCount;
+    private final int highestCrowd;
+    private final int lowestCrowd;
+
+    // Sequence lengths, indexed by SequenceType ordinal.  The opening sequence is the run
+    // from the first match in the summary, the current sequence is the run up to the last
+    // match.  When a summary is merged with the one that follows it, the current sequences
+    // of the first join up with the opening sequences of the second.
+    private final int[] openingSequences;
+    private final int[] currentSequences;
+    private final int[] bestSequences;
+
+
+    private TeamSummary(String name,
+                        int pointsForWin,
+                        int pointsForDraw,
+                        int won,
+                        int drawn,
+                        int lost,
+                        int scored,
+                        int conceded,
+                        int pointsAdjustment,
+                        int aggregateCrowd,
+                        int crowdCount,
+                        int highestCrowd,
+                        int lowestCrowd,
+                        int[] openingSequences,
+                        int[] currentSequences,
+                        int[] bestSequences)
+    {
+        this.name = name;
+        this.pointsForWin = pointsForWin;
+        this.pointsForDraw = pointsForDraw;
+        this.won = won;
+        this.drawn = drawn;
+        this.lost = lost;
+        this.scored = scored;
+        this.conceded = conceded;
+        this.pointsAdjustment = pointsAdjustment;
+        this.aggregateCrowd = aggregateCrowd;
+        this.crowdCount = crowdCount;
+        this.highestCrowd = highestCrowd;
+        this.lowestCrowd = lowestCrowd;
+        this.openingSequences = openingSequences;
+        this.currentSequences = currentSequences;
+        this.bestSequences = bestSequences;
+    }
+
+
+    /**
+     * Creates a summary that contains no matches.  This is the identity for
+     * {@link #merge(TeamSummary)}.
+     * @param name The name of the team.
+     * @param pointsForWin The number of points awarded for each win.
+     * @param pointsForDraw The number of points awarded for each draw.
+     * @return An empty summary for the specified team.
+     */
+    public static TeamSummary empty(String name, int pointsForWin, int pointsForDraw)
+    {
+        return new TeamSummary(name, pointsForWin, pointsForDraw, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
+                               new int[SEQUENCE_TYPES],
+                               new int[SEQUENCE_TYPES],
+                               new int[SEQUENCE_TYPES]);
+    }
+
+
+    /**
+     * Summarises an existing record.
+     * @param record The team's record for a season (or part of a season).
+     * @return An immutable summary of the record, including any points adjustment.
+     */
+    public static TeamSummary forRecord(StandardRecord record)
+    {
+        return forResults(record.getName(),
+                          record.getResults(),
+                          record.getPointsForWin(),
+                          record.getPointsForDraw(),
+                          record.getPointsAdjustment());
+    }
+
+
+    /**
+     * Summarises a team's results.
+     * @param name The name of the team.
+     * @param results The team's results, in date order.
+     * @param pointsForWin The number of points awarded for each win.
+     * @param pointsForDraw The number of points awarded for each draw.
+     * @param pointsAdjustment Any points awarded or deducted by the league authorities.
+     * @return An immutable summary of the results.
+     */
+    public static TeamSummary forResults(String name,
+                                         List<Result> results,
+                                         int pointsForWin,
+                                         int pointsForDraw,
+                                         int pointsAdjustment)
+    {
+        int won = 0;
+        int drawn = 0;
+        int lost = 0;
+        int scored = 0;
+        int conceded = 0;
+        int aggregateCrowd = 0;
+        int crowdCount = 0;
+        int highestCrowd = 0;
+        int lowestCrowd = 0;
+        int[] opening = new int[SEQUENCE_TYPES];
+        int[] current = new int[SEQUENCE_TYPES];
+        int[] best = new int[SEQUENCE_TYPES];
+
+        int played = 0;
+        for (Result result : results)
+        {
+            int goalsFor = result.getGoalsFor(name);
+            int goalsAgainst = result.getGoalsAgainst(name);
+            scored += goalsFor;
+            conceded += goalsAgainst;
+            if (goalsFor > goalsAgainst)
+            {
+                ++won;
+            }
+            else if (goalsFor == goalsAgainst)
+            {
+                ++drawn;
+            }
+            else
+            {
+                ++lost;
+            }
+
+            // Only home attendances count towards a team's figures.
+            if (result.getHomeTeam().equals(name) && result.getAttendance() >= 0)
+            {
+                aggregateCrowd += result.getAttendance();
+                ++crowdCount;
+                highestCrowd = Math.max(highestCrowd, result.getAttendance());
+                lowestCrowd = lowestCrowd == 0 ? result.getAttendance() : Math.min(lowestCrowd, result.getAttendance());
+            }
+
+            for (SequenceType type : SequenceType.values())
+            {
+                int i = type.ordinal();
+                if (continuesSequence(type, goalsFor, goalsAgainst))
+                {
+                    ++current[i];
+                    best[i] = Math.max(best[i], current[i]);
+                    if (opening[i] == played)
+                    {
+                        ++opening[i];
+                    }
+                }
+                else
+                {
+                    current[i] = 0;
+                }
+            }
+            ++played;
+        }
+        return new TeamSummary(name, pointsForWin, pointsForDraw, won, drawn, lost, scored, conceded,
+                               pointsAdjustment, aggregateCrowd, crowdCount, highestCrowd, lowestCrowd,
+                               opening, current, best);
+    }
+
+
+    private static boolean continuesSequence(SequenceType type, int goalsFor, int goalsAgainst)
+    {
+        switch (type)
+        {
+            case WINS: return goalsFor > goalsAgainst;
+            case DRAWS: return goalsFor == goalsAgainst;
+            case DEFEATS: return goalsFor < goalsAgainst;
+            case UNBEATEN: return goalsFor >= goalsAgainst;
+            case NO_WIN: return goalsFor <= goalsAgainst;
+            case CLEANSHEETS: return goalsAgainst == 0;
+            case GAMES_SCORED_IN: return goalsFor > 0;
+            case GAMES_NOT_SCORED_IN: return goalsFor == 0;
+            case GAMES_CONCEDED_IN: return goalsAgainst > 0;
+            default: throw new IllegalArgumentException("Invalid sequence type: " + type);
+        }
+    }
+
+
+    /**
+     * Combines this summary with the summary for the period immediately following it.
+     * @param next The summary for the later period.  Must be for the same team and
+     * the same points system.
+     * @return A summary that covers both periods.
+     */
+    public TeamSummary merge(TeamSummary next)
+    {
+        if (!name.equals(next.name))
+        {
+            throw new IllegalArgumentException("Cannot merge records for different teams: "
+                                               + name + ", " + next.name);
+        }
+        if (pointsForWin != next.pointsForWin || pointsForDraw != next.pointsForDraw)
+        {
+            throw new IllegalArgumentException("Cannot merge records with different points systems.");
+        }
+
+        int[] opening = new int[SEQUENCE_TYPES];
+        int[] current = new int[SEQUENCE_TYPES];
+        int[] best = new int[SEQUENCE_TYPES];
+        for (int i = 0; i < SEQUENCE_TYPES; i++)
+        {
+            // A sequence that spans the whole of one period extends into the other.
+            opening[i] = openingSequences[i] == getPlayed()
+                         ? openingSequences[i] + next.openingSequences[i]
+                         : openingSequences[i];
+            current[i] = next.currentSequences[i] == next.getPlayed()
+                         ? currentSequences[i] + next.currentSequences[i]
+                         : next.currentSequences[i];
+            best[i] = Math.max(Math.max(bestSequences[i], next.bestSequences[i]),
+                               currentSequences[i] + next.openingSequences[i]);
+        }
+
+        int lowest;
+        if (lowestCrowd == 0 || next.lowestCrowd == 0)
+        {
+            lowest = Math.max(lowestCrowd, next.lowestCrowd);
+        }
+        else
+        {
+            lowest = Math.min(lowestCrowd, next.lowestCrowd);
+        }
+
+        return new TeamSummary(name,
+                               pointsForWin,
+                               pointsForDraw,
+                               won + next.won,
+                               drawn + next.drawn,
+                               lost + next.lost,
+                               scored + next.scored,
+                               conceded + next.conceded,
+                               pointsAdjustment + next.pointsAdjustment,
+                               aggregateCrowd + next.aggregateCrowd,
+                               crowdCount + next.crowdCount,
+                               Math.max(highestCrowd, next.highestCrowd),
+                               lowest,
+                               opening,
+                               current,
+                               best);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+
+    /**
+     * @throws UnsupportedOperationException Summaries are not tied to a particular season's
+     * {@link Team} object.
+     */
+    public Team getTeam()
+    {
+        throw new UnsupportedOperationException("Summary is not associated with a team instance.");
+    }
+
+
+    /**
+     * @throws UnsupportedOperationException Summaries are immutable, use
+     * {@link #merge(TeamSummary)} instead.
+     */
+    public void addResult(Result result)
+    {
+        throw new UnsupportedOperationException("Summary is immutable.");
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public int getPlayed()
+    {
+        return won + drawn + lost;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public int getWon()
+    {
+        return won;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public int getDrawn()
+    {
+        return drawn;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public int getLost()
+    {
+        return lost;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public int getScored()
+    {
+        return scored;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public int getConceded()
+    {
+        return conceded;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public int getGoalDifference()
+    {
+        return scored - conceded;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public int getPoints()
+    {
+        return (won * pointsForWin) + (drawn * pointsForDraw) + pointsAdjustment;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public int getDroppedPoints()
+    {
+        return getPlayed() * pointsForWin - getPoints();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public double getAveragePoints()
+    {
+        return getPlayed() == 0 ? 0 : (double) getPoints() / (double) getPlayed();
+    }
+
+
+    /**
+     * @throws UnsupportedOperationException Not supported for this record type.
+     */
+    public String getForm()
+    {
+        throw new UnsupportedOperationException("Form is not calculated for summary record.");
+    }
+
+
+    /**
+     * @throws UnsupportedOperationException Summaries are immutable.
+     */
+    public void adjustPoints(int amount)
+    {
+        throw new UnsupportedOperationException("Summary is immutable.");
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public int getPointsAdjustment()
+    {
+        return pointsAdjustment;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public int getPointsForWin()
+    {
+        return pointsForWin;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public int getPointsForDraw()
+    {
+        return pointsForDraw;
+    }
+
+
+    /**
+     * @param sequence The type of sequence.
+     * @return The length of the sequence that started with the first match in this summary.
+     */
+    public int getOpeningSequence(SequenceType sequence)
+    {
+        return openingSequences[sequence.ordinal()];
+    }
+
+
+    /**
+     * @param sequence The type of sequence.
+     * @return The length of the sequence that ends with the last match in this summary.
+     */
+    public int getCurrentSequence(SequenceType sequence)
+    {
+        return currentSequences[sequence.ordinal()];
+    }
+
+
+    /**
+     * @param sequence The type of sequence.
+     * @return The length of the longest sequence of the specified type.
+     */
+    public int getBestSequence(SequenceType sequence)
+    {
+        return bestSequences[sequence.ordinal()];
+    }
+
+
+    /**
+     * Attendance figures for home matches.  Matches for which the attendance is unknown
+     * are excluded.
+     * @param type One of the attendance constants from {@link Team}.
+     * @return The requested attendance figure, or -1 for an invalid type.
+     */
+    public int getAttendanceRecord(int type)
+    {
+        switch (type)
+        {
+            case Team.ATTENDANCE_AVERAGE: return crowdCount == 0 ? 0 : (int) ((double) aggregateCrowd / crowdCount + 0.5);
+            case Team.ATTENDANCE_HIGHEST: return highestCrowd;
+            case Team.ATTENDANCE_LOWEST: return lowestCrowd;
+            case Team.ATTENDANCE_AGGREGATE: return aggregateCrowd;
+        }
+        return -1;
+    }
+
+
+    /**
+     * Summaries are equal if they are for the same team and all of their figures match.
+     */
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (obj instanceof TeamSummary)
+        {
+            TeamSummary other = (TeamSummary) obj;
+            return name.equals(other.name)
+                   && pointsForWin == other.pointsForWin
+                   && pointsForDraw == other.pointsForDraw
+                   && won == other.won
+                   && drawn == other.drawn
+                   && lost == other.lost
+                   && scored == other.scored
+                   && conceded == other.conceded
+                   && pointsAdjustment == other.pointsAdjustment
+                   && aggregateCrowd == other.aggregateCrowd
+                   && crowdCount == other.crowdCount
+                   && highestCrowd == other.highestCrowd
+                   && lowestCrowd == other.lowestCrowd
+                   && Arrays.equals(openingSequences, other.openingSequences)
+                   && Arrays.equals(currentSequences, other.currentSequences)
+                   && Arrays.equals(bestSequences, other.bestSequences);
+        }
+        return false;
+    }
+
+
+    /**
+     * Over-ride hashCode because equals has also been over-ridden, to satisfy general contract
+     * of equals.
+     * Algorithm from Effective Java by Joshua Bloch.
+     */
+    @Override
+    public int hashCode()
+    {
+        int result = 17;
+        result = 37 * result + name.hashCode();
+        result = 37 * result + getPoints();
+        result = 37 * result + getPlayed();
+        result = 37 * result + getGoalDifference();
+        return result;
+    }
+}
@@ -0,0 +1,149 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.util;
+
+/**
+ * Reduces the number of points in a line graph using the Largest-Triangle-Three-Buckets
+ * algorithm (Sveinn Steinarsson, 2013).  The points between the first and last are
+ * divided into equal-sized buckets and, from each bucket, the point that forms the
+ * largest triangle with the previously selected point and the average of the next
+ * bucket is kept.  This preserves the visual shape of the line much better than simply
+ * taking every nth point.  The first and last points, and the points with the highest
+ * and lowest values, are always kept so that the extent of the line is exact.
+ * @author Daniel Dyer
+ */
+public final class Downsampler
+{
+    private Downsampler()
+    {
+        // Prevents instantiation of utility class.
+    }
+
+
+    /**
+     * @param x The x co-ordinates of the points, in ascending order.
+     * @param y The y co-ordinates of the points.
+     * @param from The index of the first point to consider (inclusive).
+     * @param to The index of the last point to consider (exclusive).
+     * @param threshold The target number of points.  If the highest and lowest points
+     * fall in the same bucket, both are kept, so the result may contain one more point
+     * than this.
+     * @return The indices of the points to keep, in ascending order.  If there are no
+     * more than {@code threshold} points in the range, or the threshold is less than 3,
+     * all of the indices in the range are returned.
+     */
+    public static int[] downsample(double[] x, double[] y, int from, int to, int threshold)
+    {
+        int count = to - from;
+        if (count <= threshold || threshold < 3)
+        {
+            int[] all = new int[count];
+            for (int i = 0; i < count; i++)
+            {
+                all[i] = from + i;
+            }
+            return all;
+        }
+
+        int minIndex = from;
+        int maxIndex = from;
+        for (int i = from + 1; i < to; i++)
+        {
+            if (y[i] < y[minIndex])
+            {
+                minIndex = i;
+            }
+            else if (y[i] > y[maxIndex])
+            {
+                maxIndex = i;
+            }
+        }
+
+        int[] selected = new int[threshold + 1];
+        int size = 0;
+        selected[size++] = from;
+        // The first and last points are fixed, the rest are divided into buckets.
+        double bucketSize = (double) (count - 2) / (threshold - 2);
+        int previous = from;
+        for (int bucket = 0; bucket < threshold - 2; bucket++)
+        {
+            int start = from + 1 + (int) (bucket * bucketSize);
+            // Avoid rounding errors leaving the last bucket short.
+            int end = bucket == threshold - 3 ? to - 1 : from + 1 + (int) ((bucket + 1) * bucketSize);
+            boolean hasMin = minIndex >= start && minIndex < end;
+            boolean hasMax = maxIndex >= start && maxIndex < end;
+            if (hasMin || hasMax)
+            {
+                // Extremes take precedence over the triangle calculation.
+                if (hasMin && hasMax)
+                {
+                    selected[size++] = Math.min(minIndex, maxIndex);
+                    selected[size++] = Math.max(minIndex, maxIndex);
+                }
+                else
+                {
+                    selected[size++] = hasMin ? minIndex : maxIndex;
+                }
+            }
+            else
+            {
+                // The third vertex is the average of the next bucket (or the last point).
+                int nextEnd = Math.min(from + 1 + (int) ((bucket + 2) * bucketSize), to - 1);
+                double averageX = x[to - 1];
+                double averageY = y[to - 1];
+                if (nextEnd > end)
+                {
+                    averageX = 0;
+                    averageY = 0;
+                    for (int i = end; i < nextEnd; i++)
+                    {
+                        averageX += x[i];
+                        averageY += y[i];
+                    }
+                    averageX /= nextEnd - end;
+                    averageY /= nextEnd - end;
+                }
+
+                int best = start;
+                double bestArea = -1;
+                for (int i = start; i < end; i++)
+                {
+                    // Twice the area of the triangle; the constant factor doesn't matter.
+                    double area = Math.abs((x[previous] - averageX) * (y[i] - y[previous])
+                                           - (x[previous] - x[i]) * (averageY - y[previous]));
+                    if (area > bestArea)
+                    {
+                        bestArea = area;
+                        best = i;
+                    }
+                }
+                selected[size++] = best;
+            }
+            previous = selected[size - 1];
+        }
+        selected[size++] = to - 1;
+
+        if (size == selected.length)
+        {
+            return selected;
+        }
+        int[] result = new int[size];
+        System.arraycopy(selected, 0, result, 0, size);
+        return result;
+    }
+}
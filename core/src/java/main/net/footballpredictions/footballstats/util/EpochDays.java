@@ -0,0 +1,185 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.util;
+
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * Utility methods for working with dates represented as epoch days (the number of
+ * days since 1st January 1970).  Match dates have no time component, so a single
+ * int is sufficient to represent them.  Unlike {@link Date} objects, epoch days can be
+ * stored in primitive arrays, compared with simple arithmetic and used to calculate
+ * the number of days between two dates by subtraction.
+ * @author Daniel Dyer
+ */
+public final class EpochDays
+{
+    private EpochDays()
+    {
+        // Prevents instantiation of utility class.
+    }
+
+
+    /**
+     * @param year The year (e.g. 2010).
+     * @param month The month, 1 (January) to 12 (December).
+     * @param day The day of the month, starting at 1.
+     * @return The number of days between 1st January 1970 and the specified date.
+     */
+    public static int of(int year, int month, int day)
+    {
+        // Algorithm from http://howardhinnant.github.io/date_algorithms.html
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+
+    /**
+     * Parses a date in the ddMMyyyy format used by RLT data files.  This is much
+     * cheaper than parsing with a {@link java.text.SimpleDateFormat}.
+     * @param text An eight-digit date string.
+     * @return The epoch day for the specified date.
+     * @throws IllegalArgumentException If the text is not a valid date.
+     */
+    public static int parse(String text)
+    {
+        if (text.length() != 8)
+        {
+            throw new IllegalArgumentException("Invalid date: " + text);
+        }
+        int day = parseDigits(text, 0, 2);
+        int month = parseDigits(text, 2, 4);
+        int year = parseDigits(text, 4, 8);
+        if (month < 1 || month > 12 || day < 1 || day > getDaysInMonth(year, month))
+        {
+            throw new IllegalArgumentException("Invalid date: " + text);
+        }
+        return of(year, month, day);
+    }
+
+
+    private static int parseDigits(String text, int start, int end)
+    {
+        int value = 0;
+        for (int i = start; i < end; i++)
+        {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9')
+            {
+                throw new IllegalArgumentException("Invalid date: " + text);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+
+    private static int getDaysInMonth(int year, int month)
+    {
+        switch (month)
+        {
+            case 2: return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0 ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11: return 30;
+            default: return 31;
+        }
+    }
+
+
+    /**
+     * Formats an epoch day in the ddMMyyyy format used by RLT data files.
+     * @param epochDay A number of days since 1st January 1970.
+     * @return An eight-digit date string.
+     */
+    public static String format(int epochDay)
+    {
+        int[] fields = toFields(epochDay);
+        StringBuilder buffer = new StringBuilder(8);
+        appendDigits(buffer, fields[2], 2);
+        appendDigits(buffer, fields[1], 2);
+        appendDigits(buffer, fields[0], 4);
+        return buffer.toString();
+    }
+
+
+    private static void appendDigits(StringBuilder buffer, int value, int digits)
+    {
+        String text = String.valueOf(value);
+        for (int i = text.length(); i < digits; i++)
+        {
+            buffer.append('0');
+        }
+        buffer.append(text);
+    }
+
+
+    /**
+     * @param epochDay A number of days since 1st January 1970.
+     * @return A three-element array containing the year, month (1-12) and day of the month.
+     */
+    public static int[] toFields(int epochDay)
+    {
+        int z = epochDay + 719468;
+        int era = (z >= 0 ? z : z - 146096) / 146097;
+        int dayOfEra = z - era * 146097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int mp = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return new int[]{year, month, day};
+    }
+
+
+    /**
+     * Converts an epoch day into a {@link Date} representing midnight (in the default
+     * time zone) at the start of that day.  Intended for formatting dates for display.
+     * @param epochDay A number of days since 1st January 1970.
+     * @return The equivalent {@link Date}.
+     */
+    public static Date toDate(int epochDay)
+    {
+        int[] fields = toFields(epochDay);
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(fields[0], fields[1] - 1, fields[2]);
+        return calendar.getTime();
+    }
+
+
+    /**
+     * @param date A date (in the default time zone).
+     * @return The epoch day on which the date falls.
+     */
+    public static int fromDate(Date date)
+    {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(date);
+        return of(calendar.get(Calendar.YEAR),
+                  calendar.get(Calendar.MONTH) + 1,
+                  calendar.get(Calendar.DAY_OF_MONTH));
+    }
+}
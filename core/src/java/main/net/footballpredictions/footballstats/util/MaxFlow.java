@@ -0,0 +1,335 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.util;
+
+/**
+ * Maximum flow in a directed network, using Dinic's algorithm over primitive adjacency
+ * arrays.  The flow is maintained between calls, so after capacities are changed only
+ * the difference has to be recomputed.  Increasing a capacity simply allows further
+ * augmentation.  Decreasing a capacity below the flow that the edge carries cancels the
+ * excess flow back to the source and the sink before augmenting again.
+ * @author Daniel Dyer
+ */
+public final class MaxFlow
+{
+    private final int source;
+    private final int sink;
+
+    // Per-node data.
+    private final int[] firstEdge;
+    private final int[] level;
+    private final int[] currentEdge;
+    private final int[] queue;
+    private final int[] pathEdges;
+    private final boolean[] visited;
+
+    // Per-edge data.  Each edge is stored next to its reverse edge, so the reverse of
+    // edge e is e ^ 1.  Reverse edges have zero capacity and carry negative flow.
+    private int[] nextEdge = new int[64];
+    private int[] target = new int[64];
+    private int[] capacity = new int[64];
+    private int[] flow = new int[64];
+    private int edgeCount = 0;
+
+    private int totalFlow = 0;
+
+
+    /**
+     * @param nodeCount The number of nodes in the network.
+     * @param source The index of the source node.
+     * @param sink The index of the sink node.
+     */
+    public MaxFlow(int nodeCount, int source, int sink)
+    {
+        if (source == sink)
+        {
+            throw new IllegalArgumentException("Source and sink must be different nodes.");
+        }
+        this.source = source;
+        this.sink = sink;
+        this.firstEdge = new int[nodeCount];
+        this.level = new int[nodeCount];
+        this.currentEdge = new int[nodeCount];
+        this.queue = new int[nodeCount];
+        this.pathEdges = new int[nodeCount];
+        this.visited = new boolean[nodeCount];
+        for (int i = 0; i < nodeCount; i++)
+        {
+            firstEdge[i] = -1;
+        }
+    }
+
+
+    /**
+     * Adds a directed edge to the network.
+     * @param from The node at the start of the edge.
+     * @param to The node at the end of the edge.
+     * @param edgeCapacity The initial capacity of the edge.
+     * @return An ID for the edge, which can be used to change its capacity later.
+     */
+    public int addEdge(int from, int to, int edgeCapacity)
+    {
+        if (edgeCapacity < 0)
+        {
+            throw new IllegalArgumentException("Capacity must be non-negative: " + edgeCapacity);
+        }
+        if (edgeCount + 2 > target.length)
+        {
+            int length = target.length * 2;
+            nextEdge = copy(nextEdge, length);
+            target = copy(target, length);
+            capacity = copy(capacity, length);
+            flow = copy(flow, length);
+        }
+        int edge = edgeCount;
+        link(edge, from, to, edgeCapacity);
+        link(edge + 1, to, from, 0);
+        edgeCount += 2;
+        return edge;
+    }
+
+
+    private void link(int edge, int from, int to, int edgeCapacity)
+    {
+        target[edge] = to;
+        capacity[edge] = edgeCapacity;
+        flow[edge] = 0;
+        nextEdge[edge] = firstEdge[from];
+        firstEdge[from] = edge;
+    }
+
+
+    private static int[] copy(int[] array, int length)
+    {
+        int[] copy = new int[length];
+        System.arraycopy(array, 0, copy, 0, array.length);
+        return copy;
+    }
+
+
+    /**
+     * @param edge An edge ID, as returned by {@link #addEdge(int, int, int)}.
+     * @return The capacity of the edge.
+     */
+    public int getCapacity(int edge)
+    {
+        return capacity[edge];
+    }
+
+
+    /**
+     * @param edge An edge ID, as returned by {@link #addEdge(int, int, int)}.
+     * @return The flow currently carried by the edge.
+     */
+    public int getFlow(int edge)
+    {
+        return flow[edge];
+    }
+
+
+    /**
+     * @return The total flow from the source to the sink.  This is only the maximum flow
+     * if {@link #maximise()} has been called since the network was last changed.
+     */
+    public int getFlow()
+    {
+        return totalFlow;
+    }
+
+
+    /**
+     * Changes the capacity of an edge.  If the edge currently carries more flow than the
+     * new capacity allows, the excess is removed from the network (reducing the total
+     * flow).  Call {@link #maximise()} afterwards to restore a maximum flow.
+     * @param edge An edge ID, as returned by {@link #addEdge(int, int, int)}.
+     * @param edgeCapacity The new capacity.
+     */
+    public void setCapacity(int edge, int edgeCapacity)
+    {
+        if (edgeCapacity < 0)
+        {
+            throw new IllegalArgumentException("Capacity must be non-negative: " + edgeCapacity);
+        }
+        capacity[edge] = edgeCapacity;
+        int excess = flow[edge] - edgeCapacity;
+        if (excess > 0)
+        {
+            int from = target[edge ^ 1];
+            int to = target[edge];
+            flow[edge] -= excess;
+            flow[edge ^ 1] += excess;
+            // The start of the edge now receives more than it sends and the end sends more
+            // than it receives.  Cancel the difference along flow-carrying paths.
+            cancel(source, from, excess);
+            cancel(to, sink, excess);
+            totalFlow -= excess;
+        }
+    }
+
+
+    /**
+     * Removes a quantity of flow along paths from one node to another that currently carry
+     * flow in that direction.  Flow conservation guarantees that such paths exist.
+     */
+    private void cancel(int from, int to, int amount)
+    {
+        while (amount > 0 && from != to)
+        {
+            int length = findFlowPath(from, to);
+            assert length >= 0 : "No flow to cancel from " + from + " to " + to;
+            int bottleneck = amount;
+            for (int i = 0; i < length; i++)
+            {
+                bottleneck = Math.min(bottleneck, flow[pathEdges[i]]);
+            }
+            for (int i = 0; i < length; i++)
+            {
+                flow[pathEdges[i]] -= bottleneck;
+                flow[pathEdges[i] ^ 1] += bottleneck;
+            }
+            amount -= bottleneck;
+        }
+    }
+
+
+    /**
+     * Depth-first search for a path that carries positive flow.
+     * @return The number of edges in the path (stored in {@link #pathEdges}), or -1 if there
+     * is no such path.
+     */
+    private int findFlowPath(int from, int to)
+    {
+        for (int i = 0; i < visited.length; i++)
+        {
+            visited[i] = false;
+            currentEdge[i] = firstEdge[i];
+        }
+        int depth = 0;
+        int node = from;
+        visited[from] = true;
+        while (node != to)
+        {
+            int edge = currentEdge[node];
+            while (edge >= 0 && (flow[edge] <= 0 || visited[target[edge]]))
+            {
+                edge = nextEdge[edge];
+            }
+            currentEdge[node] = edge;
+            if (edge >= 0)
+            {
+                pathEdges[depth++] = edge;
+                node = target[edge];
+                visited[node] = true;
+            }
+            else if (depth == 0)
+            {
+                return -1;
+            }
+            else
+            {
+                // Dead end, back up.
+                node = target[pathEdges[--depth] ^ 1];
+                currentEdge[node] = nextEdge[currentEdge[node]];
+            }
+        }
+        return depth;
+    }
+
+
+    /**
+     * Augments the current flow until it is a maximum flow.
+     * @return The value of the maximum flow.
+     */
+    public int maximise()
+    {
+        while (buildLevels())
+        {
+            for (int i = 0; i < firstEdge.length; i++)
+            {
+                currentEdge[i] = firstEdge[i];
+            }
+            int augmented = augment(source, Integer.MAX_VALUE);
+            while (augmented > 0)
+            {
+                totalFlow += augmented;
+                augmented = augment(source, Integer.MAX_VALUE);
+            }
+        }
+        return totalFlow;
+    }
+
+
+    /**
+     * Breadth-first search of the residual network to assign a level to each node.
+     * @return True if the sink is reachable from the source.
+     */
+    private boolean buildLevels()
+    {
+        for (int i = 0; i < level.length; i++)
+        {
+            level[i] = -1;
+        }
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+        level[source] = 0;
+        while (head < tail)
+        {
+            int node = queue[head++];
+            for (int edge = firstEdge[node]; edge >= 0; edge = nextEdge[edge])
+            {
+                int next = target[edge];
+                if (level[next] < 0 && capacity[edge] - flow[edge] > 0)
+                {
+                    level[next] = level[node] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return level[sink] >= 0;
+    }
+
+
+    /**
+     * Finds a single augmenting path in the level graph (blocking-flow step).
+     */
+    private int augment(int node, int limit)
+    {
+        if (node == sink)
+        {
+            return limit;
+        }
+        for (; currentEdge[node] >= 0; currentEdge[node] = nextEdge[currentEdge[node]])
+        {
+            int edge = currentEdge[node];
+            int next = target[edge];
+            int residual = capacity[edge] - flow[edge];
+            if (residual > 0 && level[next] == level[node] + 1)
+            {
+                int pushed = augment(next, Math.min(limit, residual));
+                if (pushed > 0)
+                {
+                    flow[edge] += pushed;
+                    flow[edge ^ 1] -= pushed;
+                    return pushed;
+                }
+            }
+        }
+        return 0;
+    }
+}
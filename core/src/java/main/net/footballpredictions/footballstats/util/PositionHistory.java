@@ -0,0 +1,137 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.util;
+
+/**
+ * A growable sequence of league positions, indexed by date.  Positions are stored
+ * one byte each unless a position too big for a byte is recorded (only in leagues
+ * of more than 127 teams), in which case the storage is widened to shorts.
+ * @author Daniel Dyer
+ */
+public final class PositionHistory
+{
+    private byte[] bytePositions = new byte[16];
+    private short[] shortPositions = null; // Only used once a large position has been recorded.
+    private int size = 0;
+
+
+    /**
+     * @return The number of positions recorded (including any gaps).
+     */
+    public int size()
+    {
+        return size;
+    }
+
+
+    /**
+     * @param index The index of the date.
+     * @return The position at that date, or zero if no position was recorded.
+     */
+    public int get(int index)
+    {
+        if (index < 0 || index >= size)
+        {
+            throw new IndexOutOfBoundsException("Invalid index: " + index);
+        }
+        return shortPositions != null ? shortPositions[index] : bytePositions[index];
+    }
+
+
+    /**
+     * @return The most recently recorded position, or zero if there are none.
+     */
+    public int getLast()
+    {
+        return size == 0 ? 0 : get(size - 1);
+    }
+
+
+    /**
+     * @param index The index of the date.
+     * @param position The position at that date.
+     */
+    public void set(int index, int position)
+    {
+        if (position < 0 || position > Short.MAX_VALUE)
+        {
+            throw new IllegalArgumentException("Invalid position: " + position);
+        }
+        ensureCapacity(index + 1);
+        if (shortPositions == null && position > Byte.MAX_VALUE)
+        {
+            shortPositions = new short[bytePositions.length];
+            for (int i = 0; i < size; i++)
+            {
+                shortPositions[i] = bytePositions[i];
+            }
+            bytePositions = null;
+        }
+        if (shortPositions != null)
+        {
+            shortPositions[index] = (short) position;
+        }
+        else
+        {
+            bytePositions[index] = (byte) position;
+        }
+        size = Math.max(size, index + 1);
+    }
+
+
+    /**
+     * Releases any spare capacity once all positions have been recorded.
+     */
+    public void trimToSize()
+    {
+        if (shortPositions != null && shortPositions.length > size)
+        {
+            short[] newPositions = new short[size];
+            System.arraycopy(shortPositions, 0, newPositions, 0, size);
+            shortPositions = newPositions;
+        }
+        else if (bytePositions != null && bytePositions.length > size)
+        {
+            byte[] newPositions = new byte[size];
+            System.arraycopy(bytePositions, 0, newPositions, 0, size);
+            bytePositions = newPositions;
+        }
+    }
+
+
+    private void ensureCapacity(int capacity)
+    {
+        int length = shortPositions != null ? shortPositions.length : bytePositions.length;
+        if (capacity > length)
+        {
+            int newLength = Math.max(capacity, length * 2);
+            if (shortPositions != null)
+            {
+                short[] newPositions = new short[newLength];
+                System.arraycopy(shortPositions, 0, newPositions, 0, size);
+                shortPositions = newPositions;
+            }
+            else
+            {
+                byte[] newPositions = new byte[newLength];
+                System.arraycopy(bytePositions, 0, newPositions, 0, size);
+                bytePositions = newPositions;
+            }
+        }
+    }
+}
@@ -0,0 +1,644 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.util;
+
+/**
+ * Immutable, run-length compressed bitmap.  The bits are grouped into 64-bit words
+ * and each run of consecutive all-zero or all-one words is replaced by a single
+ * count.  Any other words are stored verbatim.  The encoding is a sequence of marker
+ * words, each followed by the literal words that it describes.  A marker word holds
+ * the fill bit (bit 0), the number of fill words (bits 1-31) and the number of
+ * literal words that follow it (bits 32-62).
+ *
+ * Logical operations are performed directly on the compressed form, a word (or a
+ * whole run of words) at a time, so the cost is proportional to the compressed size
+ * of the operands rather than to the number of bits.
+ * @author Daniel Dyer
+ */
+public final class WordAlignedBitmap
+{
+    private static final int MAX_RUN = Integer.MAX_VALUE;
+
+    private static final int AND = 0;
+    private static final int OR = 1;
+    private static final int AND_NOT = 2;
+
+    private static final WordAlignedBitmap EMPTY = new WordAlignedBitmap(new long[0], 0);
+
+    private final long[] words;
+    private final int size;
+
+
+    private WordAlignedBitmap(long[] words, int size)
+    {
+        this.words = words;
+        this.size = size;
+    }
+
+
+    /**
+     * @return A bitmap with no bits set.
+     */
+    public static WordAlignedBitmap empty()
+    {
+        return EMPTY;
+    }
+
+
+    /**
+     * Creates a bitmap in which a contiguous range of bits are set.
+     * @param from The index of the first bit to set (inclusive).
+     * @param to The index of the last bit to set (exclusive).
+     * @return A bitmap with only the bits in the specified range set.
+     */
+    public static WordAlignedBitmap range(int from, int to)
+    {
+        if (from < 0 || to < from)
+        {
+            throw new IllegalArgumentException("Invalid range: " + from + " - " + to);
+        }
+        Builder builder = new Builder();
+        if (from < to)
+        {
+            int firstWord = from >>> 6;
+            int lastWord = (to - 1) >>> 6;
+            long firstMask = -1L << from;
+            long lastMask = -1L >>> (63 - ((to - 1) & 63));
+            builder.appendFill(false, firstWord);
+            if (firstWord == lastWord)
+            {
+                builder.appendWord(firstMask & lastMask);
+            }
+            else
+            {
+                builder.appendWord(firstMask);
+                builder.appendFill(true, lastWord - firstWord - 1);
+                builder.appendWord(lastMask);
+            }
+        }
+        return builder.build(to);
+    }
+
+
+    /**
+     * @return The number of bits represented by this bitmap (whether set or not).
+     */
+    public int getSize()
+    {
+        return size;
+    }
+
+
+    /**
+     * @return The number of 64-bit words used to store this bitmap (a measure of how
+     * well it has been compressed).
+     */
+    public int getCompressedSize()
+    {
+        return words.length;
+    }
+
+
+    /**
+     * @return The number of bits that are set.
+     */
+    public int cardinality()
+    {
+        int count = 0;
+        Cursor cursor = new Cursor(this);
+        while (cursor.hasWords())
+        {
+            int length = cursor.runLength();
+            if (cursor.isFill())
+            {
+                if (cursor.fillValue)
+                {
+                    count += length << 6;
+                }
+            }
+            else
+            {
+                for (int i = 0; i < length; i++)
+                {
+                    count += Long.bitCount(cursor.words[cursor.literalIndex + i]);
+                }
+            }
+            cursor.skip(length);
+        }
+        return count;
+    }
+
+
+    /**
+     * @return True if no bits are set, false otherwise.
+     */
+    public boolean isEmpty()
+    {
+        Cursor cursor = new Cursor(this);
+        while (cursor.hasWords())
+        {
+            if (cursor.isFill() ? cursor.fillValue : cursor.literal() != 0)
+            {
+                return false;
+            }
+            cursor.skip(cursor.isFill() ? cursor.runLength() : 1);
+        }
+        return true;
+    }
+
+
+    /**
+     * @return The indices of all of the set bits, in ascending order.
+     */
+    public int[] toArray()
+    {
+        int[] indices = new int[cardinality()];
+        int count = 0;
+        int wordIndex = 0;
+        Cursor cursor = new Cursor(this);
+        while (cursor.hasWords())
+        {
+            int length = cursor.runLength();
+            if (cursor.isFill())
+            {
+                if (cursor.fillValue)
+                {
+                    int first = wordIndex << 6;
+                    int last = (wordIndex + length) << 6;
+                    for (int i = first; i < last; i++)
+                    {
+                        indices[count++] = i;
+                    }
+                }
+                wordIndex += length;
+            }
+            else
+            {
+                for (int i = 0; i < length; i++)
+                {
+                    long word = cursor.words[cursor.literalIndex + i];
+                    while (word != 0)
+                    {
+                        indices[count++] = (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+                        word &= word - 1; // Clear lowest set bit.
+                    }
+                    ++wordIndex;
+                }
+            }
+            cursor.skip(length);
+        }
+        return indices;
+    }
+
+
+    /**
+     * @return The length of the longest run of consecutive set bits.
+     */
+    public int longestRun()
+    {
+        return scanRuns(size)[0];
+    }
+
+
+    /**
+     * @param end The index after the last bit of the run (exclusive).
+     * @return The number of consecutive set bits immediately before the specified index.
+     */
+    public int runEndingAt(int end)
+    {
+        return scanRuns(end)[1];
+    }
+
+
+    /**
+     * Measures runs of set bits up to the specified index.  Fill words extend or break
+     * a run in a single step, and runs within literal words are found with shifts and
+     * masks rather than by testing individual bits.
+     * @return The longest run and the length of the run that ends at the specified index.
+     */
+    private int[] scanRuns(int end)
+    {
+        int longest = 0;
+        int run = 0;
+        int wordIndex = 0;
+        Cursor cursor = new Cursor(this);
+        while (cursor.hasWords() && (wordIndex << 6) < end)
+        {
+            int length = cursor.runLength();
+            if (cursor.isFill())
+            {
+                length = Math.min(length, ((end - 1) >>> 6) + 1 - wordIndex);
+                if (cursor.fillValue)
+                {
+                    run += Math.min(length << 6, end - (wordIndex << 6));
+                }
+                else
+                {
+                    longest = Math.max(longest, run);
+                    run = 0;
+                }
+                cursor.skip(length);
+                wordIndex += length;
+            }
+            else
+            {
+                int valid = Math.min(64, end - (wordIndex << 6));
+                long mask = valid == 64 ? -1L : (1L << valid) - 1;
+                long word = cursor.nextWord() & mask;
+                if (word == mask)
+                {
+                    run += valid;
+                }
+                else
+                {
+                    // Bits at the bottom of the word continue the run from the previous word.
+                    run += Long.numberOfTrailingZeros(~word);
+                    longest = Math.max(longest, run);
+                    // Each step clears the first bit of every run, so the number of steps
+                    // is the length of the longest run within this word.
+                    int inner = 0;
+                    for (long bits = word; bits != 0; bits &= bits << 1)
+                    {
+                        ++inner;
+                    }
+                    longest = Math.max(longest, inner);
+                    // Bits at the top of the word start a run that may continue into the next.
+                    run = Long.numberOfLeadingZeros(~(word << (64 - valid)));
+                }
+                ++wordIndex;
+            }
+        }
+        if ((wordIndex << 6) < end)
+        {
+            // Any remaining bits are implicitly zero.
+            longest = Math.max(longest, run);
+            run = 0;
+        }
+        return new int[]{Math.max(longest, run), run};
+    }
+
+
+    /**
+     * @param other The bitmap to intersect with this one.
+     * @return A bitmap containing only those bits that are set in both bitmaps.
+     */
+    public WordAlignedBitmap and(WordAlignedBitmap other)
+    {
+        return combine(this, other, AND, Math.max(size, other.size));
+    }
+
+
+    /**
+     * @param other The bitmap to combine with this one.
+     * @return A bitmap containing those bits that are set in either bitmap.
+     */
+    public WordAlignedBitmap or(WordAlignedBitmap other)
+    {
+        return combine(this, other, OR, Math.max(size, other.size));
+    }
+
+
+    /**
+     * @param other The bitmap containing the bits to clear.
+     * @return A bitmap containing those bits that are set in this bitmap but not
+     * in the other.
+     */
+    public WordAlignedBitmap andNot(WordAlignedBitmap other)
+    {
+        return combine(this, other, AND_NOT, size);
+    }
+
+
+    private static WordAlignedBitmap combine(WordAlignedBitmap left,
+                                             WordAlignedBitmap right,
+                                             int operation,
+                                             int size)
+    {
+        Cursor a = new Cursor(left);
+        Cursor b = new Cursor(right);
+        Builder builder = new Builder();
+        while (a.hasWords() && b.hasWords())
+        {
+            int length = Math.min(a.runLength(), b.runLength());
+            if (a.isFill() && b.isFill())
+            {
+                builder.appendFill(apply(operation, a.fillWord(), b.fillWord()) != 0, length);
+                a.skip(length);
+                b.skip(length);
+            }
+            else if (isDetermined(operation, a, b))
+            {
+                // One of the operands is a fill that fixes the result regardless of the
+                // other operand, so the whole run can be skipped in one step.
+                builder.appendFill(apply(operation, a.isFill() ? a.fillWord() : 0, b.isFill() ? b.fillWord() : 0) != 0,
+                                   length);
+                a.skip(length);
+                b.skip(length);
+            }
+            else
+            {
+                for (int i = 0; i < length; i++)
+                {
+                    builder.appendWord(apply(operation, a.nextWord(), b.nextWord()));
+                }
+            }
+        }
+        // Any words left over in one operand are combined with implicit zeros.
+        if (operation != AND)
+        {
+            builder.appendRemaining(a);
+        }
+        if (operation == OR)
+        {
+            builder.appendRemaining(b);
+        }
+        return builder.build(size);
+    }
+
+
+    private static long apply(int operation, long a, long b)
+    {
+        switch (operation)
+        {
+            case AND: return a & b;
+            case OR: return a | b;
+            case AND_NOT: return a & ~b;
+            default: throw new IllegalArgumentException("Unknown operation: " + operation);
+        }
+    }
+
+
+    /**
+     * @return True if one of the operands is a fill that determines the result of the
+     * operation no matter what the other operand contains.
+     */
+    private static boolean isDetermined(int operation, Cursor a, Cursor b)
+    {
+        switch (operation)
+        {
+            case AND: return (a.isFill() && !a.fillValue) || (b.isFill() && !b.fillValue);
+            case OR: return (a.isFill() && a.fillValue) || (b.isFill() && b.fillValue);
+            case AND_NOT: return (a.isFill() && !a.fillValue) || (b.isFill() && b.fillValue);
+            default: return false;
+        }
+    }
+
+
+    /**
+     * Tracks a position within the compressed words of a bitmap.  At any point the
+     * cursor is either part way through a fill run or part way through a block of
+     * literal words.
+     */
+    private static final class Cursor
+    {
+        private final long[] words;
+        private int nextMarker = 0;
+        private boolean fillValue;
+        private int fillRemaining = 0;
+        private int literalsRemaining = 0;
+        private int literalIndex;
+
+        Cursor(WordAlignedBitmap bitmap)
+        {
+            this.words = bitmap.words;
+            advance();
+        }
+
+
+        private void advance()
+        {
+            while (fillRemaining == 0 && literalsRemaining == 0 && nextMarker < words.length)
+            {
+                long marker = words[nextMarker];
+                fillValue = (marker & 1) != 0;
+                fillRemaining = (int) ((marker >>> 1) & MAX_RUN);
+                literalsRemaining = (int) (marker >>> 32);
+                literalIndex = nextMarker + 1;
+                nextMarker += 1 + literalsRemaining;
+            }
+        }
+
+
+        boolean hasWords()
+        {
+            return fillRemaining > 0 || literalsRemaining > 0;
+        }
+
+
+        boolean isFill()
+        {
+            return fillRemaining > 0;
+        }
+
+
+        long fillWord()
+        {
+            return fillValue ? -1L : 0L;
+        }
+
+
+        long literal()
+        {
+            return words[literalIndex];
+        }
+
+
+        /**
+         * @return The number of words remaining in the current fill or literal run.
+         */
+        int runLength()
+        {
+            return fillRemaining > 0 ? fillRemaining : literalsRemaining;
+        }
+
+
+        /**
+         * @param length The number of words to skip.  Must not be more than
+         * {@link #runLength()}.
+         */
+        void skip(int length)
+        {
+            if (fillRemaining > 0)
+            {
+                fillRemaining -= length;
+            }
+            else
+            {
+                literalIndex += length;
+                literalsRemaining -= length;
+            }
+            advance();
+        }
+
+
+        long nextWord()
+        {
+            long word = isFill() ? fillWord() : literal();
+            skip(1);
+            return word;
+        }
+    }
+
+
+    /**
+     * Incrementally constructs a {@link WordAlignedBitmap}.  Bits must be set in
+     * ascending order.
+     */
+    public static final class Builder
+    {
+        private long[] words = new long[4];
+        private int length = 0;
+        private int marker = -1;
+        private int wordCount = 0;
+
+        private long pendingWord = 0;
+        private int pendingIndex = -1;
+
+
+        /**
+         * Sets the bit at the specified index.  Bits must be set in ascending order.
+         * @param index The index of the bit to set.
+         * @return This builder (so that calls may be chained).
+         */
+        public Builder set(int index)
+        {
+            int wordIndex = index >>> 6;
+            if (wordIndex != pendingIndex)
+            {
+                if (wordIndex < pendingIndex || wordIndex < wordCount)
+                {
+                    throw new IllegalArgumentException("Bits must be set in ascending order.");
+                }
+                flushPendingWord();
+                appendFill(false, wordIndex - wordCount);
+                pendingIndex = wordIndex;
+            }
+            pendingWord |= 1L << index;
+            return this;
+        }
+
+
+        /**
+         * @param size The number of bits represented by the bitmap.
+         * @return A bitmap containing all of the bits set so far.
+         */
+        public WordAlignedBitmap build(int size)
+        {
+            flushPendingWord();
+            long[] compressed = new long[length];
+            System.arraycopy(words, 0, compressed, 0, length);
+            return new WordAlignedBitmap(compressed, size);
+        }
+
+
+        private void flushPendingWord()
+        {
+            if (pendingIndex >= 0)
+            {
+                appendWord(pendingWord);
+                pendingWord = 0;
+                pendingIndex = -1;
+            }
+        }
+
+
+        void appendWord(long word)
+        {
+            if (word == 0)
+            {
+                appendFill(false, 1);
+            }
+            else if (word == -1L)
+            {
+                appendFill(true, 1);
+            }
+            else
+            {
+                if (marker < 0)
+                {
+                    appendMarker(false, 0);
+                }
+                words[marker] += 1L << 32; // Increment literal count.
+                ensureCapacity();
+                words[length++] = word;
+                ++wordCount;
+            }
+        }
+
+
+        void appendFill(boolean value, int count)
+        {
+            if (count > 0)
+            {
+                if (marker >= 0 && (words[marker] >>> 32) == 0)
+                {
+                    long current = words[marker];
+                    int fillCount = (int) ((current >>> 1) & MAX_RUN);
+                    if (fillCount == 0 || ((current & 1) != 0) == value)
+                    {
+                        words[marker] = (value ? 1 : 0) | ((long) (fillCount + count) << 1);
+                        wordCount += count;
+                        return;
+                    }
+                }
+                appendMarker(value, count);
+                wordCount += count;
+            }
+        }
+
+
+        /**
+         * Copies the remainder of the bitmap under the specified cursor.
+         */
+        void appendRemaining(Cursor cursor)
+        {
+            while (cursor.hasWords())
+            {
+                int runLength = cursor.runLength();
+                if (cursor.isFill())
+                {
+                    appendFill(cursor.fillValue, runLength);
+                    cursor.skip(runLength);
+                }
+                else
+                {
+                    appendWord(cursor.nextWord());
+                }
+            }
+        }
+
+
+        private void appendMarker(boolean fillValue, int fillCount)
+        {
+            ensureCapacity();
+            marker = length;
+            words[length++] = (fillValue ? 1 : 0) | ((long) fillCount << 1);
+        }
+
+
+        private void ensureCapacity()
+        {
+            if (length == words.length)
+            {
+                long[] newWords = new long[words.length * 2];
+                System.arraycopy(words, 0, newWords, 0, length);
+                words = newWords;
+            }
+        }
+    }
+}
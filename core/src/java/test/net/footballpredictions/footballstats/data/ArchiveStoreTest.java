@@ -0,0 +1,256 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.data;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import net.footballpredictions.footballstats.model.LeagueMetaData;
+import net.footballpredictions.footballstats.model.LeagueSeason;
+import net.footballpredictions.footballstats.model.Result;
+import net.footballpredictions.footballstats.model.StandardRecord;
+import net.footballpredictions.footballstats.model.VenueType;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the {@link ArchiveStore} and {@link StoredSeason} classes.
+ * @author Daniel Dyer
+ */
+public class ArchiveStoreTest
+{
+    private static final String[] TEST_FILES = {"./data/england/premier/2006-2007.rlt",
+                                                "./data/england/premier/2007-2008.rlt",
+                                                "./data/england/premier/2008-2009.rlt"};
+
+    private final Map<String, LeagueDataProvider> providers = new LinkedHashMap<String, LeagueDataProvider>();
+
+    @BeforeClass
+    public void loadData() throws IOException
+    {
+        for (String file : TEST_FILES)
+        {
+            providers.put(file, new RLTDataProvider(new FileInputStream(file)));
+        }
+    }
+
+
+    @Test
+    public void testDirect()
+    {
+        checkStore(ArchiveStore.createDirect(providers));
+    }
+
+
+    @Test
+    public void testMapped() throws IOException
+    {
+        File file = File.createTempFile("archive", ".fsa");
+        try
+        {
+            ArchiveStore store = ArchiveStore.createMapped(providers, file);
+            checkStore(store);
+            assert file.length() == store.getSize() : "Wrong file size: " + file.length();
+            checkStore(ArchiveStore.open(file));
+        }
+        finally
+        {
+            file.deleteOnExit();
+        }
+    }
+
+
+    /**
+     * Cumulative totals and individual figures that don't fit in a signed 16-bit value
+     * must be read back correctly.
+     */
+    @Test
+    public void testLargeTotals()
+    {
+        List<Result> results = new ArrayList<Result>();
+        results.add(new Result("A", "B", 40000, 0, -1, 0));
+        for (int i = 1; i <= 40000; i++)
+        {
+            results.add(new Result("A", "B", 2, 0, -1, i));
+        }
+        Map<String, LeagueDataProvider> seasons = new LinkedHashMap<String, LeagueDataProvider>();
+        seasons.put("large", new ResultsProvider(results));
+        StoredSeason stored = ArchiveStore.createDirect(seasons).getSeason("large");
+
+        assert stored.getHomeGoals(0) == 40000 : "Wrong home goals: " + stored.getHomeGoals(0);
+        int last = stored.getDateCount() - 1;
+        assert stored.getWon(0, last) == 40001 : "Wrong won: " + stored.getWon(0, last);
+        assert stored.getPlayed(0, last) == 40001 : "Wrong played: " + stored.getPlayed(0, last);
+        assert stored.getScored(0, last) == 120000 : "Wrong scored: " + stored.getScored(0, last);
+        assert stored.getConceded(1, last) == 120000 : "Wrong conceded: " + stored.getConceded(1, last);
+    }
+
+
+    /**
+     * Goals are stored in 16 bits, so anything bigger must be rejected rather than
+     * silently truncated.
+     */
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testTooManyGoals()
+    {
+        Map<String, LeagueDataProvider> seasons = new LinkedHashMap<String, LeagueDataProvider>();
+        seasons.put("invalid", new ResultsProvider(Arrays.asList(new Result("A", "B", 70000, 0, -1, 0))));
+        ArchiveStore.createDirect(seasons);
+    }
+
+
+    @Test(expectedExceptions = IOException.class)
+    public void testInvalidFile() throws IOException
+    {
+        File file = File.createTempFile("archive", ".fsa");
+        file.deleteOnExit();
+        ArchiveStore.open(file);
+    }
+
+
+    private void checkStore(ArchiveStore store)
+    {
+        assert store.getLabels().size() == TEST_FILES.length : "Wrong number of seasons: " + store.getLabels().size();
+        for (String label : TEST_FILES)
+        {
+            StoredSeason stored = store.getSeason(label);
+            assert stored != null : "Missing season " + label;
+            assert stored.getLabel().equals(label) : "Wrong label: " + stored.getLabel();
+            LeagueSeason season = new LeagueSeason(providers.get(label));
+            checkResults(stored, season);
+            checkStandings(stored, season);
+
+            // The stored season should be able to re-create the full model.
+            LeagueSeason restored = new LeagueSeason(stored);
+            assert restored.getSummary().equals(season.getSummary()) : "Restored season differs for " + label;
+            assert restored.getMetaData().getMiniLeagues().equals(season.getMetaData().getMiniLeagues())
+                : "Wrong mini-leagues.";
+            assert restored.getMetaData().getZoneForPosition(1) == season.getMetaData().getZoneForPosition(1)
+                : "Wrong zone for top position.";
+            assert restored.getMetaData().getZoneForPosition(season.getTeamNames().size())
+                   == season.getMetaData().getZoneForPosition(season.getTeamNames().size())
+                : "Wrong zone for bottom position.";
+        }
+        assert store.getSeason("nonexistent") == null : "Season should not exist.";
+    }
+
+
+    private void checkResults(StoredSeason stored, LeagueSeason season)
+    {
+        List<Result> results = season.getResults();
+        assert stored.getResultCount() == results.size() : "Wrong result count: " + stored.getResultCount();
+        for (int i = 0; i < results.size(); i++)
+        {
+            Result expected = results.get(i);
+            Result actual = stored.getResults().get(i);
+            assert actual.getHomeTeam().equals(expected.getHomeTeam()) : "Wrong home team for result " + i;
+            assert actual.getAwayTeam().equals(expected.getAwayTeam()) : "Wrong away team for result " + i;
+            assert actual.getHomeGoals() == expected.getHomeGoals() : "Wrong home goals for result " + i;
+            assert actual.getAwayGoals() == expected.getAwayGoals() : "Wrong away goals for result " + i;
+            assert actual.getAttendance() == expected.getAttendance() : "Wrong attendance for result " + i;
+            assert actual.getDate() == expected.getDate() : "Wrong date for result " + i;
+        }
+        assert stored.getDateCount() == season.getDateCount() : "Wrong date count: " + stored.getDateCount();
+        for (int i = 0; i < season.getDateCount(); i++)
+        {
+            assert stored.getDate(i) == season.getDate(i) : "Wrong date for index " + i;
+            assert stored.getDateIndex(season.getDate(i)) == i : "Wrong index for date " + i;
+            assert stored.getResultCount(i) == season.getResults(i).size() : "Wrong result count for date " + i;
+        }
+        assert stored.getDateIndex(season.getDate(0) - 1) == -1 : "No matches before the first date.";
+    }
+
+
+    private void checkStandings(StoredSeason stored, LeagueSeason season)
+    {
+        assert stored.getTeamCount() == season.getTeamNames().size() : "Wrong team count: " + stored.getTeamCount();
+        int last = stored.getDateCount() - 1;
+        for (String teamName : season.getTeamNames())
+        {
+            int team = stored.getTeamIndex(teamName);
+            assert stored.getTeamName(team).equals(teamName) : "Wrong index for " + teamName;
+            for (int i = 0; i <= last; i++)
+            {
+                assert stored.getPosition(team, i) == season.getTeam(teamName).getLeaguePositions().get(i)
+                    : "Wrong position for " + teamName + " at date index " + i;
+            }
+            StandardRecord record = season.getTeam(teamName).getRecord(VenueType.BOTH);
+            assert stored.getPlayed(team, last) == record.getPlayed() : "Wrong played for " + teamName;
+            assert stored.getWon(team, last) == record.getWon() : "Wrong won for " + teamName;
+            assert stored.getDrawn(team, last) == record.getDrawn() : "Wrong drawn for " + teamName;
+            assert stored.getLost(team, last) == record.getLost() : "Wrong lost for " + teamName;
+            assert stored.getScored(team, last) == record.getScored() : "Wrong scored for " + teamName;
+            assert stored.getConceded(team, last) == record.getConceded() : "Wrong conceded for " + teamName;
+            assert stored.getPoints(team, last) == record.getPoints() : "Wrong points for " + teamName;
+        }
+        assert stored.getTeamIndex("nonexistent") == -1 : "Team should not exist.";
+        int[] table = stored.getLeagueTable(last);
+        for (int i = 0; i < table.length; i++)
+        {
+            assert stored.getPosition(table[i], last) == i + 1 : "Table out of order at position " + (i + 1);
+        }
+    }
+
+
+    /**
+     * A two-team league with the specified results.
+     */
+    private static final class ResultsProvider implements LeagueDataProvider
+    {
+        private final List<Result> results;
+
+        ResultsProvider(List<Result> results)
+        {
+            this.results = results;
+        }
+
+
+        public SortedSet<String> getTeams()
+        {
+            return new TreeSet<String>(Arrays.asList("A", "B"));
+        }
+
+
+        public List<Result> getResults()
+        {
+            return results;
+        }
+
+
+        public Map<String, Integer> getPointsAdjustments()
+        {
+            return Collections.emptyMap();
+        }
+
+
+        public LeagueMetaData getLeagueMetaData()
+        {
+            return new LeagueMetaData(3, 1, 0, 2,
+                                      Collections.<LeagueMetaData.LeagueZone>emptyList(),
+                                      Collections.<LeagueMetaData.LeagueZone>emptyList());
+        }
+    }
+}
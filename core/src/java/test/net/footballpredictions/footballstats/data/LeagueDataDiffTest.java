@@ -0,0 +1,206 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.data;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import net.footballpredictions.footballstats.model.LeagueMetaData;
+import net.footballpredictions.footballstats.model.LeagueSeason;
+import net.footballpredictions.footballstats.model.Result;
+import net.footballpredictions.footballstats.model.VenueType;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the {@link LeagueDataDiff} class and applying the differences to a
+ * {@link LeagueSeason}.
+ * @author Daniel Dyer
+ */
+public class LeagueDataDiffTest
+{
+    private static final String TEST_FILE = "./data/england/premier/2008-2009.rlt";
+
+    private LeagueDataProvider oldData;
+    private LeagueSeason oldSeason;
+
+    @BeforeClass
+    public void loadData() throws IOException
+    {
+        oldData = new RLTDataProvider(new FileInputStream(TEST_FILE));
+        oldSeason = new LeagueSeason(oldData);
+    }
+
+
+    @Test
+    public void testNoChanges() throws IOException
+    {
+        LeagueDataDiff diff = new LeagueDataDiff(oldData, new RLTDataProvider(new FileInputStream(TEST_FILE)));
+        assert diff.isEmpty() : "There should be no differences.";
+        assert oldSeason.applyChanges(diff) == oldSeason : "Season should not be re-built.";
+    }
+
+
+    @Test
+    public void testResultChanges()
+    {
+        List<Result> results = new ArrayList<Result>(oldData.getResults());
+        // Correct a score late in the season, remove one result and add a replacement on a new date.
+        Result corrected = results.get(300);
+        results.set(300, new Result(corrected.getHomeTeam(),
+                                    corrected.getAwayTeam(),
+                                    corrected.getHomeGoals() + 3,
+                                    corrected.getAwayGoals(),
+                                    corrected.getAttendance(),
+                                    corrected.getDate()));
+        Result removed = results.remove(350);
+        results.add(new Result(removed.getHomeTeam(),
+                               removed.getAwayTeam(),
+                               removed.getHomeGoals(),
+                               removed.getAwayGoals(),
+                               removed.getAttendance(),
+                               removed.getDate() + 100));
+        LeagueDataProvider newData = new ChangedData(oldData, results, oldData.getPointsAdjustments());
+
+        LeagueDataDiff diff = new LeagueDataDiff(oldData, newData);
+        assert !diff.isStructuralChange() : "Should not be a structural change.";
+        assert diff.getAdjustmentChanges().isEmpty() : "Points adjustments have not changed.";
+        List<LeagueDataDiff.ResultChange> changes = diff.getResultChanges();
+        assert changes.size() == 3 : "Wrong number of changes: " + changes.size();
+        assert changes.get(0).getType() == LeagueDataDiff.ChangeType.MODIFIED : "First change should be modification.";
+        assert changes.get(0).getOldResult() == corrected : "Wrong modified result.";
+        assert changes.get(1).getType() == LeagueDataDiff.ChangeType.ADDED : "Second change should be addition.";
+        assert changes.get(2).getType() == LeagueDataDiff.ChangeType.REMOVED : "Third change should be removal.";
+        assert changes.get(2).getOldResult() == removed : "Wrong removed result.";
+
+        checkSameSeason(oldSeason.applyChanges(diff), new LeagueSeason(newData));
+    }
+
+
+    @Test
+    public void testAdjustmentChanges()
+    {
+        Map<String, Integer> adjustments = new HashMap<String, Integer>(oldData.getPointsAdjustments());
+        adjustments.put("Arsenal", -10);
+        LeagueDataProvider newData = new ChangedData(oldData, oldData.getResults(), adjustments);
+
+        LeagueDataDiff diff = new LeagueDataDiff(oldData, newData);
+        assert diff.getResultChanges().isEmpty() : "Results have not changed.";
+        assert diff.getAdjustmentChanges().size() == 1 : "Wrong number of changes: " + diff.getAdjustmentChanges().size();
+        LeagueDataDiff.AdjustmentChange change = diff.getAdjustmentChanges().get(0);
+        assert change.getType() == LeagueDataDiff.ChangeType.ADDED : "Wrong change type: " + change.getType();
+        assert change.getNewAdjustment() == -10 : "Wrong adjustment: " + change.getNewAdjustment();
+
+        LeagueSeason newSeason = oldSeason.applyChanges(diff);
+        checkSameSeason(newSeason, new LeagueSeason(newData));
+        int oldPoints = oldSeason.getTeam("Arsenal").getRecord(VenueType.BOTH).getPoints();
+        int newPoints = newSeason.getTeam("Arsenal").getRecord(VenueType.BOTH).getPoints();
+        assert newPoints == oldPoints - 10 : "Deduction not applied: " + newPoints;
+    }
+
+
+    @Test
+    public void testStructuralChange()
+    {
+        final LeagueMetaData metaData = oldData.getLeagueMetaData();
+        LeagueDataProvider newData = new ChangedData(oldData, oldData.getResults(), oldData.getPointsAdjustments())
+        {
+            @Override
+            public LeagueMetaData getLeagueMetaData()
+            {
+                return new LeagueMetaData(2,
+                                          1,
+                                          0,
+                                          getTeams().size(),
+                                          new ArrayList<LeagueMetaData.LeagueZone>(),
+                                          new ArrayList<LeagueMetaData.LeagueZone>());
+            }
+        };
+        LeagueDataDiff diff = new LeagueDataDiff(oldData, newData);
+        assert diff.isStructuralChange() : "Changing the rules is a structural change.";
+        LeagueSeason newSeason = oldSeason.applyChanges(diff);
+        assert newSeason.getMetaData().getPointsForWin() == 2 : "Season not re-built with new rules.";
+        assert metaData.getPointsForWin() == 3 : "Original data should not be modified.";
+    }
+
+
+    private void checkSameSeason(LeagueSeason actual, LeagueSeason expected)
+    {
+        assert actual.getMatchCount() == expected.getMatchCount() : "Wrong match count: " + actual.getMatchCount();
+        assert actual.getDateCount() == expected.getDateCount() : "Wrong date count: " + actual.getDateCount();
+        for (String teamName : expected.getTeamNames())
+        {
+            for (int i = 0; i < expected.getDateCount(); i++)
+            {
+                for (VenueType where : VenueType.values())
+                {
+                    int position = actual.getTeam(teamName).getLeaguePositions(where).get(i);
+                    assert position == expected.getTeam(teamName).getLeaguePositions(where).get(i)
+                        : "Wrong " + where + " position for " + teamName + " at date index " + i + ": " + position;
+                }
+                int formPosition = actual.getTeam(teamName).getFormPositions().get(i);
+                assert formPosition == expected.getTeam(teamName).getFormPositions().get(i)
+                    : "Wrong form position for " + teamName + " at date index " + i + ": " + formPosition;
+            }
+        }
+        assert actual.getSummary().equals(expected.getSummary()) : "Team records differ.";
+    }
+
+
+    private static class ChangedData implements LeagueDataProvider
+    {
+        private final LeagueDataProvider original;
+        private final List<Result> results;
+        private final Map<String, Integer> pointsAdjustments;
+
+        ChangedData(LeagueDataProvider original, List<Result> results, Map<String, Integer> pointsAdjustments)
+        {
+            this.original = original;
+            this.results = results;
+            this.pointsAdjustments = pointsAdjustments;
+        }
+
+
+        public SortedSet<String> getTeams()
+        {
+            return original.getTeams();
+        }
+
+
+        public List<Result> getResults()
+        {
+            return results;
+        }
+
+
+        public Map<String, Integer> getPointsAdjustments()
+        {
+            return pointsAdjustments;
+        }
+
+
+        public LeagueMetaData getLeagueMetaData()
+        {
+            return original.getLeagueMetaData();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.data;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+import net.footballpredictions.footballstats.model.LeagueSeason;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the {@link SeasonArchive} and {@link SeasonArchiveBuilder} classes.
+ * @author Daniel Dyer
+ */
+public class SeasonArchiveTest
+{
+    private static final String[] SEASONS = {"2006-2007", "2007-2008", "2008-2009"};
+
+    private File file;
+
+    @BeforeClass
+    public void buildArchive() throws IOException
+    {
+        SeasonArchiveBuilder builder = new SeasonArchiveBuilder();
+        for (String season : SEASONS)
+        {
+            builder.addSeason("England", "Premier League", season, new FileInputStream(getDataFile(season)));
+        }
+        file = File.createTempFile("seasons", ".fsaa");
+        builder.write(file);
+    }
+
+
+    @AfterClass
+    public void deleteArchive()
+    {
+        file.delete();
+    }
+
+
+    private static File getDataFile(String season)
+    {
+        return new File("./data/england/premier/" + season + ".rlt");
+    }
+
+
+    @Test
+    public void testIndex() throws IOException
+    {
+        SeasonArchive archive = new SeasonArchive(file);
+        try
+        {
+            List<SeasonArchive.Entry> entries = archive.getEntries();
+            assert entries.size() == SEASONS.length : "Wrong number of entries: " + entries.size();
+            for (int i = 0; i < SEASONS.length; i++)
+            {
+                assert entries.get(i).getSeason().equals(SEASONS[i]) : "Wrong season: " + entries.get(i);
+                assert archive.getEntry("England", "Premier League", SEASONS[i]) == entries.get(i)
+                    : "Lookup failed for " + SEASONS[i];
+            }
+            assert archive.getEntry("England", "Premier League", "1888-1889") == null : "Season should not exist.";
+        }
+        finally
+        {
+            archive.close();
+        }
+    }
+
+
+    /**
+     * Seasons loaded from the archive should be identical to those loaded from the
+     * original files, regardless of the order in which they are read.
+     */
+    @Test
+    public void testLoadSeasons() throws IOException
+    {
+        SeasonArchive archive = new SeasonArchive(file);
+        try
+        {
+            for (int i = SEASONS.length - 1; i >= 0; i--)
+            {
+                LeagueSeason expected = new LeagueSeason(new RLTDataProvider(new FileInputStream(getDataFile(SEASONS[i]))));
+                SeasonArchive.Entry entry = archive.getEntry("England", "Premier League", SEASONS[i]);
+                LeagueSeason actual = new LeagueSeason(archive.loadSeason(entry));
+                assert actual.getResults().size() == expected.getResults().size() : "Wrong result count for " + entry;
+                assert actual.getSummary().equals(expected.getSummary()) : "Wrong data for " + entry;
+            }
+        }
+        finally
+        {
+            archive.close();
+        }
+    }
+
+
+    @Test(expectedExceptions = IOException.class)
+    public void testCorruptData() throws IOException
+    {
+        File corrupt = File.createTempFile("corrupt", ".fsaa");
+        corrupt.deleteOnExit();
+        SeasonArchiveBuilder builder = new SeasonArchiveBuilder();
+        builder.addSeason("England", "Premier League", SEASONS[0], new FileInputStream(getDataFile(SEASONS[0])));
+        builder.write(corrupt);
+
+        // Flip a bit in the last byte of the season data.
+        RandomAccessFile randomAccessFile = new RandomAccessFile(corrupt, "rw");
+        try
+        {
+            randomAccessFile.seek(randomAccessFile.length() - 1);
+            int value = randomAccessFile.read();
+            randomAccessFile.seek(randomAccessFile.length() - 1);
+            randomAccessFile.write(value ^ 1);
+        }
+        finally
+        {
+            randomAccessFile.close();
+        }
+
+        SeasonArchive archive = new SeasonArchive(corrupt);
+        try
+        {
+            archive.loadSeason(archive.getEntries().get(0)); // Should throw an IOException.
+        }
+        finally
+        {
+            archive.close();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.data;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import net.footballpredictions.footballstats.model.LeagueSeason;
+import net.footballpredictions.footballstats.model.Result;
+import net.footballpredictions.footballstats.model.VenueType;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the {@link SyntheticDataGenerator} class.
+ * @author Daniel Dyer
+ */
+public class SyntheticDataGeneratorTest
+{
+    @Test
+    public void testFixtures() throws IOException
+    {
+        RLTDataProvider data = generate(new SyntheticDataGenerator(20, 2, 0, 1));
+        assert data.getTeams().size() == 20 : "Wrong number of teams: " + data.getTeams().size();
+        assert data.getResults().size() == 760 : "Wrong number of results: " + data.getResults().size();
+        // Each team should be at home to each other team once per season.
+        Set<String> fixtures = new HashSet<String>();
+        for (Result result : data.getResults())
+        {
+            assert !result.getHomeTeam().equals(result.getAwayTeam()) : "Team can't play itself.";
+            fixtures.add(result.getHomeTeam() + " v " + result.getAwayTeam());
+            assert result.getAttendance() > 0 : "Attendance should be recorded.";
+        }
+        assert fixtures.size() == 380 : "Wrong number of distinct fixtures: " + fixtures.size();
+        assert data.getLeagueMetaData().getPointsForWin() == 3 : "Wrong points for a win.";
+        assert data.getLeagueMetaData().getZoneForPosition(1) > 0 : "Top team should be in a prize zone.";
+        assert data.getLeagueMetaData().getZoneForPosition(20) < 0 : "Bottom team should be in a relegation zone.";
+
+        LeagueSeason season = new LeagueSeason(data);
+        // One round of matches (10) on each date.
+        assert season.getDateCount() == 76 : "Wrong number of dates: " + season.getDateCount();
+    }
+
+
+    /**
+     * With an odd number of teams, one team has a bye in each round.
+     */
+    @Test
+    public void testOddNumberOfTeams() throws IOException
+    {
+        RLTDataProvider data = generate(new SyntheticDataGenerator(5, 1, 0, 1));
+        assert data.getResults().size() == 20 : "Wrong number of results: " + data.getResults().size();
+        LeagueSeason season = new LeagueSeason(data);
+        for (String team : season.getTeamNames())
+        {
+            int played = season.getTeam(team).getRecord(VenueType.BOTH).getPlayed();
+            assert played == 8 : team + " played " + played + " matches, should be 8.";
+        }
+    }
+
+
+    @Test
+    public void testMatchesPerDate() throws IOException
+    {
+        LeagueSeason season = new LeagueSeason(generate(new SyntheticDataGenerator(10, 1, 3, 1)));
+        // 90 matches, three per date.
+        assert season.getDateCount() == 30 : "Wrong number of dates: " + season.getDateCount();
+        for (int i = 0; i < season.getDateCount(); i++)
+        {
+            assert season.getResults(i).size() == 3 : "Wrong number of matches on date " + i;
+        }
+    }
+
+
+    @Test
+    public void testReproducible() throws IOException
+    {
+        byte[] data1 = write(new SyntheticDataGenerator(12, 1, 0, 42));
+        byte[] data2 = write(new SyntheticDataGenerator(12, 1, 0, 42));
+        byte[] data3 = write(new SyntheticDataGenerator(12, 1, 0, 43));
+        assert Arrays.equals(data1, data2) : "Same seed should generate the same data.";
+        assert !Arrays.equals(data1, data3) : "Different seeds should generate different data.";
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testTooFewTeams()
+    {
+        new SyntheticDataGenerator(1, 1, 0, 1);
+    }
+
+
+    private static byte[] write(SyntheticDataGenerator generator) throws IOException
+    {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        generator.write(output);
+        return output.toByteArray();
+    }
+
+
+    private static RLTDataProvider generate(SyntheticDataGenerator generator) throws IOException
+    {
+        return new RLTDataProvider(new ByteArrayInputStream(write(generator)));
+    }
+}
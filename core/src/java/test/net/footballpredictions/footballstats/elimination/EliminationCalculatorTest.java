@@ -0,0 +1,274 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.elimination;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import net.footballpredictions.footballstats.data.RLTDataProvider;
+import net.footballpredictions.footballstats.model.LeagueMetaData;
+import net.footballpredictions.footballstats.model.LeagueSeason;
+import net.footballpredictions.footballstats.model.Result;
+import net.footballpredictions.footballstats.model.StandardRecord;
+import net.footballpredictions.footballstats.model.VenueType;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the {@link EliminationCalculator} class.  Answers are checked against
+ * an exhaustive enumeration of the outcomes of the remaining fixtures.
+ * @author Daniel Dyer
+ */
+public class EliminationCalculatorTest
+{
+    private static final String TEST_FILE = "./data/england/premier/2008-2009.rlt";
+
+    /**
+     * Random small leagues under three-points-for-a-win.
+     */
+    @Test
+    public void testRandomLeagues()
+    {
+        checkRandomLeagues(3, 1, new Random(7));
+    }
+
+
+    /**
+     * Random small leagues under two-points-for-a-win, where the flow relaxation is exact.
+     */
+    @Test
+    public void testRandomLeaguesTwoPointsForWin()
+    {
+        checkRandomLeagues(2, 1, new Random(11));
+    }
+
+
+    private void checkRandomLeagues(int pointsForWin, int pointsForDraw, Random rng)
+    {
+        for (int league = 0; league < 100; league++)
+        {
+            int teamCount = 3 + rng.nextInt(5);
+            SortedSet<String> teams = new TreeSet<String>();
+            Map<String, Integer> points = new HashMap<String, Integer>();
+            for (int i = 0; i < teamCount; i++)
+            {
+                String team = String.valueOf((char) ('A' + i));
+                teams.add(team);
+                points.put(team, rng.nextInt(12));
+            }
+            List<Fixture> fixtures = new ArrayList<Fixture>();
+            int fixtureCount = rng.nextInt(8);
+            for (int i = 0; i < fixtureCount; i++)
+            {
+                int home = rng.nextInt(teamCount);
+                int away = (home + 1 + rng.nextInt(teamCount - 1)) % teamCount;
+                fixtures.add(new Fixture(String.valueOf((char) ('A' + home)), String.valueOf((char) ('A' + away))));
+            }
+            LeagueMetaData metaData = new LeagueMetaData(pointsForWin,
+                                                         pointsForDraw,
+                                                         0,
+                                                         teamCount,
+                                                         Collections.<LeagueMetaData.LeagueZone>emptyList(),
+                                                         Collections.<LeagueMetaData.LeagueZone>emptyList());
+            // Use points adjustments to give each team its starting total.
+            LeagueSeason season = new LeagueSeason(teams, new ArrayList<Result>(), points, metaData);
+            checkAgainstEnumeration(season, fixtures);
+        }
+    }
+
+
+    /**
+     * With one round of matches left, check every team against every possible combination
+     * of results.
+     */
+    @Test
+    public void testFinalRound() throws IOException
+    {
+        RLTDataProvider provider = new RLTDataProvider(new FileInputStream(TEST_FILE));
+        int lastDate = 0;
+        for (Result result : provider.getResults())
+        {
+            lastDate = Math.max(lastDate, result.getDate());
+        }
+        List<Result> results = new ArrayList<Result>();
+        for (Result result : provider.getResults())
+        {
+            if (result.getDate() < lastDate)
+            {
+                results.add(result);
+            }
+        }
+        LeagueSeason season = new LeagueSeason(provider.getTeams(),
+                                               results,
+                                               provider.getPointsAdjustments(),
+                                               provider.getLeagueMetaData());
+        List<Fixture> fixtures = EliminationCalculator.getRemainingFixtures(season);
+        assert fixtures.size() == 10 : "Wrong number of fixtures: " + fixtures.size();
+        checkAgainstEnumeration(season, fixtures);
+
+        EliminationCalculator calculator = new EliminationCalculator(season);
+        assert !calculator.canWinTitle("Liverpool") : "Manchester United were already champions.";
+        assert calculator.canWinTitle("Manchester United") : "Manchester United should be able to win the title.";
+        assert calculator.canBeRelegated("Newcastle United") : "Newcastle United should be able to be relegated.";
+        assert !calculator.canBeRelegated("Arsenal") : "Arsenal should be safe.";
+    }
+
+
+    /**
+     * Once all matches have been played, each team's position is fixed (unless it is
+     * level on points with another team).
+     */
+    @Test
+    public void testCompletedSeason() throws IOException
+    {
+        LeagueSeason season = new LeagueSeason(new RLTDataProvider(new FileInputStream(TEST_FILE)));
+        EliminationCalculator calculator = new EliminationCalculator(season);
+        int position = 1;
+        for (StandardRecord record : season.getStandardLeagueTable(VenueType.BOTH))
+        {
+            String team = record.getName();
+            assert calculator.getHighestPossiblePosition(team) <= position : "Wrong highest position for " + team;
+            assert calculator.getLowestPossiblePosition(team) >= position : "Wrong lowest position for " + team;
+            ++position;
+        }
+        assert calculator.getHighestPossiblePosition("Manchester United") == 1 : "Manchester United should be first.";
+        assert calculator.getLowestPossiblePosition("Manchester United") == 1 : "Manchester United should be first.";
+    }
+
+
+    /**
+     * Part-way through a season, the three-points-for-a-win search has to consider large
+     * sets of teams with many fixtures between them.  These queries used to run out of
+     * search and give the wrong answer.
+     */
+    @Test
+    public void testPartialSeasons() throws IOException
+    {
+        EliminationCalculator calculator = new EliminationCalculator(getPartialSeason("1993-1994", 0.7));
+        assert !calculator.canBeRelegated("Blackburn Rovers") : "Blackburn Rovers should be safe.";
+        calculator = new EliminationCalculator(getPartialSeason("1994-1995", 0.7));
+        assert !calculator.canBeRelegated("Manchester United") : "Manchester United should be safe.";
+        calculator = new EliminationCalculator(getPartialSeason("1996-1997", 0.7));
+        assert !calculator.canBeRelegated("Manchester United") : "Manchester United should be safe.";
+        calculator = new EliminationCalculator(getPartialSeason("1992-1993", 0.8));
+        assert calculator.canWinTitle("Crystal Palace") : "Crystal Palace should be able to win the title.";
+    }
+
+
+    /**
+     * @param name The season, as named in the Premier League data directory.
+     * @param fraction The proportion of the season's results, in date order, to include.
+     */
+    private LeagueSeason getPartialSeason(String name, double fraction) throws IOException
+    {
+        RLTDataProvider provider = new RLTDataProvider(new FileInputStream("./data/england/premier/" + name + ".rlt"));
+        List<Result> results = new ArrayList<Result>(provider.getResults());
+        Collections.sort(results, new Comparator<Result>()
+        {
+            public int compare(Result result1, Result result2)
+            {
+                return result1.getDate() - result2.getDate();
+            }
+        });
+        return new LeagueSeason(provider.getTeams(),
+                                new ArrayList<Result>(results.subList(0, (int) (results.size() * fraction))),
+                                provider.getPointsAdjustments(),
+                                provider.getLeagueMetaData());
+    }
+
+
+    private void checkAgainstEnumeration(LeagueSeason season, List<Fixture> fixtures)
+    {
+        List<String> teams = new ArrayList<String>(season.getTeamNames());
+        int[] points = new int[teams.size()];
+        for (int i = 0; i < points.length; i++)
+        {
+            points[i] = season.getTeam(teams.get(i)).getRecord(VenueType.BOTH).getPoints();
+        }
+        int[] home = new int[fixtures.size()];
+        int[] away = new int[fixtures.size()];
+        for (int i = 0; i < home.length; i++)
+        {
+            home[i] = teams.indexOf(fixtures.get(i).getHomeTeam());
+            away[i] = teams.indexOf(fixtures.get(i).getAwayTeam());
+        }
+
+        int[] highest = new int[points.length];
+        int[] lowest = new int[points.length];
+        for (int i = 0; i < points.length; i++)
+        {
+            highest[i] = points.length;
+            lowest[i] = 1;
+        }
+        int win = season.getMetaData().getPointsForWin();
+        int draw = season.getMetaData().getPointsForDraw();
+        int combinations = (int) Math.pow(3, fixtures.size());
+        int[] finalPoints = new int[points.length];
+        for (int combination = 0; combination < combinations; combination++)
+        {
+            System.arraycopy(points, 0, finalPoints, 0, points.length);
+            int outcomes = combination;
+            for (int i = 0; i < home.length; i++)
+            {
+                switch (outcomes % 3)
+                {
+                    case 0: finalPoints[home[i]] += win; break;
+                    case 1: finalPoints[away[i]] += win; break;
+                    default: finalPoints[home[i]] += draw; finalPoints[away[i]] += draw;
+                }
+                outcomes /= 3;
+            }
+            for (int i = 0; i < finalPoints.length; i++)
+            {
+                int above = 0;
+                int level = 0;
+                for (int j = 0; j < finalPoints.length; j++)
+                {
+                    if (finalPoints[j] > finalPoints[i])
+                    {
+                        ++above;
+                    }
+                    else if (j != i && finalPoints[j] == finalPoints[i])
+                    {
+                        ++level;
+                    }
+                }
+                highest[i] = Math.min(highest[i], above + 1);
+                lowest[i] = Math.max(lowest[i], above + level + 1);
+            }
+        }
+
+        EliminationCalculator calculator = new EliminationCalculator(season, fixtures);
+        for (int i = 0; i < points.length; i++)
+        {
+            int calculatedHighest = calculator.getHighestPossiblePosition(teams.get(i));
+            int calculatedLowest = calculator.getLowestPossiblePosition(teams.get(i));
+            assert calculatedHighest == highest[i] : "Highest position for " + teams.get(i) + " should be "
+                                                     + highest[i] + ", was " + calculatedHighest;
+            assert calculatedLowest == lowest[i] : "Lowest position for " + teams.get(i) + " should be "
+                                                   + lowest[i] + ", was " + calculatedLowest;
+        }
+    }
+}
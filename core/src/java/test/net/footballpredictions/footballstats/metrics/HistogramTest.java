@@ -0,0 +1,103 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.metrics;
+
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the {@link Histogram} class.
+ * @author Daniel Dyer
+ */
+public class HistogramTest
+{
+    @Test
+    public void testEmpty()
+    {
+        Histogram histogram = new Histogram();
+        assert histogram.getCount() == 0 : "Count should be zero.";
+        assert histogram.getMin() == 0 : "Min should be zero when empty.";
+        assert histogram.getMax() == 0 : "Max should be zero when empty.";
+        assert histogram.getMean() == 0 : "Mean should be zero when empty.";
+        assert histogram.getMedian() == 0 : "Median should be zero when empty.";
+    }
+
+
+    @Test
+    public void testSummaryStatistics()
+    {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 100; i++)
+        {
+            histogram.update(i);
+        }
+        assert histogram.getCount() == 100 : "Wrong count: " + histogram.getCount();
+        assert histogram.getSum() == 5050 : "Wrong sum: " + histogram.getSum();
+        assert histogram.getMin() == 1 : "Wrong min: " + histogram.getMin();
+        assert histogram.getMax() == 100 : "Wrong max: " + histogram.getMax();
+        assert histogram.getMean() == 50.5 : "Wrong mean: " + histogram.getMean();
+    }
+
+
+    /**
+     * Percentiles are approximate, but must be an upper bound that is no more than twice
+     * the true value.
+     */
+    @Test
+    public void testPercentiles()
+    {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 1000; i++)
+        {
+            histogram.update(i);
+        }
+        long median = histogram.getMedian();
+        assert median >= 500 && median < 1000 : "Median out of range: " + median;
+        long p99 = histogram.get99thPercentile();
+        assert p99 >= 990 && p99 <= 1000 : "99th percentile out of range: " + p99;
+        assert histogram.getPercentile(1) == 1000 : "100th percentile should be the maximum.";
+        assert histogram.getPercentile(0) == 1 : "0th percentile should be the minimum.";
+    }
+
+
+    @Test
+    public void testZeroAndNegative()
+    {
+        Histogram histogram = new Histogram();
+        histogram.update(0);
+        histogram.update(-5);
+        assert histogram.getCount() == 2 : "Both values should be counted.";
+        assert histogram.getMin() == 0 : "Negative values should be recorded as zero.";
+        assert histogram.getMax() == 0 : "Negative values should be recorded as zero.";
+    }
+
+
+    @Test
+    public void testLargeValues()
+    {
+        Histogram histogram = new Histogram();
+        histogram.update(Long.MAX_VALUE);
+        assert histogram.getMedian() == Long.MAX_VALUE : "Wrong median: " + histogram.getMedian();
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidQuantile()
+    {
+        new Histogram().getPercentile(1.5);
+    }
+}
@@ -0,0 +1,83 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.SortedMap;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the {@link MetricRegistry} class.
+ * @author Daniel Dyer
+ */
+public class MetricRegistryTest
+{
+    @Test
+    public void testSameInstance()
+    {
+        MetricRegistry registry = MetricRegistry.getInstance();
+        assert registry.getCounter("test.counter") == registry.getCounter("test.counter") : "Counter should be re-used.";
+        assert registry.getTimer("test.timer") == registry.getTimer("test.timer") : "Timer should be re-used.";
+        assert registry.getHistogram("test.histogram") == registry.getHistogram("test.histogram") : "Histogram should be re-used.";
+    }
+
+
+    @Test
+    public void testReport()
+    {
+        MetricRegistry registry = MetricRegistry.getInstance();
+        registry.getCounter("test.report.counter").add(3);
+        Timer timer = registry.getTimer("test.report.timer");
+        timer.stop(timer.start());
+        final boolean[] reported = new boolean[1];
+        registry.report(new MetricReporter()
+        {
+            public void report(SortedMap<String, Counter> counters,
+                               SortedMap<String, Histogram> histograms,
+                               SortedMap<String, Timer> timers)
+            {
+                assert counters.get("test.report.counter").getCount() == 3 : "Wrong counter value.";
+                assert timers.get("test.report.timer").getCount() == 1 : "Wrong timer count.";
+                reported[0] = true;
+            }
+        });
+        assert reported[0] : "Reporter not invoked.";
+    }
+
+
+    /**
+     * Metrics should be registered with JMX both if they exist at the time of
+     * registration and if they are created afterwards.
+     */
+    @Test
+    public void testRegisterMBeans() throws Exception
+    {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        MetricRegistry registry = MetricRegistry.getInstance();
+        registry.getCounter("test.jmx.before").increment();
+        registry.registerMBeans(server, "test.metrics");
+        registry.getTimer("test.jmx.after").update(2000000);
+
+        ObjectName counterName = new ObjectName("test.metrics:type=Counter,name=" + ObjectName.quote("test.jmx.before"));
+        assert ((Long) server.getAttribute(counterName, "Count")) == 1 : "Wrong counter value.";
+        ObjectName timerName = new ObjectName("test.metrics:type=Timer,name=" + ObjectName.quote("test.jmx.after"));
+        assert ((Double) server.getAttribute(timerName, "TotalMillis")) == 2 : "Wrong timer total.";
+    }
+}
@@ -0,0 +1,258 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import net.footballpredictions.footballstats.data.LeagueDataProvider;
+import net.footballpredictions.footballstats.data.RLTDataProvider;
+import org.testng.Reporter;
+import org.testng.SkipException;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Checks the memory allocated and the time taken by parsing, season construction and
+ * each type of table query against limits that are recorded in a budgets file.  Each
+ * limit is a property named after the operation and data file, such as
+ * <code>construct.alltime.bytes</code> (bytes allocated per operation) and
+ * <code>construct.alltime.millis</code> (mean time per operation).  The measured values
+ * are written to the test report so that budgets can be revised when an intentional
+ * change makes them obsolete.
+ *
+ * <p>The measurements are sensitive to JIT compilation and to machine load, so these
+ * tests are in the "budgets" group, which is excluded from the main test suite.  They
+ * are run on their own by the <code>test.budgets</code> build target.</p>
+ * @author Daniel Dyer
+ */
+@Test(groups = AllocationBudgetTest.GROUP)
+public class AllocationBudgetTest
+{
+    static final String GROUP = "budgets";
+
+    private static final String BUDGETS_FILE = "./etc/allocation-budgets.properties";
+    private static final String DATA_DIRECTORY = "./data/england/premier/";
+    private static final String COVERAGE_PROPERTY = "net.sourceforge.cobertura.datafile";
+
+    private static final int WARM_UP_ITERATIONS = 5;
+    private static final int MEASURED_ITERATIONS = 10;
+
+    private final Properties budgets = new Properties();
+    private ThreadMXBean threadBean;
+    private Method allocatedBytesMethod;
+
+    // Results are stored here so that the operations being measured can't be optimised away.
+    private Object lastResult;
+
+    @BeforeClass
+    public void loadBudgets() throws IOException
+    {
+        InputStream stream = new FileInputStream(BUDGETS_FILE);
+        try
+        {
+            budgets.load(stream);
+        }
+        finally
+        {
+            stream.close();
+        }
+
+        // Per-thread allocation counts are an extension of the standard management
+        // interface (com.sun.management.ThreadMXBean), so they might not be available.
+        threadBean = ManagementFactory.getThreadMXBean();
+        try
+        {
+            allocatedBytesMethod = Class.forName("com.sun.management.ThreadMXBean").getMethod("getThreadAllocatedBytes",
+                                                                                              long.class);
+        }
+        catch (Exception ex)
+        {
+            allocatedBytesMethod = null;
+        }
+    }
+
+
+    @DataProvider(name = "dataFiles")
+    public Object[][] getDataFiles()
+    {
+        return new Object[][]{{"2008-2009"}, {"alltime"}};
+    }
+
+
+    @Test(dataProvider = "dataFiles")
+    public void testParse(String dataFile) throws Exception
+    {
+        final byte[] data = readFile(dataFile);
+        checkBudget("parse." + dataFile, new Callable<Object>()
+        {
+            public Object call() throws IOException
+            {
+                return new RLTDataProvider(new ByteArrayInputStream(data));
+            }
+        });
+    }
+
+
+    @Test(dataProvider = "dataFiles")
+    public void testConstruction(String dataFile) throws Exception
+    {
+        final LeagueDataProvider provider = new RLTDataProvider(new ByteArrayInputStream(readFile(dataFile)));
+        checkBudget("construct." + dataFile, new Callable<Object>()
+        {
+            public Object call()
+            {
+                return new LeagueSeason(provider);
+            }
+        });
+    }
+
+
+    @Test(dataProvider = "dataFiles")
+    public void testTableQueries(String dataFile) throws Exception
+    {
+        final LeagueSeason season = new LeagueSeason(new RLTDataProvider(new ByteArrayInputStream(readFile(dataFile))));
+        checkBudget("table.standard." + dataFile, new Callable<Object>()
+        {
+            public Object call()
+            {
+                return season.getStandardLeagueTable(VenueType.BOTH);
+            }
+        });
+        checkBudget("table.average." + dataFile, new Callable<Object>()
+        {
+            public Object call()
+            {
+                return season.getAverageLeagueTable(VenueType.BOTH);
+            }
+        });
+        checkBudget("table.inverted." + dataFile, new Callable<Object>()
+        {
+            public Object call()
+            {
+                return season.getInvertedLeagueTable(VenueType.BOTH);
+            }
+        });
+        checkBudget("table.form." + dataFile, new Callable<Object>()
+        {
+            public Object call()
+            {
+                return season.getFormTable(VenueType.BOTH);
+            }
+        });
+        checkBudget("table.sequence." + dataFile, new Callable<Object>()
+        {
+            public Object call()
+            {
+                return season.getSequenceTable(SequenceType.UNBEATEN, VenueType.BOTH, false);
+            }
+        });
+        checkBudget("table.attendance." + dataFile, new Callable<Object>()
+        {
+            public Object call()
+            {
+                return season.getAttendanceTable(Team.ATTENDANCE_AVERAGE);
+            }
+        });
+        checkBudget("table.miniLeague." + dataFile, new Callable<Object>()
+        {
+            public Object call()
+            {
+                return season.getMiniLeagueTable(Arrays.asList("Arsenal", "Chelsea", "Liverpool", "Manchester United"));
+            }
+        });
+    }
+
+
+    /**
+     * Measures the mean allocation and time for an operation (after warming up) and
+     * fails if either exceeds its budget.
+     * @param name The name of the operation, used to look up its budgets.
+     * @param operation The operation to measure.
+     */
+    private void checkBudget(String name, Callable<Object> operation) throws Exception
+    {
+        if (allocatedBytesMethod == null || !threadBean.isThreadCpuTimeSupported())
+        {
+            throw new SkipException("Per-thread allocation counts are not supported by this JVM.");
+        }
+        // Coverage instrumentation adds both time and allocations, so the budgets are
+        // checked separately against uninstrumented classes.
+        if (System.getProperty(COVERAGE_PROPERTY) != null)
+        {
+            throw new SkipException("Budgets are not checked when measuring coverage.");
+        }
+        String bytesBudget = budgets.getProperty(name + ".bytes");
+        String millisBudget = budgets.getProperty(name + ".millis");
+        assert bytesBudget != null && millisBudget != null : "No budgets for " + name + " in " + BUDGETS_FILE;
+
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++)
+        {
+            lastResult = operation.call();
+        }
+        long bytesBefore = getAllocatedBytes();
+        long startTime = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++)
+        {
+            lastResult = operation.call();
+        }
+        double millis = (System.nanoTime() - startTime) / (1000000d * MEASURED_ITERATIONS);
+        long bytes = (getAllocatedBytes() - bytesBefore) / MEASURED_ITERATIONS;
+
+        Reporter.log(name + ": " + bytes + " bytes, " + millis + "ms");
+        assert bytes <= Long.parseLong(bytesBudget)
+            : name + " allocated " + bytes + " bytes, budget is " + bytesBudget;
+        assert millis <= Double.parseDouble(millisBudget)
+            : name + " took " + millis + "ms, budget is " + millisBudget + "ms";
+    }
+
+
+    private long getAllocatedBytes() throws Exception
+    {
+        return (Long) allocatedBytesMethod.invoke(threadBean, Thread.currentThread().getId());
+    }
+
+
+    private static byte[] readFile(String dataFile) throws IOException
+    {
+        InputStream stream = new FileInputStream(DATA_DIRECTORY + dataFile + ".rlt");
+        try
+        {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            byte[] block = new byte[8192];
+            for (int count = stream.read(block); count >= 0; count = stream.read(block))
+            {
+                buffer.write(block, 0, count);
+            }
+            return buffer.toByteArray();
+        }
+        finally
+        {
+            stream.close();
+        }
+    }
+}
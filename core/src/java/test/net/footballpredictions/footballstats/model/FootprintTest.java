@@ -0,0 +1,85 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.model;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import net.footballpredictions.footballstats.data.RLTDataProvider;
+import org.testng.Reporter;
+import org.testng.annotations.Test;
+
+/**
+ * Checks the amount of heap used by a loaded season.  Every season of every league may
+ * be kept in memory, so the per-team records need to stay compact.
+ * @author Daniel Dyer
+ */
+public class FootprintTest
+{
+    private static final int SEASON_COUNT = 100;
+
+    // A full Premier League season (20 teams, 380 results) took approximately 257KB with
+    // the original record layout (lists of results for every record and sequence).  The
+    // compact layout should use no more than a fifth of that, plus the home, away and form
+    // position histories (for each team, 97 dates at one byte per date plus about 48 bytes
+    // of object and array overhead).
+    private static final long MAX_BYTES_PER_SEASON = 257 * 1024 / 5 + 20 * 3 * (97 + 48);
+
+
+    @Test
+    public void testSeasonFootprint() throws IOException
+    {
+        // The results themselves are shared by all of the seasons, so only the memory
+        // used by the season's own data structures is measured.
+        RLTDataProvider provider = new RLTDataProvider(new FileInputStream("./data/england/premier/2008-2009.rlt"));
+        new LeagueSeason(provider); // Make sure all classes are loaded and initialised first.
+
+        List<LeagueSeason> seasons = new ArrayList<LeagueSeason>(SEASON_COUNT);
+        long before = getUsedMemory();
+        for (int i = 0; i < SEASON_COUNT; i++)
+        {
+            seasons.add(new LeagueSeason(provider));
+        }
+        long after = getUsedMemory();
+
+        long bytesPerSeason = (after - before) / seasons.size();
+        Reporter.log("Bytes per season: " + bytesPerSeason);
+        assert bytesPerSeason <= MAX_BYTES_PER_SEASON
+            : "Season uses " + bytesPerSeason + " bytes, should be no more than " + MAX_BYTES_PER_SEASON;
+    }
+
+
+    private static long getUsedMemory()
+    {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++)
+        {
+            System.gc();
+            try
+            {
+                Thread.sleep(50);
+            }
+            catch (InterruptedException ex)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -17,9 +17,13 @@
 // ============================================================================
 package net.footballpredictions.footballstats.model;
 
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.List;
 import org.testng.annotations.Test;
 import org.testng.Reporter;
-import java.util.Date;
+import net.footballpredictions.footballstats.data.RLTDataProvider;
+import net.footballpredictions.footballstats.util.EpochDays;
 
 /**
  * Unit test for the {@link FormRecord} class.
@@ -27,19 +31,17 @@ import java.util.Date;
  */
 public class FormRecordTest
 {
-    private static final int ONE_DAY = 86400000;
-
     @Test
     public void testFormString()
     {
         FormRecord record = new FormRecord(new Team("Celtic"), 3, 1, 6);
-        Date today = new Date();
+        int today = EpochDays.of(2010, 1, 1);
         record.addResult(new Result("Celtic", "Rangers", 1, 1, 0, today));
-        record.addResult(new Result("Celtic", "Hearts", 1, 0, 0, new Date(today.getTime() + ONE_DAY)));
-        record.addResult(new Result("Celtic", "Hibernian", 0, 1, 0, new Date(today.getTime() + (ONE_DAY * 2))));
-        record.addResult(new Result("Celtic", "Aberdeen", 1, 1, 0, new Date(today.getTime() + (ONE_DAY * 3))));
-        record.addResult(new Result("Celtic", "Motherwell", 0, 1, 0, new Date(today.getTime() + (ONE_DAY * 4))));
-        record.addResult(new Result("Celtic", "Kilmarnock", 0, 1, 0, new Date(today.getTime() + (ONE_DAY * 5))));
+        record.addResult(new Result("Celtic", "Hearts", 1, 0, 0, today + 1));
+        record.addResult(new Result("Celtic", "Hibernian", 0, 1, 0, today + 2));
+        record.addResult(new Result("Celtic", "Aberdeen", 1, 1, 0, today + 3));
+        record.addResult(new Result("Celtic", "Motherwell", 0, 1, 0, today + 4));
+        record.addResult(new Result("Celtic", "Kilmarnock", 0, 1, 0, today + 5));
 
         String form = record.getForm();
         Reporter.log(form);
@@ -56,11 +58,11 @@ public class FormRecordTest
     public void testIncompleteFormString()
     {
         FormRecord record = new FormRecord(new Team("Celtic"), 3, 1, 6);
-        Date today = new Date();
+        int today = EpochDays.of(2010, 1, 1);
         record.addResult(new Result("Celtic", "Rangers", 1, 1, 0, today));
-        record.addResult(new Result("Celtic", "Hearts", 1, 0, 0, new Date(today.getTime() + ONE_DAY)));
-        record.addResult(new Result("Celtic", "Hibernian", 0, 1, 0, new Date(today.getTime() + (ONE_DAY * 2))));
-        record.addResult(new Result("Celtic", "Aberdeen", 1, 1, 0, new Date(today.getTime() + (ONE_DAY * 3))));
+        record.addResult(new Result("Celtic", "Hearts", 1, 0, 0, today + 1));
+        record.addResult(new Result("Celtic", "Hibernian", 0, 1, 0, today + 2));
+        record.addResult(new Result("Celtic", "Aberdeen", 1, 1, 0, today + 3));
 
         String form = record.getForm();
         Reporter.log(form);
@@ -78,13 +80,13 @@ public class FormRecordTest
     public void testMaximumFormStars()
     {
         FormRecord record = new FormRecord(new Team("Fulham"), 3, 1, 6);
-        Date today = new Date();
+        int today = EpochDays.of(2010, 1, 1);
         record.addResult(new Result("Fulham", "Hull City", 1, 0, 0, today));
-        record.addResult(new Result("Fulham", "Everton", 1, 0, 0, new Date(today.getTime() + ONE_DAY)));
-        record.addResult(new Result("Fulham", "Chelsea", 1, 0, 0, new Date(today.getTime() + (ONE_DAY * 2))));
-        record.addResult(new Result("Fulham", "Aston Villa", 1, 0, 0, new Date(today.getTime() + (ONE_DAY * 3))));
-        record.addResult(new Result("Fulham", "Wigan Athletic", 1, 0, 0, new Date(today.getTime() + (ONE_DAY * 4))));
-        record.addResult(new Result("Fulham", "Stoke City", 1, 0, 0, new Date(today.getTime() + (ONE_DAY * 5))));
+        record.addResult(new Result("Fulham", "Everton", 1, 0, 0, today + 1));
+        record.addResult(new Result("Fulham", "Chelsea", 1, 0, 0, today + 2));
+        record.addResult(new Result("Fulham", "Aston Villa", 1, 0, 0, today + 3));
+        record.addResult(new Result("Fulham", "Wigan Athletic", 1, 0, 0, today + 4));
+        record.addResult(new Result("Fulham", "Stoke City", 1, 0, 0, today + 5));
 
         int stars = record.getFormStars();
         assert stars == 5 : "Perfect form should be rated 5 stars, not " + stars;
@@ -100,10 +102,10 @@ public class FormRecordTest
     public void testIncompleteRecordStars()
     {
         FormRecord record = new FormRecord(new Team("Fulham"), 3, 1, 6);
-        Date today = new Date();
+        int today = EpochDays.of(2010, 1, 1);
         record.addResult(new Result("Fulham", "Hull City", 1, 0, 0, today));
-        record.addResult(new Result("Fulham", "Everton", 1, 0, 0, new Date(today.getTime() + ONE_DAY)));
-        record.addResult(new Result("Fulham", "Chelsea", 1, 0, 0, new Date(today.getTime() + (ONE_DAY * 2))));
+        record.addResult(new Result("Fulham", "Everton", 1, 0, 0, today + 1));
+        record.addResult(new Result("Fulham", "Chelsea", 1, 0, 0, today + 2));
 
         int stars = record.getFormStars();
         assert stars == 5 : "Perfect form should be rated 5 stars, not " + stars;
@@ -117,13 +119,13 @@ public class FormRecordTest
     public void testAverageFormStars()
     {
         FormRecord record = new FormRecord(new Team("Fulham"), 3, 1, 6);
-        Date today = new Date();
+        int today = EpochDays.of(2010, 1, 1);
         record.addResult(new Result("Fulham", "Hull City", 1, 0, 0, today));
-        record.addResult(new Result("Fulham", "Everton", 1, 0, 0, new Date(today.getTime() + ONE_DAY)));
-        record.addResult(new Result("Fulham", "Chelsea", 1, 0, 0, new Date(today.getTime() + (ONE_DAY * 2))));
-        record.addResult(new Result("Fulham", "Aston Villa", 0, 1, 0, new Date(today.getTime() + (ONE_DAY * 3))));
-        record.addResult(new Result("Fulham", "Wigan Athletic", 0, 1, 0, new Date(today.getTime() + (ONE_DAY * 4))));
-        record.addResult(new Result("Fulham", "Stoke City", 0, 1, 0, new Date(today.getTime() + (ONE_DAY * 5))));
+        record.addResult(new Result("Fulham", "Everton", 1, 0, 0, today + 1));
+        record.addResult(new Result("Fulham", "Chelsea", 1, 0, 0, today + 2));
+        record.addResult(new Result("Fulham", "Aston Villa", 0, 1, 0, today + 3));
+        record.addResult(new Result("Fulham", "Wigan Athletic", 0, 1, 0, today + 4));
+        record.addResult(new Result("Fulham", "Stoke City", 0, 1, 0, today + 5));
 
         int stars = record.getFormStars();
         assert stars == 3 : "Perfect form should be rated 3 stars, not " + stars;
@@ -139,15 +141,96 @@ public class FormRecordTest
     public void testMinimumFormStars()
     {
         FormRecord record = new FormRecord(new Team("Fulham"), 3, 1, 6);
-        Date today = new Date();
+        int today = EpochDays.of(2010, 1, 1);
         record.addResult(new Result("Fulham", "Hull City", 0, 1, 0, today));
-        record.addResult(new Result("Fulham", "Everton", 0, 1, 0, new Date(today.getTime() + ONE_DAY)));
-        record.addResult(new Result("Fulham", "Chelsea", 0, 1, 0, new Date(today.getTime() + (ONE_DAY * 2))));
-        record.addResult(new Result("Fulham", "Aston Villa", 0, 1, 0, new Date(today.getTime() + (ONE_DAY * 3))));
-        record.addResult(new Result("Fulham", "Wigan Athletic", 0, 1, 0, new Date(today.getTime() + (ONE_DAY * 4))));
-        record.addResult(new Result("Fulham", "Stoke City", 0, 1, 0, new Date(today.getTime() + (ONE_DAY * 5))));
+        record.addResult(new Result("Fulham", "Everton", 0, 1, 0, today + 1));
+        record.addResult(new Result("Fulham", "Chelsea", 0, 1, 0, today + 2));
+        record.addResult(new Result("Fulham", "Aston Villa", 0, 1, 0, today + 3));
+        record.addResult(new Result("Fulham", "Wigan Athletic", 0, 1, 0, today + 4));
+        record.addResult(new Result("Fulham", "Stoke City", 0, 1, 0, today + 5));
 
         int stars = record.getFormStars();
         assert stars == 1 : "Abysmal form should be rated 1 star, not " + stars;
     }
+
+
+    /**
+     * Form records for arbitrary windows, taken from a team's cumulative totals, should
+     * match records built by adding the same results one at a time.
+     */
+    @Test
+    public void testWindowsMatchReplay() throws IOException
+    {
+        LeagueSeason season = new LeagueSeason(new RLTDataProvider(new FileInputStream("./data/england/premier/2008-2009.rlt")));
+        int date = season.getDate(season.getDateCount() / 2);
+        for (String teamName : season.getTeamNames())
+        {
+            StandardRecord record = season.getTeam(teamName).getRecord(VenueType.BOTH);
+            for (int matches : new int[]{3, 5, 10, 20, 50})
+            {
+                FormRecord expected = new FormRecord(new Team(teamName), 3, 1, matches);
+                for (Result result : record.getResults())
+                {
+                    if (result.getDate() <= date)
+                    {
+                        expected.addResult(result);
+                    }
+                }
+                checkRecord(record.getFormRecord(matches, date), expected);
+            }
+
+            List<Result> results = record.getResults();
+            FormRecord expected = new FormRecord(new Team(teamName), 3, 1, 10);
+            for (Result result : results.subList(5, 15))
+            {
+                expected.addResult(result);
+            }
+            checkRecord(record.getRangeRecord(5, 15), expected);
+        }
+    }
+
+
+    private void checkRecord(FormRecord actual, FormRecord expected)
+    {
+        String name = expected.getName();
+        assert actual.getPlayed() == expected.getPlayed() : "Wrong number of matches for " + name;
+        assert actual.getWon() == expected.getWon() : "Wrong number of wins for " + name;
+        assert actual.getDrawn() == expected.getDrawn() : "Wrong number of draws for " + name;
+        assert actual.getLost() == expected.getLost() : "Wrong number of defeats for " + name;
+        assert actual.getScored() == expected.getScored() : "Wrong number of goals scored for " + name;
+        assert actual.getConceded() == expected.getConceded() : "Wrong number of goals conceded for " + name;
+        assert actual.getPoints() == expected.getPoints() : "Wrong points for " + name;
+        assert actual.getForm().equals(expected.getForm())
+            : "Form for " + name + " should be " + expected.getForm() + ", not " + actual.getForm();
+    }
+
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testFixedRecordIsImmutable()
+    {
+        Team team = new Team("Celtic");
+        int today = EpochDays.of(2010, 1, 1);
+        team.addResult(new Result("Celtic", "Rangers", 1, 1, 0, today));
+        team.getRecord(VenueType.BOTH).getFormRecord(6).addResult(new Result("Celtic", "Hearts", 1, 0, 0, today + 1));
+    }
+
+
+    /**
+     * Totals are stored compactly for a single season's worth of results, but must still
+     * be correct for a much longer run of matches.
+     */
+    @Test
+    public void testLargeTotals()
+    {
+        FormRecord record = new FormRecord(new Team("Celtic"), 3, 1, 1000);
+        int today = EpochDays.of(2010, 1, 1);
+        for (int i = 0; i < 300; i++)
+        {
+            record.addResult(new Result("Celtic", "Rangers", 3, i % 3, 0, today + i));
+        }
+        assert record.getPlayed() == 300 : "Wrong number of matches: " + record.getPlayed();
+        assert record.getWon() == 300 : "Wrong number of wins: " + record.getWon();
+        assert record.getScored() == 900 : "Wrong number of goals scored: " + record.getScored();
+        assert record.getConceded() == 300 : "Wrong number of goals conceded: " + record.getConceded();
+    }
 }
@@ -17,9 +17,11 @@
 // ============================================================================
 package net.footballpredictions.footballstats.model;
 
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -27,6 +29,8 @@ import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.Set;
 import net.footballpredictions.footballstats.data.LeagueDataProvider;
+import net.footballpredictions.footballstats.data.RLTDataProvider;
+import net.footballpredictions.footballstats.util.EpochDays;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
@@ -36,14 +40,12 @@ import org.testng.annotations.Test;
  */
 public class LeagueSeasonTest
 {
-    private static final int ONE_DAY = 86400000;
-
     private List<Result> results;
 
     @BeforeClass
     public void createLeagueData()
     {
-        Date today = new Date();
+        int today = EpochDays.of(2010, 1, 1);
         // After these 4 results, A should be top on 6 points, D bottom with zero and
         // B and C have three points each.
         // In a normal league, B will be second because of superior goal difference.
@@ -51,8 +53,8 @@ public class LeagueSeasonTest
         // the better goal difference.
         results = Arrays.asList(new Result("A", "B", 1, 0, -1, today),
                                 new Result("C", "D", 1, 0, -1, today),
-                                new Result("A", "C", 1, 0, -1, new Date(today.getTime() + ONE_DAY)),
-                                new Result("B", "D", 2, 0, -1, new Date(today.getTime() + ONE_DAY)));
+                                new Result("A", "C", 1, 0, -1, today + 1),
+                                new Result("B", "D", 2, 0, -1, today + 1));
     }
 
 
@@ -107,6 +109,222 @@ public class LeagueSeasonTest
     }
 
 
+    /**
+     * Once the split point has been reached, teams should stay in their half of the table
+     * regardless of later results, and each half should be ordered by the full records.
+     */
+    @Test
+    public void testSplitLeagueSections() throws IOException
+    {
+        LeagueSeason season = new LeagueSeason(new RLTDataProvider(new FileInputStream("./data/scotland/premier/2006-2007.rlt")));
+        int split = season.getMetaData().getSplit();
+        assert split > 0 : "Test data should have a split.";
+
+        SortedSet<SplitRecord> splitTable = new TreeSet<SplitRecord>(new LeagueTableComparator());
+        for (String teamName : season.getTeamNames())
+        {
+            assert season.getTeam(teamName).getSplitRecord().getPlayed() == split : "Split should have been reached.";
+            splitTable.add(season.getTeam(teamName).getSplitRecord());
+        }
+        List<String> topHalf = new ArrayList<String>();
+        for (SplitRecord record : splitTable)
+        {
+            if (topHalf.size() < splitTable.size() / 2)
+            {
+                topHalf.add(record.getName());
+            }
+        }
+
+        List<StandardRecord> table = new ArrayList<StandardRecord>(season.getStandardLeagueTable(VenueType.BOTH));
+        LeagueTableComparator comparator = new LeagueTableComparator();
+        for (int i = 0; i < table.size(); i++)
+        {
+            boolean inTopHalf = i < table.size() / 2;
+            assert topHalf.contains(table.get(i).getName()) == inTopHalf : "Wrong section for " + table.get(i).getName();
+            if (i > 0 && i != table.size() / 2)
+            {
+                assert comparator.compare(table.get(i - 1), table.get(i)) < 0 : "Wrong order at position " + (i + 1);
+            }
+        }
+    }
+
+
+    /**
+     * Home, away and form positions are recorded for each date as the season is built.
+     * They should match the tables calculated on demand.
+     */
+    @Test
+    public void testPositionHistories() throws IOException
+    {
+        LeagueSeason season = new LeagueSeason(new RLTDataProvider(new FileInputStream("./data/england/premier/2008-2009.rlt")));
+        int lastDate = season.getDateCount() - 1;
+        for (VenueType where : VenueType.values())
+        {
+            int position = 1;
+            for (StandardRecord record : season.getStandardLeagueTable(where))
+            {
+                int recorded = record.getTeam().getLeaguePositions(where).get(lastDate);
+                assert recorded == position : "Wrong " + where + " position for " + record.getName() + ": " + recorded;
+                ++position;
+            }
+        }
+        // The form table can be calculated for any date, so check them all.
+        for (int i = 0; i < season.getDateCount(); i++)
+        {
+            int position = 1;
+            for (FormRecord record : season.getFormTable(VenueType.BOTH, 6, season.getDate(i)))
+            {
+                int recorded = record.getTeam().getFormPositions().get(i);
+                assert recorded == position
+                    : "Wrong form position for " + record.getName() + " at date index " + i + ": " + recorded;
+                ++position;
+            }
+        }
+    }
+
+
+    /**
+     * With a head-to-head tie-breaker, teams that are level on points are ordered by the
+     * matches between them rather than by overall goal difference.
+     */
+    @Test
+    public void testHeadToHead()
+    {
+        int today = EpochDays.of(2010, 1, 1);
+        // A, B and D all have 3 points.  On goal difference the order would be B, D, A
+        // but in the matches between the three, D beat A and A beat B.
+        List<Result> headToHeadResults = Arrays.asList(new Result("A", "B", 1, 0, -1, today),
+                                                       new Result("B", "C", 5, 0, -1, today + 1),
+                                                       new Result("D", "A", 1, 0, -1, today + 2));
+        LeagueMetaData metaData = new LeagueMetaData(3, 1, 0, 4,
+                                                     Collections.<LeagueMetaData.LeagueZone>emptyList(),
+                                                     Collections.<LeagueMetaData.LeagueZone>emptyList(),
+                                                     true,
+                                                     Collections.<String, List<String>>emptyMap());
+        LeagueSeason season = new LeagueSeason(new TestDataProvider(headToHeadResults, metaData));
+
+        Iterator<StandardRecord> iterator = season.getStandardLeagueTable(VenueType.BOTH).iterator();
+        assert iterator.next().getName().equals("D") : "Top team should be D.";
+        assert iterator.next().getName().equals("A") : "Second team should be A.";
+        assert iterator.next().getName().equals("B") : "Third team should be B.";
+        assert iterator.next().getName().equals("C") : "Bottom team should be C.";
+        assert season.getTeam("B").getLastLeaguePosition() == 3 : "Position should reflect head-to-head.";
+
+        // The home and away tables are not affected.
+        Iterator<StandardRecord> homeIterator = season.getStandardLeagueTable(VenueType.HOME).iterator();
+        assert homeIterator.next().getName().equals("B") : "B should top the home table on goal difference.";
+    }
+
+
+    /**
+     * Records must cope with more results and goals than fit in 16 bits, as in data that
+     * covers many seasons.
+     */
+    @Test
+    public void testLargeTotals()
+    {
+        int today = EpochDays.of(1900, 1, 1);
+        List<Result> manyResults = new ArrayList<Result>();
+        for (int i = 0; i < 70000; i++)
+        {
+            manyResults.add(i % 2 == 0
+                            ? new Result("A", "B", 2, 0, -1, today + i)
+                            : new Result("B", "A", 0, 1, -1, today + i));
+        }
+        LeagueMetaData metaData = new LeagueMetaData(3, 1, 0, 2,
+                                                     Collections.<LeagueMetaData.LeagueZone>emptyList(),
+                                                     Collections.<LeagueMetaData.LeagueZone>emptyList());
+        LeagueSeason season = new LeagueSeason(new TestDataProvider(manyResults, metaData));
+        StandardRecord record = season.getTeam("A").getRecord(VenueType.BOTH);
+        assert record.getPlayed() == 70000 : "Wrong played: " + record.getPlayed();
+        assert record.getWon() == 70000 : "Wrong won: " + record.getWon();
+        assert record.getScored() == 105000 : "Wrong scored: " + record.getScored();
+        assert record.getBestSequence(SequenceType.WINS).size() == 70000 : "Wrong winning run.";
+        assert record.getBestSequence(SequenceType.WINS).get(69999) == manyResults.get(69999) : "Wrong end of winning run.";
+        StandardRecord other = season.getTeam("B").getRecord(VenueType.BOTH);
+        assert other.getConceded() == 105000 : "Wrong conceded: " + other.getConceded();
+        assert other.getLost() == 70000 : "Wrong lost: " + other.getLost();
+    }
+
+
+    @Test
+    public void testMiniLeague()
+    {
+        LeagueMetaData metaData = new LeagueMetaData(3, 1, 0, 4,
+                                                     Collections.<LeagueMetaData.LeagueZone>emptyList(),
+                                                     Collections.<LeagueMetaData.LeagueZone>emptyList());
+        LeagueSeason season = new LeagueSeason(new TestDataProvider(results, metaData));
+        // Only A v B and A v C count, D isn't in the mini-league and E doesn't exist.
+        SortedSet<MiniLeagueRecord> table = season.getMiniLeagueTable(Arrays.asList("A", "B", "C", "E"));
+        assert table.size() == 3 : "Wrong number of teams: " + table.size();
+        Iterator<MiniLeagueRecord> iterator = table.iterator();
+        MiniLeagueRecord top = iterator.next();
+        assert top.getName().equals("A") : "Top team should be A.";
+        assert top.getPlayed() == 2 && top.getPoints() == 6 && top.getScored() == 2 : "Wrong record for A.";
+        MiniLeagueRecord second = iterator.next();
+        assert second.getPlayed() == 1 && second.getPoints() == 0 : "Wrong record for " + second.getName();
+    }
+
+
+    /**
+     * Adding results to an existing season should give exactly the same positions as
+     * loading all of the results at once, regardless of whether the new results are later
+     * than or interleaved with the existing ones.
+     */
+    @Test
+    public void testAddResults()
+    {
+        LeagueMetaData metaData = new LeagueMetaData(3, 1, 0, 4,
+                                                     Collections.<LeagueMetaData.LeagueZone>emptyList(),
+                                                     Collections.<LeagueMetaData.LeagueZone>emptyList());
+        LeagueSeason fullSeason = new LeagueSeason(new TestDataProvider(results, metaData));
+
+        LeagueSeason firstDate = new LeagueSeason(new TestDataProvider(results.subList(0, 2), metaData));
+        checkSameSeason(firstDate.addResults(results.subList(2, 4)), fullSeason);
+
+        // Add a result on the first date to a season that already has results for both dates.
+        List<Result> someResults = Arrays.asList(results.get(0), results.get(2), results.get(3));
+        LeagueSeason partialSeason = new LeagueSeason(new TestDataProvider(someResults, metaData));
+        LeagueSeason updatedSeason = partialSeason.addResults(Collections.singletonList(results.get(1)));
+        checkSameSeason(updatedSeason, fullSeason);
+        assert partialSeason.getMatchCount() == 3 : "Original season should not be modified.";
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testAddResultForUnknownTeam()
+    {
+        LeagueMetaData metaData = new LeagueMetaData(3, 1, 0, 4,
+                                                     Collections.<LeagueMetaData.LeagueZone>emptyList(),
+                                                     Collections.<LeagueMetaData.LeagueZone>emptyList());
+        LeagueSeason season = new LeagueSeason(new TestDataProvider(results, metaData));
+        season.addResults(Collections.singletonList(new Result("A", "E", 1, 1, -1, results.get(3).getDate())));
+    }
+
+
+    private void checkSameSeason(LeagueSeason actual, LeagueSeason expected)
+    {
+        assert actual.getMatchCount() == expected.getMatchCount() : "Wrong match count: " + actual.getMatchCount();
+        assert actual.getDateCount() == expected.getDateCount() : "Wrong date count: " + actual.getDateCount();
+        for (String teamName : expected.getTeamNames())
+        {
+            for (int i = 0; i < expected.getDateCount(); i++)
+            {
+                for (VenueType where : VenueType.values())
+                {
+                    int position = actual.getTeam(teamName).getLeaguePositions(where).get(i);
+                    assert position == expected.getTeam(teamName).getLeaguePositions(where).get(i)
+                        : "Wrong " + where + " position for " + teamName + " at date index " + i + ": " + position;
+                }
+                int formPosition = actual.getTeam(teamName).getFormPositions().get(i);
+                assert formPosition == expected.getTeam(teamName).getFormPositions().get(i)
+                    : "Wrong form position for " + teamName + " at date index " + i + ": " + formPosition;
+            }
+        }
+        assert actual.getSummary().equals(expected.getSummary()) : "Team records differ.";
+    }
+
+
     private static class TestDataProvider implements LeagueDataProvider
     {
         private final List<Result> results;
@@ -0,0 +1,113 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.model;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.TreeSet;
+import net.footballpredictions.footballstats.data.RLTDataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the {@link ResultMatrix} class.
+ * @author Daniel Dyer
+ */
+public class ResultMatrixTest
+{
+    /**
+     * Every cell of the matrix should match the totals calculated directly from the results.
+     */
+    @Test
+    public void testAgainstResults() throws IOException
+    {
+        LeagueSeason season = new LeagueSeason(new RLTDataProvider(new FileInputStream("./data/england/premier/alltime.rlt")));
+        ResultMatrix matrix = season.getResultMatrix();
+        int n = matrix.getTeamCount();
+        int[][] expected = new int[n * n][5];
+        for (Result result : season.getResults())
+        {
+            int[] cell = expected[matrix.getTeamIndex(result.getHomeTeam()) * n + matrix.getTeamIndex(result.getAwayTeam())];
+            cell[result.getHomeGoals() > result.getAwayGoals() ? 0 : result.isDraw() ? 1 : 2]++;
+            cell[3] += result.getHomeGoals();
+            cell[4] += result.getAwayGoals();
+        }
+        for (int home = 0; home < n; home++)
+        {
+            for (int away = 0; away < n; away++)
+            {
+                int[] cell = expected[home * n + away];
+                String fixture = matrix.getTeamName(home) + " v " + matrix.getTeamName(away);
+                assert matrix.getHomeWins(home, away) == cell[0] : "Wrong home wins for " + fixture;
+                assert matrix.getDraws(home, away) == cell[1] : "Wrong draws for " + fixture;
+                assert matrix.getAwayWins(home, away) == cell[2] : "Wrong away wins for " + fixture;
+                assert matrix.getHomeGoals(home, away) == cell[3] : "Wrong home goals for " + fixture;
+                assert matrix.getAwayGoals(home, away) == cell[4] : "Wrong away goals for " + fixture;
+                assert matrix.getPlayed(home, away) == cell[0] + cell[1] + cell[2] : "Wrong played for " + fixture;
+            }
+        }
+    }
+
+
+    /**
+     * Figures that are too big to be packed into an int should still be recorded correctly.
+     */
+    @Test
+    public void testLargeTotals()
+    {
+        ResultMatrix matrix = new ResultMatrix(new TreeSet<String>(Arrays.asList("A", "B")));
+        // A result in another cell before the matrix is widened must survive the widening.
+        matrix.addResult(new Result("B", "A", 0, 1, -1, 0));
+        for (int i = 0; i < 100; i++)
+        {
+            matrix.addResult(new Result("A", "B", 3, 3, -1, i));
+        }
+        matrix.addResult(new Result("B", "A", 2, 1, -1, 100));
+        assert matrix.getAwayWins(1, 0) == 1 : "Wrong away wins: " + matrix.getAwayWins(1, 0);
+        assert matrix.getDraws(0, 1) == 100 : "Wrong draws: " + matrix.getDraws(0, 1);
+        assert matrix.getHomeGoals(0, 1) == 300 : "Wrong home goals: " + matrix.getHomeGoals(0, 1);
+        assert matrix.getAwayGoals(0, 1) == 300 : "Wrong away goals: " + matrix.getAwayGoals(0, 1);
+        assert matrix.getHomeWins(1, 0) == 1 : "Wrong home wins: " + matrix.getHomeWins(1, 0);
+        assert matrix.getHomeGoals(1, 0) == 2 : "Wrong home goals: " + matrix.getHomeGoals(1, 0);
+        assert matrix.getAwayGoals(1, 0) == 2 : "Wrong away goals: " + matrix.getAwayGoals(1, 0);
+        int[] totals = new int[5];
+        matrix.addHeadToHead(0, 1, totals);
+        assert Arrays.equals(totals, new int[]{1, 100, 1, 302, 302}) : "Wrong head-to-head: " + Arrays.toString(totals);
+    }
+
+
+    /**
+     * Figures that are too big even for a long per cell are recorded in full rather than
+     * rejected.
+     */
+    @Test
+    public void testVeryLargeTotals()
+    {
+        ResultMatrix matrix = new ResultMatrix(new TreeSet<String>(Arrays.asList("A", "B")));
+        matrix.addResult(new Result("B", "A", 1, 1, -1, 0));
+        for (int i = 0; i < 5000; i++)
+        {
+            matrix.addResult(new Result("A", "B", 4, 0, -1, i + 1));
+        }
+        assert matrix.getHomeWins(0, 1) == 5000 : "Wrong home wins: " + matrix.getHomeWins(0, 1);
+        assert matrix.getHomeGoals(0, 1) == 20000 : "Wrong home goals: " + matrix.getHomeGoals(0, 1);
+        assert matrix.getPlayed(0, 1) == 5000 : "Wrong played: " + matrix.getPlayed(0, 1);
+        assert matrix.getDraws(1, 0) == 1 : "Wrong draws: " + matrix.getDraws(1, 0);
+        assert matrix.getAwayGoals(1, 0) == 1 : "Wrong away goals: " + matrix.getAwayGoals(1, 0);
+    }
+}
@@ -0,0 +1,178 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.model;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.List;
+import net.footballpredictions.footballstats.data.RLTDataProvider;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the {@link ResultQuery} class.  Checks query results against a
+ * brute-force scan of the same data.
+ * @author Daniel Dyer
+ */
+public class ResultQueryTest
+{
+    private static final String TEST_FILE = "./data/england/premier/2008-2009.rlt";
+
+    private List<Result> results;
+    private LeagueSeason season;
+
+    @BeforeClass
+    public void loadData() throws IOException
+    {
+        RLTDataProvider provider = new RLTDataProvider(new FileInputStream(TEST_FILE));
+        results = provider.getResults();
+        season = new LeagueSeason(provider);
+    }
+
+
+    @Test
+    public void testUnrestrictedQuery()
+    {
+        assert season.queryResults().count() == 380 : "Wrong number of results: " + season.queryResults().count();
+    }
+
+
+    @Test
+    public void testTeamAndVenue()
+    {
+        int home = season.queryResults().team("Arsenal", VenueType.HOME).count();
+        int away = season.queryResults().team("Arsenal", VenueType.AWAY).count();
+        int both = season.queryResults().team("Arsenal").count();
+        assert home == 19 : "Wrong number of home matches: " + home;
+        assert away == 19 : "Wrong number of away matches: " + away;
+        assert both == 38 : "Wrong number of matches: " + both;
+        for (Result result : season.queryResults().team("Arsenal", VenueType.AWAY).list())
+        {
+            assert result.getAwayTeam().equals("Arsenal") : "Not an away match: " + result.getHomeTeam();
+        }
+    }
+
+
+    @Test
+    public void testOutcomes()
+    {
+        int homeWins = 0;
+        int draws = 0;
+        for (Result result : results)
+        {
+            if (result.getHomeGoals() > result.getAwayGoals())
+            {
+                ++homeWins;
+            }
+            else if (result.isDraw())
+            {
+                ++draws;
+            }
+        }
+        int queryHomeWins = season.queryResults().outcome(MatchOutcome.HOME_WIN).count();
+        assert queryHomeWins == homeWins : "Wrong number of home wins: " + queryHomeWins;
+        int queryDraws = season.queryResults().outcome(MatchOutcome.SCORE_DRAW, MatchOutcome.NO_SCORE_DRAW).count();
+        assert queryDraws == draws : "Wrong number of draws: " + queryDraws;
+        assert queryDraws == season.getScoreDraws() + season.getNoScoreDraws() : "Inconsistent draw totals.";
+    }
+
+
+    @Test
+    public void testCombinedQuery()
+    {
+        int from = results.get(100).getDate();
+        int to = results.get(300).getDate();
+        int expected = 0;
+        for (Result result : results)
+        {
+            if (result.getHomeTeam().equals("Chelsea")
+                && result.getMatchAggregate() >= 3
+                && result.getDate() >= from
+                && result.getDate() <= to)
+            {
+                ++expected;
+            }
+        }
+        List<Result> matches = season.queryResults().team("Chelsea", VenueType.HOME)
+                                                    .goals(3, Integer.MAX_VALUE)
+                                                    .between(from, to)
+                                                    .list();
+        assert matches.size() == expected : "Wrong number of matches: " + matches.size() + ", expected " + expected;
+        for (int i = 1; i < matches.size(); i++)
+        {
+            assert matches.get(i).getDate() >= matches.get(i - 1).getDate() : "Results not in date order.";
+        }
+    }
+
+
+    /**
+     * An open-ended date range (up to the latest possible date) should include every
+     * result from the start date onwards.
+     */
+    @Test
+    public void testOpenEndedDateRange()
+    {
+        int from = results.get(0).getDate();
+        int count = season.queryResults().between(from, Integer.MAX_VALUE).count();
+        assert count == 380 : "Wrong number of results: " + count;
+    }
+
+
+    /**
+     * An open-ended goals range should include every match with at least that many goals.
+     */
+    @Test
+    public void testOpenEndedGoalRange()
+    {
+        int expected = 0;
+        for (Result result : results)
+        {
+            if (result.getMatchAggregate() >= 4)
+            {
+                ++expected;
+            }
+        }
+        int count = season.queryResults().goals(4, Integer.MAX_VALUE).count();
+        assert count == expected : "Wrong number of results: " + count + ", expected " + expected;
+    }
+
+
+    @Test
+    public void testScoreline()
+    {
+        for (Result result : season.queryResults().scoreline(0, 0).list())
+        {
+            assert result.getHomeGoals() == 0 && result.getAwayGoals() == 0 : "Wrong scoreline.";
+        }
+        int goalless = season.queryResults().scoreline(0, 0).count();
+        assert goalless == season.getNoScoreDraws() : "Wrong number of 0-0 draws: " + goalless;
+        assert goalless == season.queryResults().outcome(MatchOutcome.NO_SCORE_DRAW).count() : "Inconsistent 0-0 totals.";
+    }
+
+
+    @Test
+    public void testUnion()
+    {
+        int arsenal = season.queryResults().team("Arsenal").count();
+        int chelsea = season.queryResults().team("Chelsea").count();
+        int meetings = season.queryResults().team("Arsenal").team("Chelsea").count();
+        int either = season.queryResults().team("Arsenal").or(season.queryResults().team("Chelsea")).count();
+        assert meetings == 2 : "Teams should have met twice, not " + meetings + " times.";
+        assert either == arsenal + chelsea - meetings : "Wrong size for union: " + either;
+    }
+}
@@ -0,0 +1,251 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.model;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+import net.footballpredictions.footballstats.data.RLTDataProvider;
+import net.footballpredictions.footballstats.util.EpochDays;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the {@link Scenario} class.  Checks that the tables and records for a
+ * scenario are the same as for a season loaded with the hypothetical results.
+ * @author Daniel Dyer
+ */
+public class ScenarioTest
+{
+    private RLTDataProvider provider;
+    private LeagueSeason season;
+
+    @BeforeClass
+    public void loadData() throws IOException
+    {
+        provider = new RLTDataProvider(new FileInputStream("./data/england/premier/2008-2009.rlt"));
+        season = new LeagueSeason(provider);
+    }
+
+
+    private LeagueSeason createSeason(List<Result> results)
+    {
+        return new LeagueSeason(provider.getTeams(),
+                                results,
+                                provider.getPointsAdjustments(),
+                                provider.getLeagueMetaData());
+    }
+
+
+    private void checkScenario(Scenario scenario, LeagueSeason expected)
+    {
+        SeasonSummary expectedSummary = expected.getSummary();
+        for (VenueType where : VenueType.values())
+        {
+            List<TeamSummary> table = scenario.getLeagueTable(where);
+            List<TeamSummary> expectedTable = new ArrayList<TeamSummary>(expectedSummary.getLeagueTable(where));
+            assert table.equals(expectedTable) : "Wrong " + where + " table: " + table;
+            for (String team : expected.getTeamNames())
+            {
+                TeamSummary summary = scenario.getTeamSummary(team, where);
+                assert summary.equals(expectedSummary.getTeamSummary(team, where))
+                    : "Wrong " + where + " record for " + team;
+            }
+        }
+        int position = 1;
+        for (StandardRecord record : expected.getStandardLeagueTable(VenueType.BOTH))
+        {
+            assert scenario.getPosition(record.getName()) == position
+                : "Wrong position for " + record.getName() + ": " + scenario.getPosition(record.getName());
+            ++position;
+        }
+    }
+
+
+    /**
+     * Adding the final round of matches to a season that stops before them should give
+     * the same tables as the complete season.
+     */
+    @Test
+    public void testAddResults()
+    {
+        int lastDate = season.getMostRecentDate();
+        List<Result> earlier = new ArrayList<Result>();
+        for (Result result : season.getResults())
+        {
+            if (result.getDate() < lastDate)
+            {
+                earlier.add(result);
+            }
+        }
+        Scenario scenario = createSeason(earlier).createScenario();
+        for (Result result : season.getResults(season.getDateCount() - 1))
+        {
+            scenario.addResult(result);
+        }
+        checkScenario(scenario, season);
+    }
+
+
+    /**
+     * Changing a result from early in the season affects sequences as well as the table.
+     */
+    @Test
+    public void testReplaceResult()
+    {
+        List<Result> results = new ArrayList<Result>(season.getResults());
+        Result original = results.get(0);
+        Result replacement = new Result(original.getHomeTeam(),
+                                        original.getAwayTeam(),
+                                        original.getAwayGoals() + 3,
+                                        original.getHomeGoals(),
+                                        original.getAttendance(),
+                                        original.getDate());
+        results.set(0, replacement);
+
+        Scenario scenario = season.createScenario();
+        scenario.replaceResult(original, replacement);
+        checkScenario(scenario, createSeason(results));
+    }
+
+
+    @Test
+    public void testRemoveResult()
+    {
+        List<Result> results = new ArrayList<Result>(season.getResults());
+        Result removed = results.remove(results.size() / 2);
+
+        Scenario scenario = season.createScenario();
+        scenario.removeResult(removed);
+        checkScenario(scenario, createSeason(results));
+    }
+
+
+    /**
+     * Hypothetical results can themselves be changed or removed, and resetting the scenario
+     * restores the actual season.
+     */
+    @Test
+    public void testChangeHypotheticalResults()
+    {
+        int date = season.getMostRecentDate() + 7;
+        Result first = new Result("Arsenal", "Chelsea", 2, 0, -1, date);
+        Result second = new Result("Liverpool", "Everton", 1, 1, -1, date);
+        Result changed = new Result("Arsenal", "Chelsea", 0, 4, -1, date);
+
+        Scenario scenario = season.createScenario();
+        scenario.addResult(first);
+        scenario.addResult(second);
+        scenario.replaceResult(first, changed);
+        scenario.removeResult(second);
+
+        List<Result> results = new ArrayList<Result>(season.getResults());
+        results.add(changed);
+        checkScenario(scenario, createSeason(results));
+        assert scenario.getTeamSummary("Chelsea", VenueType.AWAY).getCurrentSequence(SequenceType.WINS)
+               == season.getSummary().getTeamSummary("Chelsea", VenueType.AWAY).getCurrentSequence(SequenceType.WINS) + 1
+            : "Winning run not extended.";
+
+        scenario.reset();
+        checkScenario(scenario, season);
+    }
+
+
+    /**
+     * A replacement can itself be replaced or removed, in which case it is the original
+     * actual result that is changed.
+     */
+    @Test
+    public void testChangeReplacement()
+    {
+        List<Result> results = new ArrayList<Result>(season.getResults());
+        Result original = results.get(0);
+        Result first = new Result(original.getHomeTeam(), original.getAwayTeam(), 5, 0, -1, original.getDate());
+        Result second = new Result(original.getHomeTeam(), original.getAwayTeam(), 0, 5, -1, original.getDate());
+        results.set(0, second);
+
+        Scenario scenario = season.createScenario();
+        scenario.replaceResult(original, first);
+        scenario.replaceResult(first, second);
+        checkScenario(scenario, createSeason(results));
+
+        scenario.removeResult(second);
+        results.remove(0);
+        checkScenario(scenario, createSeason(results));
+    }
+
+
+    /**
+     * In a league that separates teams on head-to-head record, a scenario's table should
+     * be in the same order as the season's.
+     */
+    @Test
+    public void testHeadToHead()
+    {
+        int today = EpochDays.of(2010, 1, 1);
+        LeagueMetaData metaData = new LeagueMetaData(3, 1, 0, 4,
+                                                     Collections.<LeagueMetaData.LeagueZone>emptyList(),
+                                                     Collections.<LeagueMetaData.LeagueZone>emptyList(),
+                                                     true,
+                                                     Collections.<String, List<String>>emptyMap());
+        List<Result> results = new ArrayList<Result>(Arrays.asList(new Result("A", "B", 1, 0, -1, today),
+                                                                   new Result("B", "C", 5, 0, -1, today + 1)));
+        LeagueSeason before = new LeagueSeason(new TreeSet<String>(Arrays.asList("A", "B", "C", "D")),
+                                               results,
+                                               Collections.<String, Integer>emptyMap(),
+                                               metaData);
+        // A, B and D all have 3 points.  On goal difference the order would be B, D, A
+        // but in the matches between the three, D beat A and A beat B.
+        Result hypothetical = new Result("D", "A", 1, 0, -1, today + 2);
+        Scenario scenario = before.createScenario();
+        scenario.addResult(hypothetical);
+        results.add(hypothetical);
+        LeagueSeason after = new LeagueSeason(before.getTeamNames(),
+                                              results,
+                                              Collections.<String, Integer>emptyMap(),
+                                              metaData);
+
+        Iterator<TeamSummary> iterator = scenario.getLeagueTable(VenueType.BOTH).iterator();
+        for (StandardRecord record : after.getStandardLeagueTable(VenueType.BOTH))
+        {
+            String team = iterator.next().getName();
+            assert team.equals(record.getName()) : "Expected " + record.getName() + ", was " + team;
+        }
+        assert scenario.getPosition("D") == 1 : "D should be top on head-to-head.";
+        assert scenario.getPosition("B") == 3 : "B should be third on head-to-head.";
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testUnknownTeam()
+    {
+        season.createScenario().addResult(new Result("Arsenal", "Real Madrid", 1, 0, -1, season.getMostRecentDate() + 1));
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testRemoveUnknownResult()
+    {
+        season.createScenario().removeResult(new Result("Arsenal", "Chelsea", 1, 0, -1, season.getMostRecentDate()));
+    }
+}
@@ -0,0 +1,175 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import net.footballpredictions.footballstats.data.RLTDataProvider;
+import net.footballpredictions.footballstats.util.EpochDays;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the {@link SeasonSummary} and {@link TeamSummary} classes.  Checks that
+ * merged per-season summaries are identical to a summary of all of the results replayed
+ * as a single season.
+ * @author Daniel Dyer
+ */
+public class SeasonSummaryTest
+{
+    private static final String[] TEST_FILES = {"./data/england/premier/2006-2007.rlt",
+                                                "./data/england/premier/2007-2008.rlt",
+                                                "./data/england/premier/2008-2009.rlt"};
+
+    private final List<RLTDataProvider> providers = new ArrayList<RLTDataProvider>();
+    private final List<SeasonSummary> summaries = new ArrayList<SeasonSummary>();
+
+    @BeforeClass
+    public void loadData() throws IOException
+    {
+        for (String file : TEST_FILES)
+        {
+            RLTDataProvider provider = new RLTDataProvider(new FileInputStream(file));
+            providers.add(provider);
+            summaries.add(new LeagueSeason(provider).getSummary());
+        }
+    }
+
+
+    /**
+     * Merging the summaries of consecutive seasons must give exactly the same figures,
+     * including sequences that span the seasons, as replaying all of the results.
+     */
+    @Test
+    public void testMergeMatchesReplay()
+    {
+        SortedSet<String> teams = new TreeSet<String>();
+        List<Result> results = new ArrayList<Result>();
+        Map<String, Integer> adjustments = new HashMap<String, Integer>();
+        for (RLTDataProvider provider : providers)
+        {
+            teams.addAll(provider.getTeams());
+            results.addAll(provider.getResults());
+            for (Map.Entry<String, Integer> entry : provider.getPointsAdjustments().entrySet())
+            {
+                Integer previous = adjustments.get(entry.getKey());
+                adjustments.put(entry.getKey(), entry.getValue() + (previous == null ? 0 : previous));
+            }
+        }
+        LeagueMetaData metaData = new LeagueMetaData(3,
+                                                     1,
+                                                     0,
+                                                     teams.size(),
+                                                     Collections.<LeagueMetaData.LeagueZone>emptyList(),
+                                                     Collections.<LeagueMetaData.LeagueZone>emptyList());
+        SeasonSummary replayed = new LeagueSeason(teams, results, adjustments, metaData).getSummary();
+        SeasonSummary merged = SeasonSummary.mergeAll(summaries);
+
+        assert merged.getTeamNames().equals(teams) : "Wrong teams: " + merged.getTeamNames();
+        for (String team : teams)
+        {
+            for (VenueType where : VenueType.values())
+            {
+                TeamSummary expected = replayed.getTeamSummary(team, where);
+                TeamSummary actual = merged.getTeamSummary(team, where);
+                assert actual.equals(expected) : "Summaries differ for " + team + " (" + where + ")";
+            }
+        }
+        assert merged.getLeagueTable(VenueType.BOTH).first().getName().equals(replayed.getLeagueTable(VenueType.BOTH).first().getName())
+            : "Wrong team top of combined table.";
+    }
+
+
+    @Test
+    public void testAssociativity()
+    {
+        SeasonSummary a = summaries.get(0);
+        SeasonSummary b = summaries.get(1);
+        SeasonSummary c = summaries.get(2);
+        assert a.merge(b).merge(c).equals(a.merge(b.merge(c))) : "Merge is not associative.";
+    }
+
+
+    @Test
+    public void testEmptyIdentity()
+    {
+        TeamSummary summary = summaries.get(2).getTeamSummary("Arsenal", VenueType.BOTH);
+        TeamSummary empty = TeamSummary.empty("Arsenal", 3, 1);
+        assert empty.merge(summary).equals(summary) : "Empty summary is not a left identity.";
+        assert summary.merge(empty).equals(summary) : "Empty summary is not a right identity.";
+    }
+
+
+    /**
+     * A winning run at the end of one period and the start of the next should be joined
+     * up when the summaries are merged.
+     */
+    @Test
+    public void testSequenceSpanningBoundary()
+    {
+        int day = EpochDays.of(2010, 1, 1);
+        TeamSummary first = TeamSummary.forResults("A",
+                                                   Arrays.asList(new Result("A", "B", 0, 1, -1, day),
+                                                                 new Result("A", "C", 2, 0, -1, day + 1),
+                                                                 new Result("D", "A", 0, 1, -1, day + 2)),
+                                                   3, 1, 0);
+        TeamSummary second = TeamSummary.forResults("A",
+                                                    Arrays.asList(new Result("A", "B", 3, 0, -1, day + 3),
+                                                                  new Result("C", "A", 1, 1, -1, day + 4)),
+                                                    3, 1, 0);
+        assert first.getCurrentSequence(SequenceType.WINS) == 2 : "Wrong current sequence.";
+        assert second.getOpeningSequence(SequenceType.WINS) == 1 : "Wrong opening sequence.";
+        TeamSummary merged = first.merge(second);
+        assert merged.getBestSequence(SequenceType.WINS) == 3 : "Wrong best sequence: " + merged.getBestSequence(SequenceType.WINS);
+        assert merged.getCurrentSequence(SequenceType.WINS) == 0 : "Sequence should have ended.";
+        assert merged.getCurrentSequence(SequenceType.UNBEATEN) == 4 : "Wrong unbeaten sequence.";
+        assert merged.getPoints() == 10 : "Wrong points total: " + merged.getPoints();
+    }
+
+
+    @Test
+    public void testSerialisation() throws IOException, ClassNotFoundException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream output = new ObjectOutputStream(bytes);
+        output.writeObject(summaries.get(0));
+        output.close();
+        ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        Object copy = input.readObject();
+        assert copy.equals(summaries.get(0)) : "Deserialised summary is different.";
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testMergeDifferentTeams()
+    {
+        TeamSummary.empty("A", 3, 1).merge(TeamSummary.empty("B", 3, 1));
+    }
+}
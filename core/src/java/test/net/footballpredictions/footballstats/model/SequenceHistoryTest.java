@@ -0,0 +1,175 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.model;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import net.footballpredictions.footballstats.data.RLTDataProvider;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the {@link SequenceHistory} class.
+ * @author Daniel Dyer
+ */
+public class SequenceHistoryTest
+{
+    private static final String[] TEST_FILES = {"./data/england/premier/2006-2007.rlt",
+                                                "./data/england/premier/2007-2008.rlt",
+                                                "./data/england/premier/2008-2009.rlt"};
+
+    private final List<LeagueSeason> seasons = new ArrayList<LeagueSeason>();
+    private final List<Result> results = new ArrayList<Result>();
+
+    @BeforeClass
+    public void loadData() throws IOException
+    {
+        for (String file : TEST_FILES)
+        {
+            LeagueSeason season = new LeagueSeason(new RLTDataProvider(new FileInputStream(file)));
+            seasons.add(season);
+            results.addAll(season.getResults());
+        }
+    }
+
+
+    /**
+     * For a single season, the sequences should be the same as those tracked by each
+     * team's {@link StandardRecord}.
+     */
+    @Test
+    public void testSingleSeason()
+    {
+        LeagueSeason season = seasons.get(seasons.size() - 1);
+        SequenceHistory history = new SequenceHistory(season.getResults());
+        for (String teamName : season.getTeamNames())
+        {
+            StandardRecord record = season.getTeam(teamName).getRecord(VenueType.BOTH);
+            assert history.getMatchCount(teamName) == record.getPlayed() : "Wrong match count for " + teamName;
+            for (SequenceType sequence : SequenceType.values())
+            {
+                assert history.getLongestSequence(teamName, sequence) == record.getBestSequence(sequence).size()
+                    : "Wrong longest " + sequence + " sequence for " + teamName;
+                assert history.getCurrentSequence(teamName, sequence) == record.getCurrentSequence(sequence).size()
+                    : "Wrong current " + sequence + " sequence for " + teamName;
+            }
+        }
+    }
+
+
+    /**
+     * Sequences that span seasons should be the same as for merged season summaries.
+     */
+    @Test
+    public void testMultipleSeasons()
+    {
+        SequenceHistory history = new SequenceHistory(results);
+        List<SeasonSummary> summaries = new ArrayList<SeasonSummary>();
+        for (LeagueSeason season : seasons)
+        {
+            summaries.add(season.getSummary());
+        }
+        SeasonSummary merged = SeasonSummary.mergeAll(summaries);
+        for (String teamName : merged.getTeamNames())
+        {
+            TeamSummary summary = merged.getTeamSummary(teamName, VenueType.BOTH);
+            for (SequenceType sequence : SequenceType.values())
+            {
+                assert history.getLongestSequence(teamName, sequence) == summary.getBestSequence(sequence)
+                    : "Wrong longest " + sequence + " sequence for " + teamName;
+                assert history.getCurrentSequence(teamName, sequence) == summary.getCurrentSequence(sequence)
+                    : "Wrong current " + sequence + " sequence for " + teamName;
+            }
+        }
+    }
+
+
+    /**
+     * Sequences for arbitrary date ranges should match a brute-force count.
+     */
+    @Test
+    public void testDateRanges()
+    {
+        SequenceHistory history = new SequenceHistory(results);
+        int firstDate = seasons.get(0).getDate(0);
+        int lastDate = seasons.get(seasons.size() - 1).getMostRecentDate();
+        Random rng = new Random(42);
+        for (int i = 0; i < 50; i++)
+        {
+            int from = firstDate + rng.nextInt(lastDate - firstDate + 1);
+            int to = from + rng.nextInt(lastDate - from + 1);
+            for (String teamName : history.getTeamNames())
+            {
+                for (SequenceType sequence : SequenceType.values())
+                {
+                    int longest = 0;
+                    int run = 0;
+                    int current = 0;
+                    for (Result result : results) // Already in date order.
+                    {
+                        if (result.getDate() <= to
+                            && (result.getHomeTeam().equals(teamName) || result.getAwayTeam().equals(teamName)))
+                        {
+                            boolean continues = continuesSequence(sequence, result, teamName);
+                            current = continues ? current + 1 : 0;
+                            if (result.getDate() >= from)
+                            {
+                                run = continues ? run + 1 : 0;
+                                longest = Math.max(longest, run);
+                            }
+                        }
+                    }
+                    assert history.getLongestSequence(teamName, sequence, from, to) == longest
+                        : "Wrong longest " + sequence + " sequence for " + teamName;
+                    assert history.getCurrentSequence(teamName, sequence, to) == current
+                        : "Wrong current " + sequence + " sequence for " + teamName;
+                }
+            }
+        }
+    }
+
+
+    private static boolean continuesSequence(SequenceType sequence, Result result, String teamName)
+    {
+        int goalsFor = result.getGoalsFor(teamName);
+        int goalsAgainst = result.getGoalsAgainst(teamName);
+        switch (sequence)
+        {
+            case WINS: return goalsFor > goalsAgainst;
+            case DRAWS: return goalsFor == goalsAgainst;
+            case DEFEATS: return goalsFor < goalsAgainst;
+            case UNBEATEN: return goalsFor >= goalsAgainst;
+            case NO_WIN: return goalsFor <= goalsAgainst;
+            case CLEANSHEETS: return goalsAgainst == 0;
+            case GAMES_SCORED_IN: return goalsFor > 0;
+            case GAMES_NOT_SCORED_IN: return goalsFor == 0;
+            case GAMES_CONCEDED_IN: return goalsAgainst > 0;
+            default: throw new IllegalArgumentException("Invalid sequence type: " + sequence);
+        }
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testUnknownTeam()
+    {
+        new SequenceHistory(results).getLongestSequence("Real Madrid", SequenceType.WINS);
+    }
+}
@@ -0,0 +1,99 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.util;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the {@link Downsampler} class.
+ * @author Daniel Dyer
+ */
+public class DownsamplerTest
+{
+    /**
+     * If there are fewer points than the threshold, they should all be kept.
+     */
+    @Test
+    public void testSmallSeries()
+    {
+        double[] x = {1, 2, 3, 4};
+        double[] y = {5, 3, 8, 1};
+        int[] indices = Downsampler.downsample(x, y, 1, 4, 10);
+        assert Arrays.equals(indices, new int[]{1, 2, 3}) : "Wrong indices: " + Arrays.toString(indices);
+    }
+
+
+    /**
+     * A single spike should survive downsampling because it forms the largest triangle.
+     */
+    @Test
+    public void testSpike()
+    {
+        double[] x = new double[100];
+        double[] y = new double[100];
+        for (int i = 0; i < x.length; i++)
+        {
+            x[i] = i;
+            y[i] = i % 2; // Small oscillation so the spike isn't the only non-flat point.
+        }
+        y[37] = 50;
+        int[] indices = Downsampler.downsample(x, y, 0, x.length, 10);
+        assert indices.length == 10 : "Wrong number of points: " + indices.length;
+        assert Arrays.binarySearch(indices, 37) >= 0 : "Spike should be kept: " + Arrays.toString(indices);
+    }
+
+
+    /**
+     * The first, last, highest and lowest points should always be kept, the indices
+     * should be in order and the number of points should not exceed the threshold by
+     * more than one.
+     */
+    @Test
+    public void testRandomSeries()
+    {
+        Random random = new Random(42);
+        for (int test = 0; test < 100; test++)
+        {
+            int count = 3 + random.nextInt(2000);
+            double[] x = new double[count];
+            double[] y = new double[count];
+            int minIndex = 0;
+            int maxIndex = 0;
+            for (int i = 0; i < count; i++)
+            {
+                x[i] = i == 0 ? 0 : x[i - 1] + 1 + random.nextInt(7);
+                y[i] = random.nextGaussian();
+                minIndex = y[i] < y[minIndex] ? i : minIndex;
+                maxIndex = y[i] > y[maxIndex] ? i : maxIndex;
+            }
+            int threshold = 3 + random.nextInt(200);
+            int[] indices = Downsampler.downsample(x, y, 0, count, threshold);
+            assert indices.length <= Math.min(count, threshold + 1) : "Too many points: " + indices.length;
+            assert indices[0] == 0 : "First point should be kept.";
+            assert indices[indices.length - 1] == count - 1 : "Last point should be kept.";
+            assert Arrays.binarySearch(indices, minIndex) >= 0 : "Lowest point should be kept.";
+            assert Arrays.binarySearch(indices, maxIndex) >= 0 : "Highest point should be kept.";
+            for (int i = 1; i < indices.length; i++)
+            {
+                assert indices[i] > indices[i - 1] : "Indices should be in ascending order.";
+            }
+        }
+    }
+}
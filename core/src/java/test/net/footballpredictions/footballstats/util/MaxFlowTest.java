@@ -0,0 +1,86 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.util;
+
+import java.util.Random;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the {@link MaxFlow} class.
+ * @author Daniel Dyer
+ */
+public class MaxFlowTest
+{
+    /**
+     * Example network from Cormen et al, "Introduction to Algorithms" (max flow = 23).
+     */
+    @Test
+    public void testMaximumFlow()
+    {
+        MaxFlow network = new MaxFlow(6, 0, 5);
+        network.addEdge(0, 1, 16);
+        network.addEdge(0, 2, 13);
+        network.addEdge(2, 1, 4);
+        network.addEdge(1, 3, 12);
+        network.addEdge(3, 2, 9);
+        network.addEdge(2, 4, 14);
+        network.addEdge(4, 3, 7);
+        network.addEdge(3, 5, 20);
+        network.addEdge(4, 5, 4);
+        int flow = network.maximise();
+        assert flow == 23 : "Wrong maximum flow: " + flow;
+    }
+
+
+    /**
+     * After arbitrary capacity changes (increases and decreases), the incrementally
+     * updated flow must equal the flow computed from scratch for the same network.
+     */
+    @Test
+    public void testIncrementalUpdates()
+    {
+        Random rng = new Random(42);
+        final int nodes = 12;
+        int[][] edges = new int[40][3];
+        int[] ids = new int[edges.length];
+        MaxFlow incremental = new MaxFlow(nodes, 0, nodes - 1);
+        for (int i = 0; i < edges.length; i++)
+        {
+            edges[i][0] = rng.nextInt(nodes - 1);
+            edges[i][1] = 1 + rng.nextInt(nodes - 1);
+            edges[i][2] = rng.nextInt(10);
+            ids[i] = incremental.addEdge(edges[i][0], edges[i][1], edges[i][2]);
+        }
+        incremental.maximise();
+        for (int change = 0; change < 200; change++)
+        {
+            int edge = rng.nextInt(edges.length);
+            edges[edge][2] = rng.nextInt(10);
+            incremental.setCapacity(ids[edge], edges[edge][2]);
+            int flow = incremental.maximise();
+
+            MaxFlow fresh = new MaxFlow(nodes, 0, nodes - 1);
+            for (int[] e : edges)
+            {
+                fresh.addEdge(e[0], e[1], e[2]);
+            }
+            int expected = fresh.maximise();
+            assert flow == expected : "Incremental flow " + flow + " should be " + expected;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.util;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the {@link WordAlignedBitmap} class.  Results of operations on the
+ * compressed bitmaps are checked against {@link BitSet}.
+ * @author Daniel Dyer
+ */
+public class WordAlignedBitmapTest
+{
+    @Test
+    public void testSetBits()
+    {
+        WordAlignedBitmap bitmap = new WordAlignedBitmap.Builder().set(1).set(3).set(200).set(201).build(300);
+        int[] bits = bitmap.toArray();
+        assert Arrays.equals(bits, new int[]{1, 3, 200, 201}) : "Wrong bits: " + Arrays.toString(bits);
+        assert bitmap.cardinality() == 4 : "Wrong cardinality: " + bitmap.cardinality();
+        assert bitmap.getSize() == 300 : "Wrong size: " + bitmap.getSize();
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testSetBitsOutOfOrder()
+    {
+        new WordAlignedBitmap.Builder().set(200).set(3);
+    }
+
+
+    /**
+     * Long runs of set or unset bits should be stored as fills rather than literal words.
+     */
+    @Test
+    public void testCompression()
+    {
+        WordAlignedBitmap bitmap = WordAlignedBitmap.range(100, 100000);
+        assert bitmap.cardinality() == 99900 : "Wrong cardinality: " + bitmap.cardinality();
+        assert bitmap.getCompressedSize() <= 6 : "Poorly compressed: " + bitmap.getCompressedSize() + " words.";
+        int[] bits = bitmap.toArray();
+        assert bits[0] == 100 : "Wrong first bit: " + bits[0];
+        assert bits[bits.length - 1] == 99999 : "Wrong last bit: " + bits[bits.length - 1];
+    }
+
+
+    @Test
+    public void testEmpty()
+    {
+        assert WordAlignedBitmap.empty().isEmpty() : "Empty bitmap has bits set.";
+        assert WordAlignedBitmap.range(5, 5).isEmpty() : "Empty range has bits set.";
+        assert !WordAlignedBitmap.range(5, 6).isEmpty() : "Non-empty range has no bits set.";
+        WordAlignedBitmap bitmap = WordAlignedBitmap.range(0, 1000);
+        assert bitmap.and(WordAlignedBitmap.empty()).isEmpty() : "Intersection with empty bitmap should be empty.";
+        assert bitmap.or(WordAlignedBitmap.empty()).cardinality() == 1000 : "Union with empty bitmap should be unchanged.";
+    }
+
+
+    /**
+     * Compare the results of logical operations against the equivalent {@link BitSet}
+     * operations for a mixture of sparse, dense and clustered bitmaps.
+     */
+    @Test
+    public void testLogicalOperations()
+    {
+        Random rng = new Random(42);
+        for (int i = 0; i < 50; i++)
+        {
+            BitSet expected1 = randomBits(rng, 5000);
+            BitSet expected2 = randomBits(rng, 7000);
+            WordAlignedBitmap bitmap1 = toBitmap(expected1);
+            WordAlignedBitmap bitmap2 = toBitmap(expected2);
+
+            BitSet and = (BitSet) expected1.clone();
+            and.and(expected2);
+            assertEquals(bitmap1.and(bitmap2), and);
+            assertEquals(bitmap2.and(bitmap1), and);
+
+            BitSet or = (BitSet) expected1.clone();
+            or.or(expected2);
+            assertEquals(bitmap1.or(bitmap2), or);
+            assertEquals(bitmap2.or(bitmap1), or);
+
+            BitSet andNot = (BitSet) expected1.clone();
+            andNot.andNot(expected2);
+            assertEquals(bitmap1.andNot(bitmap2), andNot);
+        }
+    }
+
+
+    /**
+     * Runs of set bits should be measured correctly whether they are within literal words,
+     * span word boundaries or are made up of fill words.
+     */
+    @Test
+    public void testRuns()
+    {
+        Random rng = new Random(42);
+        for (int i = 0; i < 50; i++)
+        {
+            BitSet expected = randomBits(rng, 5000);
+            WordAlignedBitmap bitmap = toBitmap(expected);
+
+            int longest = 0;
+            int run = 0;
+            for (int j = 0; j < expected.length(); j++)
+            {
+                run = expected.get(j) ? run + 1 : 0;
+                longest = Math.max(longest, run);
+            }
+            assert bitmap.longestRun() == longest : "Longest run should be " + longest + ", was " + bitmap.longestRun();
+
+            for (int j = 0; j < 20; j++)
+            {
+                int end = rng.nextInt(5100);
+                int expectedRun = 0;
+                while (expectedRun < end && expected.get(end - 1 - expectedRun))
+                {
+                    ++expectedRun;
+                }
+                assert bitmap.runEndingAt(end) == expectedRun
+                    : "Run ending at " + end + " should be " + expectedRun + ", was " + bitmap.runEndingAt(end);
+            }
+        }
+        assert WordAlignedBitmap.range(100, 300).longestRun() == 200 : "Wrong run for range.";
+        assert WordAlignedBitmap.range(100, 300).runEndingAt(150) == 50 : "Wrong run ending in range.";
+        assert WordAlignedBitmap.empty().longestRun() == 0 : "Empty bitmap has a run.";
+    }
+
+
+    private static BitSet randomBits(Random rng, int size)
+    {
+        BitSet bits = new BitSet(size);
+        int position = 0;
+        while (position < size)
+        {
+            // Alternate between runs of a single value and random noise of varying density.
+            int length = rng.nextInt(500);
+            switch (rng.nextInt(4))
+            {
+                case 0: bits.set(position, Math.min(size, position + length)); break;
+                case 1: break;
+                default:
+                {
+                    double density = rng.nextDouble();
+                    for (int i = position; i < Math.min(size, position + length); i++)
+                    {
+                        bits.set(i, rng.nextDouble() < density);
+                    }
+                }
+            }
+            position += length;
+        }
+        return bits;
+    }
+
+
+    private static WordAlignedBitmap toBitmap(BitSet bits)
+    {
+        WordAlignedBitmap.Builder builder = new WordAlignedBitmap.Builder();
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1))
+        {
+            builder.set(i);
+        }
+        return builder.build(bits.length());
+    }
+
+
+    private static void assertEquals(WordAlignedBitmap actual, BitSet expected)
+    {
+        int[] bits = actual.toArray();
+        assert bits.length == expected.cardinality() : "Wrong cardinality: " + bits.length;
+        assert actual.cardinality() == expected.cardinality() : "Wrong cardinality: " + actual.cardinality();
+        int index = 0;
+        for (int i = expected.nextSetBit(0); i >= 0; i = expected.nextSetBit(i + 1))
+        {
+            assert bits[index] == i : "Expected bit " + i + ", found " + bits[index];
+            ++index;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.jfr;
+
+import jdk.jfr.EventType;
+import net.footballpredictions.footballstats.metrics.EventRecorder;
+
+/**
+ * Records application activity as JDK Flight Recorder events, so that it can be
+ * correlated with garbage collection, JIT compilation and other JVM activity.  This
+ * recorder is used automatically by {@link EventRecorder#getInstance()} when it is on the
+ * classpath and the JVM supports Flight Recorder (Java 11 or later).  The events are
+ * enabled by default but, as with all Flight Recorder events, nothing is recorded unless
+ * a recording is in progress.  The <code>fsa.jfc</code> settings file enables all of the
+ * events without any duration threshold.
+ * @author Daniel Dyer
+ */
+public final class FlightRecorderEvents extends EventRecorder
+{
+    private static final Span NO_SPAN = new Span()
+    {
+        public void finish()
+        {
+            // Event is disabled.
+        }
+    };
+
+    private static final ParseSpan NO_PARSE_SPAN = new ParseSpan()
+    {
+        public void finish(long bytes, int results)
+        {
+            // Event is disabled.
+        }
+    };
+
+    // Checking whether an event is enabled first avoids creating event objects when
+    // there is no recording.
+    private final EventType parseType = EventType.getEventType(ParseEvent.class);
+    private final EventType buildType = EventType.getEventType(SeasonBuildEvent.class);
+    private final EventType tableType = EventType.getEventType(TableQueryEvent.class);
+    private final EventType panelType = EventType.getEventType(PanelRefreshEvent.class);
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ParseSpan startParse(String source)
+    {
+        if (!parseType.isEnabled())
+        {
+            return NO_PARSE_SPAN;
+        }
+        ParseEvent event = new ParseEvent(source);
+        event.begin();
+        return event;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Span startBuildPhase(String phase, int results)
+    {
+        if (!buildType.isEnabled())
+        {
+            return NO_SPAN;
+        }
+        SeasonBuildEvent event = new SeasonBuildEvent(phase, results);
+        event.begin();
+        return event;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Span startTableQuery(String table, String venue)
+    {
+        if (!tableType.isEnabled())
+        {
+            return NO_SPAN;
+        }
+        TableQueryEvent event = new TableQueryEvent(table, venue);
+        event.begin();
+        return event;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Span startPanelRefresh(String panel)
+    {
+        if (!panelType.isEnabled())
+        {
+            return NO_SPAN;
+        }
+        PanelRefreshEvent event = new PanelRefreshEvent(panel);
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,55 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import net.footballpredictions.footballstats.metrics.EventRecorder;
+
+/**
+ * Flight Recorder event for a user interface component being refreshed with new data.
+ * @author Daniel Dyer
+ */
+@Name("net.footballpredictions.footballstats.PanelRefresh")
+@Label("Panel Refresh")
+@Category({"Football Statistics", "User Interface"})
+@Description("Refreshing of a user interface panel after a new season has been selected or loaded.")
+@StackTrace(false)
+class PanelRefreshEvent extends Event implements EventRecorder.Span
+{
+    @Label("Panel")
+    String panel;
+
+    PanelRefreshEvent(String panel)
+    {
+        this.panel = panel;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public void finish()
+    {
+        commit();
+    }
+}
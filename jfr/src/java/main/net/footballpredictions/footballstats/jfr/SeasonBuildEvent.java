@@ -0,0 +1,59 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import net.footballpredictions.footballstats.metrics.EventRecorder;
+
+/**
+ * Flight Recorder event for one phase of building a season from its results.
+ * @author Daniel Dyer
+ */
+@Name("net.footballpredictions.footballstats.SeasonBuild")
+@Label("Season Build Phase")
+@Category({"Football Statistics", "Model"})
+@Description("One phase (sorting, global totals or team records) of building a league season.")
+@StackTrace(false)
+class SeasonBuildEvent extends Event implements EventRecorder.Span
+{
+    @Label("Phase")
+    String phase;
+
+    @Label("Results")
+    int results;
+
+    SeasonBuildEvent(String phase, int results)
+    {
+        this.phase = phase;
+        this.results = results;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public void finish()
+    {
+        commit();
+    }
+}
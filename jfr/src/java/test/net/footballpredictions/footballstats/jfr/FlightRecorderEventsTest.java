@@ -0,0 +1,113 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.jfr;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import net.footballpredictions.footballstats.data.RLTDataProvider;
+import net.footballpredictions.footballstats.metrics.EventRecorder;
+import net.footballpredictions.footballstats.model.LeagueSeason;
+import net.footballpredictions.footballstats.model.VenueType;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the {@link FlightRecorderEvents} class.
+ * @author Daniel Dyer
+ */
+public class FlightRecorderEventsTest
+{
+    private static final String TEST_FILE = "./data/england/premier/2008-2009.rlt";
+
+    @Test
+    public void testDefaultRecorder()
+    {
+        assert EventRecorder.getInstance() instanceof FlightRecorderEvents : "Flight Recorder events should be used by default.";
+    }
+
+
+    @Test(dependsOnMethods = "testDefaultRecorder")
+    public void testEvents() throws IOException
+    {
+        File output = File.createTempFile("fsa", ".jfr");
+        try
+        {
+            Recording recording = new Recording();
+            recording.enable(ParseEvent.class);
+            recording.enable(SeasonBuildEvent.class);
+            recording.enable(TableQueryEvent.class);
+            recording.start();
+            LeagueSeason season = new LeagueSeason(new RLTDataProvider(new FileInputStream(TEST_FILE), TEST_FILE));
+            season.getStandardLeagueTable(VenueType.HOME);
+            recording.stop();
+            recording.dump(output.toPath());
+            recording.close();
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(output.toPath());
+            Set<String> phases = new HashSet<String>();
+            boolean parsed = false;
+            boolean queried = false;
+            for (RecordedEvent event : events)
+            {
+                String name = event.getEventType().getName();
+                if (name.equals("net.footballpredictions.footballstats.RLTParse"))
+                {
+                    assert event.getString("source").equals(TEST_FILE) : "Wrong source: " + event.getString("source");
+                    assert event.getLong("bytes") == new File(TEST_FILE).length() : "Wrong byte count: " + event.getLong("bytes");
+                    assert event.getInt("results") == 380 : "Wrong result count: " + event.getInt("results");
+                    parsed = true;
+                }
+                else if (name.equals("net.footballpredictions.footballstats.SeasonBuild"))
+                {
+                    phases.add(event.getString("phase"));
+                }
+                else if (name.equals("net.footballpredictions.footballstats.TableQuery"))
+                {
+                    assert event.getString("table").equals("standard") : "Wrong table: " + event.getString("table");
+                    assert event.getString("venue").equals("HOME") : "Wrong venue: " + event.getString("venue");
+                    queried = true;
+                }
+            }
+            assert parsed : "No parse event.";
+            assert queried : "No table query event.";
+            assert phases.size() == 3 : "Wrong number of build phases: " + phases;
+        }
+        finally
+        {
+            output.delete();
+        }
+    }
+
+
+    /**
+     * When there is no recording, the recorder should not create any events.
+     */
+    @Test(dependsOnMethods = "testDefaultRecorder")
+    public void testDisabled()
+    {
+        EventRecorder.Span span = EventRecorder.getInstance().startTableQuery("standard", "BOTH");
+        assert !(span instanceof TableQueryEvent) : "Event should not be created without a recording.";
+        span.finish();
+    }
+}
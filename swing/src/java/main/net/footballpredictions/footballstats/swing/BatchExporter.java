@@ -0,0 +1,654 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.swing;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.ResourceBundle;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import net.footballpredictions.footballstats.data.RLTDataProvider;
+import net.footballpredictions.footballstats.metrics.MetricRegistry;
+import net.footballpredictions.footballstats.metrics.PrintStreamReporter;
+import net.footballpredictions.footballstats.model.LeagueSeason;
+import net.footballpredictions.footballstats.model.SequenceType;
+import net.footballpredictions.footballstats.model.VenueType;
+import net.footballpredictions.footballstats.util.EpochDays;
+import org.jfree.chart.ChartUtilities;
+import org.jfree.ui.RectangleEdge;
+
+/**
+ * Command-line tool that renders static HTML, JSON and PNG versions of the tables and
+ * graphs for every season, without a display.  For each season, every league table type
+ * for each venue, the form tables, the sequence tables, the results for each date and
+ * the league position and points graphs are exported.  Seasons are processed in parallel
+ * and a checksum of each season's data file is recorded so that seasons that have not
+ * changed since the last run are skipped.
+ * @author Daniel Dyer
+ */
+public final class BatchExporter
+{
+    private static final String CHECKSUMS_FILE = "checksums.properties";
+    private static final String ENCODING = "UTF-8";
+    private static final int GRAPH_WIDTH = 800;
+    private static final int GRAPH_HEIGHT = 500;
+
+    // Columns shown for each type of league table (see LeagueTablePanel).
+    private static final int[] STANDARD_COLUMNS = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+    private static final int[] AVERAGE_COLUMNS = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, LeagueTableModel.AVERAGE_POINTS_COLUMN};
+    private static final int[] DROPPED_COLUMNS = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, LeagueTableModel.POINTS_DROPPED_COLUMN};
+    private static final int[] FORM_COLUMNS = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, LeagueTableModel.FORM_COLUMN};
+
+    private final File outputDirectory;
+    private final ResourceBundle messageResources;
+    private final Map<String, Map<String, Map<String, URL>>> leagues
+        = new LinkedHashMap<String, Map<String, Map<String, URL>>>();
+
+    /**
+     * @param outputDirectory The directory in which to write the exported files.  Each
+     * season is written to a sub-directory named after its league, division and season.
+     * @param messageResources Internationalised messages used for table headings.
+     */
+    public BatchExporter(File outputDirectory, ResourceBundle messageResources)
+    {
+        this.outputDirectory = outputDirectory;
+        this.messageResources = messageResources;
+    }
+
+
+    public void addSeason(String league, String division, String season, URL dataURL)
+    {
+        Map<String, Map<String, URL>> divisions = leagues.get(league);
+        if (divisions == null)
+        {
+            divisions = new LinkedHashMap<String, Map<String, URL>>();
+            leagues.put(league, divisions);
+        }
+        Map<String, URL> seasons = divisions.get(division);
+        if (seasons == null)
+        {
+            seasons = new LinkedHashMap<String, URL>();
+            divisions.put(division, seasons);
+        }
+        seasons.put(season, dataURL);
+    }
+
+
+    /**
+     * Adds all of the seasons from a league configuration, as loaded by {@link ConfigLoader}.
+     */
+    public void addSeasons(Map<String, Map<String, Map<String, URL>>> config)
+    {
+        for (Map.Entry<String, Map<String, Map<String, URL>>> league : config.entrySet())
+        {
+            for (Map.Entry<String, Map<String, URL>> division : league.getValue().entrySet())
+            {
+                for (Map.Entry<String, URL> season : division.getValue().entrySet())
+                {
+                    addSeason(league.getKey(), division.getKey(), season.getKey(), season.getValue());
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Adds every RLT file (compressed or not) in a data directory that is organised in the
+     * same way as the data directory of this project (league/division/season.rlt).
+     */
+    public void addDataDirectory(File dataDirectory) throws MalformedURLException
+    {
+        for (File league : listSorted(dataDirectory))
+        {
+            for (File division : listSorted(league))
+            {
+                for (File season : listSorted(division))
+                {
+                    String name = season.getName();
+                    if (season.isFile() && (name.endsWith(".rlt") || name.endsWith(".rlt.gz")))
+                    {
+                        addSeason(league.getName(),
+                                  division.getName(),
+                                  name.substring(0, name.indexOf(".rlt")),
+                                  season.toURI().toURL());
+                    }
+                }
+            }
+        }
+    }
+
+
+    private static List<File> listSorted(File directory)
+    {
+        File[] files = directory.listFiles();
+        if (files == null) // Not a directory.
+        {
+            return new ArrayList<File>(0);
+        }
+        Arrays.sort(files);
+        return Arrays.asList(files);
+    }
+
+
+    /**
+     * Exports every season that has changed since the last export to the same directory.
+     * Seasons that fail are reported on the standard error stream and will be attempted
+     * again next time.
+     * @param threads The number of seasons to process at once.
+     * @return The number of seasons that were exported (not including those that were
+     * skipped because they have not changed).
+     */
+    public int export(int threads) throws IOException, InterruptedException
+    {
+        if (!outputDirectory.isDirectory() && !outputDirectory.mkdirs())
+        {
+            throw new IOException("Could not create output directory: " + outputDirectory);
+        }
+        File checksumsFile = new File(outputDirectory, CHECKSUMS_FILE);
+        final Properties previousChecksums = new Properties();
+        if (checksumsFile.exists())
+        {
+            InputStream checksumsStream = new FileInputStream(checksumsFile);
+            try
+            {
+                previousChecksums.load(checksumsStream);
+            }
+            finally
+            {
+                checksumsStream.close();
+            }
+        }
+
+        // Properties is synchronized so it can be updated by each of the worker threads.
+        final Properties checksums = new Properties();
+        Map<String, Future<Boolean>> tasks = new LinkedHashMap<String, Future<Boolean>>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try
+        {
+            for (final String league : leagues.keySet())
+            {
+                for (final String division : leagues.get(league).keySet())
+                {
+                    for (final Map.Entry<String, URL> season : leagues.get(league).get(division).entrySet())
+                    {
+                        final String path = getPath(league, division, season.getKey());
+                        tasks.put(path, executor.submit(new Callable<Boolean>()
+                        {
+                            public Boolean call() throws IOException
+                            {
+                                return exportSeason(league,
+                                                    division,
+                                                    season.getKey(),
+                                                    season.getValue(),
+                                                    previousChecksums.getProperty(path),
+                                                    checksums);
+                            }
+                        }));
+                    }
+                }
+            }
+
+            int exported = 0;
+            for (Map.Entry<String, Future<Boolean>> task : tasks.entrySet())
+            {
+                try
+                {
+                    if (task.getValue().get())
+                    {
+                        ++exported;
+                    }
+                }
+                catch (ExecutionException ex)
+                {
+                    System.err.println("Failed to export " + task.getKey() + ": " + ex.getCause());
+                }
+            }
+            return exported;
+        }
+        finally
+        {
+            executor.shutdown();
+            OutputStream checksumsStream = new FileOutputStream(checksumsFile);
+            try
+            {
+                checksums.store(checksumsStream, "Checksums of exported data files.");
+            }
+            finally
+            {
+                checksumsStream.close();
+            }
+            writeIndex();
+        }
+    }
+
+
+    /**
+     * @return True if the season was exported, false if it was skipped because it has not
+     * changed since the last export.
+     */
+    private boolean exportSeason(String league,
+                                 String division,
+                                 String seasonName,
+                                 URL dataURL,
+                                 String previousChecksum,
+                                 Properties checksums) throws IOException
+    {
+        byte[] data = readFully(dataURL.openStream());
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        String checksum = Long.toHexString(crc.getValue());
+        String path = getPath(league, division, seasonName);
+        File seasonDirectory = new File(outputDirectory, path);
+        if (checksum.equals(previousChecksum) && seasonDirectory.isDirectory())
+        {
+            checksums.setProperty(path, checksum);
+            return false;
+        }
+
+        InputStream dataStream = new ByteArrayInputStream(data);
+        // We can also handle GZipped RLT files.
+        if (dataURL.getFile().endsWith(".gz"))
+        {
+            dataStream = new GZIPInputStream(dataStream);
+        }
+        LeagueSeason season = new LeagueSeason(new RLTDataProvider(dataStream, dataURL.toString()));
+        if (!seasonDirectory.isDirectory() && !seasonDirectory.mkdirs())
+        {
+            throw new IOException("Could not create directory: " + seasonDirectory);
+        }
+
+        String title = league + " " + division + " " + seasonName;
+        List<ExportedTable> tables = createTables(season);
+        writeHTML(title, tables, new File(seasonDirectory, "index.html"));
+        writeJSON(league, division, seasonName, tables, new File(seasonDirectory, "season.json"));
+        writeGraphs(season, seasonDirectory);
+
+        // Only record the checksum once everything has been written successfully.
+        checksums.setProperty(path, checksum);
+        return true;
+    }
+
+
+    private List<ExportedTable> createTables(LeagueSeason season)
+    {
+        List<ExportedTable> tables = new ArrayList<ExportedTable>();
+        for (VenueType venue : VenueType.values())
+        {
+            String venueName = messageResources.getString("combo.VenueType." + venue.name());
+            for (TableType type : TableType.values())
+            {
+                LeagueTableModel model;
+                int[] columns;
+                switch (type)
+                {
+                    case POINTS_PER_GAME:
+                    {
+                        model = new LeagueTableModel(season.getAverageLeagueTable(venue), messageResources);
+                        columns = AVERAGE_COLUMNS;
+                        break;
+                    }
+                    case POINTS_DROPPED:
+                    {
+                        model = new LeagueTableModel(season.getInvertedLeagueTable(venue), messageResources);
+                        columns = DROPPED_COLUMNS;
+                        break;
+                    }
+                    default:
+                    {
+                        model = new LeagueTableModel(season.getStandardLeagueTable(venue), messageResources);
+                        columns = STANDARD_COLUMNS;
+                    }
+                }
+                tables.add(new ExportedTable("table." + type.name() + '.' + venue.name(),
+                                             messageResources.getString("combo.TableType." + type.name()) + " (" + venueName + ")",
+                                             new TableExporter(model, columns)));
+            }
+        }
+
+        for (VenueType venue : VenueType.values())
+        {
+            LeagueTableModel model = new LeagueTableModel(season.getFormTable(venue), messageResources);
+            tables.add(new ExportedTable("form." + venue.name(),
+                                         messageResources.getString("formTable.tab") + " ("
+                                         + messageResources.getString("combo.VenueType." + venue.name()) + ")",
+                                         new TableExporter(model, FORM_COLUMNS)));
+        }
+
+        for (SequenceType type : SequenceType.values())
+        {
+            for (VenueType venue : VenueType.values())
+            {
+                for (boolean current : new boolean[]{true, false})
+                {
+                    SequenceTableModel model = new SequenceTableModel(season.getSequenceTable(type, venue, current),
+                                                                      type,
+                                                                      current,
+                                                                      messageResources);
+                    String caption = messageResources.getString("combo.SequenceType." + type.name())
+                                     + " (" + messageResources.getString(current ? "sequences.current" : "sequences.longest")
+                                     + ", " + messageResources.getString("combo.VenueType." + venue.name()) + ")";
+                    tables.add(new ExportedTable("sequence." + type.name() + '.' + venue.name() + (current ? ".current" : ".longest"),
+                                                 caption,
+                                                 new TableExporter(model)));
+                }
+            }
+        }
+
+        DateFormat captionFormat = new SimpleDateFormat("EEE d MMM yyyy", messageResources.getLocale());
+        DateFormat idFormat = new SimpleDateFormat("yyyy-MM-dd");
+        // Most recent date first, as in the results panel.
+        for (int i = season.getDateCount() - 1; i >= 0; i--)
+        {
+            DateResultsTableModel model = new DateResultsTableModel(season.getResults(i), messageResources);
+            String caption = messageResources.getString("results.tab") + ": "
+                             + captionFormat.format(EpochDays.toDate(season.getDate(i)));
+            tables.add(new ExportedTable("results." + idFormat.format(EpochDays.toDate(season.getDate(i))),
+                                         caption,
+                                         new TableExporter(model)));
+        }
+        return tables;
+    }
+
+
+    private void writeHTML(String title, List<ExportedTable> tables, File file) throws IOException
+    {
+        PrintWriter writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), ENCODING));
+        try
+        {
+            writeHTMLHeader(title, writer);
+            writer.println("<img src=\"positions.png\" alt=\""
+                           + TableExporter.escapeHTML(messageResources.getString("combo.GraphType.LEAGUE_POSITION"))
+                           + "\" />");
+            writer.println("<img src=\"points.png\" alt=\""
+                           + TableExporter.escapeHTML(messageResources.getString("combo.GraphType.POINTS"))
+                           + "\" />");
+            for (ExportedTable table : tables)
+            {
+                table.exporter.writeHTML(table.caption, writer);
+            }
+            writer.println("</body>");
+            writer.println("</html>");
+        }
+        finally
+        {
+            writer.close();
+        }
+        if (writer.checkError())
+        {
+            throw new IOException("Failed writing " + file);
+        }
+    }
+
+
+    private void writeJSON(String league,
+                           String division,
+                           String season,
+                           List<ExportedTable> tables,
+                           File file) throws IOException
+    {
+        PrintWriter writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), ENCODING));
+        try
+        {
+            writer.print("{\"league\":" + TableExporter.quoteJSON(league));
+            writer.print(",\"division\":" + TableExporter.quoteJSON(division));
+            writer.print(",\"season\":" + TableExporter.quoteJSON(season));
+            writer.print(",\"tables\":{");
+            for (int i = 0; i < tables.size(); i++)
+            {
+                ExportedTable table = tables.get(i);
+                writer.print(i == 0 ? "" : ",");
+                writer.print(TableExporter.quoteJSON(table.id));
+                writer.print(":");
+                table.exporter.writeJSON(writer);
+            }
+            writer.println("}}");
+        }
+        finally
+        {
+            writer.close();
+        }
+        if (writer.checkError())
+        {
+            throw new IOException("Failed writing " + file);
+        }
+    }
+
+
+    /**
+     * Renders the league position and points graphs for all teams.  The graph components
+     * are never displayed, they are only used to configure the charts.
+     */
+    private void writeGraphs(LeagueSeason season, File directory) throws IOException
+    {
+        Object[] teams = season.getTeamNames().toArray();
+        LeaguePositionGraph positionGraph = new LeaguePositionGraph(messageResources, RectangleEdge.BOTTOM);
+        // The position graph picks the level of detail according to its size.
+        positionGraph.setSize(GRAPH_WIDTH, GRAPH_HEIGHT);
+        positionGraph.updateGraph(teams, season);
+        ChartUtilities.saveChartAsPNG(new File(directory, "positions.png"),
+                                      positionGraph.getChart(),
+                                      GRAPH_WIDTH,
+                                      GRAPH_HEIGHT);
+        PointsGraph pointsGraph = new PointsGraph(messageResources);
+        pointsGraph.updateGraph(teams, season);
+        ChartUtilities.saveChartAsPNG(new File(directory, "points.png"),
+                                      pointsGraph.getChart(),
+                                      GRAPH_WIDTH,
+                                      GRAPH_HEIGHT);
+    }
+
+
+    /**
+     * Writes a top-level page that links to every season, whether or not it was exported
+     * on this run.
+     */
+    private void writeIndex() throws IOException
+    {
+        File file = new File(outputDirectory, "index.html");
+        PrintWriter writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), ENCODING));
+        try
+        {
+            writeHTMLHeader(null, writer);
+            for (String league : leagues.keySet())
+            {
+                for (String division : leagues.get(league).keySet())
+                {
+                    writer.println("<h2>" + TableExporter.escapeHTML(league + " " + division) + "</h2>");
+                    writer.println("<ul>");
+                    for (String season : leagues.get(league).get(division).keySet())
+                    {
+                        writer.println("<li><a href=\"" + getPath(league, division, season) + "/index.html\">"
+                                       + TableExporter.escapeHTML(season) + "</a></li>");
+                    }
+                    writer.println("</ul>");
+                }
+            }
+            writer.println("</body>");
+            writer.println("</html>");
+        }
+        finally
+        {
+            writer.close();
+        }
+        if (writer.checkError())
+        {
+            throw new IOException("Failed writing " + file);
+        }
+    }
+
+
+    private static void writeHTMLHeader(String title, PrintWriter writer)
+    {
+        writer.println("<!DOCTYPE html>");
+        writer.println("<html>");
+        writer.println("<head>");
+        writer.println("<meta charset=\"" + ENCODING + "\" />");
+        if (title != null)
+        {
+            writer.println("<title>" + TableExporter.escapeHTML(title) + "</title>");
+        }
+        writer.println("<style>td.number { text-align: right; }</style>");
+        writer.println("</head>");
+        writer.println("<body>");
+        if (title != null)
+        {
+            writer.println("<h1>" + TableExporter.escapeHTML(title) + "</h1>");
+        }
+    }
+
+
+    /**
+     * @return The path, relative to the output directory, of the directory for a season.
+     */
+    private static String getPath(String league, String division, String season)
+    {
+        return toFileName(league) + '/' + toFileName(division) + '/' + toFileName(season);
+    }
+
+
+    /**
+     * Converts a display name, such as "(All Time)" or "2009/10", into something that is
+     * safe to use as a file or directory name ("all-time", "2009-10").
+     */
+    static String toFileName(String name)
+    {
+        StringBuilder buffer = new StringBuilder(name.length());
+        for (char c : name.toLowerCase(Locale.ENGLISH).toCharArray())
+        {
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9'))
+            {
+                buffer.append(c);
+            }
+            else if (buffer.length() > 0 && buffer.charAt(buffer.length() - 1) != '-')
+            {
+                buffer.append('-');
+            }
+        }
+        // Remove any trailing separator.
+        if (buffer.length() > 0 && buffer.charAt(buffer.length() - 1) == '-')
+        {
+            buffer.setLength(buffer.length() - 1);
+        }
+        return buffer.toString();
+    }
+
+
+    private static byte[] readFully(InputStream stream) throws IOException
+    {
+        try
+        {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            byte[] block = new byte[8192];
+            int count = stream.read(block);
+            while (count >= 0)
+            {
+                buffer.write(block, 0, count);
+                count = stream.read(block);
+            }
+            return buffer.toByteArray();
+        }
+        finally
+        {
+            stream.close();
+        }
+    }
+
+
+    /**
+     * Entry point for the batch exporter.
+     * @param args The location of either a league configuration file or a data directory,
+     * followed by the output directory and, optionally, the number of threads to use
+     * (defaults to the number of available processors).
+     */
+    public static void main(String[] args) throws Exception
+    {
+        if (args.length < 2 || args.length > 3)
+        {
+            System.err.println("Usage: java " + BatchExporter.class.getName()
+                               + " <config.xml | data directory> <output directory> [threads]");
+            System.exit(1);
+        }
+        // Charts are rendered to images, so no display is needed.
+        System.setProperty("java.awt.headless", "true");
+        MetricRegistry.getInstance().registerMBeans(ManagementFactory.getPlatformMBeanServer(),
+                                                    "net.footballpredictions.footballstats");
+
+        ResourceBundle messageResources = ResourceBundle.getBundle("net.footballpredictions.footballstats.messages.fsa");
+        BatchExporter exporter = new BatchExporter(new File(args[1]), messageResources);
+        File source = new File(args[0]);
+        if (source.isDirectory())
+        {
+            exporter.addDataDirectory(source);
+        }
+        else
+        {
+            // Data file locations in the config are relative to the config file.
+            URL baseURL = source.getAbsoluteFile().getParentFile().toURI().toURL();
+            exporter.addSeasons(new ConfigLoader(null).load(new FileInputStream(source), baseURL));
+        }
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long startTime = System.currentTimeMillis();
+        int exported = exporter.export(threads);
+        System.out.println("Exported " + exported + " season(s) in "
+                           + (System.currentTimeMillis() - startTime) + "ms.");
+        MetricRegistry.getInstance().report(new PrintStreamReporter(System.out));
+    }
+
+
+    /**
+     * A table together with the identifiers used for it in the HTML and JSON output.
+     */
+    private static final class ExportedTable
+    {
+        private final String id;
+        private final String caption;
+        private final TableExporter exporter;
+
+        ExportedTable(String id, String caption, TableExporter exporter)
+        {
+            this.id = id;
+            this.caption = caption;
+            this.exporter = exporter;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.swing;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+import net.footballpredictions.footballstats.metrics.Counter;
+import net.footballpredictions.footballstats.metrics.MetricRegistry;
+
+/**
+ * Loads the league configuration XML in a single streaming pass, without building a
+ * DOM.  If a cache directory is specified, the parsed configuration is also stored there
+ * in a compact binary form, keyed on a checksum of the XML and the base URL, so that
+ * later loads of the same configuration do not have to parse any XML at all.
+ * @author Daniel Dyer
+ */
+public final class ConfigLoader
+{
+    private static final int CACHE_MAGIC = 0x46534143; // "FSAC"
+    private static final Counter CACHE_HITS = MetricRegistry.getInstance().getCounter("cache.config.hits");
+    private static final Counter CACHE_MISSES = MetricRegistry.getInstance().getCounter("cache.config.misses");
+
+    private final File cacheDirectory;
+
+
+    /**
+     * @param cacheDirectory The directory in which parsed configurations are cached.  May
+     * be null, in which case no caching is performed.
+     */
+    public ConfigLoader(File cacheDirectory)
+    {
+        this.cacheDirectory = cacheDirectory;
+    }
+
+
+    /**
+     * @param configStream An {@link InputStream} from which the XML config is read.  The
+     * stream is closed once it has been read.
+     * @param baseURL The URL against which relative data file locations are resolved.
+     * @return A map of league names to a map of divisions in that league, which maps
+     * division names to a map of seasons and the URLs of their data files.
+     */
+    public Map<String, Map<String, Map<String, URL>>> load(InputStream configStream,
+                                                           URL baseURL) throws IOException
+    {
+        byte[] config = readFully(configStream);
+        File cacheFile = null;
+        if (cacheDirectory != null)
+        {
+            CRC32 checksum = new CRC32();
+            checksum.update(config);
+            checksum.update(String.valueOf(baseURL).getBytes("UTF-8"));
+            cacheFile = new File(cacheDirectory, "config-" + Long.toHexString(checksum.getValue()) + ".cache");
+            if (cacheFile.exists())
+            {
+                try
+                {
+                    Map<String, Map<String, Map<String, URL>>> leagues = readCache(cacheFile);
+                    CACHE_HITS.increment();
+                    return leagues;
+                }
+                catch (IOException ex)
+                {
+                    // Ignore the damaged cache file, it will be replaced.
+                }
+            }
+            CACHE_MISSES.increment();
+        }
+
+        Map<String, Map<String, Map<String, URL>>> leagues = parse(config, baseURL);
+        if (cacheFile != null)
+        {
+            writeCache(leagues, cacheFile);
+        }
+        return leagues;
+    }
+
+
+    private static byte[] readFully(InputStream stream) throws IOException
+    {
+        try
+        {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int count = stream.read(buffer);
+            while (count >= 0)
+            {
+                bytes.write(buffer, 0, count);
+                count = stream.read(buffer);
+            }
+            return bytes.toByteArray();
+        }
+        finally
+        {
+            stream.close();
+        }
+    }
+
+
+    private static Map<String, Map<String, Map<String, URL>>> parse(byte[] config,
+                                                                    final URL baseURL) throws IOException
+    {
+        final Map<String, Map<String, Map<String, URL>>> leagues = new LinkedHashMap<String, Map<String, Map<String, URL>>>();
+        try
+        {
+            SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.setNamespaceAware(true);
+            factory.newSAXParser().parse(new ByteArrayInputStream(config), new DefaultHandler()
+            {
+                private Map<String, Map<String, URL>> divisions;
+                private Map<String, URL> seasons;
+
+                @Override
+                public void startElement(String uri,
+                                         String localName,
+                                         String qName,
+                                         Attributes attributes) throws SAXException
+                {
+                    if (localName.equals("league"))
+                    {
+                        divisions = new LinkedHashMap<String, Map<String, URL>>();
+                        leagues.put(attributes.getValue("name"), divisions);
+                    }
+                    else if (localName.equals("division") && divisions != null)
+                    {
+                        seasons = new LinkedHashMap<String, URL>();
+                        divisions.put(attributes.getValue("name"), seasons);
+                    }
+                    else if (localName.equals("season") && seasons != null)
+                    {
+                        try
+                        {
+                            seasons.put(attributes.getValue("name"), new URL(baseURL, attributes.getValue("href")));
+                        }
+                        catch (MalformedURLException ex)
+                        {
+                            throw new SAXException(ex);
+                        }
+                    }
+                }
+
+
+                @Override
+                public void endElement(String uri, String localName, String qName)
+                {
+                    if (localName.equals("league"))
+                    {
+                        divisions = null;
+                    }
+                    else if (localName.equals("division"))
+                    {
+                        seasons = null;
+                    }
+                }
+            });
+            return leagues;
+        }
+        catch (ParserConfigurationException ex)
+        {
+            throw new ConfigurationException("XML parsing error.", ex);
+        }
+        catch (SAXException ex)
+        {
+            throw new ConfigurationException("XML parsing error.", ex);
+        }
+    }
+
+
+    private static Map<String, Map<String, Map<String, URL>>> readCache(File cacheFile) throws IOException
+    {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(readFully(new FileInputStream(cacheFile))));
+        if (input.readInt() != CACHE_MAGIC)
+        {
+            throw new IOException("Invalid cache file.");
+        }
+        Map<String, Map<String, Map<String, URL>>> leagues = new LinkedHashMap<String, Map<String, Map<String, URL>>>();
+        int leagueCount = input.readInt();
+        for (int i = 0; i < leagueCount; i++)
+        {
+            Map<String, Map<String, URL>> divisions = new LinkedHashMap<String, Map<String, URL>>();
+            leagues.put(input.readUTF(), divisions);
+            int divisionCount = input.readInt();
+            for (int j = 0; j < divisionCount; j++)
+            {
+                Map<String, URL> seasons = new LinkedHashMap<String, URL>();
+                divisions.put(input.readUTF(), seasons);
+                int seasonCount = input.readInt();
+                for (int k = 0; k < seasonCount; k++)
+                {
+                    seasons.put(input.readUTF(), new URL(input.readUTF()));
+                }
+            }
+        }
+        return leagues;
+    }
+
+
+    /**
+     * Writes the cache to a temporary file first so that a partially-written cache is
+     * never read.  Failure to write the cache is not an error, the configuration will
+     * just be parsed again next time.
+     */
+    private static void writeCache(Map<String, Map<String, Map<String, URL>>> leagues, File cacheFile)
+    {
+        File tempFile = new File(cacheFile.getParentFile(), cacheFile.getName() + ".tmp");
+        try
+        {
+            DataOutputStream output = new DataOutputStream(new FileOutputStream(tempFile));
+            try
+            {
+                output.writeInt(CACHE_MAGIC);
+                output.writeInt(leagues.size());
+                for (Map.Entry<String, Map<String, Map<String, URL>>> league : leagues.entrySet())
+                {
+                    output.writeUTF(league.getKey());
+                    output.writeInt(league.getValue().size());
+                    for (Map.Entry<String, Map<String, URL>> division : league.getValue().entrySet())
+                    {
+                        output.writeUTF(division.getKey());
+                        output.writeInt(division.getValue().size());
+                        for (Map.Entry<String, URL> season : division.getValue().entrySet())
+                        {
+                            output.writeUTF(season.getKey());
+                            output.writeUTF(season.getValue().toString());
+                        }
+                    }
+                }
+            }
+            finally
+            {
+                output.close();
+            }
+            cacheFile.delete();
+            if (!tempFile.renameTo(cacheFile))
+            {
+                tempFile.delete();
+            }
+        }
+        catch (IOException ex)
+        {
+            tempFile.delete();
+        }
+    }
+}
@@ -0,0 +1,346 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.swing;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.zip.CRC32;
+import javax.swing.SwingUtilities;
+import net.footballpredictions.footballstats.data.LeagueDataDiff;
+import net.footballpredictions.footballstats.data.LeagueDataProvider;
+import net.footballpredictions.footballstats.data.RLTDataProvider;
+import net.footballpredictions.footballstats.model.LeagueMetaData;
+import net.footballpredictions.footballstats.model.LeagueSeason;
+import net.footballpredictions.footballstats.model.Result;
+
+/**
+ * Watches the RLT data files that have been loaded through it and, when one changes,
+ * brings the corresponding {@link LeagueSeason} up-to-date and notifies any registered
+ * {@link DataListener}s (on the Event Dispatch Thread).  When results have simply been
+ * appended to the end of a file, only the new lines are parsed and they are added to
+ * the existing season with {@link LeagueSeason#addResults(java.util.Collection)}.  Any
+ * other change causes the whole file to be re-read and compared with the existing data
+ * (see {@link LeagueDataDiff}) so that only the differences need to be applied.
+ *
+ * <p>Files are checked by polling their size and modification time, which works on
+ * all platforms and Java versions and is cheap for the small number of files that are
+ * likely to be loaded at any one time.</p>
+ * @author Daniel Dyer
+ */
+public final class DataFileWatcher
+{
+    private final Map<File, WatchedFile> files = new HashMap<File, WatchedFile>();
+    private Timer timer;
+
+
+    /**
+     * Loads a season from an (uncompressed) RLT file and starts watching the file for
+     * changes.
+     * @param file The data file.
+     * @return The season data.
+     * @throws IOException If the file cannot be read or is invalid.
+     */
+    public LeagueSeason load(File file) throws IOException
+    {
+        byte[] content = readFile(file);
+        LeagueSeason season = new LeagueSeason(new RLTDataProvider(new ByteArrayInputStream(content), file.getPath()));
+        getWatchedFile(file).update(season, content, file.lastModified());
+        return season;
+    }
+
+
+    /**
+     * Registers a listener to be notified whenever the specified file changes.
+     */
+    public void addDataListener(File file, DataListener listener)
+    {
+        getWatchedFile(file).listeners.add(listener);
+    }
+
+
+    public void removeDataListener(File file, DataListener listener)
+    {
+        getWatchedFile(file).listeners.remove(listener);
+    }
+
+
+    private WatchedFile getWatchedFile(File file)
+    {
+        synchronized (files)
+        {
+            WatchedFile watchedFile = files.get(file);
+            if (watchedFile == null)
+            {
+                watchedFile = new WatchedFile(file);
+                files.put(file, watchedFile);
+            }
+            return watchedFile;
+        }
+    }
+
+
+    /**
+     * Starts checking for changes periodically on a background thread.
+     * @param pollInterval The time between checks, in milliseconds.
+     */
+    public synchronized void start(long pollInterval)
+    {
+        stop();
+        timer = new Timer("DataFileWatcher", true);
+        timer.schedule(new TimerTask()
+        {
+            public void run()
+            {
+                checkForUpdates();
+            }
+        }, pollInterval, pollInterval);
+    }
+
+
+    public synchronized void stop()
+    {
+        if (timer != null)
+        {
+            timer.cancel();
+            timer = null;
+        }
+    }
+
+
+    /**
+     * Checks all watched files for changes and updates any that have changed.  This is
+     * invoked periodically once the watcher has been started but may also be invoked
+     * directly.
+     */
+    public void checkForUpdates()
+    {
+        List<WatchedFile> watchedFiles;
+        synchronized (files)
+        {
+            watchedFiles = new ArrayList<WatchedFile>(files.values());
+        }
+        for (WatchedFile watchedFile : watchedFiles)
+        {
+            try
+            {
+                watchedFile.checkForUpdates();
+            }
+            catch (IOException ex)
+            {
+                // Probably caught the file part-way through being written.  Leave the
+                // current data in place and try again next time.
+                ex.printStackTrace();
+            }
+            catch (RuntimeException ex)
+            {
+                ex.printStackTrace();
+            }
+        }
+    }
+
+
+    private static byte[] readFile(File file) throws IOException
+    {
+        InputStream input = new FileInputStream(file);
+        try
+        {
+            byte[] content = new byte[(int) file.length()];
+            int offset = 0;
+            int count = input.read(content);
+            while (count > 0)
+            {
+                offset += count;
+                count = offset < content.length ? input.read(content, offset, content.length - offset) : -1;
+            }
+            if (offset < content.length)
+            {
+                byte[] truncated = new byte[offset];
+                System.arraycopy(content, 0, truncated, 0, offset);
+                return truncated;
+            }
+            return content;
+        }
+        finally
+        {
+            input.close();
+        }
+    }
+
+
+    private static long checksum(byte[] content, int length)
+    {
+        CRC32 checksum = new CRC32();
+        checksum.update(content, 0, length);
+        return checksum.getValue();
+    }
+
+
+    /**
+     * Presents a season as the data that it was built from, so that it can be compared
+     * with updated data.
+     */
+    private static final class SeasonData implements LeagueDataProvider
+    {
+        private final LeagueSeason season;
+
+        SeasonData(LeagueSeason season)
+        {
+            this.season = season;
+        }
+
+
+        public SortedSet<String> getTeams()
+        {
+            return season.getTeamNames();
+        }
+
+
+        public List<Result> getResults()
+        {
+            return season.getResults();
+        }
+
+
+        public Map<String, Integer> getPointsAdjustments()
+        {
+            return season.getPointsAdjustments();
+        }
+
+
+        public LeagueMetaData getLeagueMetaData()
+        {
+            return season.getMetaData();
+        }
+    }
+
+
+    /**
+     * The state of a single watched file, as of the last time that it was read.
+     */
+    private static final class WatchedFile
+    {
+        private final File file;
+        private final Set<DataListener> listeners = new CopyOnWriteArraySet<DataListener>();
+
+        private LeagueSeason season;
+        private int length;
+        private long lastModified;
+        private long checksum;
+
+
+        WatchedFile(File file)
+        {
+            this.file = file;
+        }
+
+
+        synchronized void update(LeagueSeason season, byte[] content, long lastModified)
+        {
+            this.season = season;
+            this.length = content.length;
+            this.lastModified = lastModified;
+            this.checksum = DataFileWatcher.checksum(content, content.length);
+        }
+
+
+        void checkForUpdates() throws IOException
+        {
+            LeagueSeason updatedSeason;
+            synchronized (this)
+            {
+                if (season == null || (file.lastModified() == lastModified && file.length() == length))
+                {
+                    return;
+                }
+                long modified = file.lastModified();
+                byte[] content = readFile(file);
+                updatedSeason = appendResults(content);
+                if (updatedSeason == null)
+                {
+                    LeagueDataProvider newData = new RLTDataProvider(new ByteArrayInputStream(content), file.getPath());
+                    updatedSeason = season.applyChanges(new LeagueDataDiff(new SeasonData(season), newData));
+                }
+                if (updatedSeason == season)
+                {
+                    update(season, content, modified);
+                    return; // Nothing that affects the season has changed (e.g. only comments).
+                }
+                update(updatedSeason, content, modified);
+            }
+            notifyListeners(updatedSeason);
+        }
+
+
+        /**
+         * @return The updated season, or null if the change is not just the addition
+         * of new results at the end of the file.
+         */
+        private LeagueSeason appendResults(byte[] content)
+        {
+            boolean appended = length > 0
+                               && content.length > length
+                               && content[length - 1] == '\n'
+                               && DataFileWatcher.checksum(content, length) == checksum;
+            if (appended)
+            {
+                try
+                {
+                    InputStream tail = new ByteArrayInputStream(content, length, content.length - length);
+                    List<Result> newResults = RLTDataProvider.parseResults(tail);
+                    return newResults.isEmpty() ? season : season.addResults(newResults);
+                }
+                catch (IOException ex)
+                {
+                    // The new lines are not just results, so the whole file must be read.
+                }
+                catch (IllegalArgumentException ex)
+                {
+                    // A result for a new team, so the whole file must be read.
+                }
+            }
+            return null;
+        }
+
+
+        private void notifyListeners(final LeagueSeason updatedSeason)
+        {
+            SwingUtilities.invokeLater(new Runnable()
+            {
+                public void run()
+                {
+                    for (DataListener listener : listeners)
+                    {
+                        DataListeners.setLeagueData(listener, updatedSeason);
+                    }
+                }
+            });
+        }
+    }
+}
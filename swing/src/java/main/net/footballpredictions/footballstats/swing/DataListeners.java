@@ -0,0 +1,54 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.swing;
+
+import net.footballpredictions.footballstats.metrics.EventRecorder;
+import net.footballpredictions.footballstats.metrics.MetricRegistry;
+import net.footballpredictions.footballstats.metrics.Timer;
+import net.footballpredictions.footballstats.model.LeagueSeason;
+
+/**
+ * Notifies {@link DataListener}s of new data, recording the time that each type of
+ * listener takes to update itself.
+ * @author Daniel Dyer
+ */
+final class DataListeners
+{
+    private DataListeners()
+    {
+        // Prevents instantiation of utility class.
+    }
+
+
+    /**
+     * Passes the data to the listener and records the time taken in a timer named after
+     * the listener's class (e.g. "swing.setLeagueData.LeagueTablePanel").  A panel refresh
+     * event is also recorded.
+     */
+    static void setLeagueData(DataListener listener, LeagueSeason data)
+    {
+        String className = listener.getClass().getName();
+        String listenerName = className.substring(className.lastIndexOf('.') + 1);
+        Timer timer = MetricRegistry.getInstance().getTimer("swing.setLeagueData." + listenerName);
+        long startTime = timer.start();
+        EventRecorder.Span span = EventRecorder.getInstance().startPanelRefresh(listenerName);
+        listener.setLeagueData(data);
+        span.finish();
+        timer.stop(startTime);
+    }
+}
@@ -22,30 +22,20 @@ import java.awt.FlowLayout;
 import java.awt.Container;
 import java.awt.event.ItemEvent;
 import java.awt.event.ItemListener;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.zip.GZIPInputStream;
 import javax.swing.JComboBox;
 import javax.swing.JPanel;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathExpression;
-import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 import net.footballpredictions.footballstats.data.RLTDataProvider;
 import net.footballpredictions.footballstats.model.LeagueSeason;
-import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
 
 /**
  * Set of combo-boxes for selecting a data file to load.
@@ -61,6 +51,17 @@ public class DataSelector extends JPanel
 
     private final Set<DataListener> listeners = Collections.synchronizedSet(new HashSet<DataListener>());
 
+    // Forwards updates to the currently selected data file (if it is being watched).
+    private final DataListener watchListener = new DataListener()
+    {
+        public void setLeagueData(LeagueSeason data)
+        {
+            notifyListeners(data);
+        }
+    };
+    private DataFileWatcher watcher;
+    private File watchedFile;
+
 
     public DataSelector()
     {
@@ -101,73 +102,29 @@ public class DataSelector extends JPanel
     public void loadConfig(InputStream configStream,
                            URL baseURL) throws IOException
     {
-        try
-        {
-            Map<String, Map<String, Map<String, URL>>> leagues = new LinkedHashMap<String, Map<String, Map<String, URL>>>();
-
-            DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
-            domFactory.setNamespaceAware(true);
-            Document document = domFactory.newDocumentBuilder().parse(configStream);
+        loadConfig(configStream, baseURL, null);
+    }
 
-            XPathFactory factory = XPathFactory.newInstance();
-            XPath xpath = factory.newXPath();
-            XPathExpression leaguesQuery = xpath.compile("//league");
-            XPathExpression divisionQuery = xpath.compile("./division");
-            XPathExpression seasonQuery = xpath.compile("./season");
 
-            NodeList leagueNodes = (NodeList) leaguesQuery.evaluate(document, XPathConstants.NODESET);
-            for (int i = 0; i < leagueNodes.getLength(); i++)
-            {
-                Node leagueNode = leagueNodes.item(i);
-                NodeList divisionNodes = (NodeList) divisionQuery.evaluate(leagueNode, XPathConstants.NODESET);
-                Map<String, Map<String, URL>> divisions = new LinkedHashMap<String, Map<String, URL>>();
-                leagues.put(getAttribute(leagueNode, "name"), divisions);
-                for (int j = 0; j < divisionNodes.getLength(); j++)
-                {
-                    Node divisionNode = divisionNodes.item(j);
-                    NodeList seasonNodes = (NodeList) seasonQuery.evaluate(divisionNode, XPathConstants.NODESET);
-                    Map<String, URL> seasons = new LinkedHashMap<String, URL>();
-                    divisions.put(getAttribute(divisionNode, "name"), seasons);
-                    for (int k = 0; k < seasonNodes.getLength(); k++)
-                    {
-                        Node seasonNode = seasonNodes.item(k);
-                        seasons.put(getAttribute(seasonNode, "name"), new URL(baseURL, getAttribute(seasonNode, "href")));
-                    }
-                }
-            }
-            this.leagues = leagues;
+    /**
+     * @param configStream An {@link InputStream} from which the XML config is read.
+     * @param cacheDirectory A directory in which to cache the parsed configuration, or
+     * null for no caching (see {@link ConfigLoader}).
+     */
+    public void loadConfig(InputStream configStream,
+                           URL baseURL,
+                           File cacheDirectory) throws IOException
+    {
+        this.leagues = new ConfigLoader(cacheDirectory).load(configStream, baseURL);
 
-            leagueCombo.removeAllItems();
-            for (String league : leagues.keySet())
-            {
-                leagueCombo.addItem(league);
-            }
-        }
-        catch (ParserConfigurationException ex)
-        {
-            throw new ConfigurationException("XML parsing error.", ex);
-        }
-        catch (XPathExpressionException ex)
-        {
-            throw new ConfigurationException("XML parsing error.", ex);
-        }
-        catch (SAXException ex)
-        {
-            throw new ConfigurationException("XML parsing error.", ex);
-        }
-        finally
+        leagueCombo.removeAllItems();
+        for (String league : leagues.keySet())
         {
-            configStream.close();
+            leagueCombo.addItem(league);
         }
     }
 
 
-    private static String getAttribute(Node node, String name)
-    {
-        return node.getAttributes().getNamedItem(name).getTextContent();
-    }
-
-
     private void prepareComboListeners()
     {
         // When the selected league changes, update the divisions combo.
@@ -222,32 +179,40 @@ public class DataSelector extends JPanel
                     {
                         topLevelContainer.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
                     }
+                    final File dataFile = watcher == null ? null : getWatchableFile(dataURL);
                     new SwingBackgroundTask<LeagueSeason>()
                     {
                         protected LeagueSeason performTask() throws Exception
                         {
+                            if (dataFile != null)
+                            {
+                                return watcher.load(dataFile);
+                            }
                             InputStream inputStream = dataURL.openStream();
                             // We can also handle GZipped RLT files.
                             if (dataURL.getFile().endsWith(".gz"))
                             {
                                 inputStream = new GZIPInputStream(inputStream);
                             }
-                            return new LeagueSeason(new RLTDataProvider(inputStream));
+                            return new LeagueSeason(new RLTDataProvider(inputStream, dataURL.toString()));
                         }
 
                         @Override
                         protected void postProcessing(LeagueSeason data)
                         {
-                            synchronized (listeners)
+                            if (watchedFile != null)
+                            {
+                                watcher.removeDataListener(watchedFile, watchListener);
+                            }
+                            watchedFile = dataFile;
+                            if (watchedFile != null)
+                            {
+                                watcher.addDataListener(watchedFile, watchListener);
+                            }
+                            notifyListeners(data);
+                            if (topLevelContainer != null)
                             {
-                                for (DataListener listener : listeners)
-                                {
-                                    listener.setLeagueData(data);
-                                }
-                                if (topLevelContainer != null)
-                                {
-                                    getTopLevelAncestor().setCursor(null);
-                                }
+                                getTopLevelAncestor().setCursor(null);
                             }
                         }
                     }.execute();
@@ -257,6 +222,56 @@ public class DataSelector extends JPanel
     }
 
 
+    /**
+     * @return The file for a data URL if it can be watched for changes (only local,
+     * uncompressed files can), otherwise null.
+     */
+    private static File getWatchableFile(URL dataURL)
+    {
+        if (dataURL.getProtocol().equals("file") && !dataURL.getFile().endsWith(".gz"))
+        {
+            try
+            {
+                return new File(dataURL.toURI());
+            }
+            catch (URISyntaxException ex)
+            {
+                return null;
+            }
+        }
+        return null;
+    }
+
+
+    private void notifyListeners(LeagueSeason data)
+    {
+        synchronized (listeners)
+        {
+            for (DataListener listener : listeners)
+            {
+                DataListeners.setLeagueData(listener, data);
+            }
+        }
+    }
+
+
+    /**
+     * Sets a watcher that is used to load local data files so that the selected season is
+     * updated automatically when its data file changes.  The watcher must be started
+     * separately.
+     * @param watcher The watcher to use, or null to load files without watching them.
+     */
+    public void setWatcher(DataFileWatcher watcher)
+    {
+        if (watchedFile != null)
+        {
+            this.watcher.removeDataListener(watchedFile, watchListener);
+            watchedFile = null;
+        }
+        this.watcher = watcher;
+    }
+
+
     public void addDataListener(DataListener listener)
     {
         listeners.add(listener);
@@ -0,0 +1,186 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.swing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.jfree.data.DomainInfo;
+import org.jfree.data.DomainOrder;
+import org.jfree.data.Range;
+import org.jfree.data.xy.AbstractXYDataset;
+
+/**
+ * An {@link org.jfree.data.xy.XYDataset} that presents downsampled views of
+ * {@link SeriesPyramid}s so that the number of points drawn depends on the
+ * visible range and the width of the plot rather than on the length of the series.
+ * The domain bounds reported are always those of the full series, so that auto-ranging
+ * is not affected by the current level of detail.
+ * @author Daniel Dyer
+ */
+class DownsampledXYDataset extends AbstractXYDataset implements DomainInfo
+{
+    private static final long serialVersionUID = -5497577178049644758L;
+
+    private List<SeriesPyramid> series = Collections.emptyList();
+    private int[][] visiblePoints = new int[0][];
+
+    private double lower = Double.NEGATIVE_INFINITY;
+    private double upper = Double.POSITIVE_INFINITY;
+    private int maxPoints = Integer.MAX_VALUE;
+
+    /**
+     * Replaces all of the series in this dataset and notifies listeners.
+     */
+    public void setSeries(List<SeriesPyramid> series)
+    {
+        this.series = new ArrayList<SeriesPyramid>(series);
+        updateVisiblePoints();
+        fireDatasetChanged();
+    }
+
+
+    /**
+     * Changes the level of detail.  Listeners are only notified if the view has changed.
+     * @param lower The lowest visible x value.
+     * @param upper The highest visible x value.
+     * @param maxPoints The maximum number of points to draw for each series in the
+     * visible range.
+     */
+    public void setDetail(double lower, double upper, int maxPoints)
+    {
+        if (lower != this.lower || upper != this.upper || maxPoints != this.maxPoints)
+        {
+            this.lower = lower;
+            this.upper = upper;
+            this.maxPoints = maxPoints;
+            updateVisiblePoints();
+            fireDatasetChanged();
+        }
+    }
+
+
+    private void updateVisiblePoints()
+    {
+        visiblePoints = new int[series.size()][];
+        for (int i = 0; i < visiblePoints.length; i++)
+        {
+            visiblePoints[i] = series.get(i).getVisiblePoints(lower, upper, maxPoints);
+        }
+    }
+
+
+    @Override
+    public int getSeriesCount()
+    {
+        return series.size();
+    }
+
+
+    @Override
+    public Comparable<String> getSeriesKey(int seriesIndex)
+    {
+        return series.get(seriesIndex).getKey();
+    }
+
+
+    @Override
+    public DomainOrder getDomainOrder()
+    {
+        return DomainOrder.ASCENDING;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public int getItemCount(int seriesIndex)
+    {
+        return visiblePoints[seriesIndex].length;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public Number getX(int seriesIndex, int item)
+    {
+        return getXValue(seriesIndex, item);
+    }
+
+
+    @Override
+    public double getXValue(int seriesIndex, int item)
+    {
+        return series.get(seriesIndex).getX(visiblePoints[seriesIndex][item]);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public Number getY(int seriesIndex, int item)
+    {
+        return getYValue(seriesIndex, item);
+    }
+
+
+    @Override
+    public double getYValue(int seriesIndex, int item)
+    {
+        return series.get(seriesIndex).getY(visiblePoints[seriesIndex][item]);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public double getDomainLowerBound(boolean includeInterval)
+    {
+        double min = Double.NaN;
+        for (SeriesPyramid pyramid : series)
+        {
+            min = Double.isNaN(min) ? pyramid.getMinX() : Math.min(min, pyramid.getMinX());
+        }
+        return min;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public double getDomainUpperBound(boolean includeInterval)
+    {
+        double max = Double.NaN;
+        for (SeriesPyramid pyramid : series)
+        {
+            max = Double.isNaN(max) ? pyramid.getMaxX() : Math.max(max, pyramid.getMaxX());
+        }
+        return max;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public Range getDomainBounds(boolean includeInterval)
+    {
+        double min = getDomainLowerBound(includeInterval);
+        return Double.isNaN(min) ? null : new Range(min, getDomainUpperBound(includeInterval));
+    }
+}
@@ -17,6 +17,7 @@
 // ============================================================================
 package net.footballpredictions.footballstats.swing;
 
+import java.util.Arrays;
 import java.util.ResourceBundle;
 import net.footballpredictions.footballstats.model.LeagueSeason;
 import org.jfree.chart.ChartFactory;
@@ -34,34 +35,27 @@ import org.jfree.data.xy.XYSeriesCollection;
  */
 class GoalsGraph extends ChartPanel
 {
-    private final ResourceBundle messageResources;
+    private final XYSeriesCollection dataSet = new XYSeriesCollection();
+    private final SeriesCache<XYSeries[]> seriesCache;
 
-    public GoalsGraph(ResourceBundle messageResources)
+    public GoalsGraph(final ResourceBundle messageResources)
     {
         super(null, false, false, false, false, true);
-        this.messageResources = messageResources;
-    }
-
-
-    /**
-     * Plot goals scored and conceded against number of matches played.
-     */
-    public void updateGraph(String teamName, LeagueSeason data)
-    {
-        XYSeriesCollection dataSet = new XYSeriesCollection();
-
-        XYSeries forSeries = new XYSeries(teamName + ' ' + messageResources.getString("graphs.scored"));
-        XYSeries againstSeries = new XYSeries(teamName + ' ' + messageResources.getString("graphs.conceded"));
-
-        int[][] goals = data.getTeam(teamName).getGoalsData();
-        for (int i = 0; i < goals.length; i++)
+        this.seriesCache = new SeriesCache<XYSeries[]>()
         {
-            forSeries.add(i, goals[i][0]);
-            againstSeries.add(i, goals[i][1]);
-        }
-
-        dataSet.addSeries(forSeries);
-        dataSet.addSeries(againstSeries);
+            protected XYSeries[] createSeries(String teamName, LeagueSeason data)
+            {
+                XYSeries forSeries = new XYSeries(teamName + ' ' + messageResources.getString("graphs.scored"));
+                XYSeries againstSeries = new XYSeries(teamName + ' ' + messageResources.getString("graphs.conceded"));
+                int[][] goals = data.getTeam(teamName).getGoalsData();
+                for (int i = 0; i < goals.length; i++)
+                {
+                    forSeries.add(i, goals[i][0], false);
+                    againstSeries.add(i, goals[i][1], false);
+                }
+                return new XYSeries[]{forSeries, againstSeries};
+            }
+        };
 
         JFreeChart chart = ChartFactory.createXYLineChart(null, // Title
                                                           messageResources.getString("graphs.matches"),
@@ -73,8 +67,6 @@ class GoalsGraph extends ChartPanel
                                                           false); // URLs.
         chart.getXYPlot().getRangeAxis().setStandardTickUnits(NumberAxis.createIntegerTickUnits());
         chart.getXYPlot().getDomainAxis().setStandardTickUnits(NumberAxis.createIntegerTickUnits());
-        int max = Math.max(goals[goals.length - 1][0], goals[goals.length - 1][1]);
-        chart.getXYPlot().getRangeAxis().setRange(0, max + 1);
         XYDifferenceRenderer renderer = new XYDifferenceRenderer();
         renderer.setSeriesPaint(0, Colours.POSITIVE); // Green.
         renderer.setPositivePaint(Colours.POSITIVE_FILL); // Translucent green.
@@ -83,4 +75,44 @@ class GoalsGraph extends ChartPanel
         chart.getXYPlot().setRenderer(renderer);
         setChart(chart);
     }
+
+
+    /**
+     * Plot goals scored and conceded against number of matches played.
+     */
+    public void updateGraph(String teamName, LeagueSeason data)
+    {
+        showGraph(prepareGraph(teamName, data));
+    }
+
+
+    /**
+     * Generates the data for a graph without displaying it.  This method does not
+     * need to be invoked on the Event Dispatch Thread.
+     */
+    public GraphData<XYSeries> prepareGraph(String teamName, LeagueSeason data)
+    {
+        XYSeries[] goalsSeries = seriesCache.getSeries(teamName, data);
+        // Goals totals are cumulative so the last values are the highest.
+        int last = goalsSeries[0].getItemCount() - 1;
+        int max = Math.max(goalsSeries[0].getY(last).intValue(), goalsSeries[1].getY(last).intValue());
+        return new GraphData<XYSeries>(Arrays.asList(goalsSeries), max);
+    }
+
+
+    /**
+     * Plots previously prepared data.  The chart is only re-drawn once, after both
+     * series have been replaced.
+     */
+    public void showGraph(GraphData<XYSeries> graphData)
+    {
+        getChart().setNotify(false);
+        dataSet.removeAllSeries();
+        for (XYSeries series : graphData.getSeries())
+        {
+            dataSet.addSeries(series);
+        }
+        getChart().getXYPlot().getRangeAxis().setRange(0, graphData.getMaxValue() + 1);
+        getChart().setNotify(true);
+    }
 }
@@ -0,0 +1,54 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.swing;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The series to be plotted on a graph, prepared ready for display.
+ * @param <S> The type of data series.
+ * @author Daniel Dyer
+ */
+final class GraphData<S>
+{
+    private final List<S> series;
+    private final int maxValue;
+
+    /**
+     * @param series The series to plot, in order.
+     * @param maxValue The highest value to be shown on the range axis.
+     */
+    public GraphData(List<S> series, int maxValue)
+    {
+        this.series = Collections.unmodifiableList(series);
+        this.maxValue = maxValue;
+    }
+
+
+    public List<S> getSeries()
+    {
+        return series;
+    }
+
+
+    public int getMaxValue()
+    {
+        return maxValue;
+    }
+}
@@ -32,6 +32,7 @@ import javax.swing.ListSelectionModel;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
 import net.footballpredictions.footballstats.model.LeagueSeason;
+import org.jfree.data.xy.XYSeries;
 import org.jfree.ui.RectangleEdge;
 
 /**
@@ -47,6 +48,7 @@ public class GraphsPanel extends JPanel implements DataListener
     private final CardLayout chartsLayout = new CardLayout();
     private final JPanel chartsPanel = new JPanel(chartsLayout);
     private final JList teamsList = new JList();
+    private final UpdatePipeline pipeline = new UpdatePipeline("Graphs");
     private EnumComboBox<GraphType> graphTypeCombo;
     private LeaguePositionGraph leaguePositionGraph;
     private PointsGraph pointsGraph;
@@ -124,20 +126,47 @@ public class GraphsPanel extends JPanel implements DataListener
 
     /**
      * Updates the graph in response to a change in the selected graph type or selected
-     * team(s).
+     * team(s).  The graph data is generated on a background thread.
      */
     private void changeGraph()
     {
-        GraphType type = (GraphType) graphTypeCombo.getSelectedItem();
+        final GraphType type = (GraphType) graphTypeCombo.getSelectedItem();
+        final LeagueSeason season = data;
         if (type == GraphType.LEAGUE_POSITION)
         {
             teamsList.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
-            leaguePositionGraph.updateGraph(teamsList.getSelectedValues(), data);
+            final Object[] teams = teamsList.getSelectedValues();
+            pipeline.submit(new UpdatePipeline.Update<GraphData<SeriesPyramid>>()
+            {
+                protected GraphData<SeriesPyramid> prepare()
+                {
+                    return leaguePositionGraph.prepareGraph(teams, season);
+                }
+
+                protected void display(GraphData<SeriesPyramid> graphData)
+                {
+                    leaguePositionGraph.showGraph(graphData);
+                    chartsLayout.show(chartsPanel, type.name());
+                }
+            });
         }
         else if (type == GraphType.POINTS)
         {
             teamsList.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
-            pointsGraph.updateGraph(teamsList.getSelectedValues(), data);
+            final Object[] teams = teamsList.getSelectedValues();
+            pipeline.submit(new UpdatePipeline.Update<GraphData<XYSeries>>()
+            {
+                protected GraphData<XYSeries> prepare()
+                {
+                    return pointsGraph.prepareGraph(teams, season);
+                }
+
+                protected void display(GraphData<XYSeries> graphData)
+                {
+                    pointsGraph.showGraph(graphData);
+                    chartsLayout.show(chartsPanel, type.name());
+                }
+            });
         }
         else if (type == GraphType.GOALS)
         {
@@ -146,8 +175,20 @@ public class GraphsPanel extends JPanel implements DataListener
             // If there is more than one selected already, change the selection so that
             // only the first one is selected.
             teamsList.setSelectedIndex(teamsList.getSelectedIndex());
-            goalsGraph.updateGraph((String) teamsList.getSelectedValue(), data);
+            final String teamName = (String) teamsList.getSelectedValue();
+            pipeline.submit(new UpdatePipeline.Update<GraphData<XYSeries>>()
+            {
+                protected GraphData<XYSeries> prepare()
+                {
+                    return goalsGraph.prepareGraph(teamName, season);
+                }
+
+                protected void display(GraphData<XYSeries> graphData)
+                {
+                    goalsGraph.showGraph(graphData);
+                    chartsLayout.show(chartsPanel, type.name());
+                }
+            });
         }
-        chartsLayout.show(chartsPanel, type.name());
     }
 }
@@ -21,53 +21,46 @@ import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.axis.NumberAxis;
-import org.jfree.data.time.TimeSeriesCollection;
-import org.jfree.data.time.TimeSeries;
-import org.jfree.data.time.Day;
+import org.jfree.chart.axis.ValueAxis;
+import org.jfree.chart.event.AxisChangeEvent;
+import org.jfree.chart.event.AxisChangeListener;
 import org.jfree.ui.RectangleEdge;
-import java.util.Date;
-import java.util.SortedMap;
-import java.util.Map;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.ResourceBundle;
 import net.footballpredictions.footballstats.model.LeagueSeason;
+import net.footballpredictions.footballstats.util.EpochDays;
+import net.footballpredictions.footballstats.util.PositionHistory;
 
 /**
- * Plot league positions by date for one or more teams.
+ * Plot league positions by date for one or more teams.  Long series are downsampled to
+ * match the width of the plot, and more detail is shown when the user zooms in.
  * @author Daniel Dyer
  */
 class LeaguePositionGraph extends ChartPanel
 {
-    private final ResourceBundle messageResources;
-    private final RectangleEdge legendPosition;
-
-    public LeaguePositionGraph(ResourceBundle messageResources, RectangleEdge legendPosition)
+    private final DownsampledXYDataset dataSet = new DownsampledXYDataset();
+    private final SeriesCache<SeriesPyramid> seriesCache = new SeriesCache<SeriesPyramid>()
     {
-        super(null, false, false, false, false, true);
-        this.messageResources = messageResources;
-        this.legendPosition = legendPosition;
-    }
-
-
-    /**
-     * Plot league positions by date.
-     */
-    public void updateGraph(Object[] teams, LeagueSeason data)
-    {
-        assert teams.length > 0 : "Must be at least one team selected.";
-        TimeSeriesCollection dataSet = new TimeSeriesCollection();
-        for (Object team : teams)
+        protected SeriesPyramid createSeries(String teamName, LeagueSeason data)
         {
-            String teamName = (String) team;
-            TimeSeries positionSeries = new TimeSeries(teamName);
-
-            SortedMap<Date, Integer> positions = data.getTeam(teamName).getLeaguePositions();
-            for (Map.Entry<Date, Integer> entry : positions.entrySet())
+            PositionHistory positions = data.getTeam(teamName).getLeaguePositions();
+            double[] x = new double[positions.size()];
+            double[] y = new double[positions.size()];
+            for (int i = 0; i < positions.size(); i++)
             {
-                positionSeries.add(new Day(entry.getKey()), entry.getValue());
+                x[i] = EpochDays.toDate(data.getDate(i)).getTime();
+                y[i] = positions.get(i);
             }
-            dataSet.addSeries(positionSeries);
+            return new SeriesPyramid(teamName, x, y);
         }
+    };
 
+    public LeaguePositionGraph(ResourceBundle messageResources, RectangleEdge legendPosition)
+    {
+        super(null, false, false, false, true, true); // Zooming enabled.
         JFreeChart chart = ChartFactory.createTimeSeriesChart(null, // Title
                                                               messageResources.getString("graphs.date"),
                                                               messageResources.getString("combo.GraphType.LEAGUE_POSITION"),
@@ -77,8 +70,74 @@ class LeaguePositionGraph extends ChartPanel
                                                               false); // URLs.
         chart.getXYPlot().getRangeAxis().setInverted(true);
         chart.getXYPlot().getRangeAxis().setStandardTickUnits(NumberAxis.createIntegerTickUnits());
-        chart.getXYPlot().getRangeAxis().setRangeWithMargins(1, data.getTeamNames().size());
         chart.getLegend().setPosition(legendPosition);
         setChart(chart);
+
+        // Re-select the level of detail when the visible date range or the size changes.
+        chart.getXYPlot().getDomainAxis().addChangeListener(new AxisChangeListener()
+        {
+            public void axisChanged(AxisChangeEvent axisChangeEvent)
+            {
+                updateDetail();
+            }
+        });
+        addComponentListener(new ComponentAdapter()
+        {
+            @Override
+            public void componentResized(ComponentEvent componentEvent)
+            {
+                updateDetail();
+            }
+        });
+    }
+
+
+    /**
+     * Plot league positions by date.
+     */
+    public void updateGraph(Object[] teams, LeagueSeason data)
+    {
+        showGraph(prepareGraph(teams, data));
+    }
+
+
+    /**
+     * Generates the data for a graph without displaying it.  This method does not
+     * need to be invoked on the Event Dispatch Thread.
+     */
+    public GraphData<SeriesPyramid> prepareGraph(Object[] teams, LeagueSeason data)
+    {
+        assert teams.length > 0 : "Must be at least one team selected.";
+        List<SeriesPyramid> series = new ArrayList<SeriesPyramid>(teams.length);
+        for (Object team : teams)
+        {
+            series.add(seriesCache.getSeries((String) team, data));
+        }
+        return new GraphData<SeriesPyramid>(series, data.getTeamNames().size());
+    }
+
+
+    /**
+     * Plots previously prepared data.  The chart is only re-drawn once, after all of the
+     * series have been replaced.
+     */
+    public void showGraph(GraphData<SeriesPyramid> graphData)
+    {
+        getChart().setNotify(false);
+        dataSet.setSeries(graphData.getSeries());
+        getChart().getXYPlot().getRangeAxis().setRangeWithMargins(1, graphData.getMaxValue());
+        updateDetail();
+        getChart().setNotify(true);
+    }
+
+
+    /**
+     * Selects the points to plot for the current date range so that there is no more
+     * than about one point per pixel for each team.
+     */
+    private void updateDetail()
+    {
+        ValueAxis dateAxis = getChart().getXYPlot().getDomainAxis();
+        dataSet.setDetail(dateAxis.getLowerBound(), dateAxis.getUpperBound(), Math.max(getWidth(), 100));
     }
 }
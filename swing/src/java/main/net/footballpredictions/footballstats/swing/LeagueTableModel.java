@@ -18,8 +18,11 @@
 package net.footballpredictions.footballstats.swing;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
 import javax.swing.table.AbstractTableModel;
 import net.footballpredictions.footballstats.model.TeamRecord;
@@ -62,18 +65,89 @@ class LeagueTableModel extends AbstractTableModel
         "table.form"
     };
 
-    private final List<TeamRecord> teams;
+    private List<TeamRecord> teams;
     private final ResourceBundle messageResources;
 
     public LeagueTableModel(Collection<? extends TeamRecord> teams,
                             ResourceBundle messageResources)
     {
-        this.teams = new ArrayList<TeamRecord>(teams.size());
-        this.teams.addAll(teams);
+        this.teams = new ArrayList<TeamRecord>(teams);
         this.messageResources = messageResources;
     }
 
 
+    /**
+     * Replaces the rows of this model.  If the number of teams is unchanged, only
+     * the rows whose displayed values are different are reported as updated, so
+     * that the table and its column model do not need to be rebuilt.
+     * @param teams The records for the new table, in league table order.
+     * @return For each row in the old table, the row that the same team occupies in
+     * the new table, or -1 if the team is not in the new table.
+     */
+    public int[] setTeams(Collection<? extends TeamRecord> teams)
+    {
+        List<TeamRecord> oldTeams = this.teams;
+        this.teams = new ArrayList<TeamRecord>(teams);
+
+        Map<String, Integer> newRows = new HashMap<String, Integer>(this.teams.size() * 2);
+        for (int row = 0; row < this.teams.size(); row++)
+        {
+            newRows.put(this.teams.get(row).getName(), row);
+        }
+        int[] permutation = new int[oldTeams.size()];
+        for (int row = 0; row < oldTeams.size(); row++)
+        {
+            Integer newRow = newRows.get(oldTeams.get(row).getName());
+            permutation[row] = newRow == null ? -1 : newRow;
+        }
+
+        if (oldTeams.size() != this.teams.size())
+        {
+            fireTableDataChanged();
+        }
+        else
+        {
+            // Notify listeners of each contiguous block of changed rows.
+            int firstChanged = -1;
+            for (int row = 0; row <= this.teams.size(); row++)
+            {
+                boolean changed = row < this.teams.size() && !isSameRow(oldTeams.get(row), this.teams.get(row));
+                if (changed && firstChanged < 0)
+                {
+                    firstChanged = row;
+                }
+                else if (!changed && firstChanged >= 0)
+                {
+                    fireTableRowsUpdated(firstChanged, row - 1);
+                    firstChanged = -1;
+                }
+            }
+        }
+        return permutation;
+    }
+
+
+    /**
+     * @return True if the two records would be displayed identically in the same row.
+     */
+    private boolean isSameRow(TeamRecord oldTeam, TeamRecord newTeam)
+    {
+        if (oldTeam == newTeam)
+        {
+            return true;
+        }
+        Object[] oldValues = new Object[COLUMN_NAMES.length];
+        Object[] newValues = new Object[COLUMN_NAMES.length];
+        // The position column is the same for both so start at the next column.
+        for (int column = TEAM_COLUMN; column < COLUMN_NAMES.length; column++)
+        {
+            oldValues[column] = getValue(oldTeam, 0, column);
+            newValues[column] = getValue(newTeam, 0, column);
+        }
+        return Arrays.equals(oldValues, newValues);
+    }
+
+
     public int getRowCount()
     {
         return teams.size();
@@ -107,7 +181,12 @@ class LeagueTableModel extends AbstractTableModel
 
     public Object getValueAt(int row, int column)
     {
-        TeamRecord team = teams.get(row);
+        return getValue(teams.get(row), row, column);
+    }
+
+
+    private Object getValue(TeamRecord team, int row, int column)
+    {
         switch (column)
         {
             case POSITION_COLUMN: return row + 1;
@@ -21,6 +21,8 @@ import java.awt.BorderLayout;
 import java.awt.FlowLayout;
 import java.awt.event.ItemEvent;
 import java.awt.event.ItemListener;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.ResourceBundle;
 import javax.swing.JComponent;
 import javax.swing.JLabel;
@@ -29,7 +31,9 @@ import javax.swing.JScrollPane;
 import javax.swing.JTable;
 import javax.swing.table.TableColumn;
 import javax.swing.table.TableColumnModel;
+import net.footballpredictions.footballstats.model.LeagueMetaData;
 import net.footballpredictions.footballstats.model.LeagueSeason;
+import net.footballpredictions.footballstats.model.TeamRecord;
 import net.footballpredictions.footballstats.model.VenueType;
 
 /**
@@ -46,9 +50,17 @@ public class LeagueTablePanel extends JPanel implements DataListener
     private LeagueSeason data = null;
 
     private JTable leagueTable;
+    private LeagueTableModel tableModel;
+    private TableColumn averageColumn;
+    private TableColumn droppedColumn;
+    private TableColumn formColumn;
     private EnumComboBox<TableType> tableTypeCombo;
     private EnumComboBox<VenueType> venueCombo;
 
+    // Renderers only depend on the league metadata, so are only replaced when it changes.
+    private LeagueMetaData rendererMetaData = null;
+    private TableRenderer boldRenderer;
+
     
     /**
      * @param form If true, this panel displays a form table, otherwise it displays normal league tables.
@@ -68,6 +80,34 @@ public class LeagueTablePanel extends JPanel implements DataListener
     private JComponent createTable()
     {
         leagueTable = new StatisticsTable(messageResources);
+        tableModel = new LeagueTableModel(Collections.<TeamRecord>emptyList(), messageResources);
+        leagueTable.setModel(tableModel);
+        // The columns are configured once and only the row data changes after that.
+        leagueTable.setAutoCreateColumnsFromModel(false);
+
+        TableColumnModel columnModel = leagueTable.getColumnModel();
+        for (int i = 0; i < columnModel.getColumnCount(); i++)
+        {
+            TableColumn column = columnModel.getColumn(i);
+            // Team name column should be much wider than others (others should all be equal).
+            column.setPreferredWidth(i == LeagueTableModel.TEAM_COLUMN ? 125 : 10);
+        }
+
+        averageColumn = columnModel.getColumn(LeagueTableModel.AVERAGE_POINTS_COLUMN);
+        averageColumn.setPreferredWidth(30);
+        droppedColumn = columnModel.getColumn(LeagueTableModel.POINTS_DROPPED_COLUMN);
+        droppedColumn.setPreferredWidth(30);
+        formColumn = columnModel.getColumn(LeagueTableModel.FORM_COLUMN);
+        formColumn.setPreferredWidth(40);
+
+        // The form column is either always shown or never shown.  The others depend on
+        // the selected table type and are added when required.
+        if (!form)
+        {
+            columnModel.removeColumn(formColumn);
+        }
+        columnModel.removeColumn(averageColumn);
+        columnModel.removeColumn(droppedColumn);
         return new JScrollPane(leagueTable);
     }
 
@@ -119,56 +159,80 @@ public class LeagueTablePanel extends JPanel implements DataListener
     private void changeTable()
     {
         TableType type = form ? null : (TableType) tableTypeCombo.getSelectedItem();
-        
-        leagueTable.setModel(getTableModel(type, (VenueType) venueCombo.getSelectedItem()));
-        TableColumnModel columnModel = leagueTable.getColumnModel();
-        for (int i = 0; i < columnModel.getColumnCount(); i++)
+
+        updateRenderers(data.getMetaData());
+        updateColumns(type);
+
+        int selectedRow = leagueTable.getSelectedRow();
+        int[] permutation = tableModel.setTeams(getTableRecords(type, (VenueType) venueCombo.getSelectedItem()));
+        // Keep the same team selected, wherever it now appears in the table.
+        if (selectedRow >= 0 && selectedRow < permutation.length && permutation[selectedRow] >= 0)
         {
-            TableColumn column = columnModel.getColumn(i);
-            // Team name column should be much wider than others (others should all be equal).
-            column.setPreferredWidth(i == LeagueTableModel.TEAM_COLUMN ? 125 : 10);
+            leagueTable.getSelectionModel().setSelectionInterval(permutation[selectedRow], permutation[selectedRow]);
         }
-        
-        TableColumn averageColumn = columnModel.getColumn(LeagueTableModel.AVERAGE_POINTS_COLUMN);
-        averageColumn.setPreferredWidth(30);
-        TableColumn droppedColumn = columnModel.getColumn(LeagueTableModel.POINTS_DROPPED_COLUMN);
-        droppedColumn.setPreferredWidth(30);
-        TableColumn formColumn = columnModel.getColumn(LeagueTableModel.FORM_COLUMN);
-        formColumn.setPreferredWidth(40);
+    }
+
 
-        // Hide columns that aren't relevant for the selected table type.
+    /**
+     * Show or hide the columns that are only relevant for certain table types.
+     */
+    private void updateColumns(TableType type)
+    {
         if (!form)
         {
-            columnModel.removeColumn(formColumn);
-        }
-        if (type != TableType.POINTS_PER_GAME)
-        {
-            columnModel.removeColumn(averageColumn);
-        }
-        if (type != TableType.POINTS_DROPPED)
-        {
-            columnModel.removeColumn(droppedColumn);
+            TableColumnModel columnModel = leagueTable.getColumnModel();
+            // Optional columns always come last, so they can be appended when required.
+            TableColumn required = type == TableType.POINTS_PER_GAME ? averageColumn
+                                   : type == TableType.POINTS_DROPPED ? droppedColumn : null;
+            for (TableColumn column : new TableColumn[]{averageColumn, droppedColumn})
+            {
+                boolean visible = columnModel.getColumnCount() > LeagueTableModel.POINTS_COLUMN + 1
+                                  && columnModel.getColumn(LeagueTableModel.POINTS_COLUMN + 1) == column;
+                if (visible && column != required)
+                {
+                    columnModel.removeColumn(column);
+                }
+                else if (!visible && column == required)
+                {
+                    columnModel.addColumn(column);
+                }
+            }
+
+            // Render the most significant column with bold text.
+            columnModel.getColumn(LeagueTableModel.POINTS_COLUMN).setCellRenderer(type == TableType.POINTS_WON
+                                                                                  ? boldRenderer
+                                                                                  : null);
         }
+    }
+
 
-        TableRenderer renderer = new TableRenderer(data.getMetaData(), !form, false);
-        leagueTable.setDefaultRenderer(Object.class, renderer);
-        leagueTable.setDefaultRenderer(String.class, renderer);
-        leagueTable.setDefaultRenderer(Number.class, renderer);
-        leagueTable.setDefaultRenderer(Double.class, renderer);
-        TableColumn positionColumn = columnModel.getColumn(LeagueTableModel.POSITION_COLUMN);
-        positionColumn.setCellRenderer(new PositionRenderer(data.getMetaData(), !form));
-        TableColumn goalDifferenceColumn = columnModel.getColumn(LeagueTableModel.GOAL_DIFFERENCE_COLUMN);
-        goalDifferenceColumn.setCellRenderer(new GoalDifferenceRenderer(data.getMetaData(), !form));
-        formColumn.setCellRenderer(new FormRenderer(data.getMetaData(), !form));
-
-        // Render the most significant column with bold text.
-        TableRenderer boldRenderer = new TableRenderer(data.getMetaData(), !form, true);
-        if (type == TableType.POINTS_WON)
+    /**
+     * Create renderers for the specified metadata if they do not already exist.
+     */
+    private void updateRenderers(LeagueMetaData metaData)
+    {
+        if (metaData != rendererMetaData)
         {
-            columnModel.getColumn(LeagueTableModel.POINTS_COLUMN).setCellRenderer(boldRenderer);
+            TableRenderer renderer = new TableRenderer(metaData, !form, false);
+            leagueTable.setDefaultRenderer(Object.class, renderer);
+            leagueTable.setDefaultRenderer(String.class, renderer);
+            leagueTable.setDefaultRenderer(Number.class, renderer);
+            leagueTable.setDefaultRenderer(Double.class, renderer);
+            TableColumnModel columnModel = leagueTable.getColumnModel();
+            TableColumn positionColumn = columnModel.getColumn(LeagueTableModel.POSITION_COLUMN);
+            positionColumn.setCellRenderer(new PositionRenderer(metaData, !form));
+            TableColumn goalDifferenceColumn = columnModel.getColumn(LeagueTableModel.GOAL_DIFFERENCE_COLUMN);
+            goalDifferenceColumn.setCellRenderer(new GoalDifferenceRenderer(metaData, !form));
+            formColumn.setCellRenderer(new FormRenderer(metaData, !form));
+
+            boldRenderer = new TableRenderer(metaData, !form, true);
+            averageColumn.setCellRenderer(boldRenderer);
+            droppedColumn.setCellRenderer(boldRenderer);
+            rendererMetaData = metaData;
+            // Rows that have not changed won't be re-painted by the model, but the new
+            // metadata may change their colours.
+            leagueTable.repaint();
         }
-        averageColumn.setCellRenderer(boldRenderer);
-        droppedColumn.setCellRenderer(boldRenderer);
     }
 
 
@@ -176,21 +240,21 @@ public class LeagueTablePanel extends JPanel implements DataListener
      * Constructs a league table of the specified type.
      * @param type The type of table to create (standard, average points, or inverted).
      * @param where Whether to include just home matches, just away matches, or both.
-     * @return A {@link LeagueTableModel} containing an ordered set of team records.
+     * @return An ordered set of team records.
      */
-    private LeagueTableModel getTableModel(TableType type, VenueType where)
+    private Collection<? extends TeamRecord> getTableRecords(TableType type, VenueType where)
     {
         if (form)
         {
-            return new LeagueTableModel(data.getFormTable(where), messageResources);
+            return data.getFormTable(where);
         }
         else
         {
             switch (type)
             {
-                case POINTS_WON: return new LeagueTableModel(data.getStandardLeagueTable(where), messageResources);
-                case POINTS_PER_GAME: return new LeagueTableModel(data.getAverageLeagueTable(where), messageResources);
-                case POINTS_DROPPED: return new LeagueTableModel(data.getInvertedLeagueTable(where), messageResources);
+                case POINTS_WON: return data.getStandardLeagueTable(where);
+                case POINTS_PER_GAME: return data.getAverageLeagueTable(where);
+                case POINTS_DROPPED: return data.getInvertedLeagueTable(where);
                 default: throw new IllegalStateException("Unexpected venue type: " + where);
             }
         }
@@ -24,6 +24,8 @@ import org.jfree.chart.axis.NumberAxis;
 import org.jfree.chart.plot.PlotOrientation;
 import org.jfree.data.xy.XYSeriesCollection;
 import org.jfree.data.xy.XYSeries;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.ResourceBundle;
 import net.footballpredictions.footballstats.model.LeagueSeason;
 
@@ -33,37 +35,25 @@ import net.footballpredictions.footballstats.model.LeagueSeason;
  */
 class PointsGraph extends ChartPanel
 {
-    private final ResourceBundle messageResources;
-
-    public PointsGraph(ResourceBundle messageResources)
-    {
-        super(null, false, false, false, false, true);
-        this.messageResources = messageResources;
-    }
-
-
-    /**
-     * Plot points earned against number of matches played.
-     */
-    public void updateGraph(Object[] teams, LeagueSeason data)
+    private final XYSeriesCollection dataSet = new XYSeriesCollection();
+    private final SeriesCache<XYSeries> seriesCache = new SeriesCache<XYSeries>()
     {
-        assert teams.length > 0 : "Must be at least one team selected.";
-        XYSeriesCollection dataSet = new XYSeriesCollection();
-        int max = 0;
-        for (Object team : teams)
+        protected XYSeries createSeries(String teamName, LeagueSeason data)
         {
-            String teamName = (String) team;
             XYSeries pointsSeries = new XYSeries(teamName);
-
             int[] points = data.getTeam(teamName).getPointsData(data.getMetaData().getPointsForWin(),
                                                                 data.getMetaData().getPointsForDraw());
             for (int i = 0; i < points.length; i++)
             {
-                pointsSeries.add(i, points[i]);
+                pointsSeries.add(i, points[i], false);
             }
-            max = Math.max(max, points[points.length - 1]);
-            dataSet.addSeries(pointsSeries);
+            return pointsSeries;
         }
+    };
+
+    public PointsGraph(ResourceBundle messageResources)
+    {
+        super(null, false, false, false, false, true);
         JFreeChart chart = ChartFactory.createXYLineChart(null, // Title
                                                           messageResources.getString("graphs.matches"),
                                                           messageResources.getString("combo.GraphType.POINTS"),
@@ -74,7 +64,52 @@ class PointsGraph extends ChartPanel
                                                           false); // URLs.
         chart.getXYPlot().getRangeAxis().setStandardTickUnits(NumberAxis.createIntegerTickUnits());
         chart.getXYPlot().getDomainAxis().setStandardTickUnits(NumberAxis.createIntegerTickUnits());
-        chart.getXYPlot().getRangeAxis().setRange(0, max + 1);
         setChart(chart);
     }
+
+
+    /**
+     * Plot points earned against number of matches played.
+     */
+    public void updateGraph(Object[] teams, LeagueSeason data)
+    {
+        showGraph(prepareGraph(teams, data));
+    }
+
+
+    /**
+     * Generates the data for a graph without displaying it.  This method does not
+     * need to be invoked on the Event Dispatch Thread.
+     */
+    public GraphData<XYSeries> prepareGraph(Object[] teams, LeagueSeason data)
+    {
+        assert teams.length > 0 : "Must be at least one team selected.";
+        List<XYSeries> series = new ArrayList<XYSeries>(teams.length);
+        int max = 0;
+        for (Object team : teams)
+        {
+            XYSeries pointsSeries = seriesCache.getSeries((String) team, data);
+            // Points totals are cumulative so the last value is the highest.
+            max = Math.max(max, pointsSeries.getY(pointsSeries.getItemCount() - 1).intValue());
+            series.add(pointsSeries);
+        }
+        return new GraphData<XYSeries>(series, max);
+    }
+
+
+    /**
+     * Plots previously prepared data.  The chart is only re-drawn once, after all of the
+     * series have been replaced.
+     */
+    public void showGraph(GraphData<XYSeries> graphData)
+    {
+        getChart().setNotify(false);
+        dataSet.removeAllSeries();
+        for (XYSeries series : graphData.getSeries())
+        {
+            dataSet.addSeries(series);
+        }
+        getChart().getXYPlot().getRangeAxis().setRange(0, graphData.getMaxValue() + 1);
+        getChart().setNotify(true);
+    }
 }
@@ -24,7 +24,6 @@ import java.awt.event.ItemEvent;
 import java.awt.event.ItemListener;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.List;
 import java.util.ResourceBundle;
 import javax.swing.ButtonGroup;
@@ -43,6 +42,7 @@ import net.footballpredictions.footballstats.model.LeagueSeason;
 import net.footballpredictions.footballstats.model.Result;
 import net.footballpredictions.footballstats.model.Team;
 import net.footballpredictions.footballstats.model.VenueType;
+import net.footballpredictions.footballstats.util.EpochDays;
 
 /**
  * Displays lists of results (grouped either by team or by date).
@@ -62,6 +62,7 @@ public class ResultsPanel extends JPanel implements DataListener
     private JRadioButton teamOption;
     private JComboBox datesCombo = new JComboBox();
     private JComboBox teamsCombo = new JComboBox();
+    private final UpdatePipeline pipeline = new UpdatePipeline("Results");
 
     public ResultsPanel(ResourceBundle messageResources)
     {
@@ -155,9 +156,10 @@ public class ResultsPanel extends JPanel implements DataListener
     {
         this.data = data;
         datesCombo.removeAllItems();
-        for (Date date : data.getDates())
+        // Most recent date first.
+        for (int i = data.getDateCount() - 1; i >= 0; i--)
         {
-            datesCombo.addItem(date);
+            datesCombo.addItem(EpochDays.toDate(data.getDate(i)));
         }
         teamsCombo.removeAllItems();
         for (String teamName : data.getTeamNames())
@@ -168,56 +170,96 @@ public class ResultsPanel extends JPanel implements DataListener
     }
 
 
+    /**
+     * Updates the table in response to a change in the selected options.  The table
+     * model is built on a background thread.
+     */
     private void changeTables()
     {
+        final LeagueSeason season = data;
         if (dateOption.isSelected())
         {
-            List<Result> results = data.getResults((Date) datesCombo.getSelectedItem());
-            resultsTable.setModel(new DateResultsTableModel(results, messageResources));
-
-            TableColumnModel columnModel = resultsTable.getColumnModel();
-            
-            // Right-justify the home team column so that both home team and away team
-            // are lined-up against the score column.
-            TableColumn homeTeamColumn = columnModel.getColumn(DateResultsTableModel.HOME_TEAM_COLUMN);
-            homeTeamColumn.setCellRenderer(new TableRenderer()
+            final int dateIndex = data.getDateCount() - 1 - datesCombo.getSelectedIndex();
+            pipeline.submit(new UpdatePipeline.Update<DateResultsTableModel>()
             {
+                protected DateResultsTableModel prepare()
+                {
+                    return new DateResultsTableModel(season.getResults(dateIndex), messageResources);
+                }
 
-                @Override
-                public Component getTableCellRendererComponent(JTable table,
-                                                               Object value,
-                                                               boolean isSelected,
-                                                               boolean hasFocus,
-                                                               int row,
-                                                               int column)
+                protected void display(DateResultsTableModel model)
                 {
-                    JLabel component = (JLabel) super.getTableCellRendererComponent(table,
-                                                                                    value,
-                                                                                    isSelected,
-                                                                                    hasFocus,
-                                                                                    row,
-                                                                                    column);
-                    component.setHorizontalAlignment(JLabel.RIGHT);
-                    return component;
+                    showDateResults(model);
                 }
             });
-
-            homeTeamColumn.setPreferredWidth(160);
-            columnModel.getColumn(DateResultsTableModel.AWAY_TEAM_COLUMN).setPreferredWidth(160);
-            columnModel.getColumn(DateResultsTableModel.SCORE_COLUMN).setPreferredWidth(10);
         }
         else
         {
-            String teamName = (String) teamsCombo.getSelectedItem();
-            Team team = data.getTeam(teamName);
-            List<Result> results = team.getRecord((VenueType) venueCombo.getSelectedItem()).getResults();
-            resultsTable.setModel(new TeamResultsTableModel(results, team.getName(), messageResources));
-
-            TableColumnModel columnModel = resultsTable.getColumnModel();
-            columnModel.getColumn(TeamResultsTableModel.DATE_COLUMN).setPreferredWidth(50);
-            columnModel.getColumn(TeamResultsTableModel.OPPOSITION_COLUMN).setPreferredWidth(200);
-            columnModel.getColumn(TeamResultsTableModel.SCORE_COLUMN).setPreferredWidth(10);
-            columnModel.getColumn(TeamResultsTableModel.SCORE_COLUMN).setCellRenderer(new ScoreRenderer(teamName));
+            final String teamName = (String) teamsCombo.getSelectedItem();
+            final VenueType venue = (VenueType) venueCombo.getSelectedItem();
+            pipeline.submit(new UpdatePipeline.Update<TeamResultsTableModel>()
+            {
+                protected TeamResultsTableModel prepare()
+                {
+                    Team team = season.getTeam(teamName);
+                    List<Result> results = team.getRecord(venue).getResults();
+                    return new TeamResultsTableModel(results, team.getName(), messageResources);
+                }
+
+                protected void display(TeamResultsTableModel model)
+                {
+                    showTeamResults(model, teamName);
+                }
+            });
         }
     }
+
+
+    private void showDateResults(DateResultsTableModel model)
+    {
+        resultsTable.setModel(model);
+
+        TableColumnModel columnModel = resultsTable.getColumnModel();
+
+        // Right-justify the home team column so that both home team and away team
+        // are lined-up against the score column.
+        TableColumn homeTeamColumn = columnModel.getColumn(DateResultsTableModel.HOME_TEAM_COLUMN);
+        homeTeamColumn.setCellRenderer(new TableRenderer()
+        {
+
+            @Override
+            public Component getTableCellRendererComponent(JTable table,
+                                                           Object value,
+                                                           boolean isSelected,
+                                                           boolean hasFocus,
+                                                           int row,
+                                                           int column)
+            {
+                JLabel component = (JLabel) super.getTableCellRendererComponent(table,
+                                                                                value,
+                                                                                isSelected,
+                                                                                hasFocus,
+                                                                                row,
+                                                                                column);
+                component.setHorizontalAlignment(JLabel.RIGHT);
+                return component;
+            }
+        });
+
+        homeTeamColumn.setPreferredWidth(160);
+        columnModel.getColumn(DateResultsTableModel.AWAY_TEAM_COLUMN).setPreferredWidth(160);
+        columnModel.getColumn(DateResultsTableModel.SCORE_COLUMN).setPreferredWidth(10);
+    }
+
+
+    private void showTeamResults(TeamResultsTableModel model, String teamName)
+    {
+        resultsTable.setModel(model);
+
+        TableColumnModel columnModel = resultsTable.getColumnModel();
+        columnModel.getColumn(TeamResultsTableModel.DATE_COLUMN).setPreferredWidth(50);
+        columnModel.getColumn(TeamResultsTableModel.OPPOSITION_COLUMN).setPreferredWidth(200);
+        columnModel.getColumn(TeamResultsTableModel.SCORE_COLUMN).setPreferredWidth(10);
+        columnModel.getColumn(TeamResultsTableModel.SCORE_COLUMN).setCellRenderer(new ScoreRenderer(teamName));
+    }
 }
@@ -23,9 +23,7 @@ import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
 import org.jfree.chart.labels.StandardPieToolTipGenerator;
 import org.jfree.chart.plot.PiePlot;
-import org.jfree.data.DefaultKeyedValues;
 import org.jfree.data.general.DefaultPieDataset;
-import org.jfree.data.general.PieDataset;
 
 /**
  * Displays wins, draws and defeats for an individual team as a pie chart.
@@ -33,28 +31,22 @@ import org.jfree.data.general.PieDataset;
  */
 class ResultsPieChart extends ChartPanel
 {
-    private final ResourceBundle messageResources;
-    private final String title;
+    private final String wonKey;
+    private final String drawnKey;
+    private final String lostKey;
+    private final DefaultPieDataset dataSet = new DefaultPieDataset();
 
     public ResultsPieChart(ResourceBundle messageResources,
                            String title)
     {
         super(null, false, false, false, false, true);
-        this.messageResources = messageResources;
-        this.title = title;
-    }
-
-
-    /**
-     * Updates the relative sizes of the pie chart segments.
-     */
-    public void updateGraph(int won, int drawn, int lost)
-    {
-        DefaultKeyedValues values = new DefaultKeyedValues();
-        values.addValue(messageResources.getString("headToHead.won"), won);
-        values.addValue(messageResources.getString("headToHead.drawn"), drawn);
-        values.addValue(messageResources.getString("headToHead.lost"), lost);
-        PieDataset dataSet = new DefaultPieDataset(values);
+        this.wonKey = messageResources.getString("headToHead.won");
+        this.drawnKey = messageResources.getString("headToHead.drawn");
+        this.lostKey = messageResources.getString("headToHead.lost");
+        // Add the segments in a fixed order so that the section colours are consistent.
+        dataSet.setValue(wonKey, 0);
+        dataSet.setValue(drawnKey, 0);
+        dataSet.setValue(lostKey, 0);
 
         JFreeChart chart = ChartFactory.createPieChart(title,
                                                        dataSet,
@@ -72,4 +64,18 @@ class ResultsPieChart extends ChartPanel
         plot.setToolTipGenerator(new StandardPieToolTipGenerator("{0} {1} ({2})"));        
         setChart(chart);
     }
+
+
+    /**
+     * Updates the relative sizes of the pie chart segments.  The chart is only re-drawn
+     * once, after all three values have been changed.
+     */
+    public void updateGraph(int won, int drawn, int lost)
+    {
+        getChart().setNotify(false);
+        dataSet.setValue(wonKey, won);
+        dataSet.setValue(drawnKey, drawn);
+        dataSet.setValue(lostKey, lost);
+        getChart().setNotify(true);
+    }
 }
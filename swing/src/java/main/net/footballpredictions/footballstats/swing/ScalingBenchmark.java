@@ -0,0 +1,170 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.swing;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import org.jfree.chart.ChartFactory;
+import org.jfree.chart.ChartUtilities;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.LogarithmicAxis;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.data.xy.XYSeries;
+import org.jfree.data.xy.XYSeriesCollection;
+import net.footballpredictions.footballstats.data.RLTDataProvider;
+import net.footballpredictions.footballstats.data.SyntheticDataGenerator;
+import net.footballpredictions.footballstats.model.LeagueSeason;
+
+/**
+ * Measures how the time taken to parse RLT data and to build a {@link LeagueSeason}
+ * grows with the size of the league, using leagues created by the
+ * {@link SyntheticDataGenerator}.  The timings are printed as CSV and plotted against the
+ * number of results (on logarithmic axes, so that linear growth is a line with a gradient
+ * of one and quadratic growth a line with a gradient of two).
+ * @author Daniel Dyer
+ */
+public final class ScalingBenchmark
+{
+    private static final int[] TEAM_COUNTS = {10, 20, 50, 100, 200, 500, 1000};
+    private static final int CHART_WIDTH = 800;
+    private static final int CHART_HEIGHT = 600;
+
+    // Small leagues are quick to build, so take the best of several runs to reduce noise.
+    private static final int SMALL_LEAGUE_TEAMS = 200;
+    private static final int SMALL_LEAGUE_RUNS = 5;
+
+    private final int maxTeams;
+    private final int seasons;
+    private final int matchesPerDate;
+
+    /**
+     * @param maxTeams The size of the largest league to measure.
+     * @param seasons The number of seasons of results for each league.
+     * @param matchesPerDate The number of matches on each date, or zero for one round of
+     * matches per date.
+     */
+    public ScalingBenchmark(int maxTeams, int seasons, int matchesPerDate)
+    {
+        this.maxTeams = maxTeams;
+        this.seasons = seasons;
+        this.matchesPerDate = matchesPerDate;
+    }
+
+
+    /**
+     * Runs the benchmark for each league size, printing the results as it goes.
+     * @return A chart of parse and build times against the number of results.
+     */
+    public JFreeChart run() throws IOException
+    {
+        warmUp();
+        XYSeries parseSeries = new XYSeries("Parse");
+        XYSeries buildSeries = new XYSeries("Build");
+        System.out.println("teams,results,dates,parse (ms),build (ms)");
+        for (int teams : TEAM_COUNTS)
+        {
+            if (teams > maxTeams)
+            {
+                break;
+            }
+            SyntheticDataGenerator generator = new SyntheticDataGenerator(teams, seasons, matchesPerDate, teams);
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            generator.write(buffer);
+            byte[] data = buffer.toByteArray();
+
+            int runs = teams <= SMALL_LEAGUE_TEAMS ? SMALL_LEAGUE_RUNS : 1;
+            long parseTime = Long.MAX_VALUE;
+            long buildTime = Long.MAX_VALUE;
+            int dates = 0;
+            for (int i = 0; i < runs; i++)
+            {
+                long startTime = System.nanoTime();
+                RLTDataProvider provider = new RLTDataProvider(new ByteArrayInputStream(data));
+                long parsedTime = System.nanoTime();
+                LeagueSeason season = new LeagueSeason(provider);
+                long builtTime = System.nanoTime();
+                parseTime = Math.min(parseTime, parsedTime - startTime);
+                buildTime = Math.min(buildTime, builtTime - parsedTime);
+                dates = season.getDateCount();
+            }
+            double parseMillis = parseTime / 1000000d;
+            double buildMillis = buildTime / 1000000d;
+            System.out.println(teams + "," + generator.getResultCount() + "," + dates + ","
+                               + parseMillis + "," + buildMillis);
+            parseSeries.add(generator.getResultCount(), parseMillis);
+            buildSeries.add(generator.getResultCount(), buildMillis);
+        }
+
+        XYSeriesCollection dataset = new XYSeriesCollection();
+        dataset.addSeries(parseSeries);
+        dataset.addSeries(buildSeries);
+        JFreeChart chart = ChartFactory.createXYLineChart("Build Time Against League Size",
+                                                          null,
+                                                          null,
+                                                          dataset,
+                                                          PlotOrientation.VERTICAL,
+                                                          true,  // Legend.
+                                                          false, // Tooltips.
+                                                          false); // URLs.
+        XYPlot plot = chart.getXYPlot();
+        plot.setDomainAxis(new LogarithmicAxis("Results"));
+        plot.setRangeAxis(new LogarithmicAxis("Time (ms)"));
+        return chart;
+    }
+
+
+    /**
+     * Builds a small league repeatedly so that the code being measured has been compiled
+     * before the first timings are taken.
+     */
+    private static void warmUp() throws IOException
+    {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        new SyntheticDataGenerator(20, 1, 0, 0).write(buffer);
+        byte[] data = buffer.toByteArray();
+        for (int i = 0; i < 200; i++)
+        {
+            new LeagueSeason(new RLTDataProvider(new ByteArrayInputStream(data)));
+        }
+    }
+
+
+    /**
+     * Entry point for the benchmark.
+     * @param args The file to write the chart (PNG) to and, optionally, the maximum number
+     * of teams (default 1000), the number of seasons (default 1) and the number of matches
+     * per date (default zero, one round of matches per date).
+     */
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length < 1 || args.length > 4)
+        {
+            System.err.println("Usage: java " + ScalingBenchmark.class.getName()
+                               + " <output file> [max teams] [seasons] [matches per date]");
+            System.exit(1);
+        }
+        System.setProperty("java.awt.headless", "true");
+        ScalingBenchmark benchmark = new ScalingBenchmark(args.length > 1 ? Integer.parseInt(args[1]) : 1000,
+                                                          args.length > 2 ? Integer.parseInt(args[2]) : 1,
+                                                          args.length > 3 ? Integer.parseInt(args[3]) : 0);
+        ChartUtilities.saveChartAsPNG(new File(args[0]), benchmark.run(), CHART_WIDTH, CHART_HEIGHT);
+    }
+}
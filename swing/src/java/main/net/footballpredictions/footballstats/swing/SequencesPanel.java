@@ -23,7 +23,6 @@ import java.awt.event.ItemEvent;
 import java.awt.event.ItemListener;
 import java.util.List;
 import java.util.ResourceBundle;
-import java.util.Set;
 import javax.swing.ButtonGroup;
 import javax.swing.JComponent;
 import javax.swing.JLabel;
@@ -57,6 +56,7 @@ public class SequencesPanel extends JPanel implements DataListener
     private EnumComboBox<VenueType> venueCombo;
     private JRadioButton currentOption;
     private JRadioButton longestOption;
+    private final UpdatePipeline pipeline = new UpdatePipeline("Sequences");
 
     /**
      * @param messageResources Internationalised messages for used by the GUI.
@@ -157,15 +157,37 @@ public class SequencesPanel extends JPanel implements DataListener
     }
 
 
+    /**
+     * Updates the teams table in response to a change in the selected options.  The
+     * sequence table is calculated on a background thread.
+     */
     private void updateTeamsTable()
     {
-        SequenceType type = (SequenceType) sequenceTypeCombo.getSelectedItem();
-        VenueType venue = (VenueType) venueCombo.getSelectedItem();
-        boolean current = currentOption.isSelected();
+        final SequenceType type = (SequenceType) sequenceTypeCombo.getSelectedItem();
+        final VenueType venue = (VenueType) venueCombo.getSelectedItem();
+        final boolean current = currentOption.isSelected();
+        final LeagueSeason season = data;
+        pipeline.submit(new UpdatePipeline.Update<SequenceTableModel>()
+        {
+            protected SequenceTableModel prepare()
+            {
+                return new SequenceTableModel(season.getSequenceTable(type, venue, current),
+                                              type,
+                                              current,
+                                              messageResources);
+            }
 
-        // Update teams table.        
-        Set<StandardRecord> teamData = data.getSequenceTable(type, venue, current);
-        teamsTable.setModel(new SequenceTableModel(teamData, type, current, messageResources));
+            protected void display(SequenceTableModel model)
+            {
+                showTeamsTable(model, season);
+            }
+        });
+    }
+
+
+    private void showTeamsTable(SequenceTableModel model, LeagueSeason season)
+    {
+        teamsTable.setModel(model);
         TableColumnModel columnModel = teamsTable.getColumnModel();
         for (int i = 0; i < columnModel.getColumnCount(); i++)
         {
@@ -174,7 +196,7 @@ public class SequencesPanel extends JPanel implements DataListener
             column.setPreferredWidth(i == SequenceTableModel.TEAM_COLUMN ? 125 : 10);
         }
         TableColumn positionColumn = columnModel.getColumn(SequenceTableModel.POSITION_COLUMN);
-        positionColumn.setCellRenderer(new PositionRenderer(data.getMetaData(), false));
+        positionColumn.setCellRenderer(new PositionRenderer(season.getMetaData(), false));
         TableColumn sequenceColumn = columnModel.getColumn(SequenceTableModel.SEQUENCE_COLUMN);
         sequenceColumn.setCellRenderer(new TableRenderer(null, false, true));
         teamsTable.setRowSelectionInterval(0, 0); // Select first row by default.
@@ -0,0 +1,78 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.swing;
+
+import java.util.HashMap;
+import java.util.Map;
+import net.footballpredictions.footballstats.metrics.Counter;
+import net.footballpredictions.footballstats.metrics.MetricRegistry;
+import net.footballpredictions.footballstats.model.LeagueSeason;
+
+/**
+ * Memoises the chart series generated for each team so that changing the selection
+ * in a graph does not require the data for previously-selected teams to be
+ * re-calculated.  Series are only retained for the most recently used season.
+ * Series may be requested from any thread.
+ * @param <S> The type of series (or group of series) that is cached.
+ * @author Daniel Dyer
+ */
+abstract class SeriesCache<S>
+{
+    private static final Counter HITS = MetricRegistry.getInstance().getCounter("cache.series.hits");
+    private static final Counter MISSES = MetricRegistry.getInstance().getCounter("cache.series.misses");
+
+    private final Map<String, S> series = new HashMap<String, S>();
+    private LeagueSeason season = null;
+
+    /**
+     * @param teamName The team to plot.
+     * @param data The season that the team's data comes from.
+     * @return The cached series for the team, which will be created if it has not already
+     * been requested for this season.
+     */
+    public synchronized S getSeries(String teamName, LeagueSeason data)
+    {
+        // Seasons are immutable, so cached series remain valid until the season changes.
+        if (data != season)
+        {
+            series.clear();
+            season = data;
+        }
+        S teamSeries = series.get(teamName);
+        if (teamSeries == null)
+        {
+            MISSES.increment();
+            teamSeries = createSeries(teamName, data);
+            series.put(teamName, teamSeries);
+        }
+        else
+        {
+            HITS.increment();
+        }
+        return teamSeries;
+    }
+
+
+    /**
+     * Generate the series for a team that is not already in the cache.
+     * @param teamName The team to plot.
+     * @param data The season that the team's data comes from.
+     * @return The series for the specified team.
+     */
+    protected abstract S createSeries(String teamName, LeagueSeason data);
+}
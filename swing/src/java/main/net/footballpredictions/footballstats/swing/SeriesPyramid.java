@@ -0,0 +1,157 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.swing;
+
+import java.util.ArrayList;
+import java.util.List;
+import net.footballpredictions.footballstats.util.Downsampler;
+
+/**
+ * A data series for a line graph together with progressively coarser downsampled
+ * versions of it.  The finest level is the full series and each subsequent level has
+ * roughly half as many points as the previous one.  The graph can then pick the level
+ * of detail that matches the space available, so drawing cost stays proportional to
+ * the width of the plot rather than to the amount of data.  Instances are immutable.
+ * @author Daniel Dyer
+ */
+final class SeriesPyramid
+{
+    // Series shorter than this are never downsampled.
+    private static final int MIN_LEVEL_SIZE = 64;
+
+    private final String key;
+    private final double[] x;
+    private final double[] y;
+    private final List<int[]> levels = new ArrayList<int[]>();
+
+    /**
+     * @param key The name of the series.
+     * @param x The x co-ordinates of the points, in ascending order.
+     * @param y The y co-ordinates of the points.
+     */
+    public SeriesPyramid(String key, double[] x, double[] y)
+    {
+        this.key = key;
+        this.x = x;
+        this.y = y;
+        int[] level = Downsampler.downsample(x, y, 0, x.length, x.length);
+        levels.add(level);
+        while (level.length / 2 >= MIN_LEVEL_SIZE)
+        {
+            // Each level is calculated from the full series rather than from the previous
+            // level, so that errors don't accumulate.
+            level = Downsampler.downsample(x, y, 0, x.length, level.length / 2);
+            levels.add(level);
+        }
+    }
+
+
+    public String getKey()
+    {
+        return key;
+    }
+
+
+    public double getX(int index)
+    {
+        return x[index];
+    }
+
+
+    public double getY(int index)
+    {
+        return y[index];
+    }
+
+
+    /**
+     * @return The lowest x value in the series, or NaN if the series is empty.
+     */
+    public double getMinX()
+    {
+        return x.length == 0 ? Double.NaN : x[0];
+    }
+
+
+    /**
+     * @return The highest x value in the series, or NaN if the series is empty.
+     */
+    public double getMaxX()
+    {
+        return x.length == 0 ? Double.NaN : x[x.length - 1];
+    }
+
+
+    /**
+     * Selects the points to draw for a particular view of the graph.  The most detailed
+     * level that has no more than {@code maxPoints} points in the visible range is used.
+     * One point either side of the visible range is included so that lines are drawn
+     * right up to the edges of the plot.
+     * @param lower The lowest visible x value.
+     * @param upper The highest visible x value.
+     * @param maxPoints The maximum number of visible points to draw.
+     * @return The indices of the points to draw, in ascending order.
+     */
+    public int[] getVisiblePoints(double lower, double upper, int maxPoints)
+    {
+        int[] selected = levels.get(levels.size() - 1);
+        int from = 0;
+        int to = selected.length;
+        for (int[] level : levels)
+        {
+            from = Math.max(0, firstAtOrAbove(level, lower) - 1);
+            to = Math.min(level.length, firstAtOrAbove(level, upper) + 1);
+            if (to - from - 2 <= maxPoints || level == selected)
+            {
+                selected = level;
+                break;
+            }
+        }
+        if (from == 0 && to == selected.length)
+        {
+            return selected;
+        }
+        int[] visible = new int[to - from];
+        System.arraycopy(selected, from, visible, 0, visible.length);
+        return visible;
+    }
+
+
+    /**
+     * @return The position in the level of the first point with an x value that is not
+     * less than the specified value.
+     */
+    private int firstAtOrAbove(int[] level, double value)
+    {
+        int low = 0;
+        int high = level.length;
+        while (low < high)
+        {
+            int middle = (low + high) >>> 1;
+            if (x[level[middle]] < value)
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -19,6 +19,8 @@ package net.footballpredictions.footballstats.swing;
 
 import java.util.concurrent.CountDownLatch;
 import javax.swing.SwingUtilities;
+import net.footballpredictions.footballstats.metrics.MetricRegistry;
+import net.footballpredictions.footballstats.metrics.Timer;
 
 /**
  * A task that is executed on a background thread and then updates
@@ -31,6 +33,12 @@ public abstract class SwingBackgroundTask<V>
     // Used to assign thread IDs to make threads easier to identify when debugging.
     private static int instanceCount = 0;
 
+    // Time from execution to the task starting, time spent in the task and time from
+    // the task completing to its results being processed on the Event Dispatch Thread.
+    private static final Timer QUEUE_TIMER = MetricRegistry.getInstance().getTimer("swing.task.queue");
+    private static final Timer RUN_TIMER = MetricRegistry.getInstance().getTimer("swing.task.run");
+    private static final Timer DISPATCH_TIMER = MetricRegistry.getInstance().getTimer("swing.task.dispatch");
+
     private final CountDownLatch latch = new CountDownLatch(1);
     private final int id;
 
@@ -59,17 +67,23 @@ public abstract class SwingBackgroundTask<V>
      */
     public void execute()
     {
+        final long queueStartTime = QUEUE_TIMER.start();
         Runnable task = new Runnable()
         {
             public void run()
             {
+                QUEUE_TIMER.stop(queueStartTime);
                 try
                 {
+                    long runStartTime = RUN_TIMER.start();
                     final V result = performTask();
+                    RUN_TIMER.stop(runStartTime);
+                    final long dispatchStartTime = DISPATCH_TIMER.start();
                     SwingUtilities.invokeLater(new Runnable()
                     {
                         public void run()
                         {
+                            DISPATCH_TIMER.stop(dispatchStartTime);
                             postProcessing(result);
                             latch.countDown();
                         }
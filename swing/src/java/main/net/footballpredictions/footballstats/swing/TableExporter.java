@@ -0,0 +1,208 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.swing;
+
+import java.io.PrintWriter;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import javax.swing.table.TableModel;
+import net.footballpredictions.footballstats.model.Result;
+
+/**
+ * Writes the contents of a {@link TableModel} as an HTML table or as JSON, so that
+ * the same models that are displayed by the GUI can be used for static output.
+ * @author Daniel Dyer
+ */
+final class TableExporter
+{
+    private final TableModel model;
+    private final int[] columns;
+
+    /**
+     * @param model The table data.
+     * @param columns The indices of the model columns to include, in order.
+     */
+    public TableExporter(TableModel model, int[] columns)
+    {
+        this.model = model;
+        this.columns = columns.clone();
+    }
+
+
+    /**
+     * Convenience constructor for including all of the model's columns.
+     */
+    public TableExporter(TableModel model)
+    {
+        this(model, allColumns(model));
+    }
+
+
+    private static int[] allColumns(TableModel model)
+    {
+        int[] columns = new int[model.getColumnCount()];
+        for (int i = 0; i < columns.length; i++)
+        {
+            columns[i] = i;
+        }
+        return columns;
+    }
+
+
+    public void writeHTML(String caption, PrintWriter writer)
+    {
+        writer.println("<table>");
+        writer.print("<caption>");
+        writer.print(escapeHTML(caption));
+        writer.println("</caption>");
+        writer.print("<tr>");
+        for (int column : columns)
+        {
+            writer.print("<th>");
+            writer.print(escapeHTML(model.getColumnName(column)));
+            writer.print("</th>");
+        }
+        writer.println("</tr>");
+        for (int row = 0; row < model.getRowCount(); row++)
+        {
+            writer.print("<tr>");
+            for (int column : columns)
+            {
+                Object value = model.getValueAt(row, column);
+                writer.print(value instanceof Number ? "<td class=\"number\">" : "<td>");
+                writer.print(escapeHTML(format(value)));
+                writer.print("</td>");
+            }
+            writer.println("</tr>");
+        }
+        writer.println("</table>");
+    }
+
+
+    /**
+     * Writes the table as a JSON object with a "columns" array of column names and a
+     * "rows" array, each element of which is an array of cell values.
+     */
+    public void writeJSON(PrintWriter writer)
+    {
+        writer.print("{\"columns\":[");
+        for (int i = 0; i < columns.length; i++)
+        {
+            writer.print(i == 0 ? "" : ",");
+            writer.print(quoteJSON(model.getColumnName(columns[i])));
+        }
+        writer.print("],\"rows\":[");
+        for (int row = 0; row < model.getRowCount(); row++)
+        {
+            writer.print(row == 0 ? "[" : ",[");
+            for (int i = 0; i < columns.length; i++)
+            {
+                writer.print(i == 0 ? "" : ",");
+                Object value = model.getValueAt(row, columns[i]);
+                if (value instanceof Number)
+                {
+                    writer.print(format(value));
+                }
+                else
+                {
+                    writer.print(quoteJSON(format(value)));
+                }
+            }
+            writer.print("]");
+        }
+        writer.print("]}");
+    }
+
+
+    /**
+     * Converts a cell value to text in the same way that the table renderers display it.
+     */
+    private static String format(Object value)
+    {
+        if (value instanceof Double)
+        {
+            // Formats are not thread-safe, so a new one is needed each time.  The decimal
+            // separator is fixed so that the output is valid JSON in any locale.
+            return new DecimalFormat("#0.00", new DecimalFormatSymbols(Locale.ENGLISH)).format(value);
+        }
+        else if (value instanceof Date)
+        {
+            return new SimpleDateFormat("yyyy-MM-dd").format((Date) value);
+        }
+        else if (value instanceof Result)
+        {
+            Result result = (Result) value;
+            return result.getHomeGoals() + " - " + result.getAwayGoals();
+        }
+        return String.valueOf(value);
+    }
+
+
+    static String escapeHTML(String text)
+    {
+        StringBuilder buffer = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++)
+        {
+            char c = text.charAt(i);
+            switch (c)
+            {
+                case '<': buffer.append("&lt;"); break;
+                case '>': buffer.append("&gt;"); break;
+                case '&': buffer.append("&amp;"); break;
+                case '"': buffer.append("&quot;"); break;
+                default: buffer.append(c);
+            }
+        }
+        return buffer.toString();
+    }
+
+
+    static String quoteJSON(String text)
+    {
+        StringBuilder buffer = new StringBuilder(text.length() + 2);
+        buffer.append('"');
+        for (int i = 0; i < text.length(); i++)
+        {
+            char c = text.charAt(i);
+            switch (c)
+            {
+                case '"': buffer.append("\\\""); break;
+                case '\\': buffer.append("\\\\"); break;
+                case '\n': buffer.append("\\n"); break;
+                case '\r': buffer.append("\\r"); break;
+                case '\t': buffer.append("\\t"); break;
+                default:
+                {
+                    if (c < 0x20)
+                    {
+                        buffer.append(String.format("\\u%04x", (int) c));
+                    }
+                    else
+                    {
+                        buffer.append(c);
+                    }
+                }
+            }
+        }
+        buffer.append('"');
+        return buffer.toString();
+    }
+}
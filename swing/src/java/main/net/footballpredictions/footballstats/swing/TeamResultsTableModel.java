@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.ResourceBundle;
 import javax.swing.table.AbstractTableModel;
 import net.footballpredictions.footballstats.model.Result;
+import net.footballpredictions.footballstats.util.EpochDays;
 
 /**
  * {@link javax.swing.table.TableModel} implementation for displaying sets of match
@@ -94,7 +95,7 @@ class TeamResultsTableModel extends AbstractTableModel
         boolean home = teamName.equals(result.getHomeTeam());
         switch (column)
         {
-            case DATE_COLUMN: return result.getDate();
+            case DATE_COLUMN: return EpochDays.toDate(result.getDate());
             case OPPOSITION_COLUMN:
             {
                 String team = home ? result.getAwayTeam() : result.getHomeTeam();
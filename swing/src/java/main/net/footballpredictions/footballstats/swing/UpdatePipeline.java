@@ -0,0 +1,166 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.swing;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.swing.SwingUtilities;
+import net.footballpredictions.footballstats.metrics.Counter;
+import net.footballpredictions.footballstats.metrics.MetricRegistry;
+import net.footballpredictions.footballstats.metrics.Timer;
+
+/**
+ * Prepares the data for a Swing component on a background thread and then hands it
+ * to the Event Dispatch Thread for display.  Requests are processed one at a time,
+ * in the order they are submitted.  If a new request is submitted before an earlier
+ * one has been displayed, the earlier one is abandoned so that the component only
+ * ever shows the data for the most recent selection.
+ * @author Daniel Dyer
+ */
+class UpdatePipeline
+{
+    private static final Timer QUEUE_TIMER = MetricRegistry.getInstance().getTimer("swing.pipeline.queue");
+    private static final Timer PREPARE_TIMER = MetricRegistry.getInstance().getTimer("swing.pipeline.prepare");
+    private static final Timer DISPATCH_TIMER = MetricRegistry.getInstance().getTimer("swing.pipeline.dispatch");
+    private static final Counter DISCARDED = MetricRegistry.getInstance().getCounter("swing.pipeline.discarded");
+
+    private final ExecutorService executor;
+    private final AtomicInteger latestRequest = new AtomicInteger(0);
+
+    /**
+     * @param name Used to identify the pipeline's worker thread when debugging.
+     */
+    public UpdatePipeline(final String name)
+    {
+        this.executor = Executors.newSingleThreadExecutor(new ThreadFactory()
+        {
+            public Thread newThread(Runnable runnable)
+            {
+                Thread thread = new Thread(runnable, "UpdatePipeline-" + name);
+                // Pending updates should not prevent the application from exiting.
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+
+    /**
+     * Asynchronous call that queues an update and returns immediately.  Any
+     * updates that were submitted earlier and have not yet been displayed will
+     * be discarded.  This method should be called from the Event Dispatch Thread
+     * and the update should capture any state that it needs from the GUI before
+     * it is submitted.
+     * @param update The update to perform.
+     */
+    public <V> void submit(final Update<V> update)
+    {
+        final int request = latestRequest.incrementAndGet();
+        final long queueStartTime = QUEUE_TIMER.start();
+        executor.execute(new Runnable()
+        {
+            public void run()
+            {
+                QUEUE_TIMER.stop(queueStartTime);
+                // Don't waste time preparing data that will never be displayed.
+                if (request == latestRequest.get())
+                {
+                    try
+                    {
+                        long prepareStartTime = PREPARE_TIMER.start();
+                        final V snapshot = update.prepare();
+                        PREPARE_TIMER.stop(prepareStartTime);
+                        final long dispatchStartTime = DISPATCH_TIMER.start();
+                        SwingUtilities.invokeLater(new Runnable()
+                        {
+                            public void run()
+                            {
+                                DISPATCH_TIMER.stop(dispatchStartTime);
+                                if (request == latestRequest.get())
+                                {
+                                    update.display(snapshot);
+                                }
+                                else
+                                {
+                                    DISCARDED.increment();
+                                }
+                            }
+                        });
+                    }
+                    catch (final Throwable throwable)
+                    {
+                        SwingUtilities.invokeLater(new Runnable()
+                        {
+                            public void run()
+                            {
+                                if (request == latestRequest.get())
+                                {
+                                    update.onError(throwable);
+                                }
+                            }
+                        });
+                    }
+                }
+                else
+                {
+                    DISCARDED.increment();
+                }
+            }
+        });
+    }
+
+
+    /**
+     * A single request to update a component.
+     * @param <V> The type of data that is prepared for display.  It should not be
+     * modified after it has been handed to the Event Dispatch Thread.
+     */
+    public abstract static class Update<V>
+    {
+        /**
+         * Calculates the data to be displayed.  This method is invoked on a
+         * background thread and therefore should not manipulate any Swing components.
+         * @return The data to display.
+         * @throws Exception If the data cannot be prepared, in which case
+         * {@link #onError(Throwable)} will be invoked instead of {@link #display(Object)}.
+         */
+        protected abstract V prepare() throws Exception;
+
+
+        /**
+         * Updates the GUI.  This method is invoked on the Event Dispatch Thread, but only
+         * if no later update has been submitted to the same pipeline.
+         * @param snapshot The result of the {@link #prepare()} method.
+         */
+        protected abstract void display(V snapshot);
+
+
+        /**
+         * This method is invoked, on the Event Dispatch Thread, if there is an
+         * exception or error executing the {@link #prepare()} method.
+         * @param throwable The exception or error that was thrown.
+         */
+        protected void onError(Throwable throwable)
+        {
+            throwable.printStackTrace();
+            // Over-ride in sub-class.
+        }
+    }
+}
@@ -0,0 +1,134 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.swing;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ResourceBundle;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the {@link BatchExporter} class.
+ * @author Daniel Dyer
+ */
+public class BatchExporterTest
+{
+    private static final File TEST_FILE = new File("./data/england/premier/2008-2009.rlt");
+    private static final File CHANGED_FILE = new File("./data/england/premier/2009-2010.rlt");
+
+    private final ResourceBundle messageResources
+        = ResourceBundle.getBundle("net.footballpredictions.footballstats.messages.fsa");
+    private File outputDirectory;
+
+    @BeforeMethod
+    public void createDirectory() throws IOException
+    {
+        outputDirectory = File.createTempFile("export", "");
+        // Replace the temporary file with a directory of the same name.
+        boolean deleted = outputDirectory.delete();
+        boolean created = deleted && outputDirectory.mkdir();
+        if (!created)
+        {
+            throw new IOException("Could not create output directory " + outputDirectory);
+        }
+    }
+
+
+    @AfterMethod
+    public void deleteDirectory()
+    {
+        delete(outputDirectory);
+    }
+
+
+    private static void delete(File file)
+    {
+        File[] children = file.listFiles();
+        if (children != null)
+        {
+            for (File child : children)
+            {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+
+    @Test
+    public void testExport() throws Exception
+    {
+        BatchExporter exporter = new BatchExporter(outputDirectory, messageResources);
+        exporter.addSeason("England", "Premier League", "2008/09", TEST_FILE.toURI().toURL());
+        int exported = exporter.export(2);
+        assert exported == 1 : "Wrong number of seasons exported: " + exported;
+        File seasonDirectory = new File(outputDirectory, "england/premier-league/2008-09");
+        for (String name : new String[]{"index.html", "season.json", "positions.png", "points.png"})
+        {
+            File file = new File(seasonDirectory, name);
+            assert file.isFile() && file.length() > 0 : "Missing output: " + file;
+        }
+        assert new File(outputDirectory, "index.html").isFile() : "Missing top-level index.";
+    }
+
+
+    /**
+     * Seasons should only be exported again if their data has changed.
+     */
+    @Test
+    public void testSkipUnchanged() throws Exception
+    {
+        BatchExporter exporter = new BatchExporter(outputDirectory, messageResources);
+        exporter.addSeason("England", "Premier League", "2008/09", TEST_FILE.toURI().toURL());
+        exporter.export(1);
+        int exported = exporter.export(1);
+        assert exported == 0 : "Unchanged season should have been skipped.";
+
+        BatchExporter changedExporter = new BatchExporter(outputDirectory, messageResources);
+        changedExporter.addSeason("England", "Premier League", "2008/09", CHANGED_FILE.toURI().toURL());
+        exported = changedExporter.export(1);
+        assert exported == 1 : "Changed season should have been exported.";
+    }
+
+
+    /**
+     * If the output for a season has been removed, it should be exported again even though
+     * the data has not changed.
+     */
+    @Test
+    public void testMissingOutput() throws Exception
+    {
+        BatchExporter exporter = new BatchExporter(outputDirectory, messageResources);
+        exporter.addSeason("England", "Premier League", "2008/09", TEST_FILE.toURI().toURL());
+        exporter.export(1);
+        delete(new File(outputDirectory, "england/premier-league/2008-09"));
+        int exported = exporter.export(1);
+        assert exported == 1 : "Missing season should have been exported again.";
+    }
+
+
+    @Test
+    public void testFileNames()
+    {
+        assert BatchExporter.toFileName("Premier League").equals("premier-league") : "Spaces should be replaced.";
+        assert BatchExporter.toFileName("2009/10").equals("2009-10") : "Separators should be replaced.";
+        assert BatchExporter.toFileName("(All Time)").equals("all-time") : "Leading and trailing separators should be removed.";
+    }
+}
@@ -0,0 +1,109 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.swing;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Map;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the {@link ConfigLoader} class.
+ * @author Daniel Dyer
+ */
+public class ConfigLoaderTest
+{
+    private static final String CONFIG_XML
+        = "<config><league name=\"England\"><division name=\"Premier League\">" +
+          "<season name=\"2008/09\" href=\"data/england/premier/2008-2009.rlt.gz\" />" +
+          "<season name=\"2007/08\" href=\"data/england/premier/2007-2008.rlt.gz\" /></division>" +
+          "<division name=\"Championship\" /></league>" +
+          "<league name=\"Scotland\"><division name=\"Premier League\">" +
+          "<season name=\"2006/07\" href=\"http://example.com/spl.rlt\" /></division></league></config>";
+
+
+    @Test
+    public void testParse() throws IOException
+    {
+        URL baseURL = new URL("http://www.example.com/fsa/");
+        Map<String, Map<String, Map<String, URL>>> leagues
+            = new ConfigLoader(null).load(new ByteArrayInputStream(CONFIG_XML.getBytes("UTF-8")), baseURL);
+        checkConfig(leagues);
+    }
+
+
+    /**
+     * The second load of the same configuration should come from the cache and produce
+     * identical results.  A damaged cache should be ignored and replaced.
+     */
+    @Test
+    public void testCache() throws IOException
+    {
+        File cacheDirectory = File.createTempFile("config", "");
+        cacheDirectory.delete();
+        cacheDirectory.mkdir();
+        try
+        {
+            URL baseURL = new URL("http://www.example.com/fsa/");
+            ConfigLoader loader = new ConfigLoader(cacheDirectory);
+            Map<String, Map<String, Map<String, URL>>> parsed
+                = loader.load(new ByteArrayInputStream(CONFIG_XML.getBytes("UTF-8")), baseURL);
+            File[] cacheFiles = cacheDirectory.listFiles();
+            assert cacheFiles.length == 1 : "Cache file not written: " + cacheFiles.length;
+
+            Map<String, Map<String, Map<String, URL>>> cached
+                = loader.load(new ByteArrayInputStream(CONFIG_XML.getBytes("UTF-8")), baseURL);
+            checkConfig(cached);
+            // Compare as strings because URL.equals performs host name resolution.
+            assert cached.toString().equals(parsed.toString()) : "Cached configuration differs.";
+
+            FileOutputStream output = new FileOutputStream(cacheFiles[0]);
+            output.write(new byte[]{1, 2, 3});
+            output.close();
+            checkConfig(loader.load(new ByteArrayInputStream(CONFIG_XML.getBytes("UTF-8")), baseURL));
+            assert cacheFiles[0].length() > 3 : "Damaged cache file not replaced.";
+        }
+        finally
+        {
+            for (File file : cacheDirectory.listFiles())
+            {
+                file.delete();
+            }
+            cacheDirectory.delete();
+        }
+    }
+
+
+    private void checkConfig(Map<String, Map<String, Map<String, URL>>> leagues)
+    {
+        assert leagues.size() == 2 : "Wrong number of leagues: " + leagues.size();
+        assert leagues.keySet().iterator().next().equals("England") : "Leagues out of order.";
+        Map<String, Map<String, URL>> england = leagues.get("England");
+        assert england.size() == 2 : "Wrong number of divisions: " + england.size();
+        assert england.get("Championship").isEmpty() : "Championship should have no seasons.";
+        Map<String, URL> premier = england.get("Premier League");
+        assert premier.keySet().iterator().next().equals("2008/09") : "Seasons out of order.";
+        assert premier.get("2007/08").toString().equals("http://www.example.com/fsa/data/england/premier/2007-2008.rlt.gz")
+            : "Relative URL not resolved: " + premier.get("2007/08");
+        URL spl = leagues.get("Scotland").get("Premier League").get("2006/07");
+        assert spl.toString().equals("http://example.com/spl.rlt") : "Wrong absolute URL: " + spl;
+    }
+}
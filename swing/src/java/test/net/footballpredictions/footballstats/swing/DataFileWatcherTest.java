@@ -0,0 +1,180 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.swing;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.swing.SwingUtilities;
+import net.footballpredictions.footballstats.data.RLTDataProvider;
+import net.footballpredictions.footballstats.model.LeagueSeason;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the {@link DataFileWatcher} class.
+ * @author Daniel Dyer
+ */
+public class DataFileWatcherTest
+{
+    private static final String TEST_FILE = "./data/england/premier/2008-2009.rlt";
+
+    private final List<String> lines = new ArrayList<String>();
+    private LeagueSeason fullSeason;
+    private File file;
+
+    @BeforeClass
+    public void loadData() throws IOException
+    {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(TEST_FILE), "UTF-8"));
+        try
+        {
+            for (String line = reader.readLine(); line != null; line = reader.readLine())
+            {
+                lines.add(line);
+            }
+        }
+        finally
+        {
+            reader.close();
+        }
+        fullSeason = new LeagueSeason(new RLTDataProvider(new FileInputStream(TEST_FILE)));
+    }
+
+
+    @BeforeMethod
+    public void createFile() throws IOException
+    {
+        file = File.createTempFile("season", ".rlt");
+    }
+
+
+    @AfterMethod
+    public void deleteFile()
+    {
+        file.delete();
+    }
+
+
+    /**
+     * Appending results to the file should result in listeners being notified with an
+     * up-to-date season.
+     */
+    @Test
+    public void testAppendedResults() throws Exception
+    {
+        writeLines(lines.subList(0, 300), false);
+        DataFileWatcher watcher = new DataFileWatcher();
+        LeagueSeason initialSeason = watcher.load(file);
+        assert initialSeason.getMatchCount() < fullSeason.getMatchCount() : "Initial season should be incomplete.";
+        RecordingListener listener = new RecordingListener();
+        watcher.addDataListener(file, listener);
+
+        checkForUpdates(watcher);
+        assert listener.data == null : "Listener should not be notified if nothing has changed.";
+
+        writeLines(lines.subList(300, lines.size()), true);
+        checkForUpdates(watcher);
+        assert listener.data != null : "Listener not notified.";
+        assert listener.data.getMatchCount() == fullSeason.getMatchCount() : "Wrong match count: " + listener.data.getMatchCount();
+        assert listener.data.getSummary().equals(fullSeason.getSummary()) : "Updated season is wrong.";
+        for (String teamName : fullSeason.getTeamNames())
+        {
+            assert listener.data.getTeam(teamName).getLastLeaguePosition() == fullSeason.getTeam(teamName).getLastLeaguePosition()
+                : "Wrong position for " + teamName;
+        }
+    }
+
+
+    /**
+     * Changes other than new results require the whole file to be re-read.
+     */
+    @Test
+    public void testOtherChanges() throws Exception
+    {
+        writeLines(lines, false);
+        DataFileWatcher watcher = new DataFileWatcher();
+        watcher.load(file);
+        RecordingListener listener = new RecordingListener();
+        watcher.addDataListener(file, listener);
+
+        writeLines(lines.subList(0, 1), false);
+        writeLines(Collections.singletonList("DEDUCTED|Arsenal|10"), true);
+        writeLines(lines.subList(1, lines.size()), true);
+        checkForUpdates(watcher);
+        assert listener.data != null : "Listener not notified.";
+        assert listener.data.getMatchCount() == fullSeason.getMatchCount() : "Wrong match count: " + listener.data.getMatchCount();
+        assert listener.data.getPointsAdjustments().get("Arsenal") == -10 : "Points deduction not applied.";
+    }
+
+
+    private void writeLines(List<String> lines, boolean append) throws IOException
+    {
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file, append), "UTF-8");
+        try
+        {
+            for (String line : lines)
+            {
+                writer.write(line);
+                writer.write('\n');
+            }
+        }
+        finally
+        {
+            writer.close();
+        }
+    }
+
+
+    /**
+     * Checks for updates and then waits for any notifications on the Event Dispatch Thread.
+     */
+    private void checkForUpdates(DataFileWatcher watcher) throws InterruptedException, InvocationTargetException
+    {
+        watcher.checkForUpdates();
+        SwingUtilities.invokeAndWait(new Runnable()
+        {
+            public void run()
+            {
+                // Do nothing, just wait for earlier events to be processed.
+            }
+        });
+    }
+
+
+    private static final class RecordingListener implements DataListener
+    {
+        private LeagueSeason data;
+
+        public void setLeagueData(LeagueSeason data)
+        {
+            this.data = data;
+        }
+    }
+}
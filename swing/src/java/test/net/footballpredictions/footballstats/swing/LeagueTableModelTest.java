@@ -0,0 +1,89 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.swing;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ResourceBundle;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+import net.footballpredictions.footballstats.data.RLTDataProvider;
+import net.footballpredictions.footballstats.model.LeagueSeason;
+import net.footballpredictions.footballstats.model.StandardRecord;
+import net.footballpredictions.footballstats.model.VenueType;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link LeagueTableModel}.  Checks that changing the rows of the
+ * model generates the appropriate events.
+ * @author Daniel Dyer
+ */
+public class LeagueTableModelTest
+{
+    private final ResourceBundle messageResources = ResourceBundle.getBundle("net.footballpredictions.footballstats.messages.fsa");
+
+    @Test
+    public void testSetTeams() throws IOException
+    {
+        LeagueSeason season = new LeagueSeason(new RLTDataProvider(new FileInputStream("./data/england/premier/2008-2009.rlt")));
+        List<StandardRecord> overall = new ArrayList<StandardRecord>(season.getStandardLeagueTable(VenueType.BOTH));
+        List<StandardRecord> home = new ArrayList<StandardRecord>(season.getStandardLeagueTable(VenueType.HOME));
+        LeagueTableModel model = new LeagueTableModel(overall, messageResources);
+        final List<TableModelEvent> events = new ArrayList<TableModelEvent>();
+        model.addTableModelListener(new TableModelListener()
+        {
+            public void tableChanged(TableModelEvent event)
+            {
+                events.add(event);
+            }
+        });
+
+        int[] permutation = model.setTeams(home);
+        assert permutation.length == overall.size() : "Wrong permutation length: " + permutation.length;
+        for (int row = 0; row < permutation.length; row++)
+        {
+            assert home.get(permutation[row]).getName().equals(overall.get(row).getName())
+                : "Wrong new row for " + overall.get(row).getName();
+        }
+        assert !events.isEmpty() : "Changed rows should be reported.";
+        for (TableModelEvent event : events)
+        {
+            assert event.getType() == TableModelEvent.UPDATE : "Rows should only be updated.";
+            assert event.getFirstRow() >= 0 && event.getLastRow() < home.size() : "Update should be for specific rows.";
+        }
+
+        // Setting the same table again should not change anything.
+        events.clear();
+        model.setTeams(new ArrayList<StandardRecord>(season.getStandardLeagueTable(VenueType.HOME)));
+        assert events.isEmpty() : "Unchanged rows should not be reported.";
+        for (int row = 0; row < home.size(); row++)
+        {
+            assert model.getValueAt(row, LeagueTableModel.TEAM_COLUMN).equals(home.get(row).getName())
+                : "Wrong team in row " + row;
+        }
+
+        // Changing the number of rows changes the whole table.
+        events.clear();
+        model.setTeams(home.subList(0, 10));
+        assert events.size() == 1 : "Should be a single event.";
+        assert events.get(0).getLastRow() == Integer.MAX_VALUE : "Whole table should have changed.";
+        assert model.getRowCount() == 10 : "Wrong row count: " + model.getRowCount();
+    }
+}
@@ -0,0 +1,101 @@
+// ============================================================================
+//   The Football Statistics Applet (http://fsa.footballpredictions.net)
+//   © Copyright 2000-2010 Daniel W. Dyer
+//
+//   This program is free software: you can redistribute it and/or modify
+//   it under the terms of the GNU General Public License as published by
+//   the Free Software Foundation, either version 3 of the License, or
+//   (at your option) any later version.
+//
+//   This program is distributed in the hope that it will be useful,
+//   but WITHOUT ANY WARRANTY; without even the implied warranty of
+//   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//   GNU General Public License for more details.
+//
+//   You should have received a copy of the GNU General Public License
+//   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+// ============================================================================
+package net.footballpredictions.footballstats.swing;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.swing.SwingUtilities;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link UpdatePipeline}.  Ensures that data is prepared off the
+ * Event Dispatch Thread and that out-of-date requests are not displayed.
+ * @author Daniel Dyer
+ */
+public class UpdatePipelineTest
+{
+    @Test
+    public void testOutdatedRequestsDropped() throws InterruptedException
+    {
+        UpdatePipeline pipeline = new UpdatePipeline("Test");
+        final List<String> prepared = new CopyOnWriteArrayList<String>();
+        final List<String> displayed = new CopyOnWriteArrayList<String>();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch finished = new CountDownLatch(1);
+
+        // The first request blocks the worker until the others have been submitted.
+        pipeline.submit(new TestUpdate("first", prepared, displayed, null)
+        {
+            @Override
+            protected String prepare() throws InterruptedException
+            {
+                started.countDown();
+                release.await();
+                return super.prepare();
+            }
+        });
+        assert started.await(5, TimeUnit.SECONDS) : "First request was not started.";
+        pipeline.submit(new TestUpdate("second", prepared, displayed, null));
+        pipeline.submit(new TestUpdate("third", prepared, displayed, finished));
+        release.countDown();
+
+        assert finished.await(5, TimeUnit.SECONDS) : "Latest request was not displayed.";
+        assert !prepared.contains("second") : "Superseded request should not be prepared.";
+        assert prepared.contains("third") : "Latest request should be prepared.";
+        assert displayed.size() == 1 && displayed.get(0).equals("third") : "Only latest request should be displayed.";
+    }
+
+
+    private static class TestUpdate extends UpdatePipeline.Update<String>
+    {
+        private final String name;
+        private final List<String> prepared;
+        private final List<String> displayed;
+        private final CountDownLatch finished;
+
+        TestUpdate(String name, List<String> prepared, List<String> displayed, CountDownLatch finished)
+        {
+            this.name = name;
+            this.prepared = prepared;
+            this.displayed = displayed;
+            this.finished = finished;
+        }
+
+
+        protected String prepare() throws InterruptedException
+        {
+            assert !SwingUtilities.isEventDispatchThread() : "Should not prepare on EDT.";
+            prepared.add(name);
+            return name;
+        }
+
+
+        protected void display(String snapshot)
+        {
+            assert SwingUtilities.isEventDispatchThread() : "Should display on EDT.";
+            displayed.add(snapshot);
+            if (finished != null)
+            {
+                finished.countDown();
+            }
+        }
+    }
+}